@@ -0,0 +1,112 @@
+package org.axway.grapes.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Benchmark Comparison
+ *
+ * <p>Compares two runs of the benchmarks saved in JMH json format (-rf json -rff file.json), typically the runs of
+ * two commits. For each benchmark and set of parameters, prints the scores of both runs and the change.
+ * A change is flagged when the error margins of the two scores do not overlap.</p>
+ *
+ * <pre>java -cp target/benchmarks.jar org.axway.grapes.benchmarks.BenchmarkComparison baseline.json current.json</pre>
+ *
+ * @author jdcoffre
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+        // main class
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if(args.length != 2){
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json>");
+            System.exit(1);
+        }
+
+        final Map<String, Score> baseline = read(new File(args[0]));
+        final Map<String, Score> current = read(new File(args[1]));
+
+        System.out.println(String.format("%-90s %22s %22s %9s", "Benchmark", "Baseline", "Current", "Change"));
+        for(Map.Entry<String, Score> entry: current.entrySet()){
+            final Score before = baseline.get(entry.getKey());
+            final Score after = entry.getValue();
+
+            if(before == null){
+                System.out.println(String.format("%-90s %22s %22s %9s", entry.getKey(), "-", after, "new"));
+                continue;
+            }
+
+            final double change = (after.value - before.value) / before.value * 100;
+            final boolean significant = Math.abs(after.value - before.value) > after.error + before.error;
+
+            System.out.println(String.format("%-90s %22s %22s %+8.1f%%%s", entry.getKey(), before, after, change,
+                    significant ? " *" : ""));
+        }
+
+        for(String benchmark: baseline.keySet()){
+            if(!current.containsKey(benchmark)){
+                System.out.println(String.format("%-90s %22s %22s %9s", benchmark, baseline.get(benchmark), "-", "removed"));
+            }
+        }
+
+        System.out.println();
+        System.out.println("* the error margins do not overlap. With AverageTime, a positive change is a slow down.");
+    }
+
+    /**
+     * Reads the scores of a run, per benchmark and parameters
+     */
+    private static Map<String, Score> read(final File file) throws IOException {
+        final Map<String, Score> scores = new LinkedHashMap<String, Score>();
+
+        for(JsonNode result: new ObjectMapper().readTree(file)){
+            final StringBuilder sb = new StringBuilder();
+            sb.append(result.get("benchmark").asText().replace(BenchmarkComparison.class.getPackage().getName() + ".", ""));
+
+            final JsonNode params = result.get("params");
+            if(params != null){
+                final Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while(fields.hasNext()){
+                    final Map.Entry<String, JsonNode> param = fields.next();
+                    sb.append(" ");
+                    sb.append(param.getKey());
+                    sb.append("=");
+                    sb.append(param.getValue().asText());
+                }
+            }
+
+            final JsonNode metric = result.get("primaryMetric");
+            scores.put(sb.toString(), new Score(metric.get("score").asDouble(),
+                    metric.get("scoreError").asDouble(), metric.get("scoreUnit").asText()));
+        }
+
+        return scores;
+    }
+
+    private static class Score {
+        private final double value;
+        private final double error;
+        private final String unit;
+
+        private Score(final double value, final double error, final String unit) {
+            this.value = value;
+            // the error of a run with a single iteration is NaN
+            this.error = Double.isNaN(error) ? 0 : error;
+            this.unit = unit;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f +- %.3f %s", value, error, unit);
+        }
+    }
+}
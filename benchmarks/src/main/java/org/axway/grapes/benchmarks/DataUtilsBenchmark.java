@@ -0,0 +1,44 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data Utils Benchmark
+ *
+ * <p>Flattening of the module trees: all the dependencies, artifacts and submodules of the modules.</p>
+ *
+ * @author jdcoffre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DataUtilsBenchmark {
+
+    @Benchmark
+    public void getAllDbDependencies(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbModule module: state.tree.getModules()){
+            blackhole.consume(DataUtils.getAllDbDependencies(module));
+        }
+    }
+
+    @Benchmark
+    public void getAllArtifacts(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbModule module: state.tree.getModules()){
+            blackhole.consume(DataUtils.getAllArtifacts(module));
+        }
+    }
+
+    @Benchmark
+    public void getAllSubmodules(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbModule module: state.tree.getModules()){
+            blackhole.consume(DataUtils.getAllSubmodules(module));
+        }
+    }
+}
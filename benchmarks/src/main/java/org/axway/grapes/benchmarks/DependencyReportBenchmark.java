@@ -0,0 +1,82 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.server.core.reports.DependencyReport;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dependency Report Benchmark
+ *
+ * <p>Builds the dependency report of each module from its mapped dependencies, then reads it row by row
+ * the way the DependencyReport template does.</p>
+ *
+ * @author jdcoffre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DependencyReportBenchmark {
+
+    // the mapped dependencies of each module, submodules included
+    private List<List<Dependency>> moduleDependencies;
+
+    @Setup(Level.Trial)
+    public void setUp(final ModuleTreeState state) {
+        final ModelMapper modelMapper = new ModelMapper(state.tree.getRepositoryHandler());
+        moduleDependencies = new ArrayList<List<Dependency>>();
+
+        for(DbModule module: state.tree.getModules()){
+            final List<Dependency> dependencies = new ArrayList<Dependency>();
+            for(DbDependency dbDependency: DataUtils.getAllDbDependencies(module)){
+                dependencies.add(modelMapper.getDependency(dbDependency,
+                        state.tree.getArtifacts().get(dbDependency.getTarget()), module.getName(), module.getVersion()));
+            }
+            moduleDependencies.add(dependencies);
+        }
+    }
+
+    @Benchmark
+    public void build(final Blackhole blackhole) {
+        for(List<Dependency> dependencies: moduleDependencies){
+            blackhole.consume(buildReport(dependencies));
+        }
+    }
+
+    @Benchmark
+    public void buildAndRender(final Blackhole blackhole) {
+        for(List<Dependency> dependencies: moduleDependencies){
+            final DependencyReport report = buildReport(dependencies);
+
+            for(Artifact target: report.getDependencyTargets()){
+                blackhole.consume(report.getNbEntry(target));
+                blackhole.consume(report.getLastVersion(target));
+                blackhole.consume(report.shouldNotBeUsed(target.getGavc()));
+
+                for(String version: report.getVersions(target)){
+                    blackhole.consume(report.getDependencies(target, version));
+                }
+            }
+        }
+    }
+
+    private DependencyReport buildReport(final List<Dependency> dependencies) {
+        final DependencyReport report = new DependencyReport("benchmark");
+        for(Dependency dependency: dependencies){
+            report.addDependency(dependency, dependency.getTarget().getVersion());
+        }
+        return report;
+    }
+}
@@ -0,0 +1,76 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.options.filters.CorporateFilter;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters Benchmark
+ *
+ * <p>Selection of the dependencies that are part of a report: the corporate filter alone and the full check of
+ * FiltersHolder (corporate / third party decoration and scopes), for all the dependencies of the tree.</p>
+ *
+ * @author jdcoffre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FiltersBenchmark {
+
+    private CorporateFilter corporateFilter;
+    private FiltersHolder corporateReport;
+    private FiltersHolder thirdPartyReport;
+
+    @Setup(Level.Trial)
+    public void setUp(final ModuleTreeState state) {
+        corporateFilter = new CorporateFilter(state.tree.getOrganization());
+
+        corporateReport = new FiltersHolder();
+        corporateReport.setCorporateFilter(corporateFilter);
+        corporateReport.getDecorator().setShowThirdparty(false);
+
+        thirdPartyReport = new FiltersHolder();
+        thirdPartyReport.setCorporateFilter(corporateFilter);
+        thirdPartyReport.getDecorator().setShowCorporate(false);
+        thirdPartyReport.getScopeHandler().setScopeTest(true);
+    }
+
+    @Benchmark
+    public void corporateFilterOnDependencies(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbDependency dependency: state.dependencies){
+            blackhole.consume(corporateFilter.filter(dependency));
+        }
+    }
+
+    @Benchmark
+    public void corporateFilterOnModules(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbModule module: state.tree.getModules()){
+            for(DbModule submodule: DataUtils.getAllSubmodules(module)){
+                blackhole.consume(corporateFilter.filter(submodule));
+            }
+        }
+    }
+
+    @Benchmark
+    public void shouldBeInCorporateReport(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbDependency dependency: state.dependencies){
+            blackhole.consume(corporateReport.shouldBeInReport(dependency));
+        }
+    }
+
+    @Benchmark
+    public void shouldBeInThirdPartyReport(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbDependency dependency: state.dependencies){
+            blackhole.consume(thirdPartyReport.shouldBeInReport(dependency));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.server.core.LicenseHandler;
+import org.axway.grapes.server.core.LicenseMatcher;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * License Benchmark
+ *
+ * <p>Resolution of the license ids declared by the artifacts against the names and regexps of the licenses,
+ * with the compiled licenses and right after an invalidation (a license has been stored).</p>
+ *
+ * @author jdcoffre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class LicenseBenchmark {
+
+    private List<String> licenseIds;
+    private LicenseMatcher licenseMatcher;
+    private LicenseHandler licenseHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SyntheticModuleTree tree = new SyntheticModuleTree(0, 0, 0, 0, 0, 42L);
+        final RepositoryHandler repositoryHandler = tree.getRepositoryHandler();
+
+        licenseIds = tree.getLicenseIds();
+        licenseMatcher = new LicenseMatcher(repositoryHandler);
+        licenseHandler = new LicenseHandler(repositoryHandler, licenseMatcher);
+    }
+
+    @Benchmark
+    public void resolve(final Blackhole blackhole) {
+        for(String licenseId: licenseIds){
+            blackhole.consume(licenseHandler.resolve(licenseId));
+        }
+    }
+
+    @Benchmark
+    public void resolveAfterInvalidation(final Blackhole blackhole) {
+        licenseMatcher.invalidate();
+        for(String licenseId: licenseIds){
+            blackhole.consume(licenseHandler.resolve(licenseId));
+        }
+    }
+}
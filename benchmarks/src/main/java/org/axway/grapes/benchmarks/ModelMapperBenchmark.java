@@ -0,0 +1,53 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model Mapper Benchmark
+ *
+ * <p>Transformation of the modules from the database model to the client/server model, with the artifacts already
+ * read in batch and with the artifacts read one by one from the repository handler (an in memory one here, so only
+ * the cost of the mapping and of the lookups is measured).</p>
+ *
+ * @author jdcoffre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ModelMapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private Map<String, DbArtifact> artifacts;
+
+    @Setup(Level.Trial)
+    public void setUp(final ModuleTreeState state) {
+        modelMapper = new ModelMapper(state.tree.getRepositoryHandler());
+        artifacts = state.tree.getArtifacts();
+    }
+
+    @Benchmark
+    public void getModuleWithReadArtifacts(final ModuleTreeState state, final Blackhole blackhole) {
+        for(DbModule module: state.tree.getModules()){
+            blackhole.consume(modelMapper.getModule(module, artifacts));
+        }
+    }
+
+    @Benchmark
+    public void getModuleReadingArtifacts(final ModuleTreeState state, final Blackhole blackhole) {
+        final Map<String, DbArtifact> noArtifacts = Collections.emptyMap();
+        for(DbModule module: state.tree.getModules()){
+            blackhole.consume(modelMapper.getModule(module, noArtifacts));
+        }
+    }
+}
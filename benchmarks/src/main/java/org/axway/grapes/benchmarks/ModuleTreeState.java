@@ -0,0 +1,55 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Module Tree State
+ *
+ * <p>Synthetic module tree shared by the benchmarks of a fork. Its size is set with the JMH parameters, for instance
+ * -p submoduleDepth=4 to benchmark large modules.</p>
+ *
+ * @author jdcoffre
+ */
+@State(Scope.Benchmark)
+public class ModuleTreeState {
+
+    @Param({"100"})
+    public int moduleCount;
+
+    @Param({"5"})
+    public int artifactsPerModule;
+
+    @Param({"20"})
+    public int dependenciesPerModule;
+
+    @Param({"1", "3"})
+    public int submoduleDepth;
+
+    @Param({"0.5"})
+    public double corporateRatio;
+
+    public SyntheticModuleTree tree;
+
+    // all the dependencies of the tree, submodules included
+    public List<DbDependency> dependencies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tree = new SyntheticModuleTree(moduleCount, artifactsPerModule, dependenciesPerModule, submoduleDepth, corporateRatio, 42L);
+
+        dependencies = new ArrayList<DbDependency>();
+        for(DbModule module: tree.getModules()){
+            dependencies.addAll(DataUtils.getAllDbDependencies(module));
+        }
+    }
+}
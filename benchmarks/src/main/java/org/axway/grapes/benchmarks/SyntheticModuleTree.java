@@ -0,0 +1,256 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+/**
+ * Synthetic Module Tree
+ *
+ * <p>Generates the database model of a corporate production: modules made of submodules down to a given depth,
+ * each (sub)module holding its own artifacts and depending on artifacts of the modules built before it and on
+ * third party artifacts. The third party artifacts are declared with license ids written the way the build tools
+ * report them, so that they have to be resolved against the regexps of the licenses.</p>
+ *
+ * <p>The tree only depends on its parameters and its seed: two runs of a benchmark work on the same data.</p>
+ *
+ * @author jdcoffre
+ */
+public class SyntheticModuleTree {
+
+    public static final String ORGANIZATION = "benchmark";
+    public static final String CORPORATE_GROUP_ID = "org.axway.benchmark";
+    public static final String THIRD_PARTY_GROUP_ID = "com.thirdparty";
+
+    // number of third party artifacts the modules pick their dependencies from
+    private static final int THIRD_PARTY_ARTIFACTS = 500;
+
+    private static final Scope[] SCOPES = {Scope.COMPILE, Scope.COMPILE, Scope.RUNTIME, Scope.PROVIDED, Scope.TEST};
+
+    // license ids as they are found in the poms, matched by the regexps below
+    private static final String[] LICENSE_IDS = {
+            "Apache 2", "Apache License, Version 2.0", "The Apache Software License, Version 2.0",
+            "MIT", "MIT License", "BSD", "New BSD License", "GNU Lesser General Public License",
+            "LGPL 2.1", "GPLv3", "Eclipse Public License - v 1.0", "CDDL-1.1", "Proprietary 12"
+    };
+
+    private final Random random;
+    private final List<DbModule> modules = new ArrayList<DbModule>();
+    private final List<DbArtifact> corporateArtifacts = new ArrayList<DbArtifact>();
+    private final List<DbArtifact> thirdPartyArtifacts = new ArrayList<DbArtifact>();
+    private final Map<String, DbArtifact> artifacts = new HashMap<String, DbArtifact>();
+    private final List<DbLicense> licenses = new ArrayList<DbLicense>();
+    private final DbOrganization organization = new DbOrganization();
+
+    /**
+     * @param moduleCount int number of root modules
+     * @param artifactsPerModule int number of artifacts of each module and submodule
+     * @param dependenciesPerModule int number of dependencies of each module and submodule
+     * @param submoduleDepth int depth of the submodule tree of each module, a module has two submodules per level
+     * @param corporateRatio double part of the dependencies that target corporate artifacts, between 0 and 1
+     * @param seed long
+     */
+    public SyntheticModuleTree(final int moduleCount, final int artifactsPerModule, final int dependenciesPerModule,
+                               final int submoduleDepth, final double corporateRatio, final long seed) {
+        this.random = new Random(seed);
+
+        organization.setName(ORGANIZATION);
+        organization.setCorporateGroupIdPrefixes(Collections.singletonList(CORPORATE_GROUP_ID));
+
+        createLicenses();
+        createThirdPartyArtifacts();
+
+        for(int i = 0; i < moduleCount; i++){
+            final DbModule module = createModule("module-" + i, getVersion(i), artifactsPerModule,
+                    dependenciesPerModule, submoduleDepth, corporateRatio);
+            module.setOrganization(ORGANIZATION);
+            modules.add(module);
+        }
+    }
+
+    private void createLicenses() {
+        licenses.add(createLicense("Apache-2.0", "(.*)(Apache|APACHE)(.*)2(.*)"));
+        licenses.add(createLicense("MIT", "(.*)MIT(.*)"));
+        licenses.add(createLicense("BSD", "(.*)BSD(.*)"));
+        licenses.add(createLicense("LGPL", "(.*)(Lesser|LGPL)(.*)"));
+        licenses.add(createLicense("GPLv3", "GPL(.*)3(.*)"));
+        licenses.add(createLicense("EPL-1.0", "(.*)Eclipse Public License(.*)1(.*)"));
+        licenses.add(createLicense("CDDL-1.1", ""));
+        for(int i = 0; i < 40; i++){
+            licenses.add(createLicense("Proprietary-" + i, "(.*)Proprietary " + i + "(.*)"));
+        }
+    }
+
+    private static DbLicense createLicense(final String name, final String regexp) {
+        final DbLicense license = new DbLicense();
+        license.setName(name);
+        license.setLongName(name + " license");
+        license.setRegexp(regexp);
+        license.setApproved(true);
+        return license;
+    }
+
+    private void createThirdPartyArtifacts() {
+        for(int i = 0; i < THIRD_PARTY_ARTIFACTS; i++){
+            final DbArtifact artifact = createArtifact(THIRD_PARTY_GROUP_ID + ".lib" + (i % 50), "library-" + i, getVersion(i));
+            artifact.addLicense(LICENSE_IDS[i % LICENSE_IDS.length]);
+            thirdPartyArtifacts.add(artifact);
+        }
+    }
+
+    private DbModule createModule(final String name, final String version, final int artifactCount,
+                                  final int dependencyCount, final int depth, final double corporateRatio) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion(version);
+        module.setPromoted(random.nextBoolean());
+
+        // the dependencies target the artifacts built before the ones of this module
+        final int availableCorporateArtifacts = corporateArtifacts.size();
+        for(int i = 0; i < dependencyCount; i++){
+            final DbArtifact target;
+            if(availableCorporateArtifacts > 0 && random.nextDouble() < corporateRatio){
+                target = corporateArtifacts.get(random.nextInt(availableCorporateArtifacts));
+            }
+            else{
+                target = thirdPartyArtifacts.get(random.nextInt(thirdPartyArtifacts.size()));
+            }
+            module.addDependency(target.getGavc(), SCOPES[i % SCOPES.length]);
+        }
+
+        for(int i = 0; i < artifactCount; i++){
+            final DbArtifact artifact = createArtifact(CORPORATE_GROUP_ID + "." + name.replace('-', '.'), name + "-artifact-" + i, version);
+            artifact.setPromoted(module.isPromoted());
+            corporateArtifacts.add(artifact);
+            module.addArtifact(artifact);
+        }
+
+        if(depth > 0){
+            for(int i = 0; i < 2; i++){
+                final DbModule submodule = createModule(name + "-" + i, version, artifactCount, dependencyCount, depth - 1, corporateRatio);
+                submodule.setSubmodule(true);
+                module.addSubmodule(submodule);
+            }
+        }
+
+        return module;
+    }
+
+    private DbArtifact createArtifact(final String groupId, final String artifactId, final String version) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(groupId);
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion(version);
+        artifact.setExtension("jar");
+        artifact.setType("jar");
+        artifacts.put(artifact.getGavc(), artifact);
+        return artifact;
+    }
+
+    /**
+     * Version of the Axway conventions: 1.2.3, 1.2.3-4, 1.2.3-4-5 for a branch, or a snapshot of them
+     */
+    private String getVersion(final int index) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(index % 5);
+        sb.append(".");
+        sb.append(index % 13);
+        sb.append(".");
+        sb.append(index % 7);
+
+        switch (index % 4){
+            case 1:
+                sb.append("-");
+                sb.append(index % 11);
+                break;
+            case 2:
+                sb.append("-");
+                sb.append(1 + index % 3);
+                sb.append("-");
+                sb.append(index % 9);
+                break;
+            case 3:
+                sb.append("-SNAPSHOT");
+                break;
+            default:
+                break;
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Generates the versions of an artifact, in the order they would have been stored.
+     * The versions do not include branch versions, they cannot be compared with the others.
+     *
+     * @param count int
+     * @return List<String>
+     */
+    public List<String> getVersions(final int count) {
+        final List<String> versions = new ArrayList<String>(count);
+        for(int i = 0; i < count; i++){
+            int index = random.nextInt(10000);
+            if(index % 4 == 2){
+                index++;
+            }
+            versions.add(getVersion(index));
+        }
+        return versions;
+    }
+
+    /**
+     * Returns the license ids that the third party artifacts declare
+     *
+     * @return List<String>
+     */
+    public List<String> getLicenseIds() {
+        return Arrays.asList(LICENSE_IDS);
+    }
+
+    public List<DbModule> getModules() {
+        return modules;
+    }
+
+    public Map<String, DbArtifact> getArtifacts() {
+        return artifacts;
+    }
+
+    public List<DbLicense> getLicenses() {
+        return licenses;
+    }
+
+    public DbOrganization getOrganization() {
+        return organization;
+    }
+
+    /**
+     * Returns a read only repository handler that serves the artifacts and the licenses of the tree.
+     * The other methods are not needed by the benchmarks, they throw UnsupportedOperationException.
+     *
+     * @return RepositoryHandler
+     */
+    public RepositoryHandler getRepositoryHandler() {
+        return (RepositoryHandler) Proxy.newProxyInstance(RepositoryHandler.class.getClassLoader(),
+                new Class<?>[]{RepositoryHandler.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if("getAllLicenses".equals(method.getName())){
+                            return new ArrayList<DbLicense>(licenses);
+                        }
+                        if("getArtifact".equals(method.getName())){
+                            return artifacts.get(args[0]);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
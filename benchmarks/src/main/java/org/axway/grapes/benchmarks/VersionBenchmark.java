@@ -0,0 +1,74 @@
+package org.axway.grapes.benchmarks;
+
+import org.axway.grapes.server.core.VersionsHandler;
+import org.axway.grapes.server.core.version.IncomparableException;
+import org.axway.grapes.server.core.version.NotHandledVersionException;
+import org.axway.grapes.server.core.version.Version;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version Benchmark
+ *
+ * <p>Parsing and comparison of versions, and the search of the last release among the versions of an artifact.</p>
+ *
+ * @author jdcoffre
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VersionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int versionCount;
+
+    private List<String> versions;
+    private List<Version> parsedVersions;
+    private VersionsHandler versionsHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NotHandledVersionException {
+        versions = new SyntheticModuleTree(0, 0, 0, 0, 0, 42L).getVersions(versionCount);
+
+        parsedVersions = new ArrayList<Version>(versions.size());
+        for(String version: versions){
+            parsedVersions.add(new Version(version));
+        }
+
+        // the versions are given to the handler, it does not read the database
+        versionsHandler = new VersionsHandler(null);
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) throws NotHandledVersionException {
+        for(String version: versions){
+            blackhole.consume(new Version(version));
+        }
+    }
+
+    @Benchmark
+    public void parseCached(final Blackhole blackhole) throws NotHandledVersionException {
+        for(String version: versions){
+            blackhole.consume(Version.valueOf(version));
+        }
+    }
+
+    @Benchmark
+    public void compare(final Blackhole blackhole) throws IncomparableException {
+        for(int i = 1; i < parsedVersions.size(); i++){
+            blackhole.consume(parsedVersions.get(i - 1).compare(parsedVersions.get(i)));
+        }
+    }
+
+    @Benchmark
+    public String lastRelease() throws NotHandledVersionException, IncomparableException {
+        return versionsHandler.getLastRelease(versions);
+    }
+}
@@ -0,0 +1,74 @@
+package org.axway.grapes.benchmarks.catalog;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.License;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.commons.datamodel.Organization;
+import org.axway.grapes.commons.utils.ModuleUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Catalog
+ *
+ * <p>Synthetic content of a Grapes server, in the client data model: the licenses, the organization that owns the
+ * corporate modules, the third party artifacts and all the versions of the corporate modules.</p>
+ *
+ * @author jdcoffre
+ */
+public class Catalog {
+
+    private final Organization organization;
+    private final List<License> licenses;
+    private final List<Artifact> thirdPartyArtifacts;
+    private final List<Module> modules;
+
+    public Catalog(final Organization organization, final List<License> licenses,
+                   final List<Artifact> thirdPartyArtifacts, final List<Module> modules) {
+        this.organization = organization;
+        this.licenses = licenses;
+        this.thirdPartyArtifacts = thirdPartyArtifacts;
+        this.modules = modules;
+    }
+
+    public Organization getOrganization() {
+        return organization;
+    }
+
+    public List<License> getLicenses() {
+        return licenses;
+    }
+
+    public List<Artifact> getThirdPartyArtifacts() {
+        return thirdPartyArtifacts;
+    }
+
+    /**
+     * Returns the root modules, all their versions
+     *
+     * @return List<Module>
+     */
+    public List<Module> getModules() {
+        return modules;
+    }
+
+    /**
+     * Returns the artifacts of the modules and of their submodules
+     *
+     * @return List<Artifact>
+     */
+    public List<Artifact> getCorporateArtifacts() {
+        final List<Artifact> artifacts = new ArrayList<Artifact>();
+        for(Module module: modules){
+            artifacts.addAll(ModuleUtils.getAllArtifacts(module));
+        }
+        return artifacts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d licenses, %d modules, %d corporate artifacts, %d third party artifacts",
+                licenses.size(), modules.size(), getCorporateArtifacts().size(), thirdPartyArtifacts.size());
+    }
+}
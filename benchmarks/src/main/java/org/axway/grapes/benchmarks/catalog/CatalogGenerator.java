@@ -0,0 +1,211 @@
+package org.axway.grapes.benchmarks.catalog;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.commons.datamodel.License;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.commons.datamodel.Organization;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.commons.utils.ModuleUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Catalog Generator
+ *
+ * <p>Generates a synthetic catalog from its settings. The root modules are spread over layers: the modules of a layer
+ * depend on the artifacts of the modules of the previous layer and on third party artifacts, so the depth of the
+ * corporate dependency graph is the number of layers. Each version of a module is a separate module, the last
+ * version is the only one that is not promoted.</p>
+ *
+ * <p>The third party artifacts declare their licenses the way the build tools report them, to be resolved against
+ * the regexps of the licenses. Some of them have no license, or a license that matches none of the known ones.</p>
+ *
+ * <p>The catalog only depends on the settings: two generators with the same settings produce the same catalog.</p>
+ *
+ * @author jdcoffre
+ */
+public class CatalogGenerator {
+
+    public static final String ORGANIZATION = "synthetic";
+    public static final String CORPORATE_GROUP_ID = "org.axway.synthetic";
+    public static final String THIRD_PARTY_GROUP_ID = "com.thirdparty";
+    public static final String INGEST_MODULE = "ingest";
+
+    private static final Scope[] SCOPES = {Scope.COMPILE, Scope.COMPILE, Scope.RUNTIME, Scope.PROVIDED, Scope.TEST};
+
+    // name, regexp and the ids found in the poms for the well known licenses
+    private static final String[][] WELL_KNOWN_LICENSES = {
+            {"Apache-2.0", "(.*)(Apache|APACHE)(.*)2(.*)", "Apache 2", "Apache License, Version 2.0", "The Apache Software License, Version 2.0"},
+            {"MIT", "(.*)MIT(.*)", "MIT", "MIT License"},
+            {"BSD", "(.*)BSD(.*)", "BSD", "New BSD License"},
+            {"LGPL", "(.*)(Lesser|LGPL)(.*)", "GNU Lesser General Public License", "LGPL 2.1"},
+            {"GPLv3", "GPL(.*)3(.*)", "GPLv3"},
+            {"EPL-1.0", "(.*)Eclipse Public License(.*)1(.*)", "Eclipse Public License - v 1.0"},
+            {"CDDL-1.1", "(.*)CDDL(.*)", "CDDL-1.1", "CDDL 1.1"}
+    };
+
+    private final CatalogSettings settings;
+    private Random random;
+
+    private final List<String> licenseIds = new ArrayList<String>();
+    private final List<Artifact> thirdPartyArtifacts = new ArrayList<Artifact>();
+    // artifacts of all the versions of the modules of each layer
+    private final List<List<Artifact>> layerArtifacts = new ArrayList<List<Artifact>>();
+    private final List<Artifact> corporateArtifacts = new ArrayList<Artifact>();
+
+    public CatalogGenerator(final CatalogSettings settings) {
+        if(settings.getModuleCount() < 1 || settings.getVersionsPerModule() < 1 || settings.getLayers() < 1){
+            throw new IllegalArgumentException("The catalog needs at least one module, one version and one layer.");
+        }
+        this.settings = settings;
+    }
+
+    /**
+     * Generates the catalog
+     *
+     * @return Catalog
+     */
+    public synchronized Catalog generate() {
+        random = new Random(settings.getSeed());
+        licenseIds.clear();
+        thirdPartyArtifacts.clear();
+        layerArtifacts.clear();
+        corporateArtifacts.clear();
+
+        final Organization organization = DataModelFactory.createOrganization(ORGANIZATION);
+        organization.getCorporateGroupIdPrefixes().add(CORPORATE_GROUP_ID);
+
+        final List<License> licenses = createLicenses();
+        createThirdPartyArtifacts();
+
+        final List<Module> modules = new ArrayList<Module>();
+        for(int layer = 0; layer < settings.getLayers(); layer++){
+            layerArtifacts.add(new ArrayList<Artifact>());
+        }
+
+        for(int i = 0; i < settings.getModuleCount(); i++){
+            final int layer = (int) ((long) i * settings.getLayers() / settings.getModuleCount());
+            final List<Artifact> targets = layer == 0 ? new ArrayList<Artifact>() : layerArtifacts.get(layer - 1);
+
+            for(int v = 0; v < settings.getVersionsPerModule(); v++){
+                final Module module = createModule("module-" + i, getModuleVersion(v), settings.getSubmoduleDepth(), targets);
+                module.setPromoted(v < settings.getVersionsPerModule() - 1);
+                layerArtifacts.get(layer).addAll(ModuleUtils.getAllArtifacts(module));
+                modules.add(module);
+            }
+        }
+
+        for(List<Artifact> artifacts: layerArtifacts){
+            corporateArtifacts.addAll(artifacts);
+        }
+
+        return new Catalog(organization, licenses, new ArrayList<Artifact>(thirdPartyArtifacts), modules);
+    }
+
+    /**
+     * Creates a module that is not part of the catalog, shaped like the modules of the catalog, that depends on the
+     * artifacts of the catalog. It is used to ingest new modules into a server that holds the catalog.
+     *
+     * @param index int makes the module unique
+     * @return Module
+     */
+    public synchronized Module createIngestModule(final int index) {
+        if(random == null){
+            throw new IllegalStateException("The catalog has not been generated.");
+        }
+        return createModule(INGEST_MODULE + "-" + index, getModuleVersion(0), settings.getSubmoduleDepth(), corporateArtifacts);
+    }
+
+    private List<License> createLicenses() {
+        final List<License> licenses = new ArrayList<License>();
+
+        for(int i = 0; i < settings.getLicenseCount(); i++){
+            final License license;
+            if(i < WELL_KNOWN_LICENSES.length){
+                final String[] definition = WELL_KNOWN_LICENSES[i];
+                license = createLicense(definition[0], definition[1]);
+                for(int j = 2; j < definition.length; j++){
+                    licenseIds.add(definition[j]);
+                }
+            }
+            else{
+                license = createLicense("Proprietary-" + i, "(.*)Proprietary " + i);
+                licenseIds.add("Proprietary " + i);
+            }
+            licenses.add(license);
+        }
+
+        return licenses;
+    }
+
+    private License createLicense(final String name, final String regexp) {
+        final License license = DataModelFactory.createLicense(name, name + " license", null, regexp, "http://" + name.toLowerCase() + ".org");
+        license.setApproved(random.nextDouble() < 0.8);
+        return license;
+    }
+
+    private void createThirdPartyArtifacts() {
+        for(int i = 0; i < settings.getThirdPartyCount(); i++){
+            final String groupId = THIRD_PARTY_GROUP_ID + ".lib" + (i % 50);
+            final String licenseId = getThirdPartyLicenseId(i);
+
+            for(int v = 0; v < settings.getThirdPartyVersions(); v++){
+                final Artifact artifact = DataModelFactory.createArtifact(groupId, "library-" + i,
+                        String.format("%d.%d.%d", 1 + i % 4, v, i % 7), null, "jar", "jar");
+                if(licenseId != null){
+                    artifact.addLicense(licenseId);
+                }
+                thirdPartyArtifacts.add(artifact);
+            }
+        }
+    }
+
+    private String getThirdPartyLicenseId(final int index) {
+        final double draw = random.nextDouble();
+        if(licenseIds.isEmpty() || draw < settings.getUnlicensedRatio()){
+            return null;
+        }
+        if(draw < settings.getUnlicensedRatio() + settings.getUnknownLicenseRatio()){
+            return "Custom license " + index;
+        }
+        return licenseIds.get(random.nextInt(licenseIds.size()));
+    }
+
+    private Module createModule(final String name, final String version, final int depth, final List<Artifact> corporateTargets) {
+        final Module module = DataModelFactory.createModule(name, version);
+
+        for(int i = 0; i < settings.getArtifactsPerModule(); i++){
+            module.addArtifact(DataModelFactory.createArtifact(CORPORATE_GROUP_ID + "." + name.replace('-', '.'),
+                    name + "-" + i, version, null, "jar", "jar"));
+        }
+
+        for(int i = 0; i < settings.getFanOut(); i++){
+            final Artifact target;
+            if(!corporateTargets.isEmpty() && random.nextDouble() < settings.getCorporateRatio()){
+                target = corporateTargets.get(random.nextInt(corporateTargets.size()));
+            }
+            else if(!thirdPartyArtifacts.isEmpty()){
+                target = thirdPartyArtifacts.get(random.nextInt(thirdPartyArtifacts.size()));
+            }
+            else{
+                continue;
+            }
+            module.addDependency(DataModelFactory.createDependency(target, SCOPES[i % SCOPES.length]));
+        }
+
+        if(depth > 0){
+            for(int i = 0; i < settings.getSubmodulesPerModule(); i++){
+                module.addSubmodule(createModule(name + "-" + i, version, depth - 1, corporateTargets));
+            }
+        }
+
+        return module;
+    }
+
+    private static String getModuleVersion(final int index) {
+        return "1." + index + ".0";
+    }
+}
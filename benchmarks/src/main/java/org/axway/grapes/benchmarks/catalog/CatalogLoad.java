@@ -0,0 +1,100 @@
+package org.axway.grapes.benchmarks.catalog;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.yammer.dropwizard.config.ConfigurationFactory;
+import com.yammer.dropwizard.validation.Validator;
+import org.axway.grapes.server.DbResolver;
+import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.utils.client.GrapesClient;
+
+import java.io.File;
+
+/**
+ * Catalog Load
+ *
+ * <p>Generates a synthetic catalog and loads it into a Grapes server, either through the REST API of a running server,
+ * or directly into the database described by the configuration file of a server.</p>
+ *
+ * <pre>java -cp target/benchmarks.jar org.axway.grapes.benchmarks.catalog.CatalogLoad --host localhost --port 8080 --modules 2000
+ * java -cp target/benchmarks.jar org.axway.grapes.benchmarks.catalog.CatalogLoad --config server-conf.yml --modules 2000</pre>
+ *
+ * @author jdcoffre
+ */
+public final class CatalogLoad {
+
+    @Parameter(names = "--config", description = "Configuration file of the server, to load the catalog directly into its database")
+    private String config;
+
+    @Parameter(names = "--host", description = "Host of the server, to load the catalog through the REST API")
+    private String host = "localhost";
+
+    @Parameter(names = "--port", description = "Port of the server")
+    private String port = "8080";
+
+    @Parameter(names = "--user", description = "User with the DATA_UPDATER and DEPENDENCY_NOTIFIER roles")
+    private String user;
+
+    @Parameter(names = "--password", description = "Password of the user")
+    private String password;
+
+    @Parameter(names = "--batch", description = "Number of artifacts or modules sent at once")
+    private int batchSize = 100;
+
+    @Parameter(names = "--help", help = true, description = "Prints the usage")
+    private boolean help;
+
+    private CatalogLoad() {
+        // main class
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final CatalogLoad load = new CatalogLoad();
+        final CatalogSettings settings = new CatalogSettings();
+
+        final JCommander commander = new JCommander();
+        commander.setProgramName(CatalogLoad.class.getSimpleName());
+        commander.addObject(load);
+        commander.addObject(settings);
+        commander.parse(args);
+
+        if(load.help){
+            commander.usage();
+            return;
+        }
+
+        final Catalog catalog = new CatalogGenerator(settings).generate();
+        System.out.println("Generated " + catalog + " (" + settings + ")");
+
+        final long start = System.currentTimeMillis();
+        if(load.config != null){
+            load.loadIntoDatabase(catalog);
+        }
+        else{
+            load.loadThroughRest(catalog);
+        }
+        System.out.println(String.format("Loaded in %.1fs", (System.currentTimeMillis() - start) / 1000.0));
+    }
+
+    private void loadIntoDatabase(final Catalog catalog) throws Exception {
+        final GrapesServerConfig serverConfig = ConfigurationFactory.forClass(GrapesServerConfig.class, new Validator())
+                .build(new File(config));
+        final RepositoryHandler repositoryHandler = DbResolver.getNewRepoHandler(serverConfig);
+
+        new RepositoryCatalogLoader(repositoryHandler, batchSize).load(catalog);
+    }
+
+    private void loadThroughRest(final Catalog catalog) throws Exception {
+        final GrapesClient client = new GrapesClient(host, port);
+        try {
+            final int rejected = new RestCatalogLoader(client, user, password, batchSize).load(catalog);
+            if(rejected > 0){
+                System.out.println(rejected + " artifacts or modules have been rejected by the server.");
+            }
+        }
+        finally {
+            client.close();
+        }
+    }
+}
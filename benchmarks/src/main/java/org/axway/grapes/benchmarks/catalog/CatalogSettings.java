@@ -0,0 +1,177 @@
+package org.axway.grapes.benchmarks.catalog;
+
+import com.beust.jcommander.Parameter;
+
+/**
+ * Catalog Settings
+ *
+ * <p>Size and shape of a synthetic catalog. The settings are also the command line options of the tools that generate
+ * a catalog: two runs with the same settings work on the same data.</p>
+ *
+ * @author jdcoffre
+ */
+public class CatalogSettings {
+
+    @Parameter(names = "--modules", description = "Number of root modules")
+    private int moduleCount = 500;
+
+    @Parameter(names = "--versions", description = "Number of versions of each module")
+    private int versionsPerModule = 3;
+
+    @Parameter(names = "--artifacts", description = "Number of artifacts of each module and submodule")
+    private int artifactsPerModule = 3;
+
+    @Parameter(names = "--submodules", description = "Number of submodules of each module, at each level")
+    private int submodulesPerModule = 2;
+
+    @Parameter(names = "--depth", description = "Depth of the submodule tree of each module")
+    private int submoduleDepth = 1;
+
+    @Parameter(names = "--fan-out", description = "Number of dependencies of each module and submodule")
+    private int fanOut = 10;
+
+    @Parameter(names = "--layers", description = "Depth of the corporate dependency graph, the modules of a layer depend on the modules of the previous one")
+    private int layers = 5;
+
+    @Parameter(names = "--corporate-ratio", description = "Part of the dependencies that target corporate artifacts, between 0 and 1")
+    private double corporateRatio = 0.5;
+
+    @Parameter(names = "--third-party", description = "Number of third party artifacts")
+    private int thirdPartyCount = 1000;
+
+    @Parameter(names = "--third-party-versions", description = "Number of versions of each third party artifact")
+    private int thirdPartyVersions = 3;
+
+    @Parameter(names = "--licenses", description = "Number of licenses")
+    private int licenseCount = 20;
+
+    @Parameter(names = "--unlicensed-ratio", description = "Part of the third party artifacts without license, between 0 and 1")
+    private double unlicensedRatio = 0.05;
+
+    @Parameter(names = "--unknown-license-ratio", description = "Part of the third party artifacts with a license that matches no known license, between 0 and 1")
+    private double unknownLicenseRatio = 0.05;
+
+    @Parameter(names = "--seed", description = "Seed of the generator")
+    private long seed = 42;
+
+    public int getModuleCount() {
+        return moduleCount;
+    }
+
+    public void setModuleCount(final int moduleCount) {
+        this.moduleCount = moduleCount;
+    }
+
+    public int getVersionsPerModule() {
+        return versionsPerModule;
+    }
+
+    public void setVersionsPerModule(final int versionsPerModule) {
+        this.versionsPerModule = versionsPerModule;
+    }
+
+    public int getArtifactsPerModule() {
+        return artifactsPerModule;
+    }
+
+    public void setArtifactsPerModule(final int artifactsPerModule) {
+        this.artifactsPerModule = artifactsPerModule;
+    }
+
+    public int getSubmodulesPerModule() {
+        return submodulesPerModule;
+    }
+
+    public void setSubmodulesPerModule(final int submodulesPerModule) {
+        this.submodulesPerModule = submodulesPerModule;
+    }
+
+    public int getSubmoduleDepth() {
+        return submoduleDepth;
+    }
+
+    public void setSubmoduleDepth(final int submoduleDepth) {
+        this.submoduleDepth = submoduleDepth;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public void setFanOut(final int fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    public int getLayers() {
+        return layers;
+    }
+
+    public void setLayers(final int layers) {
+        this.layers = layers;
+    }
+
+    public double getCorporateRatio() {
+        return corporateRatio;
+    }
+
+    public void setCorporateRatio(final double corporateRatio) {
+        this.corporateRatio = corporateRatio;
+    }
+
+    public int getThirdPartyCount() {
+        return thirdPartyCount;
+    }
+
+    public void setThirdPartyCount(final int thirdPartyCount) {
+        this.thirdPartyCount = thirdPartyCount;
+    }
+
+    public int getThirdPartyVersions() {
+        return thirdPartyVersions;
+    }
+
+    public void setThirdPartyVersions(final int thirdPartyVersions) {
+        this.thirdPartyVersions = thirdPartyVersions;
+    }
+
+    public int getLicenseCount() {
+        return licenseCount;
+    }
+
+    public void setLicenseCount(final int licenseCount) {
+        this.licenseCount = licenseCount;
+    }
+
+    public double getUnlicensedRatio() {
+        return unlicensedRatio;
+    }
+
+    public void setUnlicensedRatio(final double unlicensedRatio) {
+        this.unlicensedRatio = unlicensedRatio;
+    }
+
+    public double getUnknownLicenseRatio() {
+        return unknownLicenseRatio;
+    }
+
+    public void setUnknownLicenseRatio(final double unknownLicenseRatio) {
+        this.unknownLicenseRatio = unknownLicenseRatio;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(final long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d modules x %d versions, %d artifacts per module, %d submodules over %d levels, " +
+                        "fan-out %d, %d layers, corporate ratio %.2f, %d third party artifacts x %d versions, " +
+                        "%d licenses, seed %d",
+                moduleCount, versionsPerModule, artifactsPerModule, submodulesPerModule, submoduleDepth,
+                fanOut, layers, corporateRatio, thirdPartyCount, thirdPartyVersions, licenseCount, seed);
+    }
+}
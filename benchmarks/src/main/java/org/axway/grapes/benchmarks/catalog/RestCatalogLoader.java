@@ -0,0 +1,86 @@
+package org.axway.grapes.benchmarks.catalog;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.BulkItemStatus;
+import org.axway.grapes.commons.datamodel.License;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.utils.client.GrapesClient;
+import org.axway.grapes.utils.client.GrapesCommunicationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.naming.AuthenticationException;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Rest Catalog Loader
+ *
+ * <p>Loads a catalog into a running Grapes server through its REST API, the way the build tools feed it.
+ * The organization is posted before the modules so that the server assigns it to the corporate modules.
+ * The artifacts and the modules are posted in batches, through the bulk resources.</p>
+ *
+ * @author jdcoffre
+ */
+public class RestCatalogLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestCatalogLoader.class);
+
+    private final GrapesClient client;
+    private final String user;
+    private final String password;
+    private final int batchSize;
+
+    public RestCatalogLoader(final GrapesClient client, final String user, final String password, final int batchSize) {
+        if(batchSize < 1){
+            throw new IllegalArgumentException("The batch size must be a positive integer.");
+        }
+        this.client = client;
+        this.user = user;
+        this.password = password;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Posts the catalog to the server
+     *
+     * @param catalog Catalog
+     * @return int the number of artifacts and modules that have been rejected by the server
+     * @throws GrapesCommunicationException
+     * @throws AuthenticationException
+     */
+    public int load(final Catalog catalog) throws GrapesCommunicationException, AuthenticationException {
+        for(License license: catalog.getLicenses()){
+            client.postLicense(license, user, password);
+            if(license.isApproved()){
+                client.approveLicense(license.getName(), true, user, password);
+            }
+        }
+
+        client.postOrganization(catalog.getOrganization(), user, password);
+
+        int rejected = 0;
+        final List<Artifact> artifacts = catalog.getThirdPartyArtifacts();
+        for(int i = 0; i < artifacts.size(); i += batchSize){
+            rejected += count(client.postArtifacts(artifacts.subList(i, Math.min(i + batchSize, artifacts.size())), user, password));
+        }
+
+        final List<Module> modules = catalog.getModules();
+        for(int i = 0; i < modules.size(); i += batchSize){
+            rejected += count(client.postModules(modules.subList(i, Math.min(i + batchSize, modules.size())), user, password));
+        }
+
+        return rejected;
+    }
+
+    private static int count(final List<BulkItemStatus> statuses) {
+        int rejected = 0;
+        for(BulkItemStatus status: statuses){
+            if(status.getStatus() != Response.Status.CREATED.getStatusCode()){
+                LOG.warn(String.format("%s has been rejected: %s %s", status.getId(), status.getStatus(), status.getMessage()));
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+}
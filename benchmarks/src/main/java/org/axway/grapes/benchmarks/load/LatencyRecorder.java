@@ -0,0 +1,93 @@
+package org.axway.grapes.benchmarks.load;
+
+import java.util.Arrays;
+
+/**
+ * Latency Recorder
+ *
+ * <p>Records the latencies of the calls to an endpoint, in microseconds, and the number of calls that failed.
+ * Each thread records its own calls, the recorders of the threads are merged at the end of the run: the recorder is
+ * not thread safe.</p>
+ *
+ * @author jdcoffre
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count = 0;
+    private int errors = 0;
+
+    /**
+     * Records a successful call
+     *
+     * @param nanos long the duration of the call in nanoseconds
+     */
+    public void record(final long nanos) {
+        if(count == samples.length){
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = nanos / 1000;
+    }
+
+    /**
+     * Records a failed call, its latency is not part of the percentiles
+     */
+    public void recordError() {
+        errors++;
+    }
+
+    /**
+     * Adds the calls recorded by another recorder
+     *
+     * @param other LatencyRecorder
+     */
+    public void merge(final LatencyRecorder other) {
+        if(count + other.count > samples.length){
+            samples = Arrays.copyOf(samples, count + other.count);
+        }
+        System.arraycopy(other.samples, 0, samples, count, other.count);
+        count += other.count;
+        errors += other.errors;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the latency under which the given part of the calls completed, in microseconds
+     *
+     * @param percentile double between 0 and 100
+     * @return long 0 if no call has been recorded
+     */
+    public long getPercentile(final double percentile) {
+        if(count == 0){
+            return 0;
+        }
+        final long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+
+        final int rank = (int) Math.ceil(percentile / 100 * count);
+        return sorted[Math.max(0, Math.min(count, rank) - 1)];
+    }
+
+    /**
+     * Returns the mean latency, in microseconds
+     *
+     * @return long 0 if no call has been recorded
+     */
+    public long getMean() {
+        if(count == 0){
+            return 0;
+        }
+        long total = 0;
+        for(int i = 0; i < count; i++){
+            total += samples[i];
+        }
+        return total / count;
+    }
+}
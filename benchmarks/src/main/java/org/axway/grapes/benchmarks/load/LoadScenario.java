@@ -0,0 +1,166 @@
+package org.axway.grapes.benchmarks.load;
+
+import org.axway.grapes.benchmarks.catalog.Catalog;
+import org.axway.grapes.benchmarks.catalog.CatalogGenerator;
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.License;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.utils.client.GrapesClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load Scenario
+ *
+ * <p>Mix of read and ingest calls sent to a server that holds a synthetic catalog. The reads target the modules, the
+ * artifacts and the licenses of the catalog, with the weights below. The ingests post new modules that depend on the
+ * artifacts of the catalog, the way a build server reports its builds.</p>
+ *
+ * @author jdcoffre
+ */
+public class LoadScenario {
+
+    private final List<Module> modules;
+    private final List<Artifact> artifacts;
+    private final List<License> licenses;
+    private final CatalogGenerator generator;
+    private final String user;
+    private final String password;
+    private final double ingestRatio;
+
+    private final List<Operation> reads = new ArrayList<Operation>();
+    private final Operation ingest;
+    private final AtomicInteger ingestCount = new AtomicInteger();
+    private int totalWeight = 0;
+
+    /**
+     * @param catalog Catalog the content of the server
+     * @param generator CatalogGenerator the generator of the catalog, creates the modules to ingest
+     * @param user String user with the DEPENDENCY_NOTIFIER role
+     * @param password String
+     * @param ingestRatio double part of the calls that are ingests, between 0 and 1
+     */
+    public LoadScenario(final Catalog catalog, final CatalogGenerator generator, final String user,
+                        final String password, final double ingestRatio) {
+        this.modules = catalog.getModules();
+        this.artifacts = new ArrayList<Artifact>(catalog.getThirdPartyArtifacts());
+        this.artifacts.addAll(catalog.getCorporateArtifacts());
+        this.licenses = catalog.getLicenses();
+        this.generator = generator;
+        this.user = user;
+        this.password = password;
+        this.ingestRatio = ingestRatio;
+
+        addRead(new Operation("GET module", 20) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                final Module module = pick(modules, random);
+                client.getModule(module.getName(), module.getVersion());
+            }
+        });
+        addRead(new Operation("GET module dependencies", 15) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                final Module module = pick(modules, random);
+                client.getModuleDependencies(module.getName(), module.getVersion(), false, true, true);
+            }
+        });
+        addRead(new Operation("GET module ancestors", 10) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                final Module module = pick(modules, random);
+                client.getModuleAncestors(module.getName(), module.getVersion());
+            }
+        });
+        addRead(new Operation("GET module promotion check", 5) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                final Module module = pick(modules, random);
+                client.moduleCanBePromoted(module.getName(), module.getVersion());
+            }
+        });
+        addRead(new Operation("GET artifact", 20) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                client.getArtifact(pick(artifacts, random).getGavc());
+            }
+        });
+        addRead(new Operation("GET artifact versions", 10) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                client.getArtifactVersions(pick(artifacts, random).getGavc());
+            }
+        });
+        addRead(new Operation("GET artifact last version", 10) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                client.getArtifactLastVersion(pick(artifacts, random).getGavc());
+            }
+        });
+        addRead(new Operation("GET license", 5) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                client.getLicense(pick(licenses, random).getName());
+            }
+        });
+
+        ingest = new Operation("POST module", 0) {
+            @Override
+            public void run(final GrapesClient client, final Random random) throws Exception {
+                client.postModule(generator.createIngestModule(ingestCount.incrementAndGet()), user, password);
+            }
+        };
+    }
+
+    private void addRead(final Operation operation) {
+        reads.add(operation);
+        totalWeight += operation.weight;
+    }
+
+    private static <T> T pick(final List<T> elements, final Random random) {
+        return elements.get(random.nextInt(elements.size()));
+    }
+
+    /**
+     * Picks the next operation to run
+     *
+     * @param random Random the random of the calling thread
+     * @return Operation
+     */
+    public Operation next(final Random random) {
+        if(random.nextDouble() < ingestRatio){
+            return ingest;
+        }
+
+        int draw = random.nextInt(totalWeight);
+        for(Operation operation: reads){
+            draw -= operation.weight;
+            if(draw < 0){
+                return operation;
+            }
+        }
+        return reads.get(reads.size() - 1);
+    }
+
+    /**
+     * Call to an endpoint of the server
+     */
+    public abstract static class Operation {
+        private final String name;
+        private final int weight;
+
+        protected Operation(final String name, final int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract void run(final GrapesClient client, final Random random) throws Exception;
+    }
+}
@@ -0,0 +1,196 @@
+package org.axway.grapes.benchmarks.load;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import org.axway.grapes.benchmarks.catalog.Catalog;
+import org.axway.grapes.benchmarks.catalog.CatalogGenerator;
+import org.axway.grapes.benchmarks.catalog.CatalogSettings;
+import org.axway.grapes.benchmarks.catalog.RestCatalogLoader;
+import org.axway.grapes.utils.client.GrapesClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load Test
+ *
+ * <p>Sends a mix of read and ingest calls to a running Grapes server from several threads, then reports the throughput
+ * and the latency percentiles of each endpoint. The server must hold the catalog generated with the same settings:
+ * load it with CatalogLoad, or with the --load option. The calls of the warmup are not reported.</p>
+ *
+ * <pre>java -cp target/benchmarks.jar org.axway.grapes.benchmarks.load.LoadTest --port 8080 --user grapes --password grapes --threads 16 --duration 120</pre>
+ *
+ * @author jdcoffre
+ */
+public final class LoadTest {
+
+    @Parameter(names = "--host", description = "Host of the server")
+    private String host = "localhost";
+
+    @Parameter(names = "--port", description = "Port of the server")
+    private String port = "8080";
+
+    @Parameter(names = "--user", description = "User with the DEPENDENCY_NOTIFIER role, and DATA_UPDATER to load the catalog")
+    private String user;
+
+    @Parameter(names = "--password", description = "Password of the user")
+    private String password;
+
+    @Parameter(names = "--threads", description = "Number of concurrent clients")
+    private int threads = 8;
+
+    @Parameter(names = "--duration", description = "Duration of the measure, in seconds")
+    private int duration = 60;
+
+    @Parameter(names = "--warmup", description = "Duration of the warmup, in seconds")
+    private int warmup = 10;
+
+    @Parameter(names = "--ingest-ratio", description = "Part of the calls that post a module, between 0 and 1")
+    private double ingestRatio = 0.05;
+
+    @Parameter(names = "--load", description = "Loads the catalog through the REST API before the test")
+    private boolean load;
+
+    @Parameter(names = "--help", help = true, description = "Prints the usage")
+    private boolean help;
+
+    private LoadTest() {
+        // main class
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTest test = new LoadTest();
+        final CatalogSettings settings = new CatalogSettings();
+
+        final JCommander commander = new JCommander();
+        commander.setProgramName(LoadTest.class.getSimpleName());
+        commander.addObject(test);
+        commander.addObject(settings);
+        commander.parse(args);
+
+        if(test.help){
+            commander.usage();
+            return;
+        }
+
+        test.run(settings);
+    }
+
+    private void run(final CatalogSettings settings) throws Exception {
+        final CatalogGenerator generator = new CatalogGenerator(settings);
+        final Catalog catalog = generator.generate();
+        System.out.println("Catalog: " + catalog + " (" + settings + ")");
+
+        final GrapesClient client = new GrapesClient(host, port);
+        client.setMaxConnections(threads);
+
+        try {
+            if(load){
+                System.out.println("Loading the catalog...");
+                new RestCatalogLoader(client, user, password, 100).load(catalog);
+            }
+
+            final LoadScenario scenario = new LoadScenario(catalog, generator, user, password, ingestRatio);
+            System.out.println(String.format("Running %d threads: %ds of warmup, %ds of measure", threads, warmup, duration));
+
+            final Map<String, LatencyRecorder> recorders = execute(client, scenario, settings.getSeed());
+            report(recorders);
+        }
+        finally {
+            client.close();
+        }
+    }
+
+    private Map<String, LatencyRecorder> execute(final GrapesClient client, final LoadScenario scenario, final long seed) throws Exception {
+        final long measureStart = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+        final long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(duration);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<Future<Map<String, LatencyRecorder>>> results = new ArrayList<Future<Map<String, LatencyRecorder>>>();
+
+        for(int i = 0; i < threads; i++){
+            final Random random = new Random(seed + i);
+            results.add(executor.submit(new Callable<Map<String, LatencyRecorder>>() {
+                @Override
+                public Map<String, LatencyRecorder> call() {
+                    final Map<String, LatencyRecorder> threadRecorders = new TreeMap<String, LatencyRecorder>();
+
+                    long now = System.nanoTime();
+                    while(now < measureEnd){
+                        final LoadScenario.Operation operation = scenario.next(random);
+                        final long start = now;
+                        boolean success = true;
+                        try {
+                            operation.run(client, random);
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        now = System.nanoTime();
+
+                        if(start >= measureStart && now <= measureEnd){
+                            record(threadRecorders, operation.getName(), now - start, success);
+                        }
+                    }
+
+                    return threadRecorders;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        final Map<String, LatencyRecorder> recorders = new TreeMap<String, LatencyRecorder>();
+        for(Future<Map<String, LatencyRecorder>> result: results){
+            for(Map.Entry<String, LatencyRecorder> entry: result.get().entrySet()){
+                if(!recorders.containsKey(entry.getKey())){
+                    recorders.put(entry.getKey(), new LatencyRecorder());
+                }
+                recorders.get(entry.getKey()).merge(entry.getValue());
+            }
+        }
+
+        return recorders;
+    }
+
+    private static void record(final Map<String, LatencyRecorder> recorders, final String name, final long nanos, final boolean success) {
+        LatencyRecorder recorder = recorders.get(name);
+        if(recorder == null){
+            recorder = new LatencyRecorder();
+            recorders.put(name, recorder);
+        }
+
+        if(success){
+            recorder.record(nanos);
+        }
+        else{
+            recorder.recordError();
+        }
+    }
+
+    private void report(final Map<String, LatencyRecorder> recorders) {
+        final LatencyRecorder total = new LatencyRecorder();
+
+        System.out.println();
+        System.out.println(String.format("%-28s %9s %7s %9s %9s %9s %9s %9s %9s", "Endpoint", "Calls", "Errors",
+                "Ops/s", "Mean ms", "p50 ms", "p95 ms", "p99 ms", "Max ms"));
+        for(Map.Entry<String, LatencyRecorder> entry: recorders.entrySet()){
+            print(entry.getKey(), entry.getValue());
+            total.merge(entry.getValue());
+        }
+        print("Total", total);
+    }
+
+    private void print(final String name, final LatencyRecorder recorder) {
+        System.out.println(String.format("%-28s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name,
+                recorder.getCount(), recorder.getErrors(), (double) recorder.getCount() / duration,
+                recorder.getMean() / 1000.0, recorder.getPercentile(50) / 1000.0, recorder.getPercentile(95) / 1000.0,
+                recorder.getPercentile(99) / 1000.0, recorder.getPercentile(100) / 1000.0));
+    }
+}
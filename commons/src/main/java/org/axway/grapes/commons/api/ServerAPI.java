@@ -30,6 +30,9 @@ public interface ServerAPI {
     /** Value - {@value}, Sequoia is a Grapes server provides graphs.*/
     public static final String SEQUOIA_RESOURCE = "sequoia";
 
+    /** Value - {@value}, Changes is a Grapes server resource that gives the changes of the stored data in their order.*/
+    public static final String CHANGES_RESOURCE = "changes";
+
     /** Value - {@value}, Webapp is an UI that is over Grapes server server REST API.*/
     public static final String WEBAPP_RESOURCE = "webapp";
 
@@ -79,6 +82,9 @@ public interface ServerAPI {
     /** Value - {@value}, GET methods that returns the ancestor of the targeted resource. Usually used as /resourceName/{resourceUID}<GET_ANCESTORS>.*/
     public static final String GET_ANCESTORS = "/ancestors";
 
+    /** Value - {@value}, GET methods that returns all the modules that use the targeted resource, directly or not. Usually used as /resourceName/{resourceUID}<GET_ANCESTORS><GET_TRANSITIVE>.*/
+    public static final String GET_TRANSITIVE = "/transitive";
+
     /** Value - {@value}, GET methods that returns the dependencies of the targeted resource. Usually used as /resourceName/{resourceUID}<GET_DEPENDENCIES>.*/
     public static final String GET_DEPENDENCIES = "/dependencies";
 
@@ -94,9 +100,18 @@ public interface ServerAPI {
     /** Value - {@value}, POST/GET flag "DO_NOT_USE" for the targeted artifact. Usually used as /<ARTIFACT_RESOURCE>/{gavc}/<SET_DO_NOT_USE>?<DO_NOT_USE>=<Boolean></></>.*/
     public static final String SET_DO_NOT_USE = "/donotuse";
 
+    /** Value - {@value}, GET methods that returns the sequence number of the last change. Used as /changes<GET_LAST_SEQUENCE>.*/
+    public static final String GET_LAST_SEQUENCE = "/last";
+
     /** Value - {@value}, GET methods that retrieve all the elements of a resource type. Usually used as /<RESOURCE><GET_ALL>.*/
     public static final String GET_ALL = "/all";
 
+    /** Value - {@value}, POST methods that store a batch of modules or artifacts, posted as a JSON array or as NDJSON. Used as /<RESOURCE><BULK>.*/
+    public static final String BULK = "/bulk";
+
+    /** Value - {@value}, GET methods that returns the status of an asynchronous module ingestion. Used as /module<INGESTION>/{ticketId}.*/
+    public static final String INGESTION = "/ingestion";
+
     //QUERY PARAMETERS
     /** Value - {@value}, boolean query parameter that is used to get the result of the request going till the end of the dependency depth. Override depth parameter if exist.*/
     public static final String RECURSIVE_PARAM = "fullRecursive";
@@ -220,4 +235,33 @@ public interface ServerAPI {
 
     /** Value - {@value}, String query parameter used to filter artifacts.*/
     public static final String PROVIDER_PARAM = "provider";
+
+    /** Value - {@value}, boolean query parameter used to get the big lists as a JSON array written while the database is read.*/
+    public static final String STREAM_PARAM = "stream";
+
+    /** Value - {@value}, String query parameter used to get the page of a list that follows the provided element id.*/
+    public static final String PAGE_AFTER_PARAM = "after";
+
+    /** Value - {@value}, integer query parameter used to set the maximum number of elements of a list page.*/
+    public static final String PAGE_LIMIT_PARAM = "limit";
+
+    /** Value - {@value}, long query parameter used to get the changes that follow this sequence number.*/
+    public static final String SINCE_PARAM = "since";
+
+    /** Value - {@value}, boolean query parameter used to post a module for an asynchronous ingestion, if the server allows it.*/
+    public static final String ASYNC_PARAM = "async";
+
+    //HEADERS
+    /** Value - {@value}, response header of a full list page, its value is the {@link #PAGE_AFTER_PARAM} of the next page.*/
+    public static final String NEXT_PAGE_HEADER = "X-Grapes-Next-Page";
+
+    //MEDIA TYPES
+    /** Value - {@value}, newline delimited JSON: one element per line, the list endpoints stream their results in this format.*/
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    /** Value - {@value}, Graphviz DOT: the dependency graphs can be exported in this format.*/
+    public static final String DOT_MEDIA_TYPE = "text/vnd.graphviz";
+
+    /** Value - {@value}, GraphML: the dependency graphs can be exported in this format.*/
+    public static final String GRAPHML_MEDIA_TYPE = "application/graphml+xml";
 }
\ No newline at end of file
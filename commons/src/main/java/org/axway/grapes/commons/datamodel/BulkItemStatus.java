@@ -0,0 +1,51 @@
+package org.axway.grapes.commons.datamodel;
+
+/**
+ * Bulk Item Status Model Class
+ *
+ * <P> Model Objects are used in the communication with the Grapes server. These objects are serialized/un-serialized in JSON objects to be exchanged via http REST calls.
+ * A bulk post answers one status per posted item, in the order of the posted items. The status is the http status that the item would have got if it was posted alone.
+ *
+ * @author jdcoffre
+ */
+public class BulkItemStatus {
+
+    private String id = "";
+
+    private int status;
+
+    private String message = "";
+
+    protected BulkItemStatus() {
+        // Should only be instantiated via the DataModelObjectFactory
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(final int status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return id + " " + status + (message.isEmpty() ? "" : " " + message);
+    }
+}
@@ -0,0 +1,78 @@
+package org.axway.grapes.commons.datamodel;
+
+/**
+ * Change Event Model Class
+ *
+ * <P> Model Objects are used in the communication with the Grapes server. These objects are serialized/un-serialized in JSON objects to be exchanged via http REST calls.
+ * A change event tells that an element stored in Grapes has been written: the type of the element (MODULE, ARTIFACT, LICENSE, ORGANIZATION or PRODUCT),
+ * its id and the operation (STORE, UPDATE or DELETE). The events are numbered in the order of the changes.
+ *
+ * @author jdcoffre
+ */
+public class ChangeEvent {
+
+    public static final String MODULE = "MODULE";
+    public static final String ARTIFACT = "ARTIFACT";
+    public static final String LICENSE = "LICENSE";
+    public static final String ORGANIZATION = "ORGANIZATION";
+    public static final String PRODUCT = "PRODUCT";
+
+    public static final String STORE = "STORE";
+    public static final String UPDATE = "UPDATE";
+    public static final String DELETE = "DELETE";
+
+    private long sequence;
+
+    private String entityType = "";
+
+    private String entityId = "";
+
+    private String operation = "";
+
+    // timestamp in milliseconds
+    private long time;
+
+    protected ChangeEvent() {
+        // Should only be instantiated via the DataModelObjectFactory
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(final long sequence) {
+        this.sequence = sequence;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(final String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(final String entityId) {
+        this.entityId = entityId;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(final String operation) {
+        this.operation = operation;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(final long time) {
+        this.time = time;
+    }
+}
@@ -140,4 +140,55 @@ public final class DataModelFactory {
         }
 	}
 
+	/**
+	 * Generates the status of an item of a bulk post.
+	 *
+	 * @param id String the id of the item
+	 * @param status int the http status of the item
+	 * @param message String
+	 * @return BulkItemStatus
+	 */
+	public static BulkItemStatus createBulkItemStatus(final String id, final int status, final String message){
+		final BulkItemStatus itemStatus = new BulkItemStatus();
+		itemStatus.setId(id);
+		itemStatus.setStatus(status);
+		itemStatus.setMessage(message == null ? "" : message);
+
+		return itemStatus;
+	}
+
+	/**
+	 * Generates the ticket of a module posted for an asynchronous ingestion.
+	 *
+	 * @param id String
+	 * @param status String
+	 * @return IngestionTicket
+	 */
+	public static IngestionTicket createIngestionTicket(final String id, final String status){
+		final IngestionTicket ticket = new IngestionTicket();
+		ticket.setId(id);
+		ticket.setStatus(status);
+
+		return ticket;
+	}
+
+	/**
+	 * Generates the event of a change of an element stored in Grapes.
+	 *
+	 * @param sequence long the number of the change
+	 * @param entityType String
+	 * @param entityId String
+	 * @param operation String
+	 * @return ChangeEvent
+	 */
+	public static ChangeEvent createChangeEvent(final long sequence, final String entityType, final String entityId, final String operation){
+		final ChangeEvent event = new ChangeEvent();
+		event.setSequence(sequence);
+		event.setEntityType(entityType);
+		event.setEntityId(entityId);
+		event.setOperation(operation);
+
+		return event;
+	}
+
 }
@@ -0,0 +1,68 @@
+package org.axway.grapes.commons.datamodel;
+
+/**
+ * Ingestion Ticket Model Class
+ *
+ * <P> Model Objects are used in the communication with the Grapes server. These objects are serialized/un-serialized in JSON objects to be exchanged via http REST calls.
+ * A module posted for an asynchronous ingestion gets a ticket that gives the progress of its ingestion: PENDING, IN_PROGRESS, DONE or FAILED.
+ *
+ * @author jdcoffre
+ */
+public class IngestionTicket {
+
+    private String id = "";
+
+    private String status = "";
+
+    // cause of the failure of a FAILED ticket
+    private String message = "";
+
+    // timestamps in milliseconds
+    private long created;
+
+    private long updated;
+
+    protected IngestionTicket() {
+        // Should only be instantiated via the DataModelObjectFactory
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(final long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(final long updated) {
+        this.updated = updated;
+    }
+}
@@ -68,4 +68,24 @@ public class DataModelFactoryTest {
 
     }
 
+    @Test
+    public void checkBulkItemStatusGeneration(){
+        BulkItemStatus status = DataModelFactory.createBulkItemStatus("module:1.0.0", 400, null);
+
+        assertNotNull(status);
+        assertEquals("module:1.0.0", status.getId());
+        assertEquals(400, status.getStatus());
+        assertEquals("", status.getMessage());
+    }
+
+    @Test
+    public void checkChangeEventGeneration(){
+        ChangeEvent event = DataModelFactory.createChangeEvent(12L, ChangeEvent.MODULE, "module:1.0.0", ChangeEvent.DELETE);
+
+        assertNotNull(event);
+        assertEquals(12L, event.getSequence());
+        assertEquals(ChangeEvent.MODULE, event.getEntityType());
+        assertEquals("module:1.0.0", event.getEntityId());
+        assertEquals(ChangeEvent.DELETE, event.getOperation());
+    }
 }
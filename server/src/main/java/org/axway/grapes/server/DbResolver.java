@@ -1,8 +1,9 @@
 package org.axway.grapes.server;
 
-import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.db.DBException;
 import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.memory.InMemoryHandler;
 import org.axway.grapes.server.db.mongo.MongodbHandler;
 
 import java.net.UnknownHostException;
@@ -17,14 +18,18 @@ import java.net.UnknownHostException;
 public final class DbResolver {
 
     private static final String MONGO = "mongodb";
+    private static final String MEMORY = "memory";
     
     private DbResolver(){
         // Utility class should never be instanciate
     }
     
-    public static RepositoryHandler getNewRepoHandler(final DataBaseConfig config) throws DBException, UnknownHostException{
-        if(MONGO.equalsIgnoreCase(config.getDbsystem())){
-            return new MongodbHandler(config);
+    public static RepositoryHandler getNewRepoHandler(final GrapesServerConfig config) throws DBException, UnknownHostException{
+        if(MONGO.equalsIgnoreCase(config.getDataBaseConfig().getDbsystem())){
+            return new MongodbHandler(config.getDataBaseConfig(), config.getCredentialCachePolicy());
+        }
+        if(MEMORY.equalsIgnoreCase(config.getDataBaseConfig().getDbsystem())){
+            return new InMemoryHandler(config.getDataBaseConfig());
         }
         
         throw new DBException("Cannot find any matching database system currently implemented.");
@@ -7,9 +7,17 @@ import com.yammer.dropwizard.config.Bootstrap;
 import com.yammer.dropwizard.config.Environment;
 import com.yammer.dropwizard.views.ViewBundle;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.config.IngestionConfig;
+import org.axway.grapes.server.core.ServerContext;
+import org.axway.grapes.server.core.cache.ReportInvalidator;
+import org.axway.grapes.server.core.changes.ChangeFollower;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.ingestion.IngestionWorkers;
+import org.axway.grapes.server.core.ingestion.ModuleIngester;
 import org.axway.grapes.server.db.DBException;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
+import org.axway.grapes.server.db.mongo.MongodbHandler;
 import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
 import org.axway.grapes.server.webapp.healthcheck.DataBaseCheck;
 import org.axway.grapes.server.webapp.healthcheck.DataModelVersionCheck;
@@ -73,8 +81,33 @@ public class GrapesServer extends Service<GrapesServerConfig> {
         // init the repoHandler
         final RepositoryHandler repoHandler = getRepositoryHandler(config);
 
+        // Structures shared by all the resources: license matcher, dependency graph index, versions index, report cache and JSON mapper
+        final ServerContext serverContext = new ServerContext(repoHandler, config.getReportCachePolicy());
+        final ChangeFollower changeFollower = new ChangeFollower(repoHandler, config.getChangePollInterval());
+        changeFollower.init();
+        serverContext.getGraphIndex().load(repoHandler);
+        serverContext.getVersionsIndex().load(repoHandler);
+        serverContext.getReportCache().registerMetrics();
+        serverContext.setObjectMapper(env.getObjectMapperFactory().build());
+
+        // The shared structures follow the writes of the other servers through the change log
+        changeFollower.addListener(serverContext.getGraphIndex());
+        changeFollower.addListener(serverContext.getVersionsIndex());
+        changeFollower.addListener(new ReportInvalidator(serverContext.getReportCache(), repoHandler));
+        env.manage(changeFollower);
+
+        // Asynchronous ingestion of the module posts
+        final IngestionConfig ingestionConfig = config.getIngestionConfig();
+        if(ingestionConfig.isAsync()){
+            final IngestionQueue ingestionQueue = new IngestionQueue(repoHandler, ingestionConfig.getQueueCapacity(),
+                    ingestionConfig.getTicketLease(), ingestionConfig.getTicketRetention());
+            serverContext.setIngestionQueue(ingestionQueue);
+            env.manage(new IngestionWorkers(ingestionQueue, new ModuleIngester(repoHandler, serverContext),
+                    ingestionConfig.getWorkers(), ingestionConfig.getPollInterval()));
+        }
+
         // Add credential management
-        final GrapesAuthenticator grapesAuthenticator = new GrapesAuthenticator(repoHandler);
+        final GrapesAuthenticator grapesAuthenticator = new GrapesAuthenticator(repoHandler, config.getAuthenticationCachePolicy());
         final BasicAuthProvider authProvider = new BasicAuthProvider<DbCredential>(grapesAuthenticator, "Grapes Authenticator Provider");
         env.addProvider(authProvider);
 
@@ -84,26 +117,31 @@ public class GrapesServer extends Service<GrapesServerConfig> {
         env.addTask(new RemoveRoleTask(repoHandler));
         env.addTask(new MaintenanceModeTask(config));
         env.addTask(new KillTask());
-        env.addTask(new MigrationTask(config.getDataBaseConfig()));
+        env.addTask(new RebuildLatestVersionsTask(repoHandler));
 
-        // Health checks
-        env.addHealthCheck(new DataBaseCheck(config.getDataBaseConfig()));
-        env.addHealthCheck(new DataModelVersionCheck(config.getDataBaseConfig()));
+        // Tasks and health checks that connect to mongodb
+        if(repoHandler instanceof MongodbHandler){
+            env.addTask(new MigrationTask(config.getDataBaseConfig()));
+            env.addTask(new IndexAdvisorTask(config.getDataBaseConfig()));
+            env.addHealthCheck(new DataBaseCheck(config.getDataBaseConfig()));
+            env.addHealthCheck(new DataModelVersionCheck(config.getDataBaseConfig()));
+        }
 
         // Resources
-        env.addResource(new OrganizationResource(repoHandler, config));
-        env.addResource(new ProductResource(repoHandler, config));
-        env.addResource(new ModuleResource(repoHandler, config));
-        env.addResource(new ArtifactResource(repoHandler, config));
-        env.addResource(new LicenseResource(repoHandler, config));
-        env.addResource(new Sequoia(repoHandler, config));
-        env.addResource(new WebAppResource(repoHandler, config));
-        env.addResource(new RootResource(repoHandler, config));
+        env.addResource(new OrganizationResource(repoHandler, config, serverContext));
+        env.addResource(new ProductResource(repoHandler, config, serverContext));
+        env.addResource(new ModuleResource(repoHandler, config, serverContext));
+        env.addResource(new ArtifactResource(repoHandler, config, serverContext));
+        env.addResource(new LicenseResource(repoHandler, config, serverContext));
+        env.addResource(new ChangeResource(repoHandler, config, serverContext));
+        env.addResource(new Sequoia(repoHandler, config, serverContext));
+        env.addResource(new WebAppResource(repoHandler, config, serverContext));
+        env.addResource(new RootResource(repoHandler, config, serverContext));
 
 	}
 
     public RepositoryHandler getRepositoryHandler(final GrapesServerConfig config) throws DBException, UnknownHostException {
-        return DbResolver.getNewRepoHandler(config.getDataBaseConfig());
+        return DbResolver.getNewRepoHandler(config);
     }
 
 }
\ No newline at end of file
@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.yammer.dropwizard.config.Configuration;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Database configuration
@@ -45,6 +48,46 @@ public class DataBaseConfig  extends Configuration{
     @JsonProperty
     private String dbsystem;
 
+    /** Optional list of replica set members (host:port), the host/port pair is used when empty */
+    @Valid
+    @JsonProperty
+    private List<String> replicaSetMembers = new ArrayList<String>();
+
+    /** Maximum number of connections of the pool */
+    @Min(1)
+    @JsonProperty
+    private int connectionsPerHost = 100;
+
+    /** Multiplier of connectionsPerHost that gives the number of threads allowed to wait for a connection */
+    @Min(1)
+    @JsonProperty
+    private int waitQueueMultiplier = 5;
+
+    /** Maximum time in milliseconds that a thread waits for a connection */
+    @Min(0)
+    @JsonProperty
+    private int maxWaitTime = 120000;
+
+    /** Connection timeout in milliseconds (0 means infinite) */
+    @Min(0)
+    @JsonProperty
+    private int connectTimeout = 10000;
+
+    /** Socket timeout in milliseconds (0 means infinite) */
+    @Min(0)
+    @JsonProperty
+    private int socketTimeout = 60000;
+
+    /** Read preference of the heavy read queries: primary, primaryPreferred, secondary, secondaryPreferred or nearest */
+    @NotNull
+    @JsonProperty
+    private String readPreference = "primary";
+
+    /** Maximum number of change events kept in the change log, the oldest ones are dropped first */
+    @Min(1)
+    @JsonProperty
+    private int changeLogSize = 100000;
+
 	public String getHost() {
 		return host;
 	}
@@ -68,4 +111,36 @@ public class DataBaseConfig  extends Configuration{
     public String getDbsystem() {
         return dbsystem;
     }    
+
+    public List<String> getReplicaSetMembers() {
+        return replicaSetMembers;
+    }
+
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+
+    public int getWaitQueueMultiplier() {
+        return waitQueueMultiplier;
+    }
+
+    public int getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    public String getReadPreference() {
+        return readPreference;
+    }
+
+    public int getChangeLogSize() {
+        return changeLogSize;
+    }
 }
@@ -2,8 +2,10 @@ package org.axway.grapes.server.config;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.yammer.dropwizard.config.Configuration;
+import org.axway.grapes.server.core.cache.ReportCache;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 /**
@@ -21,6 +23,10 @@ import javax.validation.constraints.NotNull;
  */
 public class GrapesServerConfig extends Configuration{
 
+    public static final String DEFAULT_AUTHENTICATION_CACHE_POLICY = "maximumSize=10000, expireAfterAccess=10m";
+    public static final String DEFAULT_CREDENTIAL_CACHE_POLICY = "maximumSize=1000, expireAfterWrite=5m";
+    public static final String DEFAULT_REPORT_CACHE_POLICY = ReportCache.DEFAULT_POLICY;
+
     @Valid
     @JsonProperty
     private final CommunityConfig community = new CommunityConfig();
@@ -29,10 +35,30 @@ public class GrapesServerConfig extends Configuration{
     @NotNull
     @JsonProperty
     private final DataBaseConfig database = new DataBaseConfig();
+
+    @Valid
+    @JsonProperty
+    private final IngestionConfig ingestion = new IngestionConfig();
 	
+    /** Cache policy of the password digests computed during authentication (Guava CacheBuilderSpec) */
 	@Valid
     @JsonProperty
-    private final String authenticationCachePolicy = "maximumSize=10000, expireAfterAccess=10m";
+    private String authenticationCachePolicy = DEFAULT_AUTHENTICATION_CACHE_POLICY;
+
+    /** Cache policy of the credentials read from the database (Guava CacheBuilderSpec) */
+    @Valid
+    @JsonProperty
+    private String credentialCachePolicy = DEFAULT_CREDENTIAL_CACHE_POLICY;
+
+    /** Cache policy of the reports computed from the dependency graph (Guava CacheBuilderSpec with maximumWeight) */
+    @Valid
+    @JsonProperty
+    private String reportCachePolicy = DEFAULT_REPORT_CACHE_POLICY;
+
+    /** Time in milliseconds between two reads of the change log, the in-memory indexes follow the writes of the other servers with this delay */
+    @Min(10)
+    @JsonProperty
+    private int changePollInterval = 1000;
 
     private boolean maintenanceModeActif = false;
 
@@ -59,6 +85,18 @@ public class GrapesServerConfig extends Configuration{
 		return authenticationCachePolicy;
 	}
 
+    public String getCredentialCachePolicy() {
+        return credentialCachePolicy;
+    }
+
+    public String getReportCachePolicy() {
+        return reportCachePolicy;
+    }
+
+    public int getChangePollInterval() {
+        return changePollInterval;
+    }
+
     public boolean isInMaintenance() {
         return maintenanceModeActif;
     }
@@ -70,4 +108,8 @@ public class GrapesServerConfig extends Configuration{
     public CommunityConfig getCommunityConfiguration() {
         return community;
     }
+
+    public IngestionConfig getIngestionConfig() {
+        return ingestion;
+    }
 }
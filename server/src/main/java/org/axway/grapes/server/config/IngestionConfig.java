@@ -0,0 +1,97 @@
+package org.axway.grapes.server.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.yammer.dropwizard.config.Configuration;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Ingestion configuration
+ *
+ * <p>Optional configuration of the asynchronous ingestion of the module posts. When it is enabled, the clients can ask
+ * for their module to be queued instead of stored during the request. The queue is kept in the database and drained
+ * by a pool of workers.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionConfig extends Configuration{
+
+    /** Enables the asynchronous ingestion, the module posts are always handled during the request when disabled */
+    @JsonProperty
+    private boolean async = false;
+
+    /** Maximum number of modules waiting in the queue, the posts are refused with a 503 beyond */
+    @Min(1)
+    @JsonProperty
+    private int queueCapacity = 10000;
+
+    /** Number of workers that drain the queue */
+    @Min(1)
+    @JsonProperty
+    private int workers = 4;
+
+    /** Time in milliseconds that an idle worker waits before polling the queue again */
+    @Min(10)
+    @JsonProperty
+    private int pollInterval = 1000;
+
+    /** Time in milliseconds after which a module whose ingestion has not completed is put back in the queue: its
+     * server is considered stopped. It has to be longer than the ingestion of a module. */
+    @Min(1000)
+    @JsonProperty
+    private long ticketLease = IngestionQueue.DEFAULT_LEASE;
+
+    /** Time in milliseconds during which the tickets of the ingested modules are kept for the clients to check them */
+    @Min(1000)
+    @JsonProperty
+    private long ticketRetention = IngestionQueue.DEFAULT_RETENTION;
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(final boolean async) {
+        this.async = async;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(final int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(final int workers) {
+        this.workers = workers;
+    }
+
+    public int getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(final int pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public long getTicketLease() {
+        return ticketLease;
+    }
+
+    public void setTicketLease(final long ticketLease) {
+        this.ticketLease = ticketLease;
+    }
+
+    public long getTicketRetention() {
+        return ticketRetention;
+    }
+
+    public void setTicketRetention(final long ticketRetention) {
+        this.ticketRetention = ticketRetention;
+    }
+}
@@ -1,9 +1,12 @@
 package org.axway.grapes.server.core;
 
 
+import org.axway.grapes.server.core.cache.ReportCache;
 import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.version.VersionsIndex;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 import org.axway.grapes.server.db.datamodel.DbLicense;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
@@ -12,9 +15,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * Artifact Handler
@@ -28,9 +29,27 @@ public class ArtifactHandler {
     private static final Logger LOG = LoggerFactory.getLogger(ArtifactHandler.class);
 
     private final RepositoryHandler repositoryHandler;
+    private final LicenseMatcher licenseMatcher;
+    private final VersionsIndex versionsIndex;
+    private final ReportCache reportCache;
 
     public ArtifactHandler(final RepositoryHandler repositoryHandler) {
+        this(repositoryHandler, new LicenseMatcher(repositoryHandler));
+    }
+
+    public ArtifactHandler(final RepositoryHandler repositoryHandler, final LicenseMatcher licenseMatcher) {
+        this(repositoryHandler, licenseMatcher, ReportCache.NONE);
+    }
+
+    public ArtifactHandler(final RepositoryHandler repositoryHandler, final LicenseMatcher licenseMatcher, final ReportCache reportCache) {
+        this(repositoryHandler, licenseMatcher, new VersionsIndex(), reportCache);
+    }
+
+    public ArtifactHandler(final RepositoryHandler repositoryHandler, final LicenseMatcher licenseMatcher, final VersionsIndex versionsIndex, final ReportCache reportCache) {
         this.repositoryHandler = repositoryHandler;
+        this.licenseMatcher = licenseMatcher;
+        this.versionsIndex = versionsIndex;
+        this.reportCache = reportCache;
     }
 
     /**
@@ -40,6 +59,8 @@ public class ArtifactHandler {
      */
     public void store(final DbArtifact dbArtifact) {
         repositoryHandler.store(dbArtifact);
+        versionsIndex.add(dbArtifact);
+        reportCache.invalidate(dbArtifact);
     }
 
     /**
@@ -48,8 +69,79 @@ public class ArtifactHandler {
      * @param dbArtifact DbArtifact
      */
     public void storeIfNew(final DbArtifact dbArtifact) {
-        if(repositoryHandler.getArtifact(dbArtifact.getGavc()) == null){
-            store(dbArtifact);
+        if(repositoryHandler.storeIfNew(dbArtifact)){
+            versionsIndex.add(dbArtifact);
+            reportCache.invalidate(dbArtifact);
+        }
+    }
+
+    /**
+     * Update/save a batch of artifacts to the database
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     */
+    public void storeAll(final Collection<DbArtifact> dbArtifacts) {
+        if(dbArtifacts.isEmpty()){
+            return;
+        }
+
+        repositoryHandler.storeArtifacts(dbArtifacts);
+        for(DbArtifact dbArtifact: dbArtifacts){
+            versionsIndex.add(dbArtifact);
+            reportCache.invalidate(dbArtifact);
+        }
+    }
+
+    /**
+     * Update/save a batch of artifacts to the database with the licenses they have been posted with. The licenses are
+     * resolved as with {@link #addLicense(String, String)} against the stored artifacts, read at once, then they are
+     * written with the artifacts.
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     * @param licenseIds Map<String, List<String>> the posted licenses indexed by gavc
+     */
+    public void storeAll(final Collection<DbArtifact> dbArtifacts, final Map<String, List<String>> licenseIds) {
+        final Map<String, DbArtifact> storedArtifacts = repositoryHandler.getArtifacts(licenseIds.keySet());
+
+        for(DbArtifact dbArtifact: dbArtifacts){
+            final List<String> artifactLicenseIds = licenseIds.get(dbArtifact.getGavc());
+            if(artifactLicenseIds == null){
+                continue;
+            }
+
+            final DbArtifact storedArtifact = storedArtifacts.get(dbArtifact.getGavc());
+            final List<String> licenses = new ArrayList<String>();
+            if(storedArtifact != null){
+                licenses.addAll(storedArtifact.getLicenses());
+            }
+
+            for(String licenseId: artifactLicenseIds){
+                final String license = getLicenseToAdd(dbArtifact, licenses, licenseId);
+                if(license != null){
+                    licenses.add(license);
+                    // the licenses of the artifacts are merged with the stored ones
+                    dbArtifact.addLicense(license);
+                }
+            }
+        }
+
+        storeAll(dbArtifacts);
+    }
+
+    /**
+     * Adds the artifacts that do not exist yet to the database. Each artifact is inserted only if it is missing, in
+     * the same write, so an artifact stored meanwhile by another request is never overwritten.
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     */
+    public void storeAllIfNew(final Collection<DbArtifact> dbArtifacts) {
+        final Map<String, DbArtifact> candidates = new LinkedHashMap<String, DbArtifact>();
+        for(DbArtifact dbArtifact: dbArtifacts){
+            candidates.put(dbArtifact.getGavc(), dbArtifact);
+        }
+
+        for(DbArtifact dbArtifact: candidates.values()){
+            storeIfNew(dbArtifact);
         }
     }
 
@@ -61,24 +153,41 @@ public class ArtifactHandler {
      */
     public void addLicense(final String gavc, final String licenseId) {
         final DbArtifact dbArtifact = getArtifact(gavc);
+        final String license = getLicenseToAdd(dbArtifact, dbArtifact.getLicenses(), licenseId);
+
+        if(license != null){
+            repositoryHandler.addLicenseToArtifact(dbArtifact, license);
+            reportCache.invalidate(dbArtifact);
+        }
+    }
 
+    /**
+     * Returns the license to add to an artifact that has the provided licenses, null if there is nothing to add
+     *
+     * @param dbArtifact DbArtifact
+     * @param licenses List<String> the current licenses of the artifact
+     * @param licenseId String
+     * @return String
+     */
+    private String getLicenseToAdd(final DbArtifact dbArtifact, final List<String> licenses, final String licenseId) {
         // Try to find an existing license that match the new one
-        final LicenseHandler licenseHandler = new LicenseHandler(repositoryHandler);
-        final DbLicense license = licenseHandler.resolve(licenseId);
+        final DbLicense license = licenseMatcher.resolve(licenseId);
 
         // If there is no existing license that match this one let's use the provided value but
         // only if the artifact has no license  yet. Otherwise it could mean that users has already
         // identify the license manually.
         if(license == null){
-            if(dbArtifact.getLicenses().isEmpty()){
+            if(licenses.isEmpty()){
                 LOG.warn("Add reference to a non existing license called " + licenseId + " in  artifact " + dbArtifact.getGavc());
-                repositoryHandler.addLicenseToArtifact(dbArtifact, licenseId);
+                return licenseId;
             }
         }
         // Add only if the license is not already referenced
-        else if(!dbArtifact.getLicenses().contains(license.getName())){
-            repositoryHandler.addLicenseToArtifact(dbArtifact, license.getName());
+        else if(!licenses.contains(license.getName())){
+            return license.getName();
         }
+
+        return null;
     }
 
     /**
@@ -91,6 +200,16 @@ public class ArtifactHandler {
         return repositoryHandler.getGavcs(filters);
     }
 
+    /**
+     * Iterate, in alphabetical order, over the available gavc regarding the filters
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<String>
+     */
+    public Iterable<String> streamArtifactGavcs(final FiltersHolder filters) {
+        return repositoryHandler.streamGavcs(filters);
+    }
+
     /**
      * Gather the available groupIds regarding the filters
      *
@@ -109,7 +228,7 @@ public class ArtifactHandler {
      */
     public List<String> getArtifactVersions(final String gavc) {
         final DbArtifact artifact = getArtifact(gavc);
-        return repositoryHandler.getArtifactVersions(artifact);
+        return new VersionsHandler(repositoryHandler, versionsIndex).getVersions(artifact);
     }
 
     /**
@@ -119,16 +238,18 @@ public class ArtifactHandler {
      * @return String
      */
     public String getArtifactLastVersion(final String gavc) {
-        final List<String> versions = getArtifactVersions(gavc);
+        final DbArtifact artifact = getArtifact(gavc);
+        final VersionsHandler versionHandler = new VersionsHandler(repositoryHandler, versionsIndex);
+        final DbLatestVersion latestVersion = versionHandler.getLatestVersions(Collections.singleton(artifact))
+                .get(DbLatestVersion.generateID(artifact));
 
-        try{
-            final VersionsHandler versionHandler = new VersionsHandler(repositoryHandler);
-            return versionHandler.getLastVersion(versions);
-        } catch (Exception e) {
+        if(latestVersion.getLastVersion() == null && !latestVersion.getVersions().isEmpty()){
             // These versions cannot be compared
             // Let's use the Collection.max() method by default
-            return Collections.max(versions);
+            return Collections.max(latestVersion.getVersions());
         }
+
+        return latestVersion.getLastVersion();
     }
 
     /**
@@ -183,6 +304,7 @@ public class ArtifactHandler {
     public void updateDownLoadUrl(final String gavc, final String downLoadUrl) {
         final DbArtifact artifact = getArtifact(gavc);
         repositoryHandler.updateDownloadUrl(artifact, downLoadUrl);
+        reportCache.invalidate(artifact);
     }
 
     /**
@@ -194,6 +316,7 @@ public class ArtifactHandler {
     public void updateProvider(final String gavc, final String provider) {
         final DbArtifact artifact = getArtifact(gavc);
         repositoryHandler.updateProvider(artifact, provider);
+        reportCache.invalidate(artifact);
     }
 
     /**
@@ -202,8 +325,10 @@ public class ArtifactHandler {
      * @param gavc String
      */
     public void deleteArtifact(final String gavc){
-        getArtifact(gavc);
+        final DbArtifact artifact = getArtifact(gavc);
         repositoryHandler.deleteArtifact(gavc);
+        versionsIndex.remove(artifact);
+        reportCache.invalidate(artifact);
     }
 
     /**
@@ -215,6 +340,7 @@ public class ArtifactHandler {
     public void updateDoNotUse(final String gavc, final Boolean doNotUse) {
         final DbArtifact artifact = getArtifact(gavc);
         repositoryHandler.updateDoNotUse(artifact, doNotUse);
+        reportCache.invalidate(artifact);
     }
 
     /**
@@ -279,6 +405,7 @@ public class ArtifactHandler {
         }
 
         repositoryHandler.addLicenseToArtifact(dbArtifact, dbLicense.getName());
+        reportCache.invalidate(dbArtifact);
     }
 
     /**
@@ -296,6 +423,7 @@ public class ArtifactHandler {
         }
 
         repositoryHandler.removeLicenseFromArtifact(dbArtifact, licenseId);
+        reportCache.invalidate(dbArtifact);
 
     }
 
@@ -308,4 +436,14 @@ public class ArtifactHandler {
     public List<DbArtifact> getArtifacts(final FiltersHolder filters) {
         return repositoryHandler.getArtifacts(filters);
     }
+
+    /**
+     * Iterate over the artifacts regarding the filters without loading them all in memory
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<DbArtifact>
+     */
+    public Iterable<DbArtifact> streamArtifacts(final FiltersHolder filters) {
+        return repositoryHandler.streamArtifacts(filters);
+    }
 }
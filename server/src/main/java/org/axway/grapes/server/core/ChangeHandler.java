@@ -0,0 +1,62 @@
+package org.axway.grapes.server.core;
+
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.util.List;
+
+/**
+ * Change Handler
+ *
+ * <p>Gives the changes logged by the repository handler, so that the clients can follow the changes of the data
+ * instead of reading it again. The change log is bounded: a client that is too late has to read the data again.</p>
+ *
+ * @author jdcoffre
+ */
+public class ChangeHandler {
+
+    // maximum number of changes returned at once
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final RepositoryHandler repositoryHandler;
+
+    public ChangeHandler(final RepositoryHandler repositoryHandler) {
+        this.repositoryHandler = repositoryHandler;
+    }
+
+    /**
+     * Returns the changes that follow a sequence number, in their order
+     *
+     * @param since long the sequence number of the last known change, 0 to get the changes from the start
+     * @param limit int the maximum number of changes, bounded by MAX_PAGE_SIZE
+     * @return List<DbChangeEvent>
+     */
+    public List<DbChangeEvent> getChanges(final long since, final int limit) {
+        if(since < 0 || limit < 1){
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("The sequence number must be positive and the limit strictly positive.")
+                    .build());
+        }
+
+        // the changes that follow since have been dropped from the log
+        final long firstSequence = repositoryHandler.getFirstChangeSequence();
+        if(firstSequence > since + 1){
+            throw new WebApplicationException(Response.status(Response.Status.GONE)
+                    .entity("The changes that follow " + since + " are no longer kept, the oldest kept change is " + firstSequence + ".")
+                    .build());
+        }
+
+        return repositoryHandler.getChangeEvents(since, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Returns the sequence number of the last change
+     *
+     * @return long
+     */
+    public long getLastSequence() {
+        return repositoryHandler.getLastChangeSequence();
+    }
+}
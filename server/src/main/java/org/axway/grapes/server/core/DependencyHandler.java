@@ -2,22 +2,25 @@ package org.axway.grapes.server.core;
 
 import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.server.core.cache.ReportCache;
+import org.axway.grapes.server.core.graphs.DependencyGraphIndex;
+import org.axway.grapes.server.core.version.VersionsIndex;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
 import org.axway.grapes.server.core.reports.DependencyReport;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 
 /**
  * Dependency Handler
@@ -34,11 +37,23 @@ public class DependencyHandler {
     private final RepositoryHandler repositoryHandler;
     private final ModelMapper modelMapper;
     private final ModuleHandler moduleHandler;
+    private final DependencyGraphIndex graphIndex;
+    private final VersionsHandler versionHandler;
 
     public DependencyHandler(final RepositoryHandler repositoryHandler) {
+        this(repositoryHandler, new DependencyGraphIndex());
+    }
+
+    public DependencyHandler(final RepositoryHandler repositoryHandler, final DependencyGraphIndex graphIndex) {
+        this(repositoryHandler, graphIndex, new VersionsIndex());
+    }
+
+    public DependencyHandler(final RepositoryHandler repositoryHandler, final DependencyGraphIndex graphIndex, final VersionsIndex versionsIndex) {
         this.repositoryHandler = repositoryHandler;
         this.modelMapper = new ModelMapper(repositoryHandler);
-        this.moduleHandler = new ModuleHandler(repositoryHandler);
+        this.moduleHandler = new ModuleHandler(repositoryHandler, graphIndex, versionsIndex, ReportCache.NONE);
+        this.graphIndex = graphIndex;
+        this.versionHandler = new VersionsHandler(repositoryHandler, versionsIndex);
     }
 
     /**
@@ -49,33 +64,76 @@ public class DependencyHandler {
      * @return List<Dependency>
      */
     public List<Dependency> getModuleDependencies(final String moduleId, final FiltersHolder filters){
+        return getModuleDependencies(moduleId, filters, new ReadStamps());
+    }
+
+    /**
+     * Returns the list of module dependencies regarding the provided filters
+     *
+     * @param moduleId String
+     * @param filters FiltersHolder
+     * @param stamps ReadStamps filled with the stamps of the documents the list is built from
+     * @return List<Dependency>
+     */
+    public List<Dependency> getModuleDependencies(final String moduleId, final FiltersHolder filters, final ReadStamps stamps){
         final DbModule module = moduleHandler.getModule(moduleId);
         final DbOrganization organization = moduleHandler.getOrganization(module);
         filters.setCorporateFilter(new CorporateFilter(organization));
+        stamps.add(module);
+        stamps.add(organization);
 
-        return getModuleDependencies(module, filters, 1, new ArrayList<String>());
+        return getModuleDependencies(module, filters, stamps);
     }
 
-    private List<Dependency> getModuleDependencies(final DbModule module, final FiltersHolder filters, final int depth, final List<String> doneModuleIds){
-        // Checks if the module has already been done
-        if(module == null || doneModuleIds.contains(module.getId())){
-            return Collections.<Dependency>emptyList();
-        }
-        else {
-            doneModuleIds.add(module.getId());
-        }
-
+    /**
+     * Walks the dependency graph level by level so that each level costs a single artifact lookup
+     * and a single module lookup whatever the number of dependencies it contains.
+     */
+    private List<Dependency> getModuleDependencies(final DbModule rootModule, final FiltersHolder filters, final ReadStamps stamps){
         final List<Dependency> dependencies = new ArrayList<Dependency>();
-        for(DbDependency dbDependency: DataUtils.getAllDbDependencies(module)){
-            if(filters.shouldBeInReport(dbDependency)){
-                final Dependency dependency = modelMapper.getDependency(dbDependency, module.getName(), module.getVersion());
-                dependencies.add(dependency);
-
-                if(filters.getDepthHandler().shouldGoDeeper(depth)){
-                    final DbModule dependencyModule = repositoryHandler.getRootModuleOf(dbDependency.getTarget());
-                    dependencies.addAll(getModuleDependencies(dependencyModule, filters, depth + 1, doneModuleIds));
+        final Set<String> doneModuleIds = new HashSet<String>();
+        doneModuleIds.add(rootModule.getId());
+
+        List<DbModule> modules = Collections.singletonList(rootModule);
+        int depth = 1;
+
+        while(!modules.isEmpty()){
+            final List<DbModule> sources = new ArrayList<DbModule>();
+            final List<DbDependency> levelDependencies = new ArrayList<DbDependency>();
+            final Set<String> targets = new LinkedHashSet<String>();
+
+            for(DbModule module: modules){
+                for(DbDependency dbDependency: DataUtils.getAllDbDependencies(module)){
+                    if(filters.shouldBeInReport(dbDependency)){
+                        sources.add(module);
+                        levelDependencies.add(dbDependency);
+                        targets.add(dbDependency.getTarget());
+                    }
                 }
             }
+
+            final Map<String, DbArtifact> artifacts = repositoryHandler.getArtifacts(targets);
+            stamps.addArtifacts(targets, artifacts);
+
+            for(int i = 0 ; i < levelDependencies.size() ; i++){
+                final DbDependency dbDependency = levelDependencies.get(i);
+                final DbModule source = sources.get(i);
+                DbArtifact target = artifacts.get(dbDependency.getTarget());
+
+                if(target == null){
+                    LOG.warn("Missing reference to artifact " + dbDependency.getTarget() + " in module " + source.getId());
+                    target = DataUtils.createDbArtifact(dbDependency.getTarget());
+                }
+
+                dependencies.add(modelMapper.getDependency(dbDependency, target, source.getName(), source.getVersion()));
+            }
+
+            if(targets.isEmpty() || !filters.getDepthHandler().shouldGoDeeper(depth)){
+                break;
+            }
+
+            modules = getModulesToTreat(targets, doneModuleIds, stamps);
+            depth++;
         }
 
         return dependencies;
@@ -89,62 +147,135 @@ public class DependencyHandler {
      * @return DependencyReport
      */
     public DependencyReport getDependencyReport(final String moduleId, final FiltersHolder filters) {
+        return getDependencyReport(moduleId, filters, new ReadStamps());
+    }
+
+    /**
+     * Generate a report about the targeted module dependencies
+     *
+     * @param moduleId String
+     * @param filters FiltersHolder
+     * @param stamps ReadStamps filled with the stamps of the documents the report is built from
+     * @return DependencyReport
+     */
+    public DependencyReport getDependencyReport(final String moduleId, final FiltersHolder filters, final ReadStamps stamps) {
         final DbModule module = moduleHandler.getModule(moduleId);
         final DbOrganization organization = moduleHandler.getOrganization(module);
         filters.setCorporateFilter(new CorporateFilter(organization));
+        stamps.add(module);
+        stamps.add(organization);
 
         final DependencyReport report = new DependencyReport(moduleId);
-        final List<String> done = new ArrayList<String>();
+        final Set<String> done = new HashSet<String>();
         for(DbModule submodule: DataUtils.getAllSubmodules(module)){
             done.add(submodule.getId());
         }
+        done.add(module.getId());
 
-        addModuleToReport(report, module, filters, done, 1);
+        List<DbModule> modules = Collections.singletonList(module);
+        int depth = 1;
 
-        return report;
-    }
+        while(!modules.isEmpty()){
+            final List<DbDependency> levelDependencies = new ArrayList<DbDependency>();
+            final Set<String> targets = new LinkedHashSet<String>();
 
-    private void addModuleToReport(final DependencyReport report, final DbModule module, final FiltersHolder filters, final List<String> done, final int depth) {
-        if(module == null || done.contains(module.getId())){
-            return;
-        }
-        done.add(module.getId());
-        for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
-            addDependenciesToReport(report, dependency, filters, done, depth);
+            for(DbModule levelModule: modules){
+                for(DbDependency dbDependency: DataUtils.getAllDbDependencies(levelModule)){
+                    if(dbDependency.getTarget() != null){
+                        levelDependencies.add(dbDependency);
+                        targets.add(dbDependency.getTarget());
+                    }
+                }
+            }
+
+            // Only the dependencies that target a known artifact are reported and inspected deeper
+            final Map<String, DbArtifact> artifacts = repositoryHandler.getArtifacts(targets);
+            final Map<String, DbLatestVersion> latestVersions = versionHandler.getLatestVersions(artifacts.values());
+            stamps.addArtifacts(targets, artifacts);
+            final Set<String> nextTargets = new LinkedHashSet<String>();
+
+            for(DbDependency dbDependency: levelDependencies){
+                final DbArtifact artifact = artifacts.get(dbDependency.getTarget());
+
+                if(artifact != null){
+                    if(filters.shouldBeInReport(dbDependency)){
+                        final String latestVersionId = DbLatestVersion.generateID(artifact);
+                        final DbLatestVersion latestVersion = latestVersions.get(latestVersionId);
+                        // the last release changes when a new version of the artifact is stored
+                        stamps.add(ReadStamps.lastReleaseKey(latestVersionId), latestVersion.getLastRelease());
+                        addDependencyToReport(report, dbDependency, artifact, latestVersion.getLastRelease());
+                    }
+                    nextTargets.add(artifact.getGavc());
+                }
+            }
+
+            if(nextTargets.isEmpty() || !filters.getDepthHandler().shouldGoDeeper(depth)){
+                break;
+            }
+
+            modules = getModulesToTreat(nextTargets, done, stamps);
+            depth++;
         }
-    }
 
-    private void  addDependenciesToReport(final DependencyReport report, final DbDependency dbDependency, final FiltersHolder filters, final List<String> done, final int depth) {
-        final DbArtifact artifact = repositoryHandler.getArtifact(dbDependency.getTarget());
+        return report;
+    }
 
-        if(artifact == null){
-            return;
+    private void addDependencyToReport(final DependencyReport report, final DbDependency dbDependency, final DbArtifact artifact, final String lastRelease) {
+        if(artifact.getDoNotUse()){
+            report.addShouldNotUse(artifact.getGavc());
         }
 
-        if(filters.shouldBeInReport(dbDependency)){
+        final Dependency dependency = DataModelFactory.createDependency(modelMapper.getArtifact(artifact), dbDependency.getScope());
+        dependency.setSourceName(DataUtils.getModuleName(dbDependency.getSource()));
+        dependency.setSourceVersion(DataUtils.getModuleVersion(dbDependency.getSource()));
+        report.addDependency(dependency, lastRelease);
+    }
 
-            if(artifact.getDoNotUse()){
-                report.addShouldNotUse(artifact.getGavc());
-            }
+    /**
+     * Resolves in a single lookup the modules that produce the targets and that have not been treated yet.
+     * When the graph index is loaded, the producers are found in the index and only the modules to treat are read by id.
+     *
+     * @param targets Collection<String>
+     * @param doneModuleIds Set<String> the ids of the modules that have already been treated, updated with the returned ones
+     * @param stamps ReadStamps filled with the stamps of the returned modules
+     * @return List<DbModule>
+     */
+    private List<DbModule> getModulesToTreat(final Collection<String> targets, final Set<String> doneModuleIds, final ReadStamps stamps) {
+        final List<DbModule> modules = new ArrayList<DbModule>();
 
-            final VersionsHandler versionHandler = new VersionsHandler(repositoryHandler);
-            String lastRelease = null;
+        if(graphIndex.isLoaded()){
+            final Map<String, String> rootModuleIds = graphIndex.getRootModuleIdsOf(targets);
+            final Set<String> moduleIds = new LinkedHashSet<String>();
+            for(String target: targets){
+                final String moduleId = rootModuleIds.get(target);
+                if(moduleId != null && doneModuleIds.add(moduleId)){
+                    moduleIds.add(moduleId);
+                }
+            }
 
-            try{
-                lastRelease = versionHandler.getLastRelease(repositoryHandler.getArtifactVersions(artifact));
-            }catch (Exception e){
-                LOG.info("Failed to find the latest artifact release version: " + artifact.getVersion());
+            final Map<String, DbModule> dbModules = repositoryHandler.getModules(moduleIds);
+            for(String moduleId: moduleIds){
+                final DbModule module = dbModules.get(moduleId);
+                // the index can be a bit late on the deletions of the other servers
+                if(module != null){
+                    modules.add(module);
+                    stamps.add(module);
+                }
             }
 
-            final Dependency dependency = DataModelFactory.createDependency(modelMapper.getArtifact(artifact), dbDependency.getScope());
-            dependency.setSourceName(DataUtils.getModuleName(dbDependency.getSource()));
-            dependency.setSourceVersion(DataUtils.getModuleVersion(dbDependency.getSource()));
-            report.addDependency(dependency, lastRelease);
+            return modules;
         }
 
-        if(filters.getDepthHandler().shouldGoDeeper(depth)){
-            final DbModule module = repositoryHandler.getRootModuleOf(dbDependency.getTarget());
-            addModuleToReport(report, module, filters, done, depth + 1);
+        final Map<String, DbModule> rootModules = repositoryHandler.getRootModulesOf(targets);
+
+        for(String target: targets){
+            final DbModule module = rootModules.get(target);
+            if(module != null && doneModuleIds.add(module.getId())){
+                modules.add(module);
+                stamps.add(module);
+            }
         }
+
+        return modules;
     }
 }
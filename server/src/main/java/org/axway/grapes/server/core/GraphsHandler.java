@@ -2,12 +2,14 @@ package org.axway.grapes.server.core;
 
 import org.axway.grapes.commons.datamodel.Artifact;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
+import org.axway.grapes.server.core.graphs.DependencyGraphIndex;
 import org.axway.grapes.server.core.graphs.ModuleGraph;
 import org.axway.grapes.server.core.graphs.TreeNode;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbDependency;
@@ -16,6 +18,8 @@ import org.axway.grapes.server.db.datamodel.DbOrganization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collections;
+
 /**
  * Graphs Handler
  *
@@ -29,10 +33,18 @@ public class GraphsHandler {
 
     private final RepositoryHandler repoHandler;
     private final FiltersHolder filters;
+    private final DependencyGraphIndex graphIndex;
+    private final ModelMapper modelMapper;
 
     public GraphsHandler(final RepositoryHandler repoHandler, final FiltersHolder filters) {
+        this(repoHandler, filters, new DependencyGraphIndex());
+    }
+
+    public GraphsHandler(final RepositoryHandler repoHandler, final FiltersHolder filters, final DependencyGraphIndex graphIndex) {
         this.repoHandler = repoHandler;
         this.filters = filters;
+        this.graphIndex = graphIndex;
+        this.modelMapper = new ModelMapper(repoHandler);
     }
 
 
@@ -43,14 +55,26 @@ public class GraphsHandler {
      * @return AbstractGraph
      */
     public AbstractGraph getModuleGraph(final String moduleId) {
-        final ModuleHandler moduleHandler = new ModuleHandler(repoHandler);
+        return getModuleGraph(moduleId, new ReadStamps());
+    }
+
+    /**
+     * Generate a module graph regarding the filters
+     *
+     * @param moduleId String
+     * @param stamps ReadStamps filled with the stamps of the documents the graph is built from
+     * @return AbstractGraph
+     */
+    public AbstractGraph getModuleGraph(final String moduleId, final ReadStamps stamps) {
+        final ModuleHandler moduleHandler = new ModuleHandler(repoHandler, graphIndex);
         final DbModule module = moduleHandler.getModule(moduleId);
         final DbOrganization organization = moduleHandler.getOrganization(module);
+        stamps.add(organization);
 
         filters.setCorporateFilter(new CorporateFilter(organization));
 
         final AbstractGraph graph = new ModuleGraph();
-        addModuleToGraph(module, graph, 0);
+        addModuleToGraph(module, graph, 0, stamps);
 
         return graph;
     }
@@ -61,18 +85,19 @@ public class GraphsHandler {
      * @param graph
      * @param depth
      */
-    private void addModuleToGraph(final DbModule module, final AbstractGraph graph, final int depth) {
+    private void addModuleToGraph(final DbModule module, final AbstractGraph graph, final int depth, final ReadStamps stamps) {
         if (graph.isTreated(graph.getId(module))) {
             return;
         }
 
+        stamps.add(module);
         final String moduleElementId = graph.getId(module);
         graph.addElement(moduleElementId, module.getVersion(), depth == 0);
 
         if (filters.getDepthHandler().shouldGoDeeper(depth)) {
             for (DbDependency dep : DataUtils.getAllDbDependencies(module)) {
                 if(filters.shouldBeInReport(dep)){
-                    addDependencyToGraph(dep, graph, depth + 1, moduleElementId);
+                    addDependencyToGraph(dep, graph, depth + 1, moduleElementId, stamps);
                 }
             }
         }
@@ -86,14 +111,15 @@ public class GraphsHandler {
      * @param depth
      * @param parentId
      */
-    private void addDependencyToGraph(final DbDependency dependency, final AbstractGraph graph, final int depth, final String parentId) {
+    private void addDependencyToGraph(final DbDependency dependency, final AbstractGraph graph, final int depth, final String parentId, final ReadStamps stamps) {
         // In that case of Axway artifact we will add a module to the graph
         if (filters.getCorporateFilter().filter(dependency)) {
-            final DbModule dbTarget = repoHandler.getModuleOf(dependency.getTarget());
+            final DbModule dbTarget = getModuleOf(dependency.getTarget());
 
             // if there is no module, add the artifact to the graph
             if(dbTarget == null){
                 LOG.error("Got missing reference: " + dependency.getTarget());
+                stamps.addArtifacts(Collections.singleton(dependency.getTarget()), Collections.<String, DbArtifact>emptyMap());
                 final DbArtifact dbArtifact = DataUtils.createDbArtifact(dependency.getTarget());
                 final String targetElementId = graph.getId(dbArtifact);
                 graph.addElement(targetElementId, dbArtifact.getVersion(), false);
@@ -102,7 +128,7 @@ public class GraphsHandler {
             }
 
             // Add the element to the graph
-            addModuleToGraph(dbTarget, graph, depth + 1);
+            addModuleToGraph(dbTarget, graph, depth + 1, stamps);
 
             //Add the dependency to the graph
             final String moduleElementId = graph.getId(dbTarget);
@@ -111,13 +137,13 @@ public class GraphsHandler {
         // In case a third-party we will add an artifact
         else {
             final DbArtifact dbTarget = repoHandler.getArtifact(dependency.getTarget());
+            stamps.addArtifacts(Collections.singleton(dependency.getTarget()), Collections.singletonMap(dependency.getTarget(), dbTarget));
             if(dbTarget == null){
                 LOG.error("Got missing artifact: " + dependency.getTarget());
                 return;
             }
 
             if(!graph.isTreated(graph.getId(dbTarget))){
-                final ModelMapper modelMapper = new ModelMapper(repoHandler);
                 final Artifact target = modelMapper.getArtifact(dbTarget);
                 final String targetElementId = graph.getId(target);
                 graph.addElement(targetElementId, target.getVersion(), false);
@@ -126,6 +152,34 @@ public class GraphsHandler {
         }
     }
 
+    /**
+     * Returns the module or the submodule that contains an artifact. When the graph index is loaded, its root module is
+     * found in the index and read by id.
+     *
+     * @param gavc String
+     * @return DbModule
+     */
+    private DbModule getModuleOf(final String gavc) {
+        if(!graphIndex.isLoaded()){
+            return repoHandler.getModuleOf(gavc);
+        }
+
+        final String rootModuleId = graphIndex.getRootModuleIdOf(gavc);
+        final DbModule rootModule = rootModuleId == null ? null : repoHandler.getModule(rootModuleId);
+        if(rootModule == null || rootModule.getArtifacts().contains(gavc)){
+            return rootModule;
+        }
+
+        // It may be a submodule...
+        for(DbModule submodule: DataUtils.getAllSubmodules(rootModule)){
+            if(submodule.getArtifacts().contains(gavc)){
+                return submodule;
+            }
+        }
+
+        return rootModule;
+    }
+
     /**
      * Generate a groupId tree regarding the filters
      *
@@ -133,7 +187,7 @@ public class GraphsHandler {
      * @return TreeNode
      */
     public TreeNode getModuleTree(final String moduleId) {
-        final ModuleHandler moduleHandler = new ModuleHandler(repoHandler);
+        final ModuleHandler moduleHandler = new ModuleHandler(repoHandler, graphIndex);
         final DbModule module = moduleHandler.getModule(moduleId);
 
         final TreeNode tree = new TreeNode();
@@ -1,59 +1,45 @@
 package org.axway.grapes.server.core;
 
 import org.axway.grapes.commons.datamodel.License;
+import org.axway.grapes.server.core.cache.ReportCache;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.LicenseIdFilter;
 import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbLicense;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.PatternSyntaxException;
 
 /**
  * License Handler
  *
- * <p>Handles the license resolution. It stores the licenses names and the regexp to avoid db access. It must be updated at license addition / deletion.</p>
+ * <p>Handles the license resolution. The resolution is delegated to a LicenseMatcher that is invalidated at license addition / approval / deletion.</p>
  *
  * @author jdcoffre
  */
 public class LicenseHandler {
 
-    private static final Logger LOG = LoggerFactory.getLogger(LicenseHandler.class);
-
-    private final Map<String, DbLicense> licensesRegexp = new HashMap<String, DbLicense>();
     private final RepositoryHandler repoHandler;
+    private final LicenseMatcher licenseMatcher;
+    private final ReportCache reportCache;
 
     public LicenseHandler(final RepositoryHandler repoHandler) {
-        this.repoHandler = repoHandler;
-        init(repoHandler.getAllLicenses());
+        this(repoHandler, new LicenseMatcher(repoHandler));
     }
 
-    /**
-     * Init the licenses cache
-     *
-     * @param licenses
-     */
-    private void init(final List<DbLicense> licenses){
-        licensesRegexp.clear();
-
-        for(DbLicense license: licenses){
-            if(license.getRegexp() == null ||
-                    license.getRegexp().isEmpty()){
-                licensesRegexp.put(license.getName(), license);
-            }
-            else{
-                licensesRegexp.put(license.getRegexp(), license);
-            }
-        }
+    public LicenseHandler(final RepositoryHandler repoHandler, final LicenseMatcher licenseMatcher) {
+        this(repoHandler, licenseMatcher, ReportCache.NONE);
+    }
+
+    public LicenseHandler(final RepositoryHandler repoHandler, final LicenseMatcher licenseMatcher, final ReportCache reportCache) {
+        this.repoHandler = repoHandler;
+        this.licenseMatcher = licenseMatcher;
+        this.reportCache = reportCache;
     }
 
     /**
@@ -63,6 +49,8 @@ public class LicenseHandler {
      */
     public void store(final DbLicense dbLicense) {
         repoHandler.store(dbLicense);
+        licenseMatcher.invalidate();
+        invalidateReports(dbLicense.getName());
     }
 
     /**
@@ -101,6 +89,8 @@ public class LicenseHandler {
         final DbLicense dbLicense = getLicense(name);
 
         repoHandler.deleteLicense(dbLicense.getName());
+        licenseMatcher.invalidate();
+        invalidateReports(dbLicense.getName());
 
         final FiltersHolder filters = new FiltersHolder();
         final LicenseIdFilter licenseIdFilter = new LicenseIdFilter(name);
@@ -108,6 +98,7 @@ public class LicenseHandler {
 
         for(DbArtifact artifact: repoHandler.getArtifacts(filters)){
             repoHandler.removeLicenseFromArtifact(artifact, name);
+            reportCache.invalidate(artifact);
         }
 
     }
@@ -121,6 +112,18 @@ public class LicenseHandler {
     public void approveLicense(final String name, final Boolean approved) {
         final DbLicense license = getLicense(name);
         repoHandler.approveLicense(license, approved);
+        licenseMatcher.invalidate();
+        invalidateReports(license.getName());
+    }
+
+    /**
+     * The reports depend on the license itself and on the list of the licenses, a new license can identify the license of a dependency
+     */
+    private void invalidateReports(final String name) {
+        final List<String> documentKeys = new ArrayList<String>();
+        documentKeys.add(ReadStamps.licenseKey(name));
+        documentKeys.add(ReadStamps.licensesKey());
+        reportCache.invalidate(documentKeys);
     }
 
 
@@ -132,22 +135,7 @@ public class LicenseHandler {
      * @return DbLicense
      */
     public DbLicense resolve(final String licenseId){
-
-        for(String regexp : licensesRegexp.keySet()){
-            try{
-                if(licenseId.matches(regexp)){
-                    return licensesRegexp.get(regexp);
-                }
-            }
-            catch (PatternSyntaxException e){
-                LOG.error("Wrong pattern for the following license " + licensesRegexp.get(regexp).getName());
-                continue;
-            }
-        }
-
-        LOG.warn("No matching pattern for license " + licenseId);
-        return null;
-
+        return licenseMatcher.resolve(licenseId);
     }
 
 
@@ -157,11 +145,23 @@ public class LicenseHandler {
      * @return List<License>
      */
     public List<License> getLicenses(){
+        return getLicenses(new ReadStamps());
+    }
+
+    /**
+     * Returns all the available license, the stamps of the licenses are added to the read stamps
+     *
+     * @param stamps ReadStamps
+     * @return List<License>
+     */
+    public List<License> getLicenses(final ReadStamps stamps){
         final ModelMapper modelMapper = new ModelMapper(repoHandler);
         final List<License> licenses = new ArrayList<License>();
-        for(DbLicense dbLicense: licensesRegexp.values()){
+        for(DbLicense dbLicense: licenseMatcher.getLicenses()){
             licenses.add(modelMapper.getLicense(dbLicense));
+            stamps.add(dbLicense);
         }
+        stamps.add(ReadStamps.licensesKey(), licenses.size());
 
         return licenses;
     }
@@ -0,0 +1,214 @@
+package org.axway.grapes.server.core;
+
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * License Matcher
+ *
+ * <p>Resolves license ids against the licenses of the database. The licenses are loaded and compiled once,
+ * then shared by all the requests until the matcher is invalidated by a license addition / approval / deletion.</p>
+ *
+ * <p>The licenses without regexp are resolved by an exact name lookup. Each regexp is compiled on its own first, the
+ * invalid ones are logged and skipped. The valid ones are then compiled into a single alternation, each one being
+ * wrapped into a capturing group that identifies the matching license. The regexps that cannot be embedded into the
+ * alternation are matched one by one, all of them are if the alternation cannot be built.</p>
+ *
+ * @author jdcoffre
+ */
+public class LicenseMatcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LicenseMatcher.class);
+
+    // regexps with back-references, named groups or quotes cannot be shifted into the alternation
+    private static final Pattern NOT_EMBEDDABLE = Pattern.compile("\\\\[1-9]|\\\\k<|\\(\\?<[a-zA-Z]|\\\\Q");
+
+    private final RepositoryHandler repoHandler;
+
+    // incremented at each invalidation so that a snapshot loaded concurrently is not published
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile CompiledLicenses compiledLicenses;
+
+    public LicenseMatcher(final RepositoryHandler repoHandler) {
+        this.repoHandler = repoHandler;
+    }
+
+    /**
+     * Drops the compiled licenses, they will be reloaded from the database at next use
+     */
+    public synchronized void invalidate() {
+        generation.incrementAndGet();
+        compiledLicenses = null;
+    }
+
+    /**
+     * Resolve the targeted license thanks to the license ID
+     * Return null if no license is matching the licenseId
+     *
+     * @param licenseId String
+     * @return DbLicense
+     */
+    public DbLicense resolve(final String licenseId) {
+        final DbLicense license = getCompiledLicenses().resolve(licenseId);
+
+        if(license == null){
+            LOG.warn("No matching pattern for license " + licenseId);
+        }
+
+        return license;
+    }
+
+    /**
+     * Returns all the licenses known by the matcher
+     *
+     * @return List<DbLicense>
+     */
+    public List<DbLicense> getLicenses() {
+        return getCompiledLicenses().getLicenses();
+    }
+
+    private CompiledLicenses getCompiledLicenses() {
+        CompiledLicenses current = compiledLicenses;
+
+        if(current == null){
+            final long loadedGeneration = generation.get();
+            current = new CompiledLicenses(repoHandler.getAllLicenses());
+
+            synchronized (this) {
+                if(loadedGeneration == generation.get()){
+                    compiledLicenses = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Immutable snapshot of the compiled licenses
+     */
+    private static final class CompiledLicenses {
+
+        private final List<DbLicense> licenses = new ArrayList<DbLicense>();
+        private final Map<String, DbLicense> licensesByName = new HashMap<String, DbLicense>();
+        private final Map<Pattern, DbLicense> standalonePatterns = new LinkedHashMap<Pattern, DbLicense>();
+        private final Pattern alternation;
+        // license matched by each group of the alternation, null for the nested groups of the regexps
+        private final DbLicense[] licensesByGroup;
+
+        CompiledLicenses(final List<DbLicense> dbLicenses) {
+            final Map<String, DbLicense> licensesByRegexp = new LinkedHashMap<String, DbLicense>();
+
+            for(DbLicense license: dbLicenses){
+                if(license.getRegexp() == null ||
+                        license.getRegexp().isEmpty()){
+                    if(licensesByName.put(license.getName(), license) == null){
+                        licenses.add(license);
+                    }
+                }
+                else if(!licensesByRegexp.containsKey(license.getRegexp())){
+                    licensesByRegexp.put(license.getRegexp(), license);
+                    licenses.add(license);
+                }
+            }
+
+            final Map<Pattern, DbLicense> embeddedPatterns = new LinkedHashMap<Pattern, DbLicense>();
+            final StringBuilder sb = new StringBuilder();
+            final List<DbLicense> groups = new ArrayList<DbLicense>();
+
+            for(Map.Entry<String, DbLicense> entry: licensesByRegexp.entrySet()){
+                final Pattern pattern;
+                try{
+                    pattern = Pattern.compile(entry.getKey());
+                }
+                catch (PatternSyntaxException e){
+                    LOG.error("Wrong pattern for the following license " + entry.getValue().getName());
+                    continue;
+                }
+
+                if(NOT_EMBEDDABLE.matcher(entry.getKey()).find()){
+                    standalonePatterns.put(pattern, entry.getValue());
+                    continue;
+                }
+
+                embeddedPatterns.put(pattern, entry.getValue());
+
+                if(sb.length() > 0){
+                    sb.append('|');
+                }
+                sb.append('(').append(entry.getKey()).append(')');
+
+                groups.add(entry.getValue());
+                for(int i = 0; i < pattern.matcher("").groupCount(); i++){
+                    groups.add(null);
+                }
+            }
+
+            alternation = compileAlternation(sb.toString(), groups.size(), embeddedPatterns);
+            licensesByGroup = groups.toArray(new DbLicense[groups.size()]);
+        }
+
+        /**
+         * Compiles the alternation of the valid regexps. If it cannot be compiled, or if its groups do not match the
+         * ones of the regexps, the regexps are matched one by one.
+         */
+        private Pattern compileAlternation(final String regexp, final int groupCount, final Map<Pattern, DbLicense> embeddedPatterns) {
+            if(regexp.isEmpty()){
+                return null;
+            }
+
+            try{
+                final Pattern pattern = Pattern.compile(regexp);
+                if(pattern.matcher("").groupCount() == groupCount){
+                    return pattern;
+                }
+                LOG.error("The license regexps do not keep their groups once combined, they are matched one by one");
+            }
+            catch (PatternSyntaxException e){
+                LOG.error("The license regexps cannot be combined, they are matched one by one", e);
+            }
+
+            standalonePatterns.putAll(embeddedPatterns);
+            return null;
+        }
+
+        DbLicense resolve(final String licenseId) {
+            final DbLicense license = licensesByName.get(licenseId);
+            if(license != null){
+                return license;
+            }
+
+            if(alternation != null){
+                final Matcher matcher = alternation.matcher(licenseId);
+                if(matcher.matches()){
+                    for(int i = 0; i < licensesByGroup.length; i++){
+                        if(licensesByGroup[i] != null && matcher.start(i + 1) != -1){
+                            return licensesByGroup[i];
+                        }
+                    }
+                }
+            }
+
+            for(Map.Entry<Pattern, DbLicense> entry: standalonePatterns.entrySet()){
+                if(entry.getKey().matcher(licenseId).matches()){
+                    return entry.getValue();
+                }
+            }
+
+            return null;
+        }
+
+        List<DbLicense> getLicenses() {
+            return Collections.unmodifiableList(licenses);
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package org.axway.grapes.server.core;
 
-import org.axway.grapes.commons.datamodel.DataModelFactory;
-import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.server.core.cache.ReportCache;
+import org.axway.grapes.server.core.graphs.DependencyGraphIndex;
+import org.axway.grapes.server.core.promotion.PromotionEvaluator;
+import org.axway.grapes.server.core.version.VersionsIndex;
 import org.axway.grapes.server.core.options.FiltersHolder;
-import org.axway.grapes.server.core.options.filters.CorporateFilter;
-import org.axway.grapes.server.core.options.filters.PromotedFilter;
 import org.axway.grapes.server.db.DataUtils;
-import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.webapp.views.PromotionReportView;
@@ -14,7 +14,12 @@ import org.axway.grapes.server.webapp.views.PromotionReportView;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Module Handler
@@ -26,9 +31,27 @@ import java.util.List;
 public class ModuleHandler {
 
     private final RepositoryHandler repositoryHandler;
+    private final DependencyGraphIndex graphIndex;
+    private final VersionsIndex versionsIndex;
+    private final ReportCache reportCache;
 
     public ModuleHandler(final RepositoryHandler repositoryHandler) {
+        this(repositoryHandler, new DependencyGraphIndex());
+    }
+
+    public ModuleHandler(final RepositoryHandler repositoryHandler, final DependencyGraphIndex graphIndex) {
+        this(repositoryHandler, graphIndex, ReportCache.NONE);
+    }
+
+    public ModuleHandler(final RepositoryHandler repositoryHandler, final DependencyGraphIndex graphIndex, final ReportCache reportCache) {
+        this(repositoryHandler, graphIndex, new VersionsIndex(), reportCache);
+    }
+
+    public ModuleHandler(final RepositoryHandler repositoryHandler, final DependencyGraphIndex graphIndex, final VersionsIndex versionsIndex, final ReportCache reportCache) {
         this.repositoryHandler = repositoryHandler;
+        this.graphIndex = graphIndex;
+        this.versionsIndex = versionsIndex;
+        this.reportCache = reportCache;
     }
 
     /**
@@ -38,6 +61,25 @@ public class ModuleHandler {
      */
     public void store(final DbModule dbModule){
         repositoryHandler.store(dbModule);
+        graphIndex.update(dbModule);
+        reportCache.invalidate(dbModule);
+    }
+
+    /**
+     * Add/update a batch of modules in the database
+     *
+     * @param dbModules Collection<DbModule>
+     */
+    public void storeAll(final Collection<DbModule> dbModules){
+        if(dbModules.isEmpty()){
+            return;
+        }
+
+        repositoryHandler.storeModules(dbModules);
+        for(DbModule dbModule: dbModules){
+            graphIndex.update(dbModule);
+            reportCache.invalidate(dbModule);
+        }
     }
 
     /**
@@ -50,6 +92,16 @@ public class ModuleHandler {
         return repositoryHandler.getModuleNames(filters);
     }
 
+    /**
+     * Iterate, in alphabetical order, over the module names regarding the filters
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<String>
+     */
+    public Iterable<String> streamModuleNames(final FiltersHolder filters) {
+        return repositoryHandler.streamModuleNames(filters);
+    }
+
     /**
      * Returns the available module names regarding the filters
      *
@@ -93,9 +145,14 @@ public class ModuleHandler {
     public void deleteModule(final String moduleId) {
         final DbModule module = getModule(moduleId);
         repositoryHandler.deleteModule(module.getId());
+        graphIndex.remove(module.getId());
+        reportCache.invalidate(module);
 
         for(String gavc: DataUtils.getAllArtifacts(module)){
+            final DbArtifact artifact = DataUtils.createDbArtifact(gavc);
             repositoryHandler.deleteArtifact(gavc);
+            versionsIndex.remove(artifact);
+            reportCache.invalidate(artifact);
         }
     }
 
@@ -127,13 +184,31 @@ public class ModuleHandler {
     public void promoteModule(final String moduleId) {
         final DbModule module = getModule(moduleId);
 
-        for(String gavc: DataUtils.getAllArtifacts(module)){
-            final DbArtifact artifact = repositoryHandler.getArtifact(gavc);
-            artifact.setPromoted(true);
-            repositoryHandler.store(artifact);
+        repositoryHandler.promoteArtifacts(DataUtils.getAllArtifacts(module));
+        repositoryHandler.promoteModule(module);
+        reportCache.invalidate(module);
+    }
+
+    /**
+     * Promote a set of modules and all their artifacts, all the modules are checked before anything is promoted
+     *
+     * @param moduleIds Collection<String>
+     */
+    public void promoteModules(final Collection<String> moduleIds) {
+        final Set<String> gavcs = new HashSet<String>();
+        final List<DbModule> modules = new ArrayList<DbModule>();
+
+        for(String moduleId: moduleIds){
+            final DbModule module = getModule(moduleId);
+            modules.add(module);
+            gavcs.addAll(DataUtils.getAllArtifacts(module));
         }
 
-        repositoryHandler.promoteModule(module);
+        repositoryHandler.promoteArtifacts(gavcs);
+        repositoryHandler.promoteModules(moduleIds);
+        for(DbModule module: modules){
+            reportCache.invalidate(module);
+        }
     }
 
     /**
@@ -143,43 +218,67 @@ public class ModuleHandler {
      * @return PromotionReportView
      */
     public PromotionReportView getPromotionReport(final String moduleId) {
-        final DependencyHandler depHandler = new DependencyHandler(repositoryHandler);
-        final ModelMapper modelMapper = new ModelMapper(repositoryHandler);
-        final DbModule module = getModule(moduleId);
-        final DbOrganization organization = getOrganization(module);
+        return getPromotionReport(moduleId, false);
+    }
 
-        // filters initialization
-        final FiltersHolder filters = new FiltersHolder();
-        filters.addFilter(new PromotedFilter(false));
-        filters.addFilter(new CorporateFilter(organization));
+    /**
+     * Provide a report about the promotion feasibility, in full recursive mode it contains the reports of the
+     * dependencies that are not promoted
+     *
+     * @param moduleId String
+     * @param fullRecursive boolean
+     * @return PromotionReportView
+     */
+    public PromotionReportView getPromotionReport(final String moduleId, final boolean fullRecursive) {
+        return getPromotionReport(moduleId, fullRecursive, new ReadStamps());
+    }
 
-        final PromotionReportView report = new PromotionReportView();
-        report.setRootModule(DataModelFactory.createModule(module.getName(), module.getVersion()));
+    /**
+     * Provide a report about the promotion feasibility, in full recursive mode it contains the reports of the
+     * dependencies that are not promoted
+     *
+     * @param moduleId String
+     * @param fullRecursive boolean
+     * @param stamps ReadStamps filled with the stamps of the documents the report is built from
+     * @return PromotionReportView
+     */
+    public PromotionReportView getPromotionReport(final String moduleId, final boolean fullRecursive, final ReadStamps stamps) {
+        final DbModule module = getModule(moduleId);
+        return new PromotionEvaluator(repositoryHandler, this).evaluate(module, fullRecursive, stamps);
+    }
 
-        // Checks if each dependency module has been promoted
-        for(Dependency dependency: depHandler.getModuleDependencies(moduleId, filters)){
-            final DbModule depModule = repositoryHandler.getRootModuleOf(dependency.getTarget().getGavc());
-            if(depModule!= null && !depModule.isPromoted()){
-                report.addUnPromotedDependency(modelMapper.getModule(depModule));
+    /**
+     * Returns the stored artifacts the representation of a module is built from, indexed by gavc:
+     * the artifacts of the module and of its submodules and the targets of their dependencies
+     *
+     * @param module DbModule
+     * @param stamps ReadStamps filled with the stamps of the artifacts
+     * @return Map<String, DbArtifact>
+     */
+    public Map<String, DbArtifact> getModuleArtifacts(final DbModule module, final ReadStamps stamps) {
+        return getModulesArtifacts(Collections.singletonList(module), stamps);
+    }
 
-                if(filters.getDepthHandler().getFullRecursive()){
-                    report.addDependencyReport(depModule.getId(), getPromotionReport(depModule.getId()));
-                }
+    /**
+     * Returns the stored artifacts the representations of a set of modules are built from, read at once
+     *
+     * @param modules Collection<DbModule>
+     * @param stamps ReadStamps filled with the stamps of the artifacts
+     * @return Map<String, DbArtifact>
+     */
+    public Map<String, DbArtifact> getModulesArtifacts(final Collection<DbModule> modules, final ReadStamps stamps) {
+        final Set<String> gavcs = new HashSet<String>();
+        for(DbModule module: modules){
+            gavcs.addAll(DataUtils.getAllArtifacts(module));
+            for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
+                gavcs.add(dependency.getTarget());
             }
         }
 
-        // Checks if the module has dependencies that shouldn't be used
-        final List<String> treatedArtifacts = new ArrayList<String>();
-        for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
-            final DbArtifact artifactDep = repositoryHandler.getArtifact(dependency.getTarget());
+        final Map<String, DbArtifact> artifacts = repositoryHandler.getArtifacts(gavcs);
+        stamps.addArtifacts(gavcs, artifacts);
 
-            if(artifactDep.getDoNotUse() && !treatedArtifacts.contains(artifactDep.getGavc())){
-                report.addDoNotUseArtifact(modelMapper.getArtifact(artifactDep));
-                treatedArtifacts.add(artifactDep.getGavc());
-            }
-        }
-
-        return report;
+        return artifacts;
     }
 
     public DbOrganization getOrganization(final DbModule module) {
@@ -204,4 +303,14 @@ public class ModuleHandler {
         return repositoryHandler.getModules(filters);
     }
 
+    /**
+     * Iterate over the modules regarding the filters without loading them all in memory
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<DbModule>
+     */
+    public Iterable<DbModule> streamModules(final FiltersHolder filters) {
+        return repositoryHandler.streamModules(filters);
+    }
+
 }
@@ -1,12 +1,15 @@
 package org.axway.grapes.server.core;
 
+import org.axway.grapes.server.core.cache.ReportCache;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -19,9 +22,15 @@ import java.util.List;
 public class OrganizationHandler {
 
     private final RepositoryHandler repositoryHandler;
+    private final ReportCache reportCache;
 
     public OrganizationHandler(final RepositoryHandler repositoryHandler) {
+        this(repositoryHandler, ReportCache.NONE);
+    }
+
+    public OrganizationHandler(final RepositoryHandler repositoryHandler, final ReportCache reportCache) {
         this.repositoryHandler = repositoryHandler;
+        this.reportCache = reportCache;
     }
 
     /**
@@ -31,6 +40,7 @@ public class OrganizationHandler {
      */
     public void store(final DbOrganization dbOrganization) {
         repositoryHandler.store(dbOrganization);
+        reportCache.invalidate(Collections.singletonList(ReadStamps.organizationKey(dbOrganization.getName())));
     }
 
     /**
@@ -68,6 +78,8 @@ public class OrganizationHandler {
         final DbOrganization dbOrganization = getOrganization(organizationId);
         repositoryHandler.deleteOrganization(dbOrganization.getName());
         repositoryHandler.removeModulesOrganization(dbOrganization);
+        // the modules that change of organization are not known
+        reportCache.invalidateAll();
     }
 
     /**
@@ -96,6 +108,7 @@ public class OrganizationHandler {
         }
 
         repositoryHandler.addModulesOrganization(corporateGroupId, dbOrganization);
+        reportCache.invalidateAll();
     }
 
     /**
@@ -113,6 +126,7 @@ public class OrganizationHandler {
         }
 
         repositoryHandler.removeModulesOrganization(corporateGroupId, dbOrganization);
+        reportCache.invalidateAll();
     }
 
 
@@ -128,7 +142,24 @@ public class OrganizationHandler {
             return getOrganization(dbModule.getOrganization());
         }
 
-        for(DbOrganization organization: repositoryHandler.getAllOrganizations()){
+        return getMatchingOrganization(dbModule, repositoryHandler.getAllOrganizations());
+    }
+
+    /**
+     * Returns the Organization, among the provided ones, that suits the Module or null if there is none.
+     * It allows to load the organizations once for a batch of modules.
+     *
+     * @param dbModule DbModule
+     * @param organizations List<DbOrganization> all the organizations
+     * @return DbOrganization
+     */
+    public DbOrganization getMatchingOrganization(final DbModule dbModule, final List<DbOrganization> organizations) {
+        if(dbModule.getOrganization() != null
+                && !dbModule.getOrganization().isEmpty()){
+            return getOrganization(dbModule.getOrganization());
+        }
+
+        for(DbOrganization organization: organizations){
             final CorporateFilter corporateFilter = new CorporateFilter(organization);
             if(corporateFilter.matches(dbModule)){
                 return organization;
@@ -137,4 +168,13 @@ public class OrganizationHandler {
 
         return null;
     }
+
+    /**
+     * Returns all the organizations
+     *
+     * @return List<DbOrganization>
+     */
+    public List<DbOrganization> getAllOrganizations() {
+        return repositoryHandler.getAllOrganizations();
+    }
 }
@@ -0,0 +1,75 @@
+package org.axway.grapes.server.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yammer.dropwizard.json.ObjectMapperFactory;
+import org.axway.grapes.server.core.cache.ReportCache;
+import org.axway.grapes.server.core.graphs.DependencyGraphIndex;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.version.VersionsIndex;
+import org.axway.grapes.server.db.RepositoryHandler;
+
+/**
+ * Server Context
+ *
+ * <p>Holds the server-wide structures that are shared by all the handlers: the license matcher, the dependency graph index,
+ * the versions index, the report cache, the JSON mapper of the environment and, when enabled, the ingestion queue.
+ * The resources hand it over to the handlers they create.</p>
+ *
+ * @author jdcoffre
+ */
+public class ServerContext {
+
+    private final LicenseMatcher licenseMatcher;
+    private final DependencyGraphIndex graphIndex;
+    private final VersionsIndex versionsIndex;
+    private final ReportCache reportCache;
+
+    // replaced by the mapper of the environment when the server runs
+    private ObjectMapper objectMapper = new ObjectMapperFactory().build();
+
+    // null when the asynchronous ingestion is disabled
+    private IngestionQueue ingestionQueue;
+
+    public ServerContext(final RepositoryHandler repoHandler) {
+        this(repoHandler, ReportCache.DEFAULT_POLICY);
+    }
+
+    public ServerContext(final RepositoryHandler repoHandler, final String reportCachePolicy) {
+        this.licenseMatcher = new LicenseMatcher(repoHandler);
+        this.graphIndex = new DependencyGraphIndex();
+        this.versionsIndex = new VersionsIndex();
+        this.reportCache = new ReportCache(reportCachePolicy);
+    }
+
+    public LicenseMatcher getLicenseMatcher() {
+        return licenseMatcher;
+    }
+
+    public DependencyGraphIndex getGraphIndex() {
+        return graphIndex;
+    }
+
+    public VersionsIndex getVersionsIndex() {
+        return versionsIndex;
+    }
+
+    public ReportCache getReportCache() {
+        return reportCache;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public void setObjectMapper(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public IngestionQueue getIngestionQueue() {
+        return ingestionQueue;
+    }
+
+    public void setIngestionQueue(final IngestionQueue ingestionQueue) {
+        this.ingestionQueue = ingestionQueue;
+    }
+}
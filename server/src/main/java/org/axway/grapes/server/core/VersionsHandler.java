@@ -2,12 +2,13 @@ package org.axway.grapes.server.core;
 
 import org.axway.grapes.server.core.version.IncomparableException;
 import org.axway.grapes.server.core.version.NotHandledVersionException;
-import org.axway.grapes.server.core.version.Version;
+import org.axway.grapes.server.core.version.Versions;
+import org.axway.grapes.server.core.version.VersionsIndex;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 
 /**
  * Versions Handler
@@ -19,28 +20,106 @@ import java.util.List;
 public class VersionsHandler {
 
     private final RepositoryHandler repoHandler;
+    private final VersionsIndex versionsIndex;
 
     public VersionsHandler(final RepositoryHandler repoHandler) {
+        this(repoHandler, new VersionsIndex());
+    }
+
+    public VersionsHandler(final RepositoryHandler repoHandler, final VersionsIndex versionsIndex) {
         this.repoHandler = repoHandler;
+        this.versionsIndex = versionsIndex;
+    }
+
+    /**
+     * Returns the available versions of an artifact
+     *
+     * @param artifact DbArtifact
+     * @return List<String>
+     */
+    public List<String> getVersions(final DbArtifact artifact) {
+        if(versionsIndex.isLoaded()){
+            return versionsIndex.getVersions(artifact);
+        }
+        return repoHandler.getArtifactVersions(artifact);
     }
 
+    /**
+     * Find-out the last release version of an artifact (regarding Axway Conventions)
+     *
+     * @param artifact DbArtifact
+     * @return String
+     * @throws NotHandledVersionException
+     * @throws IncomparableException
+     */
+    public String getLastRelease(final DbArtifact artifact) throws NotHandledVersionException, IncomparableException {
+        if(versionsIndex.isLoaded()){
+            return versionsIndex.getLastRelease(artifact);
+        }
+        return getLastRelease(repoHandler.getArtifactVersions(artifact));
+    }
+
+    /**
+     * Find-out the last version of an artifact
+     *
+     * @param artifact DbArtifact
+     * @return String
+     * @throws NotHandledVersionException
+     * @throws IncomparableException
+     */
+    public String getLastVersion(final DbArtifact artifact) throws NotHandledVersionException, IncomparableException {
+        if(versionsIndex.isLoaded()){
+            return versionsIndex.getLastVersion(artifact);
+        }
+        return getLastVersion(repoHandler.getArtifactVersions(artifact));
+    }
+
+
+    /**
+     * Returns the latest versions of the artifacts, indexed by DbLatestVersion id, in a single lookup.
+     * The artifacts that are missing from the materialized latest versions (e.g. before their first rebuild) are
+     * computed from the versions of the stored artifacts, read in the versions index when it is loaded.
+     *
+     * @param artifacts Collection<DbArtifact>
+     * @return Map<String, DbLatestVersion>
+     */
+    public Map<String, DbLatestVersion> getLatestVersions(final Collection<DbArtifact> artifacts) {
+        final Map<String, DbArtifact> artifactsById = new HashMap<String, DbArtifact>();
+        for(DbArtifact artifact: artifacts){
+            artifactsById.put(DbLatestVersion.generateID(artifact), artifact);
+        }
+
+        final Map<String, DbLatestVersion> latestVersions = new HashMap<String, DbLatestVersion>(repoHandler.getLatestVersions(artifactsById.keySet()));
+
+        for(Map.Entry<String, DbArtifact> artifact: artifactsById.entrySet()){
+            if(!latestVersions.containsKey(artifact.getKey())){
+                final DbLatestVersion latestVersion = new DbLatestVersion();
+                latestVersion.setId(artifact.getKey());
+                latestVersion.setVersions(getVersions(artifact.getValue()));
+                Versions.updateLatestVersion(latestVersion);
+
+                latestVersions.put(artifact.getKey(), latestVersion);
+            }
+        }
+
+        return latestVersions;
+    }
 
     /**
-     * Check if the current version match the last release or the last snapshot one
+     * Check if the current version match the last release or the last snapshot one.
+     * The last release and the last version are read from the latest versions of the artifact.
      *
      * @param artifact
      * @return boolean
      */
     public boolean isUpToDate(final DbArtifact artifact) {
-        final List<String> versions = repoHandler.getArtifactVersions(artifact);
         final String currentVersion = artifact.getVersion();
+        final DbLatestVersion latestVersion = getLatestVersions(Collections.singleton(artifact))
+                .get(DbLatestVersion.generateID(artifact));
+        final List<String> versions = latestVersion.getVersions();
 
-        try{
-            final String lastDevVersion = getLastVersion(versions);
-            final String lastReleaseVersion = getLastRelease(versions);
-            return currentVersion.equals(lastDevVersion) || currentVersion.equals(lastReleaseVersion);
-        }
-        catch (Exception e){
+        // the versions cannot be compared, the latest versions have no last version
+        if(latestVersion.getLastVersion() == null && !versions.isEmpty()){
             for(String version: versions){
                 if(version.compareTo(currentVersion) > 0){
                     return false;
@@ -50,6 +129,7 @@ public class VersionsHandler {
             return true;
         }
 
+        return currentVersion.equals(latestVersion.getLastVersion()) || currentVersion.equals(latestVersion.getLastRelease());
     }
 
 
@@ -62,27 +142,7 @@ public class VersionsHandler {
      * @throws IncomparableException
      */
     public String getLastRelease(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
-        Version lastRelease = null;
-
-        for(String version: versions){
-            final Version testedVersion = new Version(version);
-
-            if(testedVersion.isRelease()){
-                if(lastRelease == null){
-                    lastRelease = testedVersion;
-                }
-                else if(lastRelease.compare(testedVersion) < 0){
-                    lastRelease = testedVersion;
-                }
-            }
-
-        }
-
-        if(lastRelease == null){
-            return null;
-        }
-
-        return lastRelease.toString();
+        return Versions.getLastRelease(versions);
     }
 
     /**
@@ -94,24 +154,6 @@ public class VersionsHandler {
      * @throws IncomparableException
      */
     public String getLastVersion(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
-        Version lastVersion = null;
-
-        for(String version: versions){
-            final Version testedVersion = new Version(version);
-
-            if(lastVersion == null){
-                lastVersion = testedVersion;
-            }
-            else if(lastVersion.compare(testedVersion) < 0){
-                lastVersion = testedVersion;
-            }
-
-        }
-
-        if(lastVersion == null){
-            return null;
-        }
-
-        return lastVersion.toString();
+        return Versions.getLastVersion(versions);
     }
 }
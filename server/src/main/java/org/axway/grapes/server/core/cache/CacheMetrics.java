@@ -0,0 +1,76 @@
+package org.axway.grapes.server.core.cache;
+
+import com.google.common.cache.Cache;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+
+/**
+ * Cache Metrics
+ *
+ * <p>Exposes the statistics of a Guava cache as gauges of the metrics registry.
+ * The cache has to be built with recordStats() to provide hits, misses, evictions and hit rate.</p>
+ *
+ * <p>The gauges of a cache replace the ones registered under the same names, so that they report on the last cache
+ * created by their owner instead of the first one.</p>
+ *
+ * @author jdcoffre
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics(){
+        // Utility class should never be instanciate
+    }
+
+    /**
+     * Registers the hits, misses, evictions, hit rate and size gauges of a cache,
+     * replacing the gauges of the previous cache of the same name
+     *
+     * @param owner Class the class that holds the cache
+     * @param cacheName String
+     * @param cache Cache
+     */
+    public static void register(final Class<?> owner, final String cacheName, final Cache<?, ?> cache) {
+        replaceGauge(owner, cacheName + "-hits", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cache.stats().hitCount();
+            }
+        });
+        replaceGauge(owner, cacheName + "-misses", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cache.stats().missCount();
+            }
+        });
+        replaceGauge(owner, cacheName + "-evictions", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cache.stats().evictionCount();
+            }
+        });
+        replaceGauge(owner, cacheName + "-hit-rate", new Gauge<Double>() {
+            @Override
+            public Double value() {
+                return cache.stats().hitRate();
+            }
+        });
+        replaceGauge(owner, cacheName + "-size", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return cache.size();
+            }
+        });
+    }
+
+    /**
+     * Registers a gauge, the gauge previously registered under the same name is removed
+     *
+     * @param owner Class
+     * @param name String
+     * @param gauge Gauge
+     */
+    public static synchronized <T> void replaceGauge(final Class<?> owner, final String name, final Gauge<T> gauge) {
+        Metrics.defaultRegistry().removeMetric(owner, name);
+        Metrics.newGauge(owner, name, gauge);
+    }
+}
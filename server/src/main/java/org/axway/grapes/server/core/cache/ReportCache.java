@@ -0,0 +1,306 @@
+package org.axway.grapes.server.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import com.yammer.metrics.core.Gauge;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ReadStamps;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Report Cache
+ *
+ * <p>Keeps the reports computed from the dependency graph: dependency lists and reports, ancestors, promotion reports
+ * and graphs. A report is cached with the stamps of the documents it has been built from (see ReadStamps), so it is
+ * invalidated as soon as one of these documents is written through the handlers, and only the reports that depend on
+ * it are. The writes of the other servers are read from the change log (see ReportInvalidator).</p>
+ *
+ * <p>The reports are weighted by the number of documents they have been built from and the cache is bounded by
+ * the total weight of its reports: the policy (Guava CacheBuilderSpec) must use maximumWeight.</p>
+ *
+ * @author jdcoffre
+ */
+public class ReportCache {
+
+    public static final String DEFAULT_POLICY = "maximumWeight=1000000, expireAfterWrite=1h";
+
+    /**
+     * Cache that keeps no report, for the handlers that are not given the cache of the server
+     */
+    public static final ReportCache NONE = new NoReportCache();
+
+    private final Cache<String, CachedReport<?>> reports;
+
+    // the keys of the cached reports that depend on each document, guarded by this
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+    // incremented at each invalidation, guarded by this
+    private long generation = 0;
+
+    private final AtomicLong invalidatedReports = new AtomicLong();
+
+    public ReportCache() {
+        this(DEFAULT_POLICY);
+    }
+
+    public ReportCache(final String policy) {
+        this.reports = CacheBuilder.from(policy)
+                .weigher(new Weigher<String, CachedReport<?>>() {
+                    @Override
+                    public int weigh(final String key, final CachedReport<?> report) {
+                        return 1 + report.getStamps().size();
+                    }
+                })
+                .removalListener(new RemovalListener<String, CachedReport<?>>() {
+                    @Override
+                    public void onRemoval(final RemovalNotification<String, CachedReport<?>> notification) {
+                        // a replaced report is indexed again by the one that replaces it
+                        if(notification.getCause() != RemovalCause.REPLACED){
+                            unIndex(notification.getKey(), notification.getValue());
+                        }
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Registers the metrics of the cache: hits, misses, evictions, hit rate, size and invalidated reports
+     */
+    public void registerMetrics() {
+        CacheMetrics.register(ReportCache.class, "reports", reports);
+        CacheMetrics.replaceGauge(ReportCache.class, "reports-invalidations", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return invalidatedReports.get();
+            }
+        });
+    }
+
+    /**
+     * Builds the key of a report about a module
+     *
+     * @param reportName String the kind of report
+     * @param moduleId String
+     * @param filters FiltersHolder the filters the report is built with
+     * @return String
+     */
+    public static String getKey(final String reportName, final String moduleId, final FiltersHolder filters) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(reportName);
+        sb.append("|");
+        sb.append(moduleId);
+        sb.append("|");
+        sb.append(filters.getCacheKey());
+
+        return sb.toString();
+    }
+
+    /**
+     * Returns a cached report, the report is built and cached if there is none.
+     * A report that has been built while a document was written is returned but not cached.
+     *
+     * @param key String see getKey
+     * @param builder ReportBuilder
+     * @return CachedReport
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CachedReport<T> get(final String key, final ReportBuilder<T> builder) {
+        final CachedReport<?> cached = reports.getIfPresent(key);
+        if(cached != null){
+            return (CachedReport<T>) cached;
+        }
+
+        final long buildGeneration = getGeneration();
+        final ReadStamps stamps = new ReadStamps();
+        final CachedReport<T> report = new CachedReport<T>(builder.build(stamps), stamps);
+
+        synchronized (this) {
+            if(buildGeneration == generation){
+                reports.put(key, report);
+                for(String documentKey: stamps.getKeys()){
+                    Set<String> reportKeys = dependents.get(documentKey);
+                    if(reportKeys == null){
+                        reportKeys = new HashSet<String>();
+                        dependents.put(documentKey, reportKeys);
+                    }
+                    reportKeys.add(key);
+                }
+            }
+        }
+
+        return report;
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    private synchronized void unIndex(final String key, final CachedReport<?> report) {
+        if(report == null){
+            return;
+        }
+
+        for(String documentKey: report.getStamps().getKeys()){
+            final Set<String> reportKeys = dependents.get(documentKey);
+            if(reportKeys != null){
+                reportKeys.remove(key);
+                if(reportKeys.isEmpty()){
+                    dependents.remove(documentKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * Invalidates the reports built from a module, its artifacts and the modules that use its dependencies
+     *
+     * @param module DbModule
+     */
+    public void invalidate(final DbModule module) {
+        final List<String> documentKeys = new ArrayList<String>();
+        documentKeys.add(ReadStamps.moduleKey(module.getId()));
+
+        for(String gavc: DataUtils.getAllArtifacts(module)){
+            documentKeys.add(ReadStamps.artifactKey(gavc));
+            documentKeys.add(ReadStamps.usesKey(gavc));
+        }
+        for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
+            documentKeys.add(ReadStamps.usesKey(dependency.getTarget()));
+        }
+
+        invalidate(documentKeys);
+    }
+
+    /**
+     * Invalidates the reports built from an artifact or from the last release of its versions
+     *
+     * @param artifact DbArtifact
+     */
+    public void invalidate(final DbArtifact artifact) {
+        final List<String> documentKeys = new ArrayList<String>();
+        documentKeys.add(ReadStamps.artifactKey(artifact.getGavc()));
+        documentKeys.add(ReadStamps.lastReleaseKey(DbLatestVersion.generateID(artifact)));
+
+        invalidate(documentKeys);
+    }
+
+    /**
+     * Invalidates the reports built from a set of documents
+     *
+     * @param documentKeys Collection<String> the keys of the documents, see ReadStamps
+     */
+    public synchronized void invalidate(final Collection<String> documentKeys) {
+        generation++;
+
+        final Set<String> reportKeys = new HashSet<String>();
+        for(String documentKey: documentKeys){
+            final Set<String> dependentKeys = dependents.get(documentKey);
+            if(dependentKeys != null){
+                reportKeys.addAll(dependentKeys);
+            }
+        }
+
+        invalidatedReports.addAndGet(reportKeys.size());
+        reports.invalidateAll(reportKeys);
+    }
+
+    /**
+     * Invalidates all the reports, for the changes that cannot be tracked back to the reports they impact
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        invalidatedReports.addAndGet(reports.size());
+        reports.invalidateAll();
+    }
+
+    /**
+     * Returns the statistics of the cache
+     *
+     * @return CacheStats
+     */
+    public CacheStats getStats() {
+        return reports.stats();
+    }
+
+    /**
+     * Returns the number of cached reports
+     *
+     * @return long
+     */
+    public long size() {
+        return reports.size();
+    }
+
+    /**
+     * Builds the reports each time they are requested, there is then nothing to invalidate
+     */
+    private static final class NoReportCache extends ReportCache {
+
+        private NoReportCache() {
+            super("maximumWeight=0");
+        }
+
+        @Override
+        public <T> CachedReport<T> get(final String key, final ReportBuilder<T> builder) {
+            final ReadStamps stamps = new ReadStamps();
+            return new CachedReport<T>(builder.build(stamps), stamps);
+        }
+
+        @Override
+        public void invalidate(final Collection<String> documentKeys) {
+            // nothing is cached
+        }
+
+        @Override
+        public void invalidateAll() {
+            // nothing is cached
+        }
+    }
+
+    /**
+     * Builds a report, recording the stamps of the documents it reads
+     */
+    public interface ReportBuilder<T> {
+        T build(ReadStamps stamps);
+    }
+
+    /**
+     * Report with the stamps of the documents it has been built from, it must not be modified once cached
+     */
+    public static class CachedReport<T> {
+        private final T report;
+        private final ReadStamps stamps;
+
+        public CachedReport(final T report, final ReadStamps stamps) {
+            this.report = report;
+            this.stamps = stamps;
+        }
+
+        public T getReport() {
+            return report;
+        }
+
+        public ReadStamps getStamps() {
+            return stamps;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.axway.grapes.server.core.cache;
+
+import org.axway.grapes.server.core.changes.ChangeListener;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ReadStamps;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Report Invalidator
+ *
+ * <p>Invalidates the cached reports that depend on the documents written by the other servers, as they are read from
+ * the change log. The handlers of this server invalidate the reports when they write, the changes they log are then
+ * handled a second time, which only drops the reports built in between.</p>
+ *
+ * <p>A module is read again to find the artifacts and dependencies it has now: the reports built from its previous
+ * content have read the module and depend on it already.</p>
+ *
+ * @author jdcoffre
+ */
+public class ReportInvalidator implements ChangeListener {
+
+    private final ReportCache reportCache;
+    private final RepositoryHandler repoHandler;
+
+    public ReportInvalidator(final ReportCache reportCache, final RepositoryHandler repoHandler) {
+        this.reportCache = reportCache;
+        this.repoHandler = repoHandler;
+    }
+
+    @Override
+    public void onChange(final DbChangeEvent event) {
+        final String entityId = event.getEntityId();
+
+        switch (event.getEntityType()){
+            case MODULE:
+                final DbModule module = repoHandler.getModule(entityId);
+                if(module == null){
+                    reportCache.invalidate(Collections.singletonList(ReadStamps.moduleKey(entityId)));
+                }
+                else{
+                    reportCache.invalidate(module);
+                }
+                break;
+            case ARTIFACT:
+                reportCache.invalidate(DataUtils.createDbArtifact(entityId));
+                break;
+            case LICENSE:
+                final List<String> documentKeys = new ArrayList<String>();
+                documentKeys.add(ReadStamps.licenseKey(entityId));
+                documentKeys.add(ReadStamps.licensesKey());
+                reportCache.invalidate(documentKeys);
+                break;
+            case ORGANIZATION:
+                // the modules that change of organization log their own changes
+                reportCache.invalidate(Collections.singletonList(ReadStamps.organizationKey(entityId)));
+                break;
+            default:
+                // the reports are not built from the products
+                break;
+        }
+    }
+
+    @Override
+    public void onChangesLost() {
+        reportCache.invalidateAll();
+    }
+}
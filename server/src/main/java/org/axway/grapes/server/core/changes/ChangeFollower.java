@@ -0,0 +1,131 @@
+package org.axway.grapes.server.core.changes;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import org.axway.grapes.server.core.ChangeHandler;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change Follower
+ *
+ * <p>Reads the change log periodically and hands the new changes over to the listeners: the in-memory structures of
+ * the server then follow the writes done by the other servers that share the database. The changes done by this
+ * server are received as well, the listeners must handle them again without harm.</p>
+ *
+ * <p>The cursor has to be set with init() before the listeners load their data, so that the changes done during the
+ * loading are not missed. If the cursor falls behind the oldest change kept in the log, the listeners are asked to
+ * load their data again.</p>
+ *
+ * @author jdcoffre
+ */
+public class ChangeFollower implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeFollower.class);
+
+    private final RepositoryHandler repoHandler;
+    private final int pollInterval;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<ChangeListener>();
+
+    // sequence number of the last change handed over to the listeners
+    private long cursor = 0;
+    private ScheduledExecutorService executor;
+
+    public ChangeFollower(final RepositoryHandler repoHandler, final int pollInterval) {
+        this.repoHandler = repoHandler;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Adds a listener, it receives the changes that follow the cursor
+     *
+     * @param listener ChangeListener
+     */
+    public void addListener(final ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the cursor on the last logged change
+     */
+    public synchronized void init() {
+        cursor = repoHandler.getLastChangeSequence();
+    }
+
+    /**
+     * Returns the sequence number of the last change handed over to the listeners
+     *
+     * @return long
+     */
+    public synchronized long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Hands the changes that follow the cursor over to the listeners
+     *
+     * @return int the number of changes
+     */
+    public synchronized int poll() {
+        if(repoHandler.getFirstChangeSequence() > cursor + 1){
+            LOG.warn("The changes that follow " + cursor + " are no longer in the change log, the server data is read again.");
+            cursor = repoHandler.getLastChangeSequence();
+            for(ChangeListener listener: listeners){
+                listener.onChangesLost();
+            }
+            return 0;
+        }
+
+        int nbChanges = 0;
+        List<DbChangeEvent> events;
+        do {
+            events = repoHandler.getChangeEvents(cursor, ChangeHandler.MAX_PAGE_SIZE);
+            for(DbChangeEvent event: events){
+                for(ChangeListener listener: listeners){
+                    listener.onChange(event);
+                }
+                // a change whose handling fails is handed over again at the next poll
+                cursor = event.getSequence();
+                nbChanges++;
+            }
+        } while(events.size() == ChangeHandler.MAX_PAGE_SIZE);
+
+        return nbChanges;
+    }
+
+    @Override
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("change-follower")
+                .setDaemon(true)
+                .build());
+        executor.scheduleWithFixedDelay(new Poller(), pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if(executor != null){
+            executor.shutdownNow();
+        }
+    }
+
+    private class Poller implements Runnable {
+        @Override
+        public void run() {
+            try {
+                poll();
+            } catch (RuntimeException e) {
+                // a failure must not cancel the next runs
+                LOG.error("Failed to follow the change log", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.axway.grapes.server.core.changes;
+
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+
+/**
+ * Change Listener
+ *
+ * <p>Server-side structure that is kept up to date with the change log, so that it follows the writes of all the
+ * servers that share the database and not only the writes of its own server.</p>
+ *
+ * @author jdcoffre
+ */
+public interface ChangeListener {
+
+    /**
+     * Applies a change that has been logged, the changes are received in their order
+     *
+     * @param event DbChangeEvent
+     */
+    void onChange(final DbChangeEvent event);
+
+    /**
+     * Called when changes have been dropped from the change log before they have been read: the listener has to
+     * read the data again.
+     */
+    void onChangesLost();
+}
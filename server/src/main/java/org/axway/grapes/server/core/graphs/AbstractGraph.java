@@ -5,37 +5,73 @@ import org.axway.grapes.commons.datamodel.Scope;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbModule;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
+/**
+ * Abstract Graph
+ *
+ * <p>The elements are indexed by id and the dependencies by source, target and type so that adding a node or an edge
+ * does not depend on the size of the graph. An edge that is added twice is kept once.</p>
+ *
+ * @author jdcoffre
+ */
 public abstract class AbstractGraph {
-	private final List<String> treatedElements = new ArrayList<String>();
-	private List<GraphElement> elements = new ArrayList<GraphElement>();
-	private List<GraphDependency> dependencies = new ArrayList<GraphDependency>();
-	
+	private final Set<String> treatedElements = new HashSet<String>();
+	private final Map<String, GraphElement> elements = new LinkedHashMap<String, GraphElement>();
+	private final Map<String, GraphDependency> dependencies = new LinkedHashMap<String, GraphDependency>();
+
 	public List<GraphElement> getElements() {
-		return elements;
+		return new ArrayList<GraphElement>(elements.values());
 	}
 	public void setElements(final List<GraphElement> elements) {
-		this.elements = elements;
+		this.elements.clear();
+		for(GraphElement element: elements){
+			if(!this.elements.containsKey(element.getValue())){
+				this.elements.put(element.getValue(), element);
+			}
+		}
 	}
 	public List<GraphDependency> getDependencies() {
-		return dependencies;
+		return new ArrayList<GraphDependency>(dependencies.values());
 	}
 	public void setDependencies(final List<GraphDependency> dependencies) {
-		this.dependencies = dependencies;
+		this.dependencies.clear();
+		for(GraphDependency dependency: dependencies){
+			final String key = getKey(dependency.getSource(), dependency.getTarget(), dependency.getType());
+			if(!this.dependencies.containsKey(key)){
+				this.dependencies.put(key, dependency);
+			}
+		}
+	}
+
+	/**
+	 * Provides the elements of the graph without copying them, for the exporters
+	 *
+	 * @return Collection<GraphElement>
+	 */
+	public Collection<GraphElement> elements() {
+		return Collections.unmodifiableCollection(elements.values());
 	}
-	
+
+	/**
+	 * Provides the dependencies of the graph without copying them, for the exporters
+	 *
+	 * @return Collection<GraphDependency>
+	 */
+	public Collection<GraphDependency> dependencies() {
+		return Collections.unmodifiableCollection(dependencies.values());
+	}
+
 	public void addElement(final String id, final String version, final boolean root){
-		final GraphElement element = new GraphElement();
-		element.setValue(id);
-		element.setVersion(version);
-		element.setRoot(root);
-		
-		if(!elements.contains(element)){
-			elements.add(element);
+		if(!elements.containsKey(id)){
+			final GraphElement element = new GraphElement();
+			element.setValue(id);
+			element.setVersion(version);
+			element.setRoot(root);
+
+			elements.put(id, element);
 		}
-		
+
 		treated(id);
 	}
 
@@ -44,26 +80,35 @@ public abstract class AbstractGraph {
             return;
         }
 
+		final String key = getKey(sourceId, targetId, scope.toString());
+		if(dependencies.containsKey(key)){
+			return;
+		}
+
 		final GraphDependency jsonDep = new GraphDependency();
 		jsonDep.setSource(sourceId);
 		jsonDep.setTarget(targetId);
 		jsonDep.setType(scope.toString());
 
-		dependencies.add(jsonDep);
+		dependencies.put(key, jsonDep);
 	}
-	
+
+	private static String getKey(final String sourceId, final String targetId, final String type) {
+		return sourceId + '\n' + targetId + '\n' + type;
+	}
+
 	public boolean isTreated(final String elementId){
 		return treatedElements.contains(elementId);
 	}
-	
+
 	public void treated(final String id){
 		treatedElements.add(id);
 	}
 
 	public abstract String getId(final DbModule module);
-	
+
 	public abstract String getId(final DbArtifact artifact);
-	
+
 	public abstract String getId(final Artifact artifact);
-	
+
 }
@@ -0,0 +1,84 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Ancestors Walker
+ *
+ * <p>Walks breadth-first the modules that use some artifacts, then the modules that use the artifacts of those modules, and so on.
+ * Each module is reported once, at the depth it has been found first.</p>
+ *
+ * <p>When the dependency graph index is loaded the walk is done in memory, otherwise each level of the walk is resolved
+ * with a single lookup on the "uses" field for the whole frontier.</p>
+ *
+ * @author jdcoffre
+ */
+public class AncestorsWalker {
+
+    /** Value - {@value}, depth used to walk the whole graph. */
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    private final RepositoryHandler repoHandler;
+    private final DependencyGraphIndex graphIndex;
+
+    public AncestorsWalker(final RepositoryHandler repoHandler, final DependencyGraphIndex graphIndex) {
+        this.repoHandler = repoHandler;
+        this.graphIndex = graphIndex;
+    }
+
+    /**
+     * Reports the transitive ancestors of the artifacts to the visitor, level by level
+     *
+     * @param gavcs Collection<String> the artifacts to start from
+     * @param maxDepth int number of levels to walk
+     * @param visitor Visitor
+     * @throws IOException if the visitor fails
+     */
+    public void walk(final Collection<String> gavcs, final int maxDepth, final Visitor visitor) throws IOException {
+        if(graphIndex != null && graphIndex.isLoaded()){
+            for(Map.Entry<String, Integer> ancestor: graphIndex.getTransitiveAncestors(gavcs, maxDepth).entrySet()){
+                visitor.visit(ancestor.getKey(), ancestor.getValue());
+            }
+            return;
+        }
+
+        final Set<String> doneModules = new HashSet<String>();
+        final Set<String> doneGavcs = new HashSet<String>(gavcs);
+        Collection<String> frontier = doneGavcs;
+
+        for(int depth = 1; depth <= maxDepth && !frontier.isEmpty(); depth++){
+            final List<String> next = new ArrayList<String>();
+
+            for(DbModule ancestor: repoHandler.getModulesUsing(frontier)){
+                if(!doneModules.add(ancestor.getId())){
+                    continue;
+                }
+                visitor.visit(ancestor.getId(), depth);
+
+                for(String gavc: ancestor.getHas()){
+                    if(doneGavcs.add(gavc)){
+                        next.add(gavc);
+                    }
+                }
+            }
+            frontier = next;
+        }
+    }
+
+    /**
+     * Receives the ancestors as soon as they are found
+     */
+    public interface Visitor {
+
+        /**
+         * @param moduleId String the id of the ancestor module
+         * @param depth int 1 for the modules that use directly the artifacts
+         * @throws IOException
+         */
+        void visit(final String moduleId, final int depth) throws IOException;
+    }
+}
@@ -0,0 +1,514 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.server.core.changes.ChangeListener;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dependency Graph Index
+ *
+ * <p>In-memory adjacency index of the module graph: module -> dependency GAVCs, GAVC -> producing module and
+ * GAVC -> consuming modules. GAVCs and module ids are interned into integer ids so that the adjacency is stored
+ * in primitive arrays.</p>
+ *
+ * <p>The index only holds the ids of the modules: the handlers walk the graph in the index, then read the modules they
+ * need from the database by id.</p>
+ *
+ * <p>The index is loaded once at startup then updated at each module addition / deletion of this server, and by the
+ * change log for the writes of the other servers. As long as it is not loaded, the handlers keep on querying the
+ * database.</p>
+ *
+ * @author jdcoffre
+ */
+public class DependencyGraphIndex implements ChangeListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DependencyGraphIndex.class);
+
+    private static final int NONE = -1;
+    private static final int[] EMPTY = new int[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Integer> gavcIds = new HashMap<String, Integer>();
+    private final List<String> gavcs = new ArrayList<String>();
+    private final Map<String, Integer> moduleIds = new HashMap<String, Integer>();
+    private final List<String> modules = new ArrayList<String>();
+
+    // indexed by module id, null when the module has been removed
+    private final List<ModuleEntry> moduleEntries = new ArrayList<ModuleEntry>();
+    // indexed by gavc id: root module producing the artifact, modules using the artifact
+    private int[] producers = new int[0];
+    private int[][] consumers = new int[0][];
+
+    private boolean loaded = false;
+    // repository the index has been loaded from, the changes are read from it
+    private volatile RepositoryHandler repoHandler;
+
+    /**
+     * Loads all the modules of the repository into the index
+     *
+     * @param repoHandler RepositoryHandler
+     */
+    public void load(final RepositoryHandler repoHandler) {
+        this.repoHandler = repoHandler;
+        final long start = System.currentTimeMillis();
+        final List<DbModule> dbModules = repoHandler.getModules(new FiltersHolder());
+
+        lock.writeLock().lock();
+        try {
+            clear();
+            for(DbModule module: dbModules){
+                index(module);
+            }
+            loaded = true;
+
+            LOG.info("Dependency graph index loaded with " + dbModules.size() + " modules and " + gavcs.size()
+                    + " GAVCs in " + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Checks if the index has been loaded
+     *
+     * @return boolean
+     */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a module in the index. Nothing is done if the index is not loaded.
+     *
+     * @param module DbModule
+     */
+    public void update(final DbModule module) {
+        lock.writeLock().lock();
+        try {
+            if(loaded){
+                index(module);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a module from the index. Nothing is done if the index is not loaded.
+     *
+     * @param moduleId String
+     */
+    public void remove(final String moduleId) {
+        lock.writeLock().lock();
+        try {
+            final Integer id = moduleIds.get(moduleId);
+            if(loaded && id != null){
+                unlink(id);
+                moduleEntries.set(id, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads again a module that has been changed, by this server or another one
+     *
+     * @param event DbChangeEvent
+     */
+    @Override
+    public void onChange(final DbChangeEvent event) {
+        if(event.getEntityType() != DbChangeEvent.EntityType.MODULE || !isLoaded()){
+            return;
+        }
+
+        final DbModule module = repoHandler.getModule(event.getEntityId());
+        if(module == null){
+            remove(event.getEntityId());
+        }
+        else{
+            update(module);
+        }
+    }
+
+    @Override
+    public void onChangesLost() {
+        if(isLoaded()){
+            load(repoHandler);
+        }
+    }
+
+    /**
+     * Returns the id of the root module that produces an artifact or null if there is none
+     *
+     * @param gavc String
+     * @return String
+     */
+    public String getRootModuleIdOf(final String gavc) {
+        return getRootModuleIdsOf(Collections.singleton(gavc)).get(gavc);
+    }
+
+    /**
+     * Returns the ids of the root modules that produce the artifacts, indexed by gavc. The gavcs without producer are omitted.
+     *
+     * @param targets Collection<String>
+     * @return Map<String, String>
+     */
+    public Map<String, String> getRootModuleIdsOf(final Collection<String> targets) {
+        final Map<String, String> result = new HashMap<String, String>();
+
+        lock.readLock().lock();
+        try {
+            for(String gavc: targets){
+                final int producer = getProducer(gavc);
+                if(producer != NONE){
+                    result.put(gavc, modules.get(producer));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the ids of the modules that directly use an artifact
+     *
+     * @param gavc String
+     * @return List<String>
+     */
+    public List<String> getConsumingModules(final String gavc) {
+        lock.readLock().lock();
+        try {
+            final List<String> result = new ArrayList<String>();
+            for(int consumer: getConsumers(gavc)){
+                result.add(modules.get(consumer));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the GAVCs that a module depends on, directly or transitively through the modules that produce its dependencies
+     *
+     * @param moduleId String
+     * @param maxDepth int number of levels to walk
+     * @return Set<String>
+     */
+    public Set<String> getTransitiveDependencies(final String moduleId, final int maxDepth) {
+        final Set<String> result = new LinkedHashSet<String>();
+
+        lock.readLock().lock();
+        try {
+            final Integer root = moduleIds.get(moduleId);
+            if(root == null || moduleEntries.get(root) == null){
+                return result;
+            }
+
+            final BitSet doneModules = new BitSet();
+            final BitSet doneGavcs = new BitSet();
+            doneModules.set(root);
+            int[] level = {root};
+
+            for(int depth = 1; depth <= maxDepth && level.length > 0; depth++){
+                final IntList next = new IntList();
+                for(int module: level){
+                    for(int target: moduleEntries.get(module).uses){
+                        if(doneGavcs.get(target)){
+                            continue;
+                        }
+                        doneGavcs.set(target);
+                        result.add(gavcs.get(target));
+
+                        final int producer = producers[target];
+                        if(producer != NONE && !doneModules.get(producer)){
+                            doneModules.set(producer);
+                            next.add(producer);
+                        }
+                    }
+                }
+                level = next.toArray();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the modules that use an artifact, directly or transitively through the artifacts they produce.
+     * The result is ordered by discovery and gives the depth at which each module has been found.
+     *
+     * @param gavc String
+     * @param maxDepth int number of levels to walk
+     * @return Map<String, Integer>
+     */
+    public Map<String, Integer> getTransitiveAncestors(final String gavc, final int maxDepth) {
+        return getTransitiveAncestors(Collections.singleton(gavc), maxDepth);
+    }
+
+    /**
+     * Returns the modules that use at least one of the artifacts, directly or transitively.
+     *
+     * @param targets Collection<String>
+     * @param maxDepth int number of levels to walk
+     * @return Map<String, Integer>
+     */
+    public Map<String, Integer> getTransitiveAncestors(final Collection<String> targets, final int maxDepth) {
+        final Map<String, Integer> result = new LinkedHashMap<String, Integer>();
+
+        lock.readLock().lock();
+        try {
+            final BitSet doneModules = new BitSet();
+            final IntList firstLevel = new IntList();
+            for(String gavc: targets){
+                firstLevel.addAll(getConsumers(gavc));
+            }
+            int[] level = firstLevel.toArray();
+
+            for(int depth = 1; depth <= maxDepth && level.length > 0; depth++){
+                final IntList next = new IntList();
+                for(int module: level){
+                    if(doneModules.get(module)){
+                        continue;
+                    }
+                    doneModules.set(module);
+                    result.put(modules.get(module), depth);
+
+                    for(int produced: moduleEntries.get(module).has){
+                        next.addAll(consumers[produced]);
+                    }
+                }
+                level = next.toArray();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    private void clear() {
+        gavcIds.clear();
+        gavcs.clear();
+        moduleIds.clear();
+        modules.clear();
+        moduleEntries.clear();
+        producers = new int[0];
+        consumers = new int[0][];
+    }
+
+    private int getProducer(final String gavc) {
+        final Integer id = gavcIds.get(gavc);
+        return id == null ? NONE : producers[id];
+    }
+
+    private int[] getConsumers(final String gavc) {
+        final Integer id = gavcIds.get(gavc);
+        if(id == null || consumers[id] == null){
+            return EMPTY;
+        }
+        return consumers[id];
+    }
+
+    private void index(final DbModule module) {
+        final int moduleId = internModule(module.getId());
+        unlink(moduleId);
+
+        final ModuleEntry entry = createEntry(module);
+        moduleEntries.set(moduleId, entry);
+
+        for(int artifact: entry.has){
+            producers[artifact] = moduleId;
+        }
+        for(int target: entry.uses){
+            consumers[target] = insert(consumers[target], moduleId);
+        }
+    }
+
+    /**
+     * Interns the content of a module, the dependencies and the artifacts of its submodules included
+     */
+    private ModuleEntry createEntry(final DbModule module) {
+        final ModuleEntry entry = new ModuleEntry();
+
+        final IntList has = new IntList();
+        final BitSet produced = new BitSet();
+        for(String gavc: module.getArtifacts()){
+            has.add(internGavc(gavc));
+        }
+        for(DbModule submodule: DataUtils.getAllSubmodules(module)){
+            for(String gavc: submodule.getArtifacts()){
+                has.add(internGavc(gavc));
+            }
+        }
+        entry.has = has.toDistinctArray(produced);
+
+        final IntList uses = new IntList();
+        for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
+            final int target = internGavc(dependency.getTarget());
+            if(!produced.get(target)){
+                uses.add(target);
+            }
+        }
+        entry.uses = uses.toDistinctArray(new BitSet());
+
+        return entry;
+    }
+
+    private void unlink(final int moduleId) {
+        final ModuleEntry previous = moduleEntries.get(moduleId);
+        if(previous == null){
+            return;
+        }
+
+        for(int artifact: previous.has){
+            if(producers[artifact] == moduleId){
+                producers[artifact] = NONE;
+            }
+        }
+        for(int target: previous.uses){
+            consumers[target] = delete(consumers[target], moduleId);
+        }
+    }
+
+    private int internModule(final String moduleId) {
+        Integer id = moduleIds.get(moduleId);
+        if(id == null){
+            id = modules.size();
+            moduleIds.put(moduleId, id);
+            modules.add(moduleId);
+            moduleEntries.add(null);
+        }
+        return id;
+    }
+
+    private int internGavc(final String gavc) {
+        Integer id = gavcIds.get(gavc);
+        if(id == null){
+            id = gavcs.size();
+            gavcIds.put(gavc, id);
+            gavcs.add(gavc);
+
+            if(id == producers.length){
+                final int capacity = Math.max(16, id * 2);
+                producers = Arrays.copyOf(producers, capacity);
+                Arrays.fill(producers, id, capacity, NONE);
+                consumers = Arrays.copyOf(consumers, capacity);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Inserts a value in a sorted array, returns the same array if the value is already there
+     */
+    private static int[] insert(final int[] values, final int value) {
+        if(values == null){
+            return new int[]{value};
+        }
+
+        final int position = Arrays.binarySearch(values, value);
+        if(position >= 0){
+            return values;
+        }
+
+        final int insertion = -position - 1;
+        final int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, insertion);
+        result[insertion] = value;
+        System.arraycopy(values, insertion, result, insertion + 1, values.length - insertion);
+        return result;
+    }
+
+    /**
+     * Removes a value from a sorted array, returns null if the array gets empty
+     */
+    private static int[] delete(final int[] values, final int value) {
+        if(values == null){
+            return null;
+        }
+
+        final int position = Arrays.binarySearch(values, value);
+        if(position < 0){
+            return values;
+        }
+        if(values.length == 1){
+            return null;
+        }
+
+        final int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, position);
+        System.arraycopy(values, position + 1, result, position, values.length - position - 1);
+        return result;
+    }
+
+    /**
+     * Indexed module: arrays of gavc ids
+     */
+    private static final class ModuleEntry {
+        private int[] has;
+        private int[] uses;
+    }
+
+    /**
+     * Minimal growable list of primitive ints
+     */
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size = 0;
+
+        void add(final int value) {
+            if(size == values.length){
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(final int[] others) {
+            if(others != null){
+                for(int value: others){
+                    add(value);
+                }
+            }
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        /**
+         * Returns the values without duplicates, the values are marked in the provided set
+         */
+        int[] toDistinctArray(final BitSet marked) {
+            final IntList distinct = new IntList();
+            for(int i = 0; i < size; i++){
+                if(!marked.get(values[i])){
+                    marked.set(values[i]);
+                    distinct.add(values[i]);
+                }
+            }
+            return distinct.toArray();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.axway.grapes.server.core.ingestion;
+
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.Meter;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.commons.utils.JsonUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbIngestionTicket;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion Queue
+ *
+ * <p>Bounded queue of the modules posted for an asynchronous ingestion. The queue is kept in the database so that the
+ * posted modules survive a restart. When it is full, the new posts are refused with a 503 and a Retry-After header:
+ * the clients slow down instead of piling up server threads.</p>
+ *
+ * <p>A claimed module is leased to the server that claimed it: it is put back in the queue only when its lease has
+ * expired, so that the servers sharing the queue never take over the ingestions of each other. The tickets of the
+ * ingested modules are kept for the clients during the retention time, then purged.</p>
+ *
+ * <p>It exposes the depth of the queue, the enqueue, reject and drain rates and the failure rate as metrics.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionQueue {
+
+    // seconds the clients are asked to wait when the queue is full
+    public static final int RETRY_AFTER = 30;
+
+    // default lease of a claimed module and retention of the closed tickets, in milliseconds
+    public static final long DEFAULT_LEASE = 600000;
+    public static final long DEFAULT_RETENTION = 604800000;
+
+    private final RepositoryHandler repositoryHandler;
+    private final int capacity;
+    private final long lease;
+    private final long retention;
+
+    // identifies the server in the tickets it claims
+    private final String owner = UUID.randomUUID().toString();
+
+    private final Meter enqueued;
+    private final Meter rejected;
+    private final Meter drained;
+    private final Meter failed;
+
+    public IngestionQueue(final RepositoryHandler repositoryHandler, final int capacity) {
+        this(repositoryHandler, capacity, DEFAULT_LEASE, DEFAULT_RETENTION);
+    }
+
+    public IngestionQueue(final RepositoryHandler repositoryHandler, final int capacity, final long lease, final long retention) {
+        this.repositoryHandler = repositoryHandler;
+        this.capacity = capacity;
+        this.lease = lease;
+        this.retention = retention;
+
+        this.enqueued = Metrics.newMeter(IngestionQueue.class, "enqueued", "tickets", TimeUnit.SECONDS);
+        this.rejected = Metrics.newMeter(IngestionQueue.class, "rejected", "tickets", TimeUnit.SECONDS);
+        this.drained = Metrics.newMeter(IngestionQueue.class, "drained", "tickets", TimeUnit.SECONDS);
+        this.failed = Metrics.newMeter(IngestionQueue.class, "failed", "tickets", TimeUnit.SECONDS);
+        Metrics.newGauge(IngestionQueue.class, "depth", new Gauge<Long>() {
+            @Override
+            public Long value() {
+                return getDepth();
+            }
+        });
+    }
+
+    /**
+     * Adds a module to the queue. The capacity is checked before the module is added, it is not enforced atomically:
+     * the modules posted at the same time, on this server or on another one, can go past it by their number.
+     *
+     * @param module Module a module that has been validated
+     * @param user String the user that posted the module
+     * @return DbIngestionTicket the ticket to follow the ingestion of the module
+     * @throws WebApplicationException 503 if the queue is full
+     */
+    public DbIngestionTicket submit(final Module module, final String user) {
+        if(getDepth() >= capacity){
+            rejected.mark();
+            throw new WebApplicationException(Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", RETRY_AFTER)
+                    .entity("The ingestion queue is full, retry later.")
+                    .build());
+        }
+
+        final DbIngestionTicket ticket = new DbIngestionTicket();
+        ticket.setId(UUID.randomUUID().toString());
+        ticket.setUser(user);
+        ticket.setCreated(System.currentTimeMillis());
+        ticket.setUpdated(ticket.getCreated());
+
+        try {
+            ticket.setModule(JsonUtils.serialize(module));
+        } catch (IOException e) {
+            throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+        }
+
+        repositoryHandler.store(ticket);
+        enqueued.mark();
+
+        return ticket;
+    }
+
+    /**
+     * Returns a ticket regarding its id, null if there is none
+     *
+     * @param ticketId String
+     * @return DbIngestionTicket
+     */
+    public DbIngestionTicket getTicket(final String ticketId) {
+        return repositoryHandler.getIngestionTicket(ticketId);
+    }
+
+    /**
+     * Returns the number of modules waiting in the queue
+     *
+     * @return long
+     */
+    public long getDepth() {
+        return repositoryHandler.getIngestionTicketCount(DbIngestionTicket.Status.PENDING);
+    }
+
+    /**
+     * Takes the oldest waiting module out of the queue, null if the queue is empty
+     *
+     * @return DbIngestionTicket
+     */
+    public DbIngestionTicket claim() {
+        return repositoryHandler.claimIngestionTicket(owner);
+    }
+
+    /**
+     * Marks a ticket as done, the posted module is not kept
+     *
+     * @param ticket DbIngestionTicket
+     */
+    public void done(final DbIngestionTicket ticket) {
+        close(ticket, DbIngestionTicket.Status.DONE, null);
+    }
+
+    /**
+     * Marks a ticket as failed
+     *
+     * @param ticket DbIngestionTicket
+     * @param message String the cause of the failure
+     */
+    public void failed(final DbIngestionTicket ticket, final String message) {
+        close(ticket, DbIngestionTicket.Status.FAILED, message);
+        failed.mark();
+    }
+
+    private void close(final DbIngestionTicket ticket, final DbIngestionTicket.Status status, final String message) {
+        ticket.setStatus(status);
+        ticket.setMessage(message);
+        ticket.setModule(null);
+        ticket.setUpdated(System.currentTimeMillis());
+
+        repositoryHandler.store(ticket);
+        drained.mark();
+    }
+
+    /**
+     * Puts the modules whose lease has expired back in the queue: their ingestion has been stopped by the shutdown or
+     * the crash of their server
+     *
+     * @return int the number of modules put back
+     */
+    public int release() {
+        return repositoryHandler.releaseIngestionTickets(System.currentTimeMillis() - lease);
+    }
+
+    /**
+     * Removes the tickets that have been closed for longer than the retention time
+     *
+     * @return int the number of removed tickets
+     */
+    public int purge() {
+        return repositoryHandler.purgeIngestionTickets(System.currentTimeMillis() - retention);
+    }
+}
@@ -0,0 +1,165 @@
+package org.axway.grapes.server.core.ingestion;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.yammer.dropwizard.lifecycle.Managed;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.commons.utils.JsonUtils;
+import org.axway.grapes.server.db.datamodel.DbIngestionTicket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.WebApplicationException;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion Workers
+ *
+ * <p>Pool of threads that drain the ingestion queue. Each worker takes the oldest waiting module, stores it and closes
+ * its ticket, then goes on with the next one. A worker waits for the poll interval when the queue is empty.</p>
+ *
+ * <p>The pool is started and stopped with the server. At start and then periodically, the modules whose lease has
+ * expired are put back in the queue and the old closed tickets are purged.</p>
+ *
+ * @author jdcoffre
+ */
+public class IngestionWorkers implements Managed {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IngestionWorkers.class);
+
+    // time given to the workers to finish their current module at shutdown
+    private static final int SHUTDOWN_TIMEOUT = 30;
+    // seconds between two releases of the expired leases and purges of the closed tickets
+    private static final int MAINTENANCE_INTERVAL = 60;
+
+    private final IngestionQueue queue;
+    private final ModuleIngester ingester;
+    private final int nbWorkers;
+    private final int pollInterval;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService maintenance;
+
+    public IngestionWorkers(final IngestionQueue queue, final ModuleIngester ingester, final int nbWorkers, final int pollInterval) {
+        this.queue = queue;
+        this.ingester = ingester;
+        this.nbWorkers = nbWorkers;
+        this.pollInterval = pollInterval;
+    }
+
+    @Override
+    public void start() {
+        maintenance = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ingestion-maintenance")
+                .setDaemon(true)
+                .build());
+        maintenance.scheduleWithFixedDelay(new Maintenance(), 0, MAINTENANCE_INTERVAL, TimeUnit.SECONDS);
+
+        executor = Executors.newFixedThreadPool(nbWorkers, new ThreadFactoryBuilder()
+                .setNameFormat("ingestion-worker-%d")
+                .setDaemon(true)
+                .build());
+
+        for(int i = 0; i < nbWorkers; i++){
+            executor.submit(new Worker());
+        }
+    }
+
+    @Override
+    public void stop() throws InterruptedException {
+        if(executor == null){
+            return;
+        }
+
+        maintenance.shutdownNow();
+        executor.shutdownNow();
+        if(!executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)){
+            LOG.warn("The ingestion workers did not stop in time, their modules will be ingested at next start.");
+        }
+    }
+
+    /**
+     * Ingests the oldest module of the queue
+     *
+     * @return boolean false if the queue was empty
+     */
+    public boolean drainOne() {
+        final DbIngestionTicket ticket = queue.claim();
+        if(ticket == null){
+            return false;
+        }
+
+        try {
+            final Module module = JsonUtils.unserializeModule(ticket.getModule());
+            ingester.ingest(module);
+            queue.done(ticket);
+        } catch (IOException e) {
+            LOG.error("Failed to read the module of the ingestion ticket " + ticket.getId(), e);
+            queue.failed(ticket, "The module cannot be read: " + e.getMessage());
+        } catch (WebApplicationException e) {
+            final Object message = e.getResponse().getEntity();
+            queue.failed(ticket, message == null ? "Http status " + e.getResponse().getStatus() : message.toString());
+        } catch (RuntimeException e) {
+            LOG.error("Failed to ingest the module of the ingestion ticket " + ticket.getId(), e);
+            queue.failed(ticket, e.getMessage());
+        }
+
+        return true;
+    }
+
+    /**
+     * Puts the modules whose lease has expired back in the queue and purges the old closed tickets
+     */
+    public void maintain() {
+        final int released = queue.release();
+        if(released > 0){
+            LOG.info(released + " interrupted module ingestions have been put back in the queue.");
+        }
+
+        final int purged = queue.purge();
+        if(purged > 0){
+            LOG.info(purged + " closed ingestion tickets have been purged.");
+        }
+    }
+
+    private class Maintenance implements Runnable {
+        @Override
+        public void run() {
+            try {
+                maintain();
+            } catch (RuntimeException e) {
+                // a failure must not cancel the next runs
+                LOG.error("Failed to maintain the ingestion queue", e);
+            }
+        }
+    }
+
+    /**
+     * Drains the queue until the pool is stopped
+     */
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            while(!Thread.currentThread().isInterrupted()){
+                try {
+                    if(!drainOne()){
+                        Thread.sleep(pollInterval);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // the queue itself is not reachable, let's wait for the database to come back
+                    LOG.error("Failed to poll the ingestion queue", e);
+                    try {
+                        Thread.sleep(pollInterval);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.axway.grapes.server.core.ingestion;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.Dependency;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.core.ArtifactHandler;
+import org.axway.grapes.server.core.ModuleHandler;
+import org.axway.grapes.server.core.OrganizationHandler;
+import org.axway.grapes.server.core.ServerContext;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+
+/**
+ * Module Ingester
+ *
+ * <p>Stores a posted module: the module itself with its organization, its artifacts and the dependencies that are not
+ * known yet. It is used by the module posts that are handled during the request and by the workers of the ingestion
+ * queue. The module is expected to be valid.</p>
+ *
+ * @author jdcoffre
+ */
+public class ModuleIngester {
+
+    private final RepositoryHandler repositoryHandler;
+    private final ServerContext serverContext;
+    private final ModelMapper modelMapper;
+
+    public ModuleIngester(final RepositoryHandler repositoryHandler, final ServerContext serverContext) {
+        this.repositoryHandler = repositoryHandler;
+        this.serverContext = serverContext;
+        this.modelMapper = new ModelMapper(repositoryHandler);
+    }
+
+    /**
+     * Add/update a module, its artifacts and its dependencies in the database
+     *
+     * @param module Module
+     */
+    public void ingest(final Module module) {
+        // turn it into DbModel
+        final DbModule dbModule = modelMapper.getDbModule(module);
+        final DbOrganization organization = new OrganizationHandler(repositoryHandler).getMatchingOrganization(dbModule);
+        if(organization != null){
+            dbModule.setOrganization(organization.getName());
+        }
+
+        // Save the module
+        new ModuleHandler(repositoryHandler, serverContext.getGraphIndex(), serverContext.getVersionsIndex(), serverContext.getReportCache()).store(dbModule);
+
+        final ArtifactHandler artifactHandler = new ArtifactHandler(repositoryHandler, serverContext.getLicenseMatcher(), serverContext.getVersionsIndex(), serverContext.getReportCache());
+
+        // Add the artifacts
+        for(final Artifact artifact: DataUtils.getAllArtifacts(module)){
+            artifactHandler.store(modelMapper.getDbArtifact(artifact));
+        }
+
+        // Add dependencies that does not already exist
+        for(final Dependency dep: DataUtils.getAllDependencies(module)){
+            final DbArtifact dbDependency = modelMapper.getDbArtifact(dep.getTarget());
+            artifactHandler.storeIfNew(dbDependency);
+        }
+    }
+}
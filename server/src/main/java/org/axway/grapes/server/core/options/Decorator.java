@@ -294,6 +294,31 @@ public class Decorator {
         }
     }
 
+    /**
+     * Returns a key that is the same for all the decorators that render the reports the same way
+     *
+     * @return String
+     */
+    public String getCacheKey() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("licenses=").append(showLicenses);
+        sb.append(",licensesLongName=").append(showLicensesLongName);
+        sb.append(",licensesUrl=").append(showLicensesUrl);
+        sb.append(",licensesComment=").append(showLicensesComment);
+        sb.append(",scopes=").append(showScopes);
+        sb.append(",ancestors=").append(showAncestors);
+        sb.append(",thirdparty=").append(showThirdparty);
+        sb.append(",corporate=").append(showCorporate);
+        sb.append(",providers=").append(showProviders);
+        sb.append(",sources=").append(showSources);
+        sb.append(",sourcesVersion=").append(showSourcesVersion);
+        sb.append(",targets=").append(showTargets);
+        sb.append(",targetsDownloadUrl=").append(showTargetsDownloadUrl);
+        sb.append(",targetsSize=").append(showTargetsSize);
+
+        return sb.toString();
+    }
+
     public void init(final MultivaluedMap<String, String> queryParameters){
         setShowScopes(queryParameters.getFirst(ServerAPI.SHOW_SCOPE_PARAM));
         setShowLicenses(queryParameters.getFirst(ServerAPI.SHOW_LICENSE_PARAM));
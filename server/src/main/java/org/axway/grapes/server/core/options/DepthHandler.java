@@ -60,6 +60,15 @@ public class DepthHandler {
     }
 
 
+    /**
+     * Returns a key that is the same for all the depth handlers that walk as deep, the depth is ignored in full recursive mode
+     *
+     * @return String
+     */
+    public String getCacheKey() {
+        return fullRecursive ? "depth=all" : "depth=" + depth;
+    }
+
     /**
      * Check if the dependency inspection should go deeper regarding the filters
      *
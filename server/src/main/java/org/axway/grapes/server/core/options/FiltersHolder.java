@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 
 /**
@@ -25,8 +26,12 @@ public class FiltersHolder {
     private final ScopeHandler scopeHandler = new ScopeHandler();
     private final Decorator decorator = new Decorator();
     private final DepthHandler depthHandler = new DepthHandler();
+    private final PageHandler pageHandler = new PageHandler();
     private CorporateFilter corporateFilter;
 
+    // the settings of the filters, sorted to build the cache keys
+    private final Map<String, String> filterSettings = new TreeMap<String, String>();
+
     public ScopeHandler getScopeHandler(){
         return scopeHandler;
     }
@@ -39,6 +44,10 @@ public class FiltersHolder {
         return depthHandler;
     }
 
+    public PageHandler getPageHandler() {
+        return pageHandler;
+    }
+
     public CorporateFilter getCorporateFilter() {
         return corporateFilter;
     }
@@ -61,89 +70,124 @@ public class FiltersHolder {
         }
 
         filters.add(newFilter);
+        filterSettings.put(newFilter.getClass().getSimpleName(),
+                String.valueOf(newFilter.moduleFilterFields()) + String.valueOf(newFilter.artifactFilterFields()));
     }
 
 	public void init(final MultivaluedMap<String, String> queryParameters) {
         scopeHandler.init(queryParameters);
         decorator.init(queryParameters);
         depthHandler.init(queryParameters);
+        pageHandler.init(queryParameters);
 
-        final String approved = queryParameters.getFirst(ServerAPI.APPROVED_PARAM);
+        final String approved = getFilterSetting(queryParameters, ServerAPI.APPROVED_PARAM);
         if(approved != null){
             filters.add(new ApprovedFilter(Boolean.valueOf(approved)));
         }
 
-        final String promoted = queryParameters.getFirst(ServerAPI.PROMOTED_PARAM);
+        final String promoted = getFilterSetting(queryParameters, ServerAPI.PROMOTED_PARAM);
         if(promoted != null){
             filters.add(new PromotedFilter(Boolean.valueOf(promoted)));
         }
 
-        final String doNotUse = queryParameters.getFirst(ServerAPI.DO_NOT_USE);
+        final String doNotUse = getFilterSetting(queryParameters, ServerAPI.DO_NOT_USE);
         if(doNotUse != null){
             filters.add(new DoNotUseFilter(Boolean.valueOf(doNotUse)));
         }
 
-        final String gavc = queryParameters.getFirst(ServerAPI.GAVC);
+        final String gavc = getFilterSetting(queryParameters, ServerAPI.GAVC);
         if(gavc != null){
             filters.add(new GavcFilter(gavc));
         }
 
-        final String hasLicense = queryParameters.getFirst(ServerAPI.HAS_LICENSE_PARAM);
+        final String hasLicense = getFilterSetting(queryParameters, ServerAPI.HAS_LICENSE_PARAM);
         if(hasLicense != null){
             filters.add(new HasLicenseFilter(Boolean.valueOf(hasLicense)));
         }
 
-        final String toBeValidated = queryParameters.getFirst(ServerAPI.TO_BE_VALIDATED_PARAM);
+        final String toBeValidated = getFilterSetting(queryParameters, ServerAPI.TO_BE_VALIDATED_PARAM);
         if(toBeValidated != null){
             filters.add(new ToBeValidatedFilter(Boolean.valueOf(toBeValidated)));
         }
 
-        final String licenseId = queryParameters.getFirst(ServerAPI.LICENSE_ID_PARAM);
+        final String licenseId = getFilterSetting(queryParameters, ServerAPI.LICENSE_ID_PARAM);
         if(licenseId != null){
             filters.add(new LicenseIdFilter(licenseId));
         }
 
-        final String classifier = queryParameters.getFirst(ServerAPI.CLASSIFIER_PARAM);
+        final String classifier = getFilterSetting(queryParameters, ServerAPI.CLASSIFIER_PARAM);
         if(classifier != null){
             filters.add(new ClassifierFilter(classifier));
         }
 
-        final String extension = queryParameters.getFirst(ServerAPI.EXTENSION_PARAM);
+        final String extension = getFilterSetting(queryParameters, ServerAPI.EXTENSION_PARAM);
         if(extension != null){
             filters.add(new ExtensionFilter(extension));
         }
 
-        final String type = queryParameters.getFirst(ServerAPI.TYPE_PARAM);
+        final String type = getFilterSetting(queryParameters, ServerAPI.TYPE_PARAM);
         if(type != null){
             filters.add(new TypeFilter(type));
         }
 
-        final String version = queryParameters.getFirst(ServerAPI.VERSION_PARAM);
+        final String version = getFilterSetting(queryParameters, ServerAPI.VERSION_PARAM);
         if(version != null){
             filters.add(new VersionFilter(version));
         }
 
-        final String artifactId = queryParameters.getFirst(ServerAPI.ARTIFACTID_PARAM);
+        final String artifactId = getFilterSetting(queryParameters, ServerAPI.ARTIFACTID_PARAM);
         if(artifactId != null){
             filters.add(new ArtifactIdFilter(artifactId));
         }
 
-        final String groupId = queryParameters.getFirst(ServerAPI.GROUPID_PARAM);
+        final String groupId = getFilterSetting(queryParameters, ServerAPI.GROUPID_PARAM);
         if(groupId != null){
             filters.add(new GroupIdFilter(groupId));
         }
 
-        final String name = queryParameters.getFirst(ServerAPI.NAME_PARAM);
+        final String name = getFilterSetting(queryParameters, ServerAPI.NAME_PARAM);
         if(name != null){
             filters.add(new ModuleNameFilter(name));
         }
 
-        final String organization = queryParameters.getFirst(ServerAPI.ORGANIZATION_PARAM);
+        final String organization = getFilterSetting(queryParameters, ServerAPI.ORGANIZATION_PARAM);
         if(organization != null){
             filters.add(new OrganizationFilter(organization));
         }
 	}
 
+    /**
+     * Reads a filter parameter, the parameters that are set are recorded for the cache key
+     */
+    private String getFilterSetting(final MultivaluedMap<String, String> queryParameters, final String name) {
+        final String value = queryParameters.getFirst(name);
+        if(value != null){
+            filterSettings.put(name, value);
+        }
+
+        return value;
+    }
+
+    /**
+     * Returns a key that is the same for all the filter holders that produce the same reports: the settings of the
+     * decorator, the scopes, the depth and the filters. The corporate filter is left out as it comes from the
+     * organization of the module the report is about.
+     *
+     * @return String
+     */
+    public String getCacheKey() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(decorator.getCacheKey());
+        sb.append("|");
+        sb.append(scopeHandler.getCacheKey());
+        sb.append("|");
+        sb.append(depthHandler.getCacheKey());
+        sb.append("|");
+        sb.append(filterSettings);
+
+        return sb.toString();
+    }
+
     public boolean shouldBeInReport(final DbLicense license) {
         for(Filter filter: filters){
             if(!filter.filter(license)){
@@ -0,0 +1,88 @@
+package org.axway.grapes.server.core.options;
+
+import org.axway.grapes.commons.api.ServerAPI;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+/**
+ * Page Handler
+ *
+ * <p>Handle the paging of the lists. The elements are sorted on their id, a page starts right after the id of the last
+ * element of the previous page so that the database walks an index range instead of skipping elements.</p>
+ *
+ * @author jdcoffre
+ */
+public class PageHandler {
+
+    /** String query parameter that is used to get the elements that follow this id.
+     * Default value: null, the list starts with the first element. */
+    private String after;
+
+    /** Integer query parameter that is used to set the maximum size of the page.
+     * Default value: null, no limit. */
+    private Integer limit;
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(final String after) {
+        this.after = after;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(final Integer limit) {
+        if(limit != null && limit < 1){
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("The page limit must be a positive integer.")
+                    .build());
+        }
+        this.limit = limit;
+    }
+
+    private void setLimit(final String limit) {
+        if(limit != null){
+            try{
+                setLimit(Integer.valueOf(limit));
+            }
+            catch (NumberFormatException e){
+                throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                        .entity("The page limit must be a positive integer.")
+                        .build());
+            }
+        }
+    }
+
+    public void init(final MultivaluedMap<String, String> queryParameters) {
+        setAfter(queryParameters.getFirst(ServerAPI.PAGE_AFTER_PARAM));
+        setLimit(queryParameters.getFirst(ServerAPI.PAGE_LIMIT_PARAM));
+    }
+
+    /**
+     * Check if a page has been requested, in this case the results have to be sorted on their id
+     *
+     * @return boolean
+     */
+    public boolean isPaged() {
+        return after != null || limit != null;
+    }
+
+    /**
+     * Returns the value that gives access to the next page, null if the provided page is the last one
+     *
+     * @param pageSize int the number of elements of the current page
+     * @param lastId String the id of the last element of the current page
+     * @return String
+     */
+    public String getNextPage(final int pageSize, final String lastId) {
+        if(limit == null || pageSize < limit){
+            return null;
+        }
+        return lastId;
+    }
+}
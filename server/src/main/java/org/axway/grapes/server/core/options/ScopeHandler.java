@@ -69,6 +69,21 @@ public class ScopeHandler {
         return true;
     }
 
+    /**
+     * Returns a key that is the same for all the scope handlers that select the same dependencies
+     *
+     * @return String
+     */
+    public String getCacheKey() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("compile=").append(scopeComp);
+        sb.append(",provided=").append(scopePro);
+        sb.append(",runtime=").append(scopeRun);
+        sb.append(",test=").append(scopeTest);
+
+        return sb.toString();
+    }
+
     public Boolean getScopeComp() {
         return scopeComp;
     }
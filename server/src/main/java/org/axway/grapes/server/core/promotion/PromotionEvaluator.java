@@ -0,0 +1,301 @@
+package org.axway.grapes.server.core.promotion;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.server.core.ModuleHandler;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.options.filters.CorporateFilter;
+import org.axway.grapes.server.core.options.filters.PromotedFilter;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.ReadStamps;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbDependency;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.axway.grapes.server.webapp.views.PromotionReportView;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Promotion Evaluator
+ *
+ * <p>Checks if a module can be promoted: its corporate dependencies have to be promoted and it must not use any
+ * artifact flagged as do-not-use. In full recursive mode, the dependencies that are not promoted are evaluated too.</p>
+ *
+ * <p>The corporate graph is walked once, level by level. The root modules and the artifacts of all the dependencies
+ * of a level are fetched in a few batch queries, and a module is evaluated once whatever the number of modules that
+ * use it. The wide levels are split in chunks that are evaluated in parallel on a bounded pool.</p>
+ *
+ * @author jdcoffre
+ */
+public class PromotionEvaluator {
+
+    // number of modules evaluated by a single task
+    private static final int CHUNK_SIZE = 50;
+    private static final int POOL_SIZE = 4;
+
+    // shared by all the evaluations, the threads are released when they are idle
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE,
+            60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactoryBuilder().setNameFormat("promotion-evaluator-%d").setDaemon(true).build());
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final RepositoryHandler repositoryHandler;
+    private final ModuleHandler moduleHandler;
+    private final ModelMapper modelMapper;
+
+    public PromotionEvaluator(final RepositoryHandler repositoryHandler, final ModuleHandler moduleHandler) {
+        this.repositoryHandler = repositoryHandler;
+        this.moduleHandler = moduleHandler;
+        this.modelMapper = new ModelMapper(repositoryHandler);
+    }
+
+    /**
+     * Evaluates the promotion of a module
+     *
+     * @param module DbModule
+     * @param fullRecursive boolean true to get the reports of the dependencies that are not promoted
+     * @return PromotionReportView
+     */
+    public PromotionReportView evaluate(final DbModule module, final boolean fullRecursive) {
+        return evaluate(module, fullRecursive, new ReadStamps());
+    }
+
+    /**
+     * Evaluates the promotion of a module
+     *
+     * @param module DbModule
+     * @param fullRecursive boolean true to get the reports of the dependencies that are not promoted
+     * @param stamps ReadStamps filled with the stamps of the documents the report is built from
+     * @return PromotionReportView
+     */
+    public PromotionReportView evaluate(final DbModule module, final boolean fullRecursive, final ReadStamps stamps) {
+        final Evaluation evaluation = new Evaluation(stamps);
+        stamps.add(module);
+
+        final Set<String> visited = new HashSet<String>();
+        visited.add(module.getId());
+
+        List<DbModule> level = Collections.singletonList(module);
+        while(!level.isEmpty()){
+            final List<DbModule> nextLevel = new ArrayList<DbModule>();
+
+            for(ModuleEvaluation moduleEvaluation: evaluateLevel(level, evaluation)){
+                evaluation.modules.put(moduleEvaluation.module.getId(), moduleEvaluation);
+
+                if(fullRecursive){
+                    for(DbModule dependency: moduleEvaluation.unPromotedDependencies){
+                        if(visited.add(dependency.getId())){
+                            nextLevel.add(dependency);
+                        }
+                    }
+                }
+            }
+
+            level = nextLevel;
+        }
+
+        return getReport(module.getId(), evaluation, new HashSet<String>(), new HashMap<String, PromotionReportView>());
+    }
+
+    /**
+     * Evaluates the modules of a level, the chunks of a wide level are evaluated in parallel
+     */
+    private List<ModuleEvaluation> evaluateLevel(final List<DbModule> level, final Evaluation evaluation) {
+        final List<List<DbModule>> chunks = Lists.partition(level, CHUNK_SIZE);
+        final List<ModuleEvaluation> results = new ArrayList<ModuleEvaluation>();
+
+        if(chunks.size() == 1){
+            results.addAll(evaluateChunk(level, evaluation));
+            return results;
+        }
+
+        final List<Future<List<ModuleEvaluation>>> futures = new ArrayList<Future<List<ModuleEvaluation>>>();
+        for(final List<DbModule> chunk: chunks.subList(1, chunks.size())){
+            futures.add(EXECUTOR.submit(new Callable<List<ModuleEvaluation>>() {
+                @Override
+                public List<ModuleEvaluation> call() {
+                    return evaluateChunk(chunk, evaluation);
+                }
+            }));
+        }
+
+        // the caller takes its share of the work instead of waiting
+        results.addAll(evaluateChunk(chunks.get(0), evaluation));
+
+        try {
+            for(Future<List<ModuleEvaluation>> future: futures){
+                results.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Promotion evaluation interrupted", e);
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Promotion evaluation failed", e.getCause());
+        } finally {
+            for(Future<List<ModuleEvaluation>> future: futures){
+                future.cancel(true);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Evaluates a set of modules: all the data they need is read with three batch queries
+     */
+    private List<ModuleEvaluation> evaluateChunk(final List<DbModule> modules, final Evaluation evaluation) {
+        final Map<DbModule, List<DbDependency>> corporateDependencies = new LinkedHashMap<DbModule, List<DbDependency>>();
+        final Set<String> corporateTargets = new HashSet<String>();
+        final Set<String> allTargets = new HashSet<String>();
+
+        for(DbModule module: modules){
+            final FiltersHolder filters = evaluation.getFilters(module);
+            final List<DbDependency> dependencies = new ArrayList<DbDependency>();
+
+            for(DbDependency dependency: DataUtils.getAllDbDependencies(module)){
+                allTargets.add(dependency.getTarget());
+
+                if(filters.shouldBeInReport(dependency)){
+                    dependencies.add(dependency);
+                    corporateTargets.add(dependency.getTarget());
+                }
+            }
+
+            corporateDependencies.put(module, dependencies);
+        }
+
+        final Map<String, DbModule> rootModules = repositoryHandler.getRootModulesOf(corporateTargets);
+        final Map<String, DbArtifact> artifacts = repositoryHandler.getArtifacts(allTargets);
+        evaluation.stamps.addArtifacts(allTargets, artifacts);
+        for(DbModule rootModule: rootModules.values()){
+            evaluation.stamps.add(rootModule);
+        }
+
+        final List<ModuleEvaluation> results = new ArrayList<ModuleEvaluation>();
+        final Set<String> toMap = new HashSet<String>();
+
+        for(Map.Entry<DbModule, List<DbDependency>> entry: corporateDependencies.entrySet()){
+            final ModuleEvaluation result = new ModuleEvaluation(entry.getKey());
+
+            for(DbDependency dependency: entry.getValue()){
+                final DbModule dependencyModule = rootModules.get(dependency.getTarget());
+                if(dependencyModule != null && !dependencyModule.isPromoted()){
+                    result.unPromotedDependencies.add(dependencyModule);
+                    toMap.addAll(DataUtils.getAllArtifacts(dependencyModule));
+                    for(DbDependency mappedDependency: DataUtils.getAllDbDependencies(dependencyModule)){
+                        toMap.add(mappedDependency.getTarget());
+                    }
+                }
+            }
+
+            final Set<String> treatedArtifacts = new HashSet<String>();
+            for(DbDependency dependency: DataUtils.getAllDbDependencies(entry.getKey())){
+                final DbArtifact artifact = artifacts.get(dependency.getTarget());
+                if(artifact != null && artifact.getDoNotUse() && treatedArtifacts.add(artifact.getGavc())){
+                    result.doNotUseArtifacts.add(artifact);
+                }
+            }
+
+            results.add(result);
+        }
+
+        // the artifacts of the modules that will be part of the reports
+        toMap.removeAll(artifacts.keySet());
+        final Map<String, DbArtifact> mappedArtifacts = new HashMap<String, DbArtifact>(artifacts);
+        mappedArtifacts.putAll(repositoryHandler.getArtifacts(toMap));
+        evaluation.stamps.addArtifacts(toMap, mappedArtifacts);
+        for(ModuleEvaluation result: results){
+            result.artifacts = mappedArtifacts;
+        }
+
+        return results;
+    }
+
+    /**
+     * Builds the report of an evaluated module, the reports of the modules that are being built are left out
+     * so that the dependency cycles do not end up in the reports.
+     */
+    private PromotionReportView getReport(final String moduleId, final Evaluation evaluation,
+                                          final Set<String> inProgress, final Map<String, PromotionReportView> reports) {
+        final PromotionReportView existing = reports.get(moduleId);
+        if(existing != null){
+            return existing;
+        }
+
+        final ModuleEvaluation moduleEvaluation = evaluation.modules.get(moduleId);
+        final PromotionReportView report = new PromotionReportView();
+        report.setRootModule(DataModelFactory.createModule(moduleEvaluation.module.getName(), moduleEvaluation.module.getVersion()));
+
+        inProgress.add(moduleId);
+        for(DbModule dependency: moduleEvaluation.unPromotedDependencies){
+            report.addUnPromotedDependency(modelMapper.getModule(dependency, moduleEvaluation.artifacts));
+
+            if(evaluation.modules.containsKey(dependency.getId()) && !inProgress.contains(dependency.getId())){
+                report.addDependencyReport(dependency.getId(), getReport(dependency.getId(), evaluation, inProgress, reports));
+            }
+        }
+        inProgress.remove(moduleId);
+
+        for(DbArtifact artifact: moduleEvaluation.doNotUseArtifacts){
+            report.addDoNotUseArtifact(modelMapper.getArtifact(artifact));
+        }
+
+        reports.put(moduleId, report);
+        return report;
+    }
+
+    /**
+     * State of an evaluation: the evaluated modules, the filters of the organizations met so far and the stamps of the documents read
+     */
+    private class Evaluation {
+        private final Map<String, ModuleEvaluation> modules = new HashMap<String, ModuleEvaluation>();
+        private final ConcurrentMap<String, FiltersHolder> filters = new ConcurrentHashMap<String, FiltersHolder>();
+        private final ReadStamps stamps;
+
+        private Evaluation(final ReadStamps stamps) {
+            this.stamps = stamps;
+        }
+
+        private FiltersHolder getFilters(final DbModule module) {
+            final String organizationName = module.getOrganization() == null ? "" : module.getOrganization();
+            FiltersHolder organizationFilters = filters.get(organizationName);
+
+            if(organizationFilters == null){
+                final DbOrganization organization = moduleHandler.getOrganization(module);
+                stamps.add(organization);
+                organizationFilters = new FiltersHolder();
+                organizationFilters.addFilter(new PromotedFilter(false));
+                organizationFilters.setCorporateFilter(new CorporateFilter(organization));
+                filters.putIfAbsent(organizationName, organizationFilters);
+            }
+
+            return organizationFilters;
+        }
+    }
+
+    /**
+     * Result of the evaluation of a module
+     */
+    private static class ModuleEvaluation {
+        private final DbModule module;
+        private final List<DbModule> unPromotedDependencies = new ArrayList<DbModule>();
+        private final List<DbArtifact> doNotUseArtifacts = new ArrayList<DbArtifact>();
+        private Map<String, DbArtifact> artifacts = Collections.emptyMap();
+
+        private ModuleEvaluation(final DbModule module) {
+            this.module = module;
+        }
+    }
+}
@@ -14,20 +14,29 @@ import java.util.*;
  *
  * <p>This class has been design to provide a quick feedback about module dependencies.</p>
  *
+ * <p>The dependencies are indexed by target gavc then by target version while they are added, the template reads
+ * the report row by row so none of the getters has to scan the whole list of dependencies.</p>
+ *
  * @author jdcoffre
  */
 @JsonSerialize(using=DependencyReportSerializer.class)
 public class DependencyReport extends View {
 
-    private String title;
-    private List<Dependency> dependencies = new ArrayList<Dependency>();
-    private List<String> shouldNotBeUsed = new ArrayList<String>();
+    private static final Comparator<Dependency> SOURCE_NAME_COMPARATOR = new Comparator<Dependency>() {
+        @Override
+        public int compare(final Dependency dep1, final Dependency dep2) {
+            return dep1.getSourceName().compareTo(dep2.getSourceName());
+        }
+    };
 
-    public List<Dependency> getDependencies() {
-        return dependencies;
-    }
+    private String title;
+    private Set<Dependency> dependencies = new LinkedHashSet<Dependency>();
+    private Map<String, Target> targets = new LinkedHashMap<String, Target>();
+    private Set<String> shouldNotBeUsed = new HashSet<String>();
     private Map<String, String> lastVersion = new HashMap<String,String>();
 
+    private List<Artifact> sortedTargets;
+
 
     public DependencyReport(final String title) {
         super("DependencyReport.ftl");
@@ -38,11 +47,21 @@ public class DependencyReport extends View {
         return title;
     }
 
+    public List<Dependency> getDependencies() {
+        return new ArrayList<Dependency>(dependencies);
+    }
+
     public void addDependency(final Dependency dependency, final String lastRelease) {
         final String depId = DbArtifact.generateGAVC(dependency.getTarget());
 
-        if(!dependencies.contains(dependency)){
-            dependencies.add(dependency);
+        if(dependencies.add(dependency)){
+            Target target = targets.get(depId);
+            if(target == null){
+                target = new Target(dependency.getTarget());
+                targets.put(depId, target);
+                sortedTargets = null;
+            }
+            target.add(dependency);
         }
 
         if(!lastVersion.containsKey(depId)){
@@ -52,34 +71,27 @@ public class DependencyReport extends View {
     }
 
     public List<Artifact> getDependencyTargets(){
-        final List<Artifact> targets = new ArrayList<Artifact>();
-        final List<String> gavcs = new ArrayList<String>();
-
-        for(Dependency dependency: dependencies){
-            final String depGavc = DbArtifact.generateGAVC(dependency.getTarget());
-            if(!gavcs.contains(depGavc)){
-                targets.add(dependency.getTarget());
-                gavcs.add(depGavc);
+        if(sortedTargets == null){
+            final List<Artifact> artifacts = new ArrayList<Artifact>(targets.size());
+            for(Target target: targets.values()){
+                artifacts.add(target.artifact);
             }
-        }
 
-        DataUtils.sort(targets);
+            DataUtils.sort(artifacts);
+            sortedTargets = Collections.unmodifiableList(artifacts);
+        }
 
-        return targets;
+        return sortedTargets;
     }
 
-    public List<String> getVersions(final Artifact target){
-        final List<String> versions = new ArrayList<String>();
+    public List<String> getVersions(final Artifact artifact){
+        final Target target = targets.get(DbArtifact.generateGAVC(artifact));
 
-        for(Dependency dependency: dependencies){
-            final String depGavc = DbArtifact.generateGAVC(dependency.getTarget());
-            if(depGavc.equals(DbArtifact.generateGAVC(target))
-                    && !versions.contains(dependency.getTarget().getVersion())){
-                versions.add(dependency.getTarget().getVersion());
-            }
+        if(target == null){
+            return new ArrayList<String>();
         }
 
-        return versions;
+        return new ArrayList<String>(target.sources.keySet());
     }
 
     public String getLastVersion(final Artifact artifact){
@@ -94,43 +106,36 @@ public class DependencyReport extends View {
 
 
     public int getNbEntry(final Artifact artifact){
-        int nbEntries = 0;
-
-        final List<String> versions = getVersions(artifact);
+        final Target target = targets.get(DbArtifact.generateGAVC(artifact));
 
-        for(String version: versions){
-			nbEntries += getDependencies(artifact, version).size();
+        if(target == null){
+            return 0;
         }
 
-
-        return nbEntries;
+        return target.nbEntries;
     }
 
-    public List<Dependency> getDependencies(final Artifact target, final String version) {
-        final List<Dependency> sources = new ArrayList<Dependency>();
+    public List<Dependency> getDependencies(final Artifact artifact, final String version) {
+        final Target target = targets.get(artifact.getGavc());
 
-        for(Dependency dependency: dependencies){
-            if(target.getGavc().equals(dependency.getTarget().getGavc()) &&
-                    version.equals(dependency.getTarget().getVersion())){
-                sources.add(dependency);
-            }
+        if(target == null){
+            return new ArrayList<Dependency>();
         }
 
-        int n = sources.size();
-        while(n != 0){
-            int newn = 0;
+        final List<Dependency> sources = target.sources.get(version);
 
-            for(int i = 1 ; i <= n-1 ; i++){
-                if (sources.get(i-1).getSourceName().compareTo(sources.get(i).getSourceName()) > 0){
-                    Collections.swap(sources,i-1,i);
-                    newn = i;
-                }
-            }
+        if(sources == null){
+            return new ArrayList<Dependency>();
+        }
 
-            n = newn;
+        if(!target.sorted){
+            for(List<Dependency> versionSources: target.sources.values()){
+                Collections.sort(versionSources, SOURCE_NAME_COMPARATOR);
+            }
+            target.sorted = true;
         }
 
-        return sources;
+        return new ArrayList<Dependency>(sources);
     }
 
     public void addShouldNotUse(final String gavc){
@@ -151,4 +156,32 @@ public class DependencyReport extends View {
         return 0;
     }
 
+    /**
+     * Dependencies of the report that target the same artifact, grouped by version
+     */
+    private static class Target {
+        private final Artifact artifact;
+        private final Map<String, List<Dependency>> sources = new LinkedHashMap<String, List<Dependency>>();
+        private int nbEntries = 0;
+        private boolean sorted = true;
+
+        private Target(final Artifact artifact) {
+            this.artifact = artifact;
+        }
+
+        private void add(final Dependency dependency) {
+            final String version = dependency.getTarget().getVersion();
+            List<Dependency> versionSources = sources.get(version);
+
+            if(versionSources == null){
+                versionSources = new ArrayList<Dependency>();
+                sources.put(version, versionSources);
+            }
+
+            versionSources.add(dependency);
+            nbEntries++;
+            sorted = false;
+        }
+    }
+
 }
@@ -1,173 +1,171 @@
 package org.axway.grapes.server.core.version;
 
 
-
-
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * Version Model Class
- * 
+ *
+ * <p>The version string is parsed once, in the constructor, into its digits, branch id, release id and snapshot flag.
+ * Versions are immutable so the parsed form of a version string can be shared: use {@link #valueOf(String)}
+ * to get it from the cache.</p>
+ *
  * @author jdcoffre
  */
 public class Version {
 
+	private static final int CACHE_SIZE = 50000;
+	private static final Cache<String, Version> CACHE = CacheBuilder.newBuilder()
+			.maximumSize(CACHE_SIZE)
+			.build();
+
 	private final String stringVersion;
+	private final int[] digits;
+	private final boolean snapshot;
+	private final boolean branch;
+	private final int branchId;
+	private final int releaseId;
 
 	public Version(final String version) throws NotHandledVersionException {
 		this.stringVersion = version;
-		
+
 		// Checks if the version match the expectations
 		final String[] versionsParts = stringVersion.split("-");
 		if(versionsParts.length > 3){
 			throw new NotHandledVersionException();
 		}
-		
+
+		snapshot = stringVersion.contains("SNAPSHOT");
+		branch = versionsParts.length == 3;
+
 		try {
-			for(String digit: getDigits().split("\\.")){
-				Integer.parseInt(digit);
+			final String[] digitParts = versionsParts[0].split("\\.");
+			digits = new int[digitParts.length];
+			for(int i = 0; i < digitParts.length; i++){
+				digits[i] = Integer.parseInt(digitParts[i]);
 			}
-			
+
+			int secondPart = 0;
 			if (versionsParts.length > 1 && !versionsParts[1].contains("SNAPSHOT")) {
-				Integer.parseInt(versionsParts[1]);
+				secondPart = Integer.parseInt(versionsParts[1]);
+			}
+			else if (branch) {
+				// the branch id of a branch version is mandatory
+				throw new NotHandledVersionException();
 			}
-			
+
+			int thirdPart = 0;
 			if (versionsParts.length > 2 && !versionsParts[2].contains("SNAPSHOT")) {
-				Integer.parseInt(versionsParts[2]);
+				thirdPart = Integer.parseInt(versionsParts[2]);
 			}
-			
+
+			branchId = branch ? secondPart : 0;
+			releaseId = branch ? thirdPart : secondPart;
+
 		} catch (NumberFormatException e) {
 			throw new NotHandledVersionException(e);
 		}
-		
+
+	}
+
+	/**
+	 * Returns the parsed version of a version string, versions that have already been parsed are taken from the cache
+	 *
+	 * @param version String
+	 * @return Version
+	 * @throws NotHandledVersionException
+	 */
+	public static Version valueOf(final String version) throws NotHandledVersionException {
+		Version parsed = CACHE.getIfPresent(version);
+
+		if(parsed == null){
+			parsed = new Version(version);
+			CACHE.put(version, parsed);
+		}
+
+		return parsed;
 	}
 
 	/**
 	 * Check if a version is a snapshot
-	 * 
+	 *
 	 * @return true if the version is a snapshot
 	 */
 	public Boolean isSnapshot() {
-		return stringVersion.contains("SNAPSHOT");
+		return snapshot;
 	}
 
 	/**
 	 * Check if a version is a release version
-	 * 
-	 * @return true if the version is a release  
+	 *
+	 * @return true if the version is a release
 	 */
 	public Boolean isRelease() {
-		return !isSnapshot();
+		return !snapshot;
 	}
 
 	/**
 	 * Check if a version is a branch version
-	 * 
+	 *
 	 * @return true if the version is a branch version
 	 */
 	public Boolean isBranch() {
-		return stringVersion.split("-").length == 3;
-	}
-
-	/**
-	 * Return the digits of a version
-	 * 
-	 * @return digits
-	 */
-	private String getDigits() {
-		return stringVersion.split("-")[0];
-	}
-
-	/**
-	 * Return the number of digit of the version
-	 * 
-	 * @return number of digit
-	 */
-	private Integer getDigitsSize() {
-		return getDigits().split("\\.").length;
-	}
-
-	/**
-	 * Return the ieme digit of the version 
-	 * 
-	 * @param i digit number
-	 * @return digit
-	 */
-	private Integer getDigit(final int i) {
-		return Integer.valueOf(getDigits().split("\\.")[i]);
+		return branch;
 	}
 
-	/**
-	 * Return the releaseId
-	 * 
-	 * @return releaseId
-	 */
-	private Integer getReleaseId() {
-		final String[] versionParts = stringVersion.split("-");
-		
-		if(isBranch() && versionParts.length >= 3){
-			return Integer.valueOf(versionParts[2]);
+	private static int compare(final int value, final int otherValue) {
+		if(value == otherValue){
+			return 0;
 		}
-		else if(versionParts.length >= 2){
-			return Integer.valueOf(versionParts[1]);
-		}
-
-		return 0;
-	}
-
-	/**
-	 * Return the branchId
-	 * 
-	 * @return branchId
-	 */
-	private Integer getBranchId() {
-		return Integer.valueOf(stringVersion.split("-")[1]);
+		return value < otherValue ? -1 : 1;
 	}
 
 	/**
 	 * Compare two versions
-	 * 
+	 *
 	 * @param other
 	 * @return an integer: 0 if equals, -1 if older, 1 if newer
 	 * @throws IncomparableException is thrown when two versions are not coparable
 	 */
 	public int compare(final Version other) throws IncomparableException{
-		// Cannot compare branch versions and others 
-		if(!isBranch().equals(other.isBranch())){
+		// Cannot compare branch versions and others
+		if(branch != other.branch){
 			throw new IncomparableException();
 		}
-		
+
 		// Compare digits
-		final int minDigitSize = getDigitsSize() < other.getDigitsSize()? getDigitsSize(): other.getDigitsSize();
-		
+		final int minDigitSize = Math.min(digits.length, other.digits.length);
+
 		for(int i = 0; i < minDigitSize ; i++){
-			if(!getDigit(i).equals(other.getDigit(i))){
-				return getDigit(i).compareTo(other.getDigit(i));
+			if(digits[i] != other.digits[i]){
+				return compare(digits[i], other.digits[i]);
 			}
 		}
-		
+
 		// If not the same number of digits and the first digits are equals, the longest is the newer
-		if(!getDigitsSize().equals(other.getDigitsSize())){
-			return getDigitsSize() > other.getDigitsSize()? 1: -1;
+		if(digits.length != other.digits.length){
+			return digits.length > other.digits.length ? 1: -1;
 		}
-		
-		if(isBranch() && !getBranchId().equals(other.getBranchId())){
-			return getBranchId().compareTo(other.getBranchId());
+
+		if(branch && branchId != other.branchId){
+			return compare(branchId, other.branchId);
 		}
-		
+
 		// if the digits are the same, a snapshot is newer than a release
-		if(isSnapshot() && other.isRelease()){
+		if(snapshot && !other.snapshot){
 			return 1;
 		}
-		
-		if(isRelease() && other.isSnapshot()){
+
+		if(!snapshot && other.snapshot){
 			return -1;
 		}
-		
+
 		// if both versions are releases, compare the releaseID
-		if(isRelease() && other.isRelease()){
-			return getReleaseId().compareTo(other.getReleaseId());
+		if(!snapshot){
+			return compare(releaseId, other.releaseId);
 		}
-		
+
 		return 0;
 	}
 
@@ -0,0 +1,102 @@
+package org.axway.grapes.server.core.version;
+
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+
+import java.util.Collection;
+
+/**
+ * Versions
+ *
+ * <p>Picks the last release and the last version out of a list of versions. It only works on the versions it is
+ * given, so that the repository handlers can compute their latest versions without going through the core handlers.</p>
+ *
+ * @author jdcoffre
+ */
+public final class Versions {
+
+    private Versions(){
+        // Hide utility class constructor
+    }
+
+    /**
+     * Find-out the last release version in a list of version (regarding Axway Conventions)
+     *
+     * @param versions
+     * @return String
+     * @throws NotHandledVersionException
+     * @throws IncomparableException
+     */
+    public static String getLastRelease(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
+        Version lastRelease = null;
+
+        for(String version: versions){
+            final Version testedVersion = Version.valueOf(version);
+
+            if(testedVersion.isRelease()){
+                if(lastRelease == null){
+                    lastRelease = testedVersion;
+                }
+                else if(lastRelease.compare(testedVersion) < 0){
+                    lastRelease = testedVersion;
+                }
+            }
+
+        }
+
+        if(lastRelease == null){
+            return null;
+        }
+
+        return lastRelease.toString();
+    }
+
+    /**
+     * Find-out the last version in a list of version
+     *
+     * @param versions
+     * @return String
+     * @throws NotHandledVersionException
+     * @throws IncomparableException
+     */
+    public static String getLastVersion(final Collection<String> versions) throws NotHandledVersionException, IncomparableException {
+        Version lastVersion = null;
+
+        for(String version: versions){
+            final Version testedVersion = Version.valueOf(version);
+
+            if(lastVersion == null){
+                lastVersion = testedVersion;
+            }
+            else if(lastVersion.compare(testedVersion) < 0){
+                lastVersion = testedVersion;
+            }
+
+        }
+
+        if(lastVersion == null){
+            return null;
+        }
+
+        return lastVersion.toString();
+    }
+
+    /**
+     * Computes the last release and the last version of a latest version from its versions.
+     * They are set to null if the versions cannot be compared.
+     *
+     * @param latestVersion DbLatestVersion
+     */
+    public static void updateLatestVersion(final DbLatestVersion latestVersion) {
+        try {
+            latestVersion.setLastRelease(getLastRelease(latestVersion.getVersions()));
+        } catch (Exception e) {
+            latestVersion.setLastRelease(null);
+        }
+
+        try {
+            latestVersion.setLastVersion(getLastVersion(latestVersion.getVersions()));
+        } catch (Exception e) {
+            latestVersion.setLastVersion(null);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package org.axway.grapes.server.core.version;
+
+import org.axway.grapes.server.core.changes.ChangeListener;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Versions Index
+ *
+ * <p>In-memory index of the available versions of each artifact coordinates: groupId, artifactId, classifier and extension.
+ * The versions are kept sorted, trunk and branch versions apart as they cannot be compared, so that the last release
+ * and the last version of an artifact are lookups instead of scans of all its versions.</p>
+ *
+ * <p>The index is loaded once at startup then updated at each artifact addition / deletion of this server, and by the
+ * change log for the writes of the other servers. As long as it is not loaded, the handlers keep on querying the
+ * database.</p>
+ *
+ * @author jdcoffre
+ */
+public class VersionsIndex implements ChangeListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VersionsIndex.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, SortedVersions> versions = new HashMap<String, SortedVersions>();
+
+    private boolean loaded = false;
+    // repository the index has been loaded from, the changes are read from it
+    private volatile RepositoryHandler repoHandler;
+
+    /**
+     * Loads the versions of all the artifacts of the repository into the index.
+     * The index is built aside, the lookups keep on reading the previous one while it is loaded.
+     *
+     * @param repoHandler RepositoryHandler
+     */
+    public void load(final RepositoryHandler repoHandler) {
+        this.repoHandler = repoHandler;
+        final long start = System.currentTimeMillis();
+        final Map<String, SortedVersions> loadedVersions = new HashMap<String, SortedVersions>();
+        final Iterable<DbArtifact> artifacts = repoHandler.streamArtifacts(new FiltersHolder());
+        int nbArtifacts = 0;
+
+        try {
+            if(artifacts != null){
+                for(DbArtifact artifact: artifacts){
+                    index(loadedVersions, artifact);
+                    nbArtifacts++;
+                }
+            }
+        } finally {
+            close(artifacts);
+        }
+
+        lock.writeLock().lock();
+        try {
+            versions = loadedVersions;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        LOG.info("Versions index loaded with " + nbArtifacts + " artifacts and " + loadedVersions.size()
+                + " coordinates in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private static void close(final Iterable<DbArtifact> artifacts) {
+        if(artifacts instanceof Closeable){
+            try {
+                ((Closeable) artifacts).close();
+            } catch (IOException e) {
+                LOG.warn("Failed to close the artifacts cursor", e);
+            }
+        }
+    }
+
+    /**
+     * Checks if the index has been loaded
+     *
+     * @return boolean
+     */
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the version of an artifact to the index, nothing is done if the index is not loaded
+     *
+     * @param artifact DbArtifact
+     */
+    public void add(final DbArtifact artifact) {
+        lock.writeLock().lock();
+        try {
+            if(loaded){
+                index(versions, artifact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the version of an artifact from the index, nothing is done if the index is not loaded
+     *
+     * @param artifact DbArtifact
+     */
+    public void remove(final DbArtifact artifact) {
+        lock.writeLock().lock();
+        try {
+            if(!loaded){
+                return;
+            }
+
+            final String coordinates = getCoordinates(artifact);
+            final SortedVersions sortedVersions = versions.get(coordinates);
+
+            if(sortedVersions != null && sortedVersions.remove(artifact.getVersion()) && sortedVersions.isEmpty()){
+                versions.remove(coordinates);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reads again the versions of an artifact that has been added or deleted, by this server or another one
+     *
+     * @param event DbChangeEvent
+     */
+    @Override
+    public void onChange(final DbChangeEvent event) {
+        // the updates of an artifact do not change its version
+        if(event.getEntityType() != DbChangeEvent.EntityType.ARTIFACT ||
+                event.getOperation() == DbChangeEvent.Operation.UPDATE ||
+                !isLoaded()){
+            return;
+        }
+
+        final DbArtifact artifact = DataUtils.createDbArtifact(event.getEntityId());
+        final List<String> storedVersions = repoHandler.getArtifactVersions(artifact);
+
+        lock.writeLock().lock();
+        try {
+            final String coordinates = getCoordinates(artifact);
+            versions.remove(coordinates);
+
+            for(String version: storedVersions){
+                artifact.setVersion(version);
+                index(versions, artifact);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onChangesLost() {
+        if(isLoaded()){
+            load(repoHandler);
+        }
+    }
+
+    private static void index(final Map<String, SortedVersions> versions, final DbArtifact artifact) {
+        final String coordinates = getCoordinates(artifact);
+        SortedVersions sortedVersions = versions.get(coordinates);
+
+        if(sortedVersions == null){
+            sortedVersions = new SortedVersions();
+            versions.put(coordinates, sortedVersions);
+        }
+
+        sortedVersions.add(artifact.getVersion());
+    }
+
+    private static String getCoordinates(final DbArtifact artifact) {
+        return DbLatestVersion.generateID(artifact);
+    }
+
+    /**
+     * Returns the available versions of an artifact
+     *
+     * @param artifact DbArtifact
+     * @return List<String>
+     */
+    public List<String> getVersions(final DbArtifact artifact) {
+        lock.readLock().lock();
+        try {
+            final SortedVersions sortedVersions = versions.get(getCoordinates(artifact));
+
+            if(sortedVersions == null){
+                return new ArrayList<String>();
+            }
+
+            return new ArrayList<String>(sortedVersions.all);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the last release of an artifact, null if there is none
+     *
+     * @param artifact DbArtifact
+     * @return String
+     * @throws NotHandledVersionException if one of the versions of the artifact is not handled
+     * @throws IncomparableException if the artifact has both branch and trunk releases
+     */
+    public String getLastRelease(final DbArtifact artifact) throws NotHandledVersionException, IncomparableException {
+        lock.readLock().lock();
+        try {
+            final SortedVersions sortedVersions = versions.get(getCoordinates(artifact));
+
+            if(sortedVersions == null){
+                return null;
+            }
+
+            return sortedVersions.getLast(sortedVersions.trunkReleases, sortedVersions.branchReleases);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the last version of an artifact, null if there is none
+     *
+     * @param artifact DbArtifact
+     * @return String
+     * @throws NotHandledVersionException if one of the versions of the artifact is not handled
+     * @throws IncomparableException if the artifact has both branch and trunk versions
+     */
+    public String getLastVersion(final DbArtifact artifact) throws NotHandledVersionException, IncomparableException {
+        lock.readLock().lock();
+        try {
+            final SortedVersions sortedVersions = versions.get(getCoordinates(artifact));
+
+            if(sortedVersions == null){
+                return null;
+            }
+
+            return sortedVersions.getLast(sortedVersions.trunk, sortedVersions.branches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorts the versions of a same branch type, versions that compare equal are sorted on their string
+     */
+    private static final Comparator<Version> VERSION_COMPARATOR = new Comparator<Version>() {
+        @Override
+        public int compare(final Version version1, final Version version2) {
+            try {
+                final int comparison = version1.compare(version2);
+                return comparison != 0 ? comparison : version1.toString().compareTo(version2.toString());
+            } catch (IncomparableException e) {
+                // the trunk and branch versions are kept in different sets
+                throw new IllegalStateException("Branch and trunk versions cannot be sorted together.", e);
+            }
+        }
+    };
+
+    /**
+     * Versions of an artifact coordinates
+     */
+    private static class SortedVersions {
+        private final Set<String> all = new LinkedHashSet<String>();
+        private final Set<String> notHandled = new HashSet<String>();
+        private final TreeSet<Version> trunk = new TreeSet<Version>(VERSION_COMPARATOR);
+        private final TreeSet<Version> trunkReleases = new TreeSet<Version>(VERSION_COMPARATOR);
+        private final TreeSet<Version> branches = new TreeSet<Version>(VERSION_COMPARATOR);
+        private final TreeSet<Version> branchReleases = new TreeSet<Version>(VERSION_COMPARATOR);
+
+        private void add(final String version) {
+            if(!all.add(version)){
+                return;
+            }
+
+            try {
+                final Version parsed = Version.valueOf(version);
+                if(parsed.isBranch()){
+                    branches.add(parsed);
+                    if(parsed.isRelease()){
+                        branchReleases.add(parsed);
+                    }
+                }
+                else{
+                    trunk.add(parsed);
+                    if(parsed.isRelease()){
+                        trunkReleases.add(parsed);
+                    }
+                }
+            } catch (NotHandledVersionException e) {
+                notHandled.add(version);
+            }
+        }
+
+        private boolean remove(final String version) {
+            if(!all.remove(version)){
+                return false;
+            }
+
+            if(!notHandled.remove(version)){
+                try {
+                    final Version parsed = Version.valueOf(version);
+                    trunk.remove(parsed);
+                    trunkReleases.remove(parsed);
+                    branches.remove(parsed);
+                    branchReleases.remove(parsed);
+                } catch (NotHandledVersionException e) {
+                    // the version has been parsed when it has been added
+                    LOG.error("Failed to parse the indexed version " + version, e);
+                }
+            }
+
+            return true;
+        }
+
+        private boolean isEmpty() {
+            return all.isEmpty();
+        }
+
+        private String getLast(final TreeSet<Version> trunkVersions, final TreeSet<Version> branchVersions) throws NotHandledVersionException, IncomparableException {
+            if(!notHandled.isEmpty()){
+                throw new NotHandledVersionException();
+            }
+
+            if(!trunkVersions.isEmpty() && !branchVersions.isEmpty()){
+                throw new IncomparableException();
+            }
+
+            if(!trunkVersions.isEmpty()){
+                return trunkVersions.last().toString();
+            }
+
+            if(!branchVersions.isEmpty()){
+                return branchVersions.last().toString();
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.axway.grapes.server.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change Stamps
+ *
+ * <p>Provides the change stamps that the repository handlers set on the documents they write. A stamp is the write
+ * time in milliseconds, kept strictly increasing so that two writes of a same document never share a stamp.</p>
+ *
+ * @author jdcoffre
+ */
+public final class ChangeStamps {
+
+    private static final AtomicLong LAST_STAMP = new AtomicLong();
+
+    private ChangeStamps(){
+        // Hide utility class constructor
+    }
+
+    /**
+     * Returns a new change stamp
+     *
+     * @return long
+     */
+    public static long next() {
+        while(true){
+            final long last = LAST_STAMP.get();
+            final long next = Math.max(System.currentTimeMillis(), last + 1);
+
+            if(LAST_STAMP.compareAndSet(last, next)){
+                return next;
+            }
+        }
+    }
+}
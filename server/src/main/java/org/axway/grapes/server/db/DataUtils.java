@@ -30,7 +30,7 @@ public final class DataUtils {
      * @return List<String>
      */
     public static List<String> getAllArtifacts(final DbModule module) {
-        final List<String> gavcs = module.getArtifacts();
+        final List<String> gavcs = new ArrayList<String>(module.getArtifacts());
 
         for(DbModule submodule: module.getSubmodules()){
             gavcs.addAll(getAllArtifacts(submodule));
@@ -217,23 +217,16 @@ public final class DataUtils {
     }
 
     /**
-     * Bubble sort
+     * Sorts the artifacts on their string representation
      *
      * @param targets
      */
     public static void sort(final List<Artifact> targets) {
-        int n = targets.size();
-        while(n != 0){
-            int newn = 0;
-
-            for(int i = 1 ; i <= n-1 ; i++){
-                if (targets.get(i-1).toString().compareTo(targets.get(i).toString()) > 0){
-                    Collections.swap(targets, i - 1, i);
-                    newn = i;
-                }
+        Collections.sort(targets, new Comparator<Artifact>() {
+            @Override
+            public int compare(final Artifact artifact1, final Artifact artifact2) {
+                return artifact1.toString().compareTo(artifact2.toString());
             }
-
-            n = newn;
-        }
+        });
     }
 }
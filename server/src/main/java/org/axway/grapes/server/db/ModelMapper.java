@@ -3,6 +3,9 @@ package org.axway.grapes.server.db;
 import org.axway.grapes.commons.datamodel.*;
 import org.axway.grapes.server.db.datamodel.*;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * Model Mapper
  *
@@ -186,20 +189,32 @@ public class ModelMapper {
      * @return Module
      */
     public Module getModule(final DbModule dbModule) {
+        return getModule(dbModule, Collections.<String, DbArtifact>emptyMap());
+    }
+
+    /**
+     * Transform a module from database model to client/server model,
+     * the artifacts that are not in the provided ones are read from the database
+     *
+     * @param dbModule DbModule
+     * @param dbArtifacts Map<String, DbArtifact> artifacts that have already been read, per gavc
+     * @return Module
+     */
+    public Module getModule(final DbModule dbModule, final Map<String, DbArtifact> dbArtifacts) {
         final Module module =DataModelFactory.createModule(dbModule.getName(), dbModule.getVersion());
         module.setPromoted(dbModule.isPromoted());
         module.setSubmodule(dbModule.isSubmodule());
 
         //Artifacts
         for(String gavc: dbModule.getArtifacts()){
-            final DbArtifact dbArtifact = repositoryHandler.getArtifact(gavc);
+            final DbArtifact dbArtifact = getArtifact(gavc, dbArtifacts);
             final Artifact artifact = getArtifact(dbArtifact);
             module.addArtifact(artifact);
         }
 
         //Dependencies
         for(DbDependency dbDependency: dbModule.getDependencies()){
-            final DbArtifact dbArtifact = repositoryHandler.getArtifact(dbDependency.getTarget());
+            final DbArtifact dbArtifact = getArtifact(dbDependency.getTarget(), dbArtifacts);
             final Artifact artifact = getArtifact(dbArtifact);
             final Dependency dependency = DataModelFactory.createDependency(artifact, dbDependency.getScope());
             dependency.setSourceName(module.getName());
@@ -209,12 +224,17 @@ public class ModelMapper {
 
         //Submodules
         for(DbModule dbSubmodule: dbModule.getSubmodules()){
-            module.addSubmodule(getModule(dbSubmodule));
+            module.addSubmodule(getModule(dbSubmodule, dbArtifacts));
         }
 
         return module;
     }
 
+    private DbArtifact getArtifact(final String gavc, final Map<String, DbArtifact> dbArtifacts) {
+        final DbArtifact dbArtifact = dbArtifacts.get(gavc);
+        return dbArtifact != null ? dbArtifact : repositoryHandler.getArtifact(gavc);
+    }
+
 
     /**
      * Transform a dependency from database model to client/server model
@@ -224,6 +244,19 @@ public class ModelMapper {
      */
     public Dependency getDependency(final DbDependency dbDependency, final String sourceName, final String sourceVersion) {
         final DbArtifact dbArtifact = repositoryHandler.getArtifact(dbDependency.getTarget());
+        return getDependency(dbDependency, dbArtifact, sourceName, sourceVersion);
+    }
+
+    /**
+     * Transform a dependency from database model to client/server model using an already retrieved target
+     *
+     * @param dbDependency DbDependency
+     * @param dbArtifact DbArtifact the target of the dependency
+     * @param sourceName String
+     * @param sourceVersion String
+     * @return Dependency
+     */
+    public Dependency getDependency(final DbDependency dbDependency, final DbArtifact dbArtifact, final String sourceName, final String sourceVersion) {
         final Artifact artifact = getArtifact(dbArtifact);
 
         final Dependency dependency = DataModelFactory.createDependency(artifact, dbDependency.getScope());
@@ -232,4 +265,35 @@ public class ModelMapper {
 
         return dependency;
     }
+
+    /**
+     * Transform an ingestion ticket from database model to client/server model
+     *
+     * @param dbTicket DbIngestionTicket
+     * @return IngestionTicket
+     */
+    public IngestionTicket getIngestionTicket(final DbIngestionTicket dbTicket) {
+        final IngestionTicket ticket = DataModelFactory.createIngestionTicket(dbTicket.getId(), dbTicket.getStatus().name());
+        if(dbTicket.getMessage() != null){
+            ticket.setMessage(dbTicket.getMessage());
+        }
+        ticket.setCreated(dbTicket.getCreated());
+        ticket.setUpdated(dbTicket.getUpdated());
+
+        return ticket;
+    }
+
+    /**
+     * Transform a change event from database model to client/server model
+     *
+     * @param dbEvent DbChangeEvent
+     * @return ChangeEvent
+     */
+    public ChangeEvent getChangeEvent(final DbChangeEvent dbEvent) {
+        final ChangeEvent event = DataModelFactory.createChangeEvent(dbEvent.getSequence(), dbEvent.getEntityType().name(),
+                dbEvent.getEntityId(), dbEvent.getOperation().name());
+        event.setTime(dbEvent.getTime());
+
+        return event;
+    }
 }
@@ -0,0 +1,191 @@
+package org.axway.grapes.server.db;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Read Stamps
+ *
+ * <p>Collects the change stamps of the documents read to build a response. Two responses built from the same
+ * documents in the same states get the same tag, whatever the order the documents have been read in. The documents
+ * that have been looked for but that do not exist are part of the tag too.</p>
+ *
+ * <p>The collection can be shared by the threads that build a same response. Its keys identify the documents a
+ * response depends on, they are used to invalidate the cached reports.</p>
+ *
+ * @author jdcoffre
+ */
+public class ReadStamps {
+
+    private static final String MISSING = "missing";
+
+    private final Map<String, String> stamps = new TreeMap<String, String>();
+    private long lastStamp = 0;
+
+    public ReadStamps() {
+        // nothing read yet
+    }
+
+    /**
+     * Copies the stamps collected by another response
+     *
+     * @param other ReadStamps
+     */
+    public ReadStamps(final ReadStamps other) {
+        synchronized (other) {
+            stamps.putAll(other.stamps);
+            lastStamp = other.lastStamp;
+        }
+    }
+
+    public static String moduleKey(final String moduleId) {
+        return "module:" + moduleId;
+    }
+
+    public static String artifactKey(final String gavc) {
+        return "artifact:" + gavc;
+    }
+
+    public static String licenseKey(final String name) {
+        return "license:" + name;
+    }
+
+    /**
+     * Key of the list of the licenses
+     *
+     * @return String
+     */
+    public static String licensesKey() {
+        return "licenses";
+    }
+
+    public static String organizationKey(final String name) {
+        return "organization:" + name;
+    }
+
+    /**
+     * Key of the modules that use an artifact
+     *
+     * @param gavc String
+     * @return String
+     */
+    public static String usesKey(final String gavc) {
+        return "uses:" + gavc;
+    }
+
+    /**
+     * Key of the last release of an artifact, see DbLatestVersion
+     *
+     * @param latestVersionId String
+     * @return String
+     */
+    public static String lastReleaseKey(final String latestVersionId) {
+        return "lastRelease:" + latestVersionId;
+    }
+
+    public void add(final DbModule module) {
+        addStamp(moduleKey(module.getId()), module.getChangeStamp());
+    }
+
+    public void add(final DbArtifact artifact) {
+        addStamp(artifactKey(artifact.getGavc()), artifact.getChangeStamp());
+    }
+
+    public void add(final DbLicense license) {
+        addStamp(licenseKey(license.getName()), license.getChangeStamp());
+    }
+
+    public void add(final DbOrganization organization) {
+        addStamp(organizationKey(organization.getName()), organization.getChangeStamp());
+    }
+
+    /**
+     * Adds the stamps of the artifacts that have been looked for, the missing ones included
+     *
+     * @param gavcs Collection<String> the gavcs of the artifacts that have been looked for
+     * @param artifacts Map<String, DbArtifact> the artifacts that have been found
+     */
+    public void addArtifacts(final Collection<String> gavcs, final Map<String, DbArtifact> artifacts) {
+        for(String gavc: gavcs){
+            final DbArtifact artifact = artifacts.get(gavc);
+
+            if(artifact == null){
+                add(artifactKey(gavc), MISSING);
+            }
+            else{
+                add(artifact);
+            }
+        }
+    }
+
+    /**
+     * Adds a value the response depends on that is not a document, a query parameter for example
+     *
+     * @param key String
+     * @param value Object can be null
+     */
+    public synchronized void add(final String key, final Object value) {
+        stamps.put(key, String.valueOf(value));
+    }
+
+    private synchronized void addStamp(final String key, final long stamp) {
+        stamps.put(key, String.valueOf(stamp));
+        lastStamp = Math.max(lastStamp, stamp);
+    }
+
+    /**
+     * Returns the keys of the collected stamps
+     *
+     * @return Set<String>
+     */
+    public synchronized Set<String> getKeys() {
+        return new TreeSet<String>(stamps.keySet());
+    }
+
+    /**
+     * Returns the number of collected stamps
+     *
+     * @return int
+     */
+    public synchronized int size() {
+        return stamps.size();
+    }
+
+    /**
+     * Returns the most recent of the collected stamps, 0 if none of the documents has a stamp
+     *
+     * @return long
+     */
+    public synchronized long getLastStamp() {
+        return lastStamp;
+    }
+
+    /**
+     * Returns a tag that identifies the collected stamps
+     *
+     * @return String
+     */
+    public synchronized String getTag() {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+
+        for(Map.Entry<String, String> stamp: stamps.entrySet()){
+            hasher.putString(stamp.getKey(), Charsets.UTF_8);
+            hasher.putChar('=');
+            hasher.putString(stamp.getValue(), Charsets.UTF_8);
+            hasher.putChar(';');
+        }
+
+        return hasher.hash().toString();
+    }
+}
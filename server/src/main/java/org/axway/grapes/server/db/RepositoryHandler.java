@@ -4,7 +4,9 @@ import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository Handler Interface
@@ -91,6 +93,15 @@ public interface RepositoryHandler {
      */
     public List<DbArtifact> getArtifacts(final FiltersHolder filters);
 
+    /**
+     * Iterate over the artifacts that match the filters, they are read from the database while the result is iterated
+     * The result can hold a database cursor, it must be closed if it is Closeable.
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<DbArtifact>
+     */
+    public Iterable<DbArtifact> streamArtifacts(final FiltersHolder filters);
+
     /**
      * Add a license to an existing artifact
      *
@@ -122,6 +133,21 @@ public interface RepositoryHandler {
      */
     public void store(final DbArtifact dbArtifact);
 
+    /**
+     * Create a new artifact in the database, nothing is done if it already exists
+     *
+     * @param dbArtifact DbArtifact
+     * @return boolean true if the artifact has been created
+     */
+    public boolean storeIfNew(final DbArtifact dbArtifact);
+
+    /**
+     * Create new artifacts or update existing ones in the database, as a batch
+     *
+     * @param dbArtifacts Collection<DbArtifact>
+     */
+    public void storeArtifacts(final Collection<DbArtifact> dbArtifacts);
+
     /**
      * Return the list of all the artifacts gavcs that match the provided filters
      *
@@ -130,6 +156,15 @@ public interface RepositoryHandler {
      */
     public List<String> getGavcs(final FiltersHolder filters);
 
+    /**
+     * Iterate, in alphabetical order, over the gavcs of the artifacts that match the filters
+     * The result can hold a database cursor, it must be closed if it is Closeable.
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<String>
+     */
+    public Iterable<String> streamGavcs(final FiltersHolder filters);
+
     /**
      * Return the list of all the artifacts groupIds that match the provided filters
      *
@@ -154,6 +189,33 @@ public interface RepositoryHandler {
      */
     public DbArtifact getArtifact(final String gavc);
 
+    /**
+     * Return the artifacts that match the provided gavcs in a single lookup.
+     * The gavcs that do not match any artifact are not part of the result.
+     *
+     * @param gavcs Collection<String>
+     * @return Map<String, DbArtifact> artifacts indexed by gavc
+     */
+    public Map<String, DbArtifact> getArtifacts(final Collection<String> gavcs);
+
+    /**
+     * Return the latest versions that match the provided ids in a single lookup.
+     * The ids are generated from the artifact groupId, artifactId, classifier and extension, see DbLatestVersion.generateID().
+     * The ids that do not match any entry are not part of the result.
+     *
+     * @param ids Collection<String>
+     * @return Map<String, DbLatestVersion> latest versions indexed by id
+     */
+    public Map<String, DbLatestVersion> getLatestVersions(final Collection<String> ids);
+
+    /**
+     * Rebuild the latest versions from the versions of all the artifacts. The entries are replaced in place: the latest
+     * versions stay readable during the rebuild.
+     *
+     * @return int the number of latest versions
+     */
+    public int rebuildLatestVersions();
+
     /**
      * Delete the targeted artifact
      *
@@ -194,6 +256,15 @@ public interface RepositoryHandler {
      */
     public List<DbModule> getAncestors(final DbArtifact artifact, final FiltersHolder filters);
 
+    /**
+     * Retrieve, in a single lookup, the modules that use at least one of the provided gavcs.
+     * Only the module ids and the has/uses fields are guaranteed to be filled.
+     *
+     * @param gavcs Collection<String>
+     * @return List<DbModule>
+     */
+    public List<DbModule> getModulesUsing(final Collection<String> gavcs);
+
     /**
      * Create a new module or update an existing one into the database
      *
@@ -201,6 +272,13 @@ public interface RepositoryHandler {
      */
     public void store(final DbModule dbModule);
 
+    /**
+     * Create new modules or update existing ones into the database, as a batch
+     *
+     * @param dbModules Collection<DbModule>
+     */
+    public void storeModules(final Collection<DbModule> dbModules);
+
     /**
      * Return the list of all the module names that match the provided filters
      *
@@ -209,6 +287,15 @@ public interface RepositoryHandler {
      */
     public List<String> getModuleNames(final FiltersHolder filters);
 
+    /**
+     * Iterate, in alphabetical order and without duplicates, over the names of the modules that match the filters
+     * The result can hold a database cursor, it must be closed if it is Closeable.
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<String>
+     */
+    public Iterable<String> streamModuleNames(final FiltersHolder filters);
+
     /**
      * Retrieve the list of all the available versions of a module
      *
@@ -226,6 +313,15 @@ public interface RepositoryHandler {
      */
     public DbModule getModule(final String moduleId);
 
+    /**
+     * Return the targeted modules in a single lookup.
+     * The ids that do not match any module are not part of the result.
+     *
+     * @param moduleIds Collection<String>
+     * @return Map<String, DbModule> modules indexed by id
+     */
+    public Map<String, DbModule> getModules(final Collection<String> moduleIds);
+
 
     /**
      * Return  a list od module regarding the filters
@@ -235,6 +331,15 @@ public interface RepositoryHandler {
      */
     public List<DbModule> getModules(final FiltersHolder filters);
 
+    /**
+     * Iterate over the modules that match the filters, they are read from the database while the result is iterated
+     * The result can hold a database cursor, it must be closed if it is Closeable.
+     *
+     * @param filters FiltersHolder
+     * @return Iterable<DbModule>
+     */
+    public Iterable<DbModule> streamModules(final FiltersHolder filters);
+
     /**
      * Delete the targeted module
      *
@@ -249,6 +354,20 @@ public interface RepositoryHandler {
      */
     public void promoteModule(final DbModule module);
 
+    /**
+     * Promotes a set of modules at once
+     *
+     * @param moduleIds Collection<String>
+     */
+    public void promoteModules(final Collection<String> moduleIds);
+
+    /**
+     * Promotes a set of artifacts at once
+     *
+     * @param gavcs Collection<String>
+     */
+    public void promoteArtifacts(final Collection<String> gavcs);
+
     /**
      * Return the module that contains the gavc.
      * It returns null if no module matches.
@@ -258,6 +377,15 @@ public interface RepositoryHandler {
      */
     public DbModule getRootModuleOf(final String gavc);
 
+    /**
+     * Return the modules that contain the provided gavcs in a single lookup.
+     * The gavcs that are not produced by any module are not part of the result.
+     *
+     * @param gavcs Collection<String>
+     * @return Map<String, DbModule> root modules indexed by gavc
+     */
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs);
+
     /**
      * Return the module or the submodule that contains the gavc.
      * It returns null if no module matches.
@@ -354,4 +482,83 @@ public interface RepositoryHandler {
      * @param name String
      */
     public void deleteProduct(final String name);
+
+    /**
+     * Stores a new ingestion ticket or updates an existing one
+     *
+     * @param ticket DbIngestionTicket
+     */
+    public void store(final DbIngestionTicket ticket);
+
+    /**
+     * Returns an ingestion ticket regarding its id, null if there is none
+     *
+     * @param id String
+     * @return DbIngestionTicket
+     */
+    public DbIngestionTicket getIngestionTicket(final String id);
+
+    /**
+     * Returns the number of ingestion tickets that have the provided status
+     *
+     * @param status DbIngestionTicket.Status
+     * @return long
+     */
+    public long getIngestionTicketCount(final DbIngestionTicket.Status status);
+
+    /**
+     * Takes the oldest pending ingestion ticket and marks it in progress by its owner, in one operation so that
+     * concurrent workers never get the same ticket. The claim time is set as the update time of the ticket.
+     * Returns null if there is no pending ticket.
+     *
+     * @param owner String the server that claims the ticket
+     * @return DbIngestionTicket
+     */
+    public DbIngestionTicket claimIngestionTicket(final String owner);
+
+    /**
+     * Puts the tickets that are in progress since a time back to pending, to resume the ingestions stopped by the
+     * shutdown or the crash of their owner. The tickets claimed since are left to their owner.
+     *
+     * @param claimedBefore long time in milliseconds
+     * @return int the number of released tickets
+     */
+    public int releaseIngestionTickets(final long claimedBefore);
+
+    /**
+     * Removes the done and failed tickets that have been closed before a time
+     *
+     * @param closedBefore long time in milliseconds
+     * @return int the number of removed tickets
+     */
+    public int purgeIngestionTickets(final long closedBefore);
+
+    /**
+     * Returns the change events that follow a sequence number, in their order.
+     * The mutations of the modules, artifacts, licenses, organizations and products are logged as change events.
+     *
+     * <p>An event is logged once its change has been written. The events that follow a missing sequence number are not
+     * returned while the missing event may still be logged, by this server or another one sharing the database: a
+     * reader can move its cursor to the last returned event. The event of a change is lost if the server stops between
+     * the write and its logging, only a full read of the data recovers it.</p>
+     *
+     * @param since long the sequence number of the last known change
+     * @param limit int the maximum number of events
+     * @return List<DbChangeEvent>
+     */
+    public List<DbChangeEvent> getChangeEvents(final long since, final int limit);
+
+    /**
+     * Returns the sequence number of the oldest change event that is still in the change log, 0 if there is none
+     *
+     * @return long
+     */
+    public long getFirstChangeSequence();
+
+    /**
+     * Returns the sequence number of the last change, 0 if nothing has been changed yet
+     *
+     * @return long
+     */
+    public long getLastChangeSequence();
 }
@@ -59,6 +59,10 @@ public class DbArtifact {
     public static final String PROVIDER = "provider";
     private String provider = "";
 
+    // updated at each write of the document, see ChangeStamps
+    public static final String CHANGE_STAMP_DB_FIELD = "changeStamp";
+    private long changeStamp = 0;
+
     public void setDataModelVersion(final String newVersion){
         this.datamodelVersion = newVersion;
     }
@@ -67,6 +71,14 @@ public class DbArtifact {
         return datamodelVersion;
     }
 
+    public long getChangeStamp() {
+        return changeStamp;
+    }
+
+    public void setChangeStamp(final long changeStamp) {
+        this.changeStamp = changeStamp;
+    }
+
 	public String getGroupId() {
 		return groupId;
 	}
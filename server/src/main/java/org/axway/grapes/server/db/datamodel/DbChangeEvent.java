@@ -0,0 +1,108 @@
+package org.axway.grapes.server.db.datamodel;
+
+import org.jongo.marshall.jackson.oid.Id;
+
+/**
+ * Database Change Event
+ *
+ * <p>Entry of the change log: an element that has been written by the repository handler. The events are kept compact
+ * (no copy of the element) in a capped collection, the oldest ones are dropped when it is full.
+ * The sequence number is used as an ID, it follows the order of the changes.</p>
+ *
+ * @author jdcoffre
+ */
+public class DbChangeEvent {
+
+    /**
+     * Types of the elements that are followed by the change log
+     */
+    public static enum EntityType {
+        MODULE,
+        ARTIFACT,
+        LICENSE,
+        ORGANIZATION,
+        PRODUCT
+    }
+
+    /**
+     * STORE: the element has been created or replaced, UPDATE: some fields of the element have changed, DELETE: the element has been removed
+     */
+    public static enum Operation {
+        STORE,
+        UPDATE,
+        DELETE
+    }
+
+    @Id
+    private long sequence;
+
+    public static final String ENTITY_TYPE_DB_FIELD = "entityType";
+    private EntityType entityType;
+
+    public static final String ENTITY_ID_DB_FIELD = "entityId";
+    private String entityId;
+
+    public static final String OPERATION_DB_FIELD = "operation";
+    private Operation operation;
+
+    // timestamp in milliseconds
+    public static final String TIME_DB_FIELD = "time";
+    private long time;
+
+    public DbChangeEvent() {
+        // Jongo needs it
+    }
+
+    public DbChangeEvent(final long sequence, final EntityType entityType, final String entityId, final Operation operation) {
+        this.sequence = sequence;
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.time = System.currentTimeMillis();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(final long sequence) {
+        this.sequence = sequence;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(final EntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(final String entityId) {
+        this.entityId = entityId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(final Operation operation) {
+        this.operation = operation;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(final long time) {
+        this.time = time;
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + operation + " " + entityType + " " + entityId;
+    }
+}
@@ -1,5 +1,9 @@
 package org.axway.grapes.server.db.datamodel;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * DB Collections
  *
@@ -18,7 +22,29 @@ public interface DbCollections {
     public static final String DB_LICENSES = DbLicense.class.getSimpleName();
     public static final String DB_CREDENTIALS = DbCredential.class.getSimpleName();
     public static final String DB_GRAPES_INFO = DbGrapesInfo.class.getSimpleName();
+    public static final String DB_LATEST_VERSIONS = DbLatestVersion.class.getSimpleName();
+    public static final String DB_INGESTION_TICKETS = DbIngestionTicket.class.getSimpleName();
+    public static final String DB_CHANGE_EVENTS = DbChangeEvent.class.getSimpleName();
+    // holds the counter that numbers the change events
+    public static final String DB_CHANGE_SEQUENCE = "DbChangeSequence";
 
     public static final String DEFAULT_ID = "_id";
 
+    /**
+     * Indexes required by the queries of the repository handlers, they are created at server startup.
+     */
+    public static final List<DbIndex> INDEXES = Collections.unmodifiableList(Arrays.asList(
+            new DbIndex(DB_MODULES, DbModule.HAS_DB_FIELD),
+            new DbIndex(DB_MODULES, DbModule.USE_DB_FIELD),
+            new DbIndex(DB_MODULES, DbModule.NAME_DB_FIELD, DbModule.VERSION_DB_FIELD),
+            new DbIndex(DB_MODULES, DbModule.VERSION_DB_FIELD),
+            new DbIndex(DB_MODULES, DbModule.ORGANIZATION_DB_FIELD),
+            new DbIndex(DB_ARTIFACTS, DbArtifact.GROUPID_DB_FIELD, DbArtifact.ARTIFACTID_DB_FIELD, DbArtifact.CLASSIFIER_DB_FIELD, DbArtifact.EXTENSION_DB_FIELD),
+            new DbIndex(DB_ARTIFACTS, DbArtifact.ARTIFACTID_DB_FIELD),
+            new DbIndex(DB_ARTIFACTS, DbArtifact.VERSION_DB_FIELD),
+            new DbIndex(DB_ARTIFACTS, DbArtifact.LICENCES_DB_FIELD),
+            new DbIndex(DB_INGESTION_TICKETS, DbIngestionTicket.STATUS_DB_FIELD, DbIngestionTicket.CREATED_DB_FIELD),
+            new DbIndex(DB_INGESTION_TICKETS, DbIngestionTicket.STATUS_DB_FIELD, DbIngestionTicket.UPDATED_DB_FIELD)
+    ));
+
 }
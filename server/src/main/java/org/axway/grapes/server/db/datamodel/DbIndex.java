@@ -0,0 +1,56 @@
+package org.axway.grapes.server.db.datamodel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Database Index
+ *
+ * <p>Declares an ascending index on one or several fields of a Grapes collection.
+ * The list of the indexes that Grapes needs is available in DbCollections.</p>
+ *
+ * @author jdcoffre
+ */
+public class DbIndex {
+
+    private final String collection;
+    private final List<String> fields;
+
+    public DbIndex(final String collection, final String... fields) {
+        this.collection = collection;
+        this.fields = Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the name the database gives to this index by default (ie: groupId_1_artifactId_1)
+     *
+     * @return String
+     */
+    public String getName() {
+        final StringBuilder sb = new StringBuilder();
+
+        for(String field: fields){
+            if(sb.length() > 0){
+                sb.append('_');
+            }
+            sb.append(field);
+            sb.append("_1");
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString(){
+        return collection + "." + getName();
+    }
+}
@@ -0,0 +1,128 @@
+package org.axway.grapes.server.db.datamodel;
+
+import org.jongo.marshall.jackson.oid.Id;
+
+/**
+ * Database Ingestion Ticket
+ *
+ * <p>Entry of the asynchronous ingestion queue: a posted module that waits to be stored, or that has been.
+ * The module is kept as the JSON it has been posted with until it is handled. The id of the ticket is handed over to the
+ * client so that it can follow the status of its post.</p>
+ *
+ * @author jdcoffre
+ */
+public class DbIngestionTicket {
+
+    public static final String DATA_MODEL_VERSION = "datamodelVersion";
+    private String datamodelVersion = DbCollections.datamodelVersion;
+
+    /**
+     * Lifecycle of a ticket: PENDING -> IN_PROGRESS -> DONE or FAILED
+     */
+    public static enum Status {
+        PENDING,
+        IN_PROGRESS,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    private String id;
+
+    public static final String STATUS_DB_FIELD = "status";
+    private Status status = Status.PENDING;
+
+    // JSON of the posted module, removed once it has been handled
+    public static final String MODULE_DB_FIELD = "module";
+    private String module;
+
+    public static final String USER_DB_FIELD = "user";
+    private String user;
+
+    // server that claimed the ticket, null when it is not in progress
+    public static final String OWNER_DB_FIELD = "owner";
+    private String owner;
+
+    // error message of a failed ticket
+    public static final String MESSAGE_DB_FIELD = "message";
+    private String message;
+
+    // timestamps in milliseconds, the update of a ticket in progress is its claim
+    public static final String CREATED_DB_FIELD = "created";
+    private long created;
+
+    public static final String UPDATED_DB_FIELD = "updated";
+    private long updated;
+
+    public void setDataModelVersion(final String newVersion){
+        this.datamodelVersion = newVersion;
+    }
+
+    public String getDataModelVersion(){
+        return datamodelVersion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(final Status status) {
+        this.status = status;
+    }
+
+    public String getModule() {
+        return module;
+    }
+
+    public void setModule(final String module) {
+        this.module = module;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public void setUser(final String user) {
+        this.user = user;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(final String owner) {
+        this.owner = owner;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(final long created) {
+        this.created = created;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(final long updated) {
+        this.updated = updated;
+    }
+}
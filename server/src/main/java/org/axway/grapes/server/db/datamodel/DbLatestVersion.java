@@ -0,0 +1,151 @@
+package org.axway.grapes.server.db.datamodel;
+
+import org.jongo.marshall.jackson.oid.Id;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Database Latest Version
+ *
+ * <p>Materialized view of the versions of an artifact whatever its version: groupId, artifactId, classifier and extension.
+ * It holds the available versions with the last release and the last version computed from them, so that they can be
+ * read without comparing all the versions of the artifact. It is updated at each artifact addition / deletion.</p>
+ *
+ * @author jdcoffre
+ */
+public class DbLatestVersion {
+
+    public static final String DATA_MODEL_VERSION = "datamodelVersion";
+    private String datamodelVersion = DbCollections.datamodelVersion;
+
+    @Id
+    private String id;
+
+    public static final String GROUPID_DB_FIELD = "groupId";
+    private String groupId;
+
+    public static final String ARTIFACTID_DB_FIELD = "artifactId";
+    private String artifactId;
+
+    public static final String CLASSIFIER_DB_FIELD = "classifier";
+    private String classifier;
+
+    public static final String EXTENSION_DB_FIELD = "extension";
+    private String extension;
+
+    public static final String VERSIONS_DB_FIELD = "versions";
+    private List<String> versions = new ArrayList<String>();
+
+    // null if there is no release or if the releases cannot be compared
+    public static final String LAST_RELEASE_DB_FIELD = "lastRelease";
+    private String lastRelease;
+
+    // null if the versions cannot be compared
+    public static final String LAST_VERSION_DB_FIELD = "lastVersion";
+    private String lastVersion;
+
+    public void setDataModelVersion(final String newVersion){
+        this.datamodelVersion = newVersion;
+    }
+
+    public String getDataModelVersion(){
+        return datamodelVersion;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(final String id) {
+        this.id = id;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(final String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public void setArtifactId(final String artifactId) {
+        this.artifactId = artifactId;
+    }
+
+    public String getClassifier() {
+        return classifier;
+    }
+
+    public void setClassifier(final String classifier) {
+        this.classifier = classifier;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public void setExtension(final String extension) {
+        this.extension = extension;
+    }
+
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    public void setVersions(final List<String> versions) {
+        this.versions = versions;
+    }
+
+    public String getLastRelease() {
+        return lastRelease;
+    }
+
+    public void setLastRelease(final String lastRelease) {
+        this.lastRelease = lastRelease;
+    }
+
+    public String getLastVersion() {
+        return lastVersion;
+    }
+
+    public void setLastVersion(final String lastVersion) {
+        this.lastVersion = lastVersion;
+    }
+
+    /**
+     * Generates the id of the latest version of an artifact
+     *
+     * @param groupId String
+     * @param artifactId String
+     * @param classifier String
+     * @param extension String
+     * @return String
+     */
+    public static String generateID(final String groupId, final String artifactId, final String classifier, final String extension) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(groupId);
+        sb.append(":");
+        sb.append(artifactId);
+        sb.append(":");
+        sb.append(classifier);
+        sb.append(":");
+        sb.append(extension);
+
+        return sb.toString();
+    }
+
+    /**
+     * Generates the id of the latest version of an artifact
+     *
+     * @param artifact DbArtifact
+     * @return String
+     */
+    public static String generateID(final DbArtifact artifact) {
+        return generateID(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(), artifact.getExtension());
+    }
+}
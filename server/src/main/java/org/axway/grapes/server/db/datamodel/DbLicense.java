@@ -32,6 +32,9 @@ public class DbLicense {
 	public static final String APPROVED_DB_FIELD = "approved"; 
 	private Boolean approved = null;
 
+    public static final String CHANGE_STAMP_DB_FIELD = "changeStamp";
+    private long changeStamp = 0;
+
     public void setDataModelVersion(final String newVersion){
         this.datamodelVersion = newVersion;
     }
@@ -39,6 +42,14 @@ public class DbLicense {
     public String getDataModelVersion(){
         return datamodelVersion;
     }
+
+    public long getChangeStamp() {
+        return changeStamp;
+    }
+
+    public void setChangeStamp(final long changeStamp) {
+        this.changeStamp = changeStamp;
+    }
 	
 	public final String getName() {
 		return name;
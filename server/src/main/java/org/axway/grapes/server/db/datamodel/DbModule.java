@@ -1,5 +1,7 @@
 package org.axway.grapes.server.db.datamodel;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.axway.grapes.commons.datamodel.Scope;
 import org.jongo.marshall.jackson.oid.Id;
 
@@ -49,8 +51,13 @@ public class DbModule {
     private String organization = "";
 
     public static final String BUILD_INFO_DB_FIELD = "buildInfo";
+    @JsonSerialize(keyUsing = EscapedKeys.Serializer.class)
+    @JsonDeserialize(keyUsing = EscapedKeys.Deserializer.class)
     private Map<String, String> buildInfo = new HashMap<String, String>();
 
+    public static final String CHANGE_STAMP_DB_FIELD = "changeStamp";
+    private long changeStamp = 0;
+
     public void setDataModelVersion(final String newVersion){
         this.datamodelVersion = newVersion;
     }
@@ -59,6 +66,14 @@ public class DbModule {
         return datamodelVersion;
     }
 
+    public long getChangeStamp() {
+        return changeStamp;
+    }
+
+    public void setChangeStamp(final long changeStamp) {
+        this.changeStamp = changeStamp;
+    }
+
 	public String getName() {
 		return name;
 	}
@@ -25,6 +25,9 @@ public class DbOrganization {
     public static final String CORPORATE_GROUPID_PREFIXES_FIELD = "corporateGroupIdPrefixes";
     private List<String> corporateGroupIdPrefixes = new ArrayList<String>();
 
+    public static final String CHANGE_STAMP_DB_FIELD = "changeStamp";
+    private long changeStamp = 0;
+
 
     public String getName() {
         return name;
@@ -49,4 +52,12 @@ public class DbOrganization {
     public void setDatamodelVersion(String datamodelVersion) {
         this.datamodelVersion = datamodelVersion;
     }
+
+    public long getChangeStamp() {
+        return changeStamp;
+    }
+
+    public void setChangeStamp(final long changeStamp) {
+        this.changeStamp = changeStamp;
+    }
 }
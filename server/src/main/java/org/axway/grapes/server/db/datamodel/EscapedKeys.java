@@ -0,0 +1,70 @@
+package org.axway.grapes.server.db.datamodel;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * Escaped Keys
+ *
+ * <p>The database does not accept field names that contain a '.' or that start with a '$', the '.' is also the path
+ * separator of the updates. The keys of the free maps (e.g. the build info) are stored with these characters replaced
+ * by their full width unicode equivalent and restored when they are read.</p>
+ *
+ * @author jdcoffre
+ */
+public final class EscapedKeys {
+
+    private static final char DOT = '.';
+    private static final char ESCAPED_DOT = '\uff0e';
+    private static final char DOLLAR = '$';
+    private static final char ESCAPED_DOLLAR = '\uff04';
+
+    private EscapedKeys(){
+        // Hide utility class constructor
+    }
+
+    /**
+     * Escapes a key so that it can be used as a field name in the database
+     *
+     * @param key String
+     * @return String
+     */
+    public static String escape(final String key) {
+        return key.replace(DOT, ESCAPED_DOT).replace(DOLLAR, ESCAPED_DOLLAR);
+    }
+
+    /**
+     * Restores a key that has been escaped
+     *
+     * @param key String
+     * @return String
+     */
+    public static String unescape(final String key) {
+        return key.replace(ESCAPED_DOT, DOT).replace(ESCAPED_DOLLAR, DOLLAR);
+    }
+
+    /**
+     * Writes the keys of a map escaped
+     */
+    public static final class Serializer extends JsonSerializer<String> {
+        @Override
+        public void serialize(final String key, final JsonGenerator generator, final SerializerProvider provider) throws IOException {
+            generator.writeFieldName(escape(key));
+        }
+    }
+
+    /**
+     * Reads the escaped keys of a map
+     */
+    public static final class Deserializer extends KeyDeserializer {
+        @Override
+        public Object deserializeKey(final String key, final DeserializationContext context) throws IOException {
+            return unescape(key);
+        }
+    }
+}
@@ -0,0 +1,1408 @@
+package org.axway.grapes.server.db.memory;
+
+import com.google.common.collect.Lists;
+import com.sun.jersey.api.NotFoundException;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.options.PageHandler;
+import org.axway.grapes.server.core.version.Versions;
+import org.axway.grapes.server.db.ChangeStamps;
+import org.axway.grapes.server.db.DBRegExp;
+import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.*;
+import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
+import org.jongo.Mapper;
+import org.jongo.marshall.jackson.JacksonMapper;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In Memory Handler
+ *
+ * <p>Repository Handler that keeps the data in memory, nothing survives a restart. It is meant for the tests, the
+ * benchmarks and the small ephemeral deployments, it is selected with the "memory" dbsystem.</p>
+ *
+ * <p>The collections are concurrent maps sorted by id so that the pages are ranges of ids, as with mongodb. The queries
+ * on "has", "uses", "organization" and "licenses" start from secondary indexes, the other filters are checked on the
+ * documents. The handler stores and returns copies of the entities: the callers never share an instance with the
+ * repository. The writes of a collection are serialized, the reads are never blocked.</p>
+ *
+ * @author jdcoffre
+ */
+public class InMemoryHandler implements RepositoryHandler {
+
+    // copies the entities the way Jongo marshalls them
+    private static final Mapper MAPPER = new JacksonMapper.Builder().build();
+
+    private final ConcurrentMap<String, DbCredential> credentials = new ConcurrentHashMap<String, DbCredential>();
+    private final ConcurrentNavigableMap<String, DbLicense> licenses = new ConcurrentSkipListMap<String, DbLicense>();
+    private final ConcurrentNavigableMap<String, DbArtifact> artifacts = new ConcurrentSkipListMap<String, DbArtifact>();
+    private final ConcurrentMap<String, DbLatestVersion> latestVersions = new ConcurrentHashMap<String, DbLatestVersion>();
+    private final ConcurrentNavigableMap<String, DbModule> modules = new ConcurrentSkipListMap<String, DbModule>();
+    private final ConcurrentNavigableMap<String, DbOrganization> organizations = new ConcurrentSkipListMap<String, DbOrganization>();
+    private final ConcurrentNavigableMap<String, DbProduct> products = new ConcurrentSkipListMap<String, DbProduct>();
+    private final ConcurrentMap<String, DbIngestionTicket> tickets = new ConcurrentHashMap<String, DbIngestionTicket>();
+    private final ConcurrentNavigableMap<Long, DbChangeEvent> changeEvents = new ConcurrentSkipListMap<Long, DbChangeEvent>();
+
+    // secondary indexes: gavc -> ids of the modules that contain or use the artifact, organization -> module ids,
+    // license -> gavcs of the artifacts
+    private final Index hasIndex = new Index();
+    private final Index usesIndex = new Index();
+    private final Index organizationIndex = new Index();
+    private final Index licenseIndex = new Index();
+
+    // the artifacts, their latest versions and the license index are written under this lock
+    private final Object artifactLock = new Object();
+    // the modules and their indexes are written under this lock
+    private final Object moduleLock = new Object();
+    // read-modify-write of the licenses, the credentials and the ingestion tickets
+    private final Object documentLock = new Object();
+    // the change events are numbered and added under this lock
+    private final Object changeLogLock = new Object();
+
+    private final int changeLogSize;
+    private volatile long lastChangeSequence = 0;
+
+    public InMemoryHandler(final DataBaseConfig config) {
+        this.changeLogSize = config.getChangeLogSize();
+    }
+
+    @Override
+    public void store(final DbCredential credential) {
+        synchronized (documentLock) {
+            credentials.put(credential.getUser(), copy(credential));
+        }
+    }
+
+    @Override
+    public DbCredential getCredential(final String user) {
+        return copy(credentials.get(user));
+    }
+
+    @Override
+    public void addUserRole(final String user, final AvailableRoles role) {
+        synchronized (documentLock) {
+            final DbCredential credential = getCredential(user);
+
+            if(credential == null){
+                throw new WebApplicationException(Response.Status.NOT_FOUND);
+            }
+
+            if(!credential.getRoles().contains(role)){
+                credential.addRole(role);
+                credentials.put(user, credential);
+            }
+        }
+    }
+
+    @Override
+    public void removeUserRole(final String user, final AvailableRoles role) {
+        synchronized (documentLock) {
+            final DbCredential credential = getCredential(user);
+
+            if(credential == null){
+                throw new WebApplicationException(Response.Status.NOT_FOUND);
+            }
+
+            if(credential.getRoles().contains(role)){
+                credential.removeRole(role);
+                credentials.put(user, credential);
+            }
+        }
+    }
+
+    @Override
+    public void store(final DbLicense license) {
+        license.setChangeStamp(ChangeStamps.next());
+        synchronized (documentLock) {
+            licenses.put(license.getName(), copy(license));
+        }
+
+        logChange(DbChangeEvent.EntityType.LICENSE, DbChangeEvent.Operation.STORE, license.getName());
+    }
+
+    @Override
+    public List<String> getLicenseNames(final FiltersHolder filters) {
+        final List<String> licenseNames = new ArrayList<String>();
+        for(DbLicense dbLicense: licenses.values()){
+            if(filters.shouldBeInReport(dbLicense)){
+                licenseNames.add(dbLicense.getName());
+            }
+        }
+
+        return licenseNames;
+    }
+
+    @Override
+    public DbLicense getLicense(final String name) {
+        return copy(licenses.get(name));
+    }
+
+    @Override
+    public List<DbLicense> getAllLicenses() {
+        return copyAll(licenses.values());
+    }
+
+    @Override
+    public void deleteLicense(final String name) {
+        if(licenses.remove(name) == null){
+            throw new NotFoundException("The license does not exist: " + name);
+        }
+        logChange(DbChangeEvent.EntityType.LICENSE, DbChangeEvent.Operation.DELETE, name);
+    }
+
+    @Override
+    public void approveLicense(final DbLicense license, final Boolean approved) {
+        synchronized (documentLock) {
+            final DbLicense dbLicense = getLicense(license.getName());
+
+            if(dbLicense != null){
+                dbLicense.setApproved(approved);
+                dbLicense.setChangeStamp(ChangeStamps.next());
+                licenses.put(dbLicense.getName(), dbLicense);
+            }
+        }
+
+        logChange(DbChangeEvent.EntityType.LICENSE, DbChangeEvent.Operation.UPDATE, license.getName());
+    }
+
+    @Override
+    public List<DbArtifact> getArtifacts(final FiltersHolder filters) {
+        return copyAll(findArtifacts(filters.getArtifactFieldsFilters(), filters.getPageHandler()));
+    }
+
+    @Override
+    public Iterable<DbArtifact> streamArtifacts(final FiltersHolder filters) {
+        return getArtifacts(filters);
+    }
+
+    @Override
+    public void addLicenseToArtifact(final DbArtifact artifact, final String licenseId) {
+        artifact.addLicense(licenseId);
+
+        if(updateArtifactLicenses(artifact.getGavc(), licenseId, true)){
+            logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+        }
+    }
+
+    @Override
+    public void removeLicenseFromArtifact(final DbArtifact artifact, final String licenseId) {
+        artifact.removeLicense(licenseId);
+
+        if(updateArtifactLicenses(artifact.getGavc(), licenseId, false)){
+            logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+        }
+    }
+
+    /**
+     * Adds or removes a license on the stored artifact rather than replacing its licenses with the ones of the caller
+     *
+     * @return boolean true if the licenses of the artifact have changed
+     */
+    private boolean updateArtifactLicenses(final String gavc, final String licenseId, final boolean add) {
+        synchronized (artifactLock) {
+            final DbArtifact dbArtifact = getArtifact(gavc);
+
+            if(dbArtifact == null || dbArtifact.getLicenses().contains(licenseId) == add){
+                return false;
+            }
+
+            if(add){
+                dbArtifact.addLicense(licenseId);
+            }
+            else{
+                dbArtifact.removeLicense(licenseId);
+            }
+            dbArtifact.setChangeStamp(ChangeStamps.next());
+            putArtifact(dbArtifact);
+            return true;
+        }
+    }
+
+    @Override
+    public void store(final DbArtifact artifact) {
+        artifact.setChangeStamp(ChangeStamps.next());
+
+        synchronized (artifactLock) {
+            if(upsertArtifact(artifact)){
+                addLatestVersions(Collections.singletonList(artifact));
+            }
+        }
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.STORE, artifact.getGavc());
+    }
+
+    @Override
+    public boolean storeIfNew(final DbArtifact artifact) {
+        artifact.setChangeStamp(ChangeStamps.next());
+
+        synchronized (artifactLock) {
+            if(artifacts.containsKey(artifact.getGavc())){
+                return false;
+            }
+
+            putArtifact(copy(artifact));
+            addLatestVersions(Collections.singletonList(artifact));
+        }
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.STORE, artifact.getGavc());
+        return true;
+    }
+
+    @Override
+    public void storeArtifacts(final Collection<DbArtifact> dbArtifacts) {
+        // the last occurrence of an artifact wins, as if they were stored one by one
+        final Map<String, DbArtifact> toStore = new LinkedHashMap<String, DbArtifact>();
+        for(DbArtifact artifact: dbArtifacts){
+            artifact.setChangeStamp(ChangeStamps.next());
+            toStore.put(artifact.getGavc(), artifact);
+        }
+
+        synchronized (artifactLock) {
+            final List<DbArtifact> newArtifacts = new ArrayList<DbArtifact>();
+            for(DbArtifact artifact: toStore.values()){
+                if(upsertArtifact(artifact)){
+                    newArtifacts.add(artifact);
+                }
+            }
+            addLatestVersions(newArtifacts);
+        }
+
+        logChanges(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.STORE, toStore.keySet());
+    }
+
+    /**
+     * Writes an artifact: all its fields are replaced except the licenses that are added to the existing ones, as the
+     * upsert of MongodbHandler does. Has to be called under the artifact lock.
+     *
+     * @param artifact DbArtifact
+     * @return boolean true if the artifact is a new one
+     */
+    private boolean upsertArtifact(final DbArtifact artifact) {
+        final DbArtifact previous = artifacts.get(artifact.getGavc());
+        final DbArtifact dbArtifact = copy(artifact);
+
+        if(previous != null){
+            final List<String> mergedLicenses = new ArrayList<String>(previous.getLicenses());
+            for(String license: artifact.getLicenses()){
+                if(!mergedLicenses.contains(license)){
+                    mergedLicenses.add(license);
+                }
+            }
+            dbArtifact.setLicenses(mergedLicenses);
+        }
+
+        putArtifact(dbArtifact);
+        return previous == null;
+    }
+
+    /**
+     * Replaces the stored instance of an artifact and updates the license index. The new entries of the index are added
+     * before the document is visible and the stale ones are removed afterward: the readers may see extra candidates,
+     * never miss one. Has to be called under the artifact lock.
+     *
+     * @param dbArtifact DbArtifact the instance to store, it must not be shared
+     */
+    private void putArtifact(final DbArtifact dbArtifact) {
+        licenseIndex.add(dbArtifact.getLicenses(), dbArtifact.getGavc());
+        final DbArtifact previous = artifacts.put(dbArtifact.getGavc(), dbArtifact);
+
+        if(previous != null){
+            licenseIndex.remove(difference(previous.getLicenses(), dbArtifact.getLicenses()), dbArtifact.getGavc());
+        }
+    }
+
+    @Override
+    public List<String> getGavcs(final FiltersHolder filters) {
+        final List<String> gavcs = new ArrayList<String>();
+        for(DbArtifact dbArtifact: findArtifacts(filters.getArtifactFieldsFilters(), filters.getPageHandler())){
+            gavcs.add(dbArtifact.getGavc());
+        }
+        return gavcs;
+    }
+
+    @Override
+    public Iterable<String> streamGavcs(final FiltersHolder filters) {
+        return getGavcs(filters);
+    }
+
+    @Override
+    public List<String> getGroupIds(final FiltersHolder filters) {
+        final Set<String> groupIds = new TreeSet<String>();
+        for(DbArtifact dbArtifact: artifacts.values()){
+            groupIds.add(dbArtifact.getGroupId());
+        }
+        return new ArrayList<String>(groupIds);
+    }
+
+    @Override
+    public List<String> getArtifactVersions(final DbArtifact artifact) {
+        // the latest version entry gathers the versions of the artifacts that only differ by their version
+        final DbLatestVersion latestVersion = latestVersions.get(DbLatestVersion.generateID(artifact));
+
+        if(latestVersion == null){
+            return new ArrayList<String>();
+        }
+        return new ArrayList<String>(latestVersion.getVersions());
+    }
+
+    @Override
+    public DbArtifact getArtifact(final String gavc) {
+        return copy(artifacts.get(gavc));
+    }
+
+    @Override
+    public Map<String, DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        final Map<String, DbArtifact> dbArtifacts = new HashMap<String, DbArtifact>();
+        for(String gavc: gavcs){
+            final DbArtifact dbArtifact = getArtifact(gavc);
+            if(dbArtifact != null){
+                dbArtifacts.put(gavc, dbArtifact);
+            }
+        }
+        return dbArtifacts;
+    }
+
+    @Override
+    public Map<String, DbLatestVersion> getLatestVersions(final Collection<String> ids) {
+        final Map<String, DbLatestVersion> dbLatestVersions = new HashMap<String, DbLatestVersion>();
+        for(String id: ids){
+            final DbLatestVersion latestVersion = copy(latestVersions.get(id));
+            if(latestVersion != null){
+                dbLatestVersions.put(id, latestVersion);
+            }
+        }
+        return dbLatestVersions;
+    }
+
+    @Override
+    public int rebuildLatestVersions() {
+        synchronized (artifactLock) {
+            // the entries are replaced one by one so that the readers never see the latest versions empty
+            final Map<String, DbLatestVersion> rebuilt = buildLatestVersions(artifacts.values(),
+                    Collections.<String, DbLatestVersion>emptyMap());
+            latestVersions.putAll(rebuilt);
+            latestVersions.keySet().retainAll(rebuilt.keySet());
+            return rebuilt.size();
+        }
+    }
+
+    /**
+     * Adds the versions of new artifacts to their latest version entries, the entries are created if needed. Has to be
+     * called under the artifact lock.
+     *
+     * @param newArtifacts List<DbArtifact>
+     */
+    private void addLatestVersions(final List<DbArtifact> newArtifacts) {
+        latestVersions.putAll(buildLatestVersions(newArtifacts, latestVersions));
+    }
+
+    /**
+     * Builds the latest version entries of artifacts on top of existing entries, the existing entries are not modified.
+     *
+     * @param newArtifacts Collection<DbArtifact>
+     * @param existing Map<String, DbLatestVersion> the entries the versions are added to
+     * @return Map<String, DbLatestVersion> the built entries indexed by id
+     */
+    private static Map<String, DbLatestVersion> buildLatestVersions(final Collection<DbArtifact> newArtifacts, final Map<String, DbLatestVersion> existing) {
+        final Map<String, DbLatestVersion> updated = new LinkedHashMap<String, DbLatestVersion>();
+
+        for(DbArtifact artifact: newArtifacts){
+            final String id = DbLatestVersion.generateID(artifact);
+            DbLatestVersion latestVersion = updated.get(id);
+
+            if(latestVersion == null){
+                latestVersion = copy(existing.get(id));
+                if(latestVersion == null){
+                    latestVersion = new DbLatestVersion();
+                    latestVersion.setId(id);
+                }
+                latestVersion.setGroupId(artifact.getGroupId());
+                latestVersion.setArtifactId(artifact.getArtifactId());
+                latestVersion.setClassifier(artifact.getClassifier());
+                latestVersion.setExtension(artifact.getExtension());
+                updated.put(id, latestVersion);
+            }
+
+            if(!latestVersion.getVersions().contains(artifact.getVersion())){
+                latestVersion.getVersions().add(artifact.getVersion());
+            }
+        }
+
+        for(DbLatestVersion latestVersion: updated.values()){
+            Versions.updateLatestVersion(latestVersion);
+        }
+        return updated;
+    }
+
+    /**
+     * Removes the version of a deleted artifact from its latest version entry, the entry is removed with its last
+     * version. Has to be called under the artifact lock.
+     *
+     * @param artifact DbArtifact
+     */
+    private void removeLatestVersion(final DbArtifact artifact) {
+        final DbLatestVersion latestVersion = copy(latestVersions.get(DbLatestVersion.generateID(artifact)));
+
+        if(latestVersion == null){
+            return;
+        }
+
+        latestVersion.getVersions().remove(artifact.getVersion());
+        if(latestVersion.getVersions().isEmpty()){
+            latestVersions.remove(latestVersion.getId());
+            return;
+        }
+
+        Versions.updateLatestVersion(latestVersion);
+        latestVersions.put(latestVersion.getId(), latestVersion);
+    }
+
+    @Override
+    public void deleteArtifact(final String gavc) {
+        synchronized (artifactLock) {
+            final DbArtifact artifact = artifacts.remove(gavc);
+
+            if(artifact == null){
+                throw new NotFoundException("The artifact does not exist: " + gavc);
+            }
+
+            licenseIndex.remove(artifact.getLicenses(), gavc);
+            removeLatestVersion(artifact);
+        }
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.DELETE, gavc);
+    }
+
+    @Override
+    public void updateDoNotUse(final DbArtifact artifact, final Boolean doNotUse) {
+        synchronized (artifactLock) {
+            final DbArtifact dbArtifact = getArtifact(artifact.getGavc());
+
+            if(dbArtifact != null){
+                dbArtifact.setDoNotUse(doNotUse);
+                dbArtifact.setChangeStamp(ChangeStamps.next());
+                putArtifact(dbArtifact);
+            }
+        }
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+    }
+
+    @Override
+    public void updateDownloadUrl(final DbArtifact artifact, final String downLoadUrl) {
+        synchronized (artifactLock) {
+            final DbArtifact dbArtifact = getArtifact(artifact.getGavc());
+
+            if(dbArtifact != null){
+                dbArtifact.setDownloadUrl(downLoadUrl);
+                dbArtifact.setChangeStamp(ChangeStamps.next());
+                putArtifact(dbArtifact);
+            }
+        }
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+    }
+
+    @Override
+    public void updateProvider(final DbArtifact artifact, final String provider) {
+        synchronized (artifactLock) {
+            final DbArtifact dbArtifact = getArtifact(artifact.getGavc());
+
+            if(dbArtifact != null){
+                dbArtifact.setProvider(provider);
+                dbArtifact.setChangeStamp(ChangeStamps.next());
+                putArtifact(dbArtifact);
+            }
+        }
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+    }
+
+    @Override
+    public void promoteArtifacts(final Collection<String> gavcs) {
+        final List<String> promotedIds = new ArrayList<String>();
+
+        synchronized (artifactLock) {
+            final long changeStamp = ChangeStamps.next();
+
+            for(String gavc: new LinkedHashSet<String>(gavcs)){
+                final DbArtifact dbArtifact = artifacts.get(gavc);
+
+                // the artifacts that are already promoted are not rewritten
+                if(dbArtifact != null && !dbArtifact.isPromoted()){
+                    final DbArtifact promoted = copy(dbArtifact);
+                    promoted.setPromoted(true);
+                    promoted.setChangeStamp(changeStamp);
+                    putArtifact(promoted);
+                    promotedIds.add(gavc);
+                }
+            }
+        }
+
+        logChanges(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, promotedIds);
+    }
+
+    @Override
+    public List<DbModule> getAncestors(final DbArtifact artifact, final FiltersHolder filters) {
+        final Map<String, Object> params = filters.getModuleFieldsFilters();
+        params.put(DbModule.USE_DB_FIELD, artifact.getGavc());
+
+        return copyAll(findModules(params, new PageHandler()));
+    }
+
+    @Override
+    public List<DbModule> getModulesUsing(final Collection<String> gavcs) {
+        final Set<String> moduleIds = new TreeSet<String>();
+        for(String gavc: gavcs){
+            moduleIds.addAll(usesIndex.get(gavc));
+        }
+
+        final List<DbModule> dbModules = new ArrayList<DbModule>();
+        for(String moduleId: moduleIds){
+            final DbModule dbModule = modules.get(moduleId);
+
+            // the index may hold a stale entry while the module is written
+            if(dbModule != null && !Collections.disjoint(dbModule.getUses(), gavcs)){
+                dbModules.add(copy(dbModule));
+            }
+        }
+        return dbModules;
+    }
+
+    @Override
+    public void store(final DbModule module) {
+        module.updateHasAndUse();
+        module.setChangeStamp(ChangeStamps.next());
+
+        synchronized (moduleLock) {
+            upsertModule(module);
+        }
+
+        logChange(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.STORE, module.getId());
+    }
+
+    @Override
+    public void storeModules(final Collection<DbModule> dbModules) {
+        // the last occurrence of a module wins, as if they were stored one by one
+        final Map<String, DbModule> toStore = new LinkedHashMap<String, DbModule>();
+        for(DbModule module: dbModules){
+            module.setChangeStamp(ChangeStamps.next());
+            toStore.put(module.getId(), module);
+        }
+
+        synchronized (moduleLock) {
+            for(DbModule module: toStore.values()){
+                module.updateHasAndUse();
+                upsertModule(module);
+            }
+        }
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.STORE, toStore.keySet());
+    }
+
+    /**
+     * Writes a module: all its fields are replaced except the build info that is merged entry by entry, as the upsert
+     * of MongodbHandler does. Has to be called under the module lock.
+     *
+     * @param module DbModule
+     */
+    private void upsertModule(final DbModule module) {
+        final DbModule previous = modules.get(module.getId());
+        final DbModule dbModule = copy(module);
+
+        if(previous != null){
+            final Map<String, String> buildInfo = new HashMap<String, String>(previous.getBuildInfo());
+            buildInfo.putAll(module.getBuildInfo());
+            dbModule.setBuildInfo(buildInfo);
+        }
+
+        putModule(dbModule);
+    }
+
+    /**
+     * Replaces the stored instance of a module and updates the module indexes, the same way putArtifact() does. Has to
+     * be called under the module lock.
+     *
+     * @param dbModule DbModule the instance to store, it must not be shared
+     */
+    private void putModule(final DbModule dbModule) {
+        final String id = dbModule.getId();
+        hasIndex.add(dbModule.getHas(), id);
+        usesIndex.add(dbModule.getUses(), id);
+        organizationIndex.add(Collections.singletonList(dbModule.getOrganization()), id);
+
+        final DbModule previous = modules.put(id, dbModule);
+
+        if(previous != null){
+            unindexModule(previous, dbModule);
+        }
+    }
+
+    /**
+     * Removes from the module indexes the entries of a module that are not part of its new version
+     *
+     * @param previous DbModule
+     * @param dbModule DbModule the new version of the module, null if it has been deleted
+     */
+    private void unindexModule(final DbModule previous, final DbModule dbModule) {
+        final String id = previous.getId();
+        final List<String> has = dbModule == null ? Collections.<String>emptyList() : dbModule.getHas();
+        final List<String> uses = dbModule == null ? Collections.<String>emptyList() : dbModule.getUses();
+        final List<String> organization = dbModule == null ? Collections.<String>emptyList() : Collections.singletonList(dbModule.getOrganization());
+
+        hasIndex.remove(difference(previous.getHas(), has), id);
+        usesIndex.remove(difference(previous.getUses(), uses), id);
+        organizationIndex.remove(difference(Collections.singletonList(previous.getOrganization()), organization), id);
+    }
+
+    @Override
+    public List<String> getModuleNames(final FiltersHolder filters) {
+        return Lists.newArrayList(streamModuleNames(filters));
+    }
+
+    @Override
+    public Iterable<String> streamModuleNames(final FiltersHolder filters) {
+        // the module ids are not sorted by name: "a-b:1" comes before "a:1"
+        final NavigableSet<String> names = new TreeSet<String>();
+        for(DbModule dbModule: findModules(filters.getModuleFieldsFilters(), new PageHandler())){
+            names.add(dbModule.getName());
+        }
+
+        final String after = filters.getPageHandler().getAfter();
+        final Integer limit = filters.getPageHandler().getLimit();
+        final List<String> page = new ArrayList<String>();
+
+        for(String name: after == null ? names : names.tailSet(after, false)){
+            if(limit != null && page.size() >= limit){
+                break;
+            }
+            page.add(name);
+        }
+        return page;
+    }
+
+    @Override
+    public List<String> getModuleVersions(final String name, final FiltersHolder filters) {
+        final Map<String, Object> params = filters.getModuleFieldsFilters();
+        params.put(DbModule.NAME_DB_FIELD, name);
+
+        final Set<String> versions = new LinkedHashSet<String>();
+        for(DbModule dbModule: findModules(params, new PageHandler())){
+            versions.add(dbModule.getVersion());
+        }
+        return new ArrayList<String>(versions);
+    }
+
+    @Override
+    public DbModule getModule(final String moduleId) {
+        return copy(modules.get(moduleId));
+    }
+
+    @Override
+    public Map<String, DbModule> getModules(final Collection<String> moduleIds) {
+        final Map<String, DbModule> dbModules = new HashMap<String, DbModule>();
+        for(String moduleId: moduleIds){
+            final DbModule dbModule = getModule(moduleId);
+            if(dbModule != null){
+                dbModules.put(moduleId, dbModule);
+            }
+        }
+        return dbModules;
+    }
+
+    @Override
+    public List<DbModule> getModules(final FiltersHolder filters) {
+        return copyAll(findModules(filters.getModuleFieldsFilters(), filters.getPageHandler()));
+    }
+
+    @Override
+    public Iterable<DbModule> streamModules(final FiltersHolder filters) {
+        return getModules(filters);
+    }
+
+    @Override
+    public void deleteModule(final String moduleId) {
+        synchronized (moduleLock) {
+            final DbModule module = modules.remove(moduleId);
+
+            if(module == null){
+                throw new NotFoundException("The module does not exist: " + moduleId);
+            }
+
+            unindexModule(module, null);
+        }
+
+        logChange(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.DELETE, moduleId);
+    }
+
+    @Override
+    public void promoteModule(final DbModule module) {
+        synchronized (moduleLock) {
+            final DbModule dbModule = getModule(module.getId());
+
+            if(dbModule != null){
+                dbModule.setPromoted(true);
+                dbModule.setChangeStamp(ChangeStamps.next());
+                putModule(dbModule);
+            }
+        }
+
+        logChange(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, module.getId());
+    }
+
+    @Override
+    public void promoteModules(final Collection<String> moduleIds) {
+        final List<String> promotedIds = new ArrayList<String>();
+
+        synchronized (moduleLock) {
+            final long changeStamp = ChangeStamps.next();
+
+            for(String moduleId: new LinkedHashSet<String>(moduleIds)){
+                final DbModule dbModule = modules.get(moduleId);
+
+                // the modules that are already promoted are not rewritten
+                if(dbModule != null && !dbModule.isPromoted()){
+                    final DbModule promoted = copy(dbModule);
+                    promoted.setPromoted(true);
+                    promoted.setChangeStamp(changeStamp);
+                    putModule(promoted);
+                    promotedIds.add(moduleId);
+                }
+            }
+        }
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, promotedIds);
+    }
+
+    @Override
+    public DbModule getRootModuleOf(final String gavc) {
+        for(String moduleId: new TreeSet<String>(hasIndex.get(gavc))){
+            final DbModule dbModule = modules.get(moduleId);
+
+            if(dbModule != null && dbModule.getHas().contains(gavc)){
+                return copy(dbModule);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        final Map<String, DbModule> rootModules = new HashMap<String, DbModule>();
+        for(String gavc: new HashSet<String>(gavcs)){
+            final DbModule rootModule = getRootModuleOf(gavc);
+            if(rootModule != null){
+                rootModules.put(gavc, rootModule);
+            }
+        }
+        return rootModules;
+    }
+
+    @Override
+    public DbModule getModuleOf(final String gavc) {
+        final DbModule module = getRootModuleOf(gavc);
+
+        // It may be a submodule...
+        if(module != null && !module.getArtifacts().contains(gavc)){
+            for(DbModule submodule: DataUtils.getAllSubmodules(module)){
+                if(submodule.getArtifacts().contains(gavc)){
+                    return submodule;
+                }
+            }
+        }
+
+        return module;
+    }
+
+    @Override
+    public List<String> getOrganizationNames() {
+        return new ArrayList<String>(organizations.keySet());
+    }
+
+    @Override
+    public DbOrganization getOrganization(final String name) {
+        return copy(organizations.get(name));
+    }
+
+    @Override
+    public void deleteOrganization(final String organizationId) {
+        organizations.remove(organizationId);
+        logChange(DbChangeEvent.EntityType.ORGANIZATION, DbChangeEvent.Operation.DELETE, organizationId);
+    }
+
+    @Override
+    public void store(final DbOrganization organization) {
+        organization.setChangeStamp(ChangeStamps.next());
+        organizations.put(organization.getName(), copy(organization));
+
+        logChange(DbChangeEvent.EntityType.ORGANIZATION, DbChangeEvent.Operation.STORE, organization.getName());
+    }
+
+    @Override
+    public void addModulesOrganization(final String corporateGidPrefix, final DbOrganization organization) {
+        final List<String> moduleIds;
+
+        synchronized (moduleLock) {
+            moduleIds = getModuleIdsHaving(Pattern.compile(corporateGidPrefix + "*"), null);
+            setModulesOrganization(moduleIds, organization.getName());
+        }
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, moduleIds);
+    }
+
+    @Override
+    public void removeModulesOrganization(final String corporateGidPrefix, final DbOrganization organization) {
+        final List<String> moduleIds;
+
+        synchronized (moduleLock) {
+            moduleIds = getModuleIdsHaving(Pattern.compile(corporateGidPrefix + "*"), organization.getName());
+            setModulesOrganization(moduleIds, "");
+        }
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, moduleIds);
+    }
+
+    @Override
+    public void removeModulesOrganization(final DbOrganization organization) {
+        final List<String> moduleIds = new ArrayList<String>();
+
+        synchronized (moduleLock) {
+            // a single module is updated: the first match
+            for(String moduleId: new TreeSet<String>(organizationIndex.get(organization.getName()))){
+                final DbModule dbModule = modules.get(moduleId);
+
+                if(dbModule != null && organization.getName().equals(dbModule.getOrganization())){
+                    moduleIds.add(moduleId);
+                    break;
+                }
+            }
+            setModulesOrganization(moduleIds, "");
+        }
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, moduleIds);
+    }
+
+    /**
+     * Returns the ids of the modules that contain an artifact which gavc matches a pattern. The gavcs are read from
+     * the index of the module contents. Has to be called under the module lock.
+     *
+     * @param gavcPattern Pattern
+     * @param organization String only the modules of this organization are returned, null for all the modules
+     * @return List<String>
+     */
+    private List<String> getModuleIdsHaving(final Pattern gavcPattern, final String organization) {
+        final Set<String> moduleIds = new TreeSet<String>();
+        for(String gavc: hasIndex.keys()){
+            if(gavcPattern.matcher(gavc).find()){
+                moduleIds.addAll(hasIndex.get(gavc));
+            }
+        }
+
+        final List<String> matchingIds = new ArrayList<String>();
+        for(String moduleId: moduleIds){
+            final DbModule dbModule = modules.get(moduleId);
+            if(dbModule != null && (organization == null || organization.equals(dbModule.getOrganization()))){
+                matchingIds.add(moduleId);
+            }
+        }
+        return matchingIds;
+    }
+
+    /**
+     * Sets the organization of a set of modules. Has to be called under the module lock.
+     *
+     * @param moduleIds List<String>
+     * @param organization String
+     */
+    private void setModulesOrganization(final List<String> moduleIds, final String organization) {
+        final long changeStamp = ChangeStamps.next();
+
+        for(String moduleId: moduleIds){
+            final DbModule dbModule = getModule(moduleId);
+            dbModule.setOrganization(organization);
+            dbModule.setChangeStamp(changeStamp);
+            putModule(dbModule);
+        }
+    }
+
+    @Override
+    public List<DbOrganization> getAllOrganizations() {
+        return copyAll(organizations.values());
+    }
+
+    @Override
+    public void store(final DbProduct dbProduct) {
+        products.put(dbProduct.getName(), copy(dbProduct));
+        logChange(DbChangeEvent.EntityType.PRODUCT, DbChangeEvent.Operation.STORE, dbProduct.getName());
+    }
+
+    @Override
+    public DbProduct getProduct(final String name) {
+        return copy(products.get(name));
+    }
+
+    @Override
+    public List<String> getProductNames() {
+        return new ArrayList<String>(products.keySet());
+    }
+
+    @Override
+    public void deleteProduct(final String name) {
+        products.remove(name);
+        logChange(DbChangeEvent.EntityType.PRODUCT, DbChangeEvent.Operation.DELETE, name);
+    }
+
+    @Override
+    public void store(final DbIngestionTicket ticket) {
+        synchronized (documentLock) {
+            tickets.put(ticket.getId(), copy(ticket));
+        }
+    }
+
+    @Override
+    public DbIngestionTicket getIngestionTicket(final String id) {
+        return copy(tickets.get(id));
+    }
+
+    @Override
+    public long getIngestionTicketCount(final DbIngestionTicket.Status status) {
+        long count = 0;
+        for(DbIngestionTicket ticket: tickets.values()){
+            if(status.equals(ticket.getStatus())){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public DbIngestionTicket claimIngestionTicket(final String owner) {
+        synchronized (documentLock) {
+            DbIngestionTicket oldest = null;
+            for(DbIngestionTicket ticket: tickets.values()){
+                if(DbIngestionTicket.Status.PENDING.equals(ticket.getStatus()) &&
+                        (oldest == null || ticket.getCreated() < oldest.getCreated())){
+                    oldest = ticket;
+                }
+            }
+
+            if(oldest == null){
+                return null;
+            }
+
+            final DbIngestionTicket claimed = copy(oldest);
+            claimed.setStatus(DbIngestionTicket.Status.IN_PROGRESS);
+            claimed.setOwner(owner);
+            claimed.setUpdated(System.currentTimeMillis());
+            tickets.put(claimed.getId(), claimed);
+
+            return copy(claimed);
+        }
+    }
+
+    @Override
+    public int releaseIngestionTickets(final long claimedBefore) {
+        synchronized (documentLock) {
+            int released = 0;
+            for(DbIngestionTicket ticket: tickets.values()){
+                if(DbIngestionTicket.Status.IN_PROGRESS.equals(ticket.getStatus()) && ticket.getUpdated() < claimedBefore){
+                    final DbIngestionTicket pending = copy(ticket);
+                    pending.setStatus(DbIngestionTicket.Status.PENDING);
+                    pending.setOwner(null);
+                    tickets.put(pending.getId(), pending);
+                    released++;
+                }
+            }
+            return released;
+        }
+    }
+
+    @Override
+    public int purgeIngestionTickets(final long closedBefore) {
+        synchronized (documentLock) {
+            int purged = 0;
+            for(DbIngestionTicket ticket: tickets.values()){
+                if((DbIngestionTicket.Status.DONE.equals(ticket.getStatus()) || DbIngestionTicket.Status.FAILED.equals(ticket.getStatus())) &&
+                        ticket.getUpdated() < closedBefore){
+                    tickets.remove(ticket.getId());
+                    purged++;
+                }
+            }
+            return purged;
+        }
+    }
+
+    @Override
+    public List<DbChangeEvent> getChangeEvents(final long since, final int limit) {
+        final List<DbChangeEvent> events = new ArrayList<DbChangeEvent>();
+        for(DbChangeEvent event: changeEvents.tailMap(since, false).values()){
+            if(events.size() >= limit){
+                break;
+            }
+            events.add(copy(event));
+        }
+        return events;
+    }
+
+    @Override
+    public long getFirstChangeSequence() {
+        final Map.Entry<Long, DbChangeEvent> first = changeEvents.firstEntry();
+        return first == null ? 0 : first.getKey();
+    }
+
+    @Override
+    public long getLastChangeSequence() {
+        return lastChangeSequence;
+    }
+
+    /**
+     * Appends a change event to the change log
+     *
+     * @param entityType DbChangeEvent.EntityType
+     * @param operation DbChangeEvent.Operation
+     * @param entityId String
+     */
+    private void logChange(final DbChangeEvent.EntityType entityType, final DbChangeEvent.Operation operation, final String entityId) {
+        logChanges(entityType, operation, Collections.singletonList(entityId));
+    }
+
+    /**
+     * Appends the change events of a set of elements to the change log, the oldest events are dropped once the log
+     * holds changeLogSize events, as with the capped collection of MongodbHandler.
+     *
+     * @param entityType DbChangeEvent.EntityType
+     * @param operation DbChangeEvent.Operation
+     * @param entityIds Collection<String>
+     */
+    private void logChanges(final DbChangeEvent.EntityType entityType, final DbChangeEvent.Operation operation, final Collection<String> entityIds) {
+        if(entityIds.isEmpty()){
+            return;
+        }
+
+        synchronized (changeLogLock) {
+            long sequence = lastChangeSequence;
+            for(String entityId: entityIds){
+                sequence++;
+                changeEvents.put(sequence, new DbChangeEvent(sequence, entityType, entityId, operation));
+            }
+            lastChangeSequence = sequence;
+
+            changeEvents.headMap(sequence - changeLogSize + 1).clear();
+        }
+    }
+
+    /**
+     * Finds the artifacts that match the parameters, the license and gavc parameters are resolved without scanning
+     * the collection
+     *
+     * @param params Map<String, Object>
+     * @param page PageHandler
+     * @return List<DbArtifact> the stored instances, they must not be modified
+     */
+    private List<DbArtifact> findArtifacts(final Map<String, Object> params, final PageHandler page) {
+        Collection<String> candidates = null;
+
+        if(params.get(DbCollections.DEFAULT_ID) instanceof String){
+            candidates = Collections.singleton((String) params.get(DbCollections.DEFAULT_ID));
+        }
+        else if(params.get(DbArtifact.LICENCES_DB_FIELD) instanceof String){
+            candidates = licenseIndex.get((String) params.get(DbArtifact.LICENCES_DB_FIELD));
+        }
+
+        return find(artifacts, candidates, params, ARTIFACT_FIELDS, page);
+    }
+
+    /**
+     * Finds the modules that match the parameters, the id, has, uses, name and organization parameters are resolved
+     * without scanning the collection
+     *
+     * @param params Map<String, Object>
+     * @param page PageHandler
+     * @return List<DbModule> the stored instances, they must not be modified
+     */
+    private List<DbModule> findModules(final Map<String, Object> params, final PageHandler page) {
+        Collection<String> candidates = null;
+
+        if(params.get(DbCollections.DEFAULT_ID) instanceof String){
+            candidates = Collections.singleton((String) params.get(DbCollections.DEFAULT_ID));
+        }
+        else if(params.get(DbModule.USE_DB_FIELD) instanceof String){
+            candidates = usesIndex.get((String) params.get(DbModule.USE_DB_FIELD));
+        }
+        else if(params.get(DbModule.HAS_DB_FIELD) instanceof String){
+            candidates = hasIndex.get((String) params.get(DbModule.HAS_DB_FIELD));
+        }
+        else if(params.get(DbModule.NAME_DB_FIELD) instanceof String){
+            // the ids of the modules of a name are a range: "name:version"
+            final String name = (String) params.get(DbModule.NAME_DB_FIELD);
+            candidates = modules.subMap(DbModule.generateID(name, ""), DbModule.generateID(name, "\uffff")).keySet();
+        }
+        else if(params.get(DbModule.ORGANIZATION_DB_FIELD) instanceof String){
+            candidates = organizationIndex.get((String) params.get(DbModule.ORGANIZATION_DB_FIELD));
+        }
+
+        return find(modules, candidates, params, MODULE_FIELDS, page);
+    }
+
+    /**
+     * Finds a page of the documents of a collection that match the parameters. The documents are sorted by id, a page
+     * is a range of ids.
+     *
+     * @param collection NavigableMap<String, T>
+     * @param candidates Collection<String> the ids of the documents that may match, null to scan the collection
+     * @param params Map<String, Object>
+     * @param fields FieldReader<T>
+     * @param page PageHandler
+     * @return List<T>
+     */
+    private static <T> List<T> find(final NavigableMap<String, T> collection, final Collection<String> candidates,
+                                    final Map<String, Object> params, final FieldReader<T> fields, final PageHandler page) {
+        final Map<String, Object> criteria = compile(params);
+        final String after = page.getAfter();
+        final Integer limit = page.getLimit();
+
+        final Iterable<String> ids;
+        if(candidates == null){
+            ids = after == null ? collection.keySet() : collection.tailMap(after, false).keySet();
+        }
+        else{
+            final NavigableSet<String> sortedIds = new TreeSet<String>(candidates);
+            ids = after == null ? sortedIds : sortedIds.tailSet(after, false);
+        }
+
+        final List<T> documents = new ArrayList<T>();
+        for(String id: ids){
+            if(limit != null && documents.size() >= limit){
+                break;
+            }
+
+            final T document = collection.get(id);
+            if(document != null && matches(document, criteria, fields)){
+                documents.add(document);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Compiles the regular expressions of the query parameters once for all the documents
+     *
+     * @param params Map<String, Object>
+     * @return Map<String, Object>
+     */
+    private static Map<String, Object> compile(final Map<String, Object> params) {
+        final Map<String, Object> criteria = new HashMap<String, Object>();
+        for(Map.Entry<String, Object> param: params.entrySet()){
+            if(param.getValue() instanceof DBRegExp){
+                criteria.put(param.getKey(), Pattern.compile(param.getValue().toString()));
+            }
+            else{
+                criteria.put(param.getKey(), param.getValue());
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * Checks a document against query parameters with the mongodb semantics: a list field matches if one of its
+     * elements matches, a regular expression matches if it is found in the value.
+     *
+     * @param document T
+     * @param criteria Map<String, Object>
+     * @param fields FieldReader<T>
+     * @return boolean
+     */
+    private static <T> boolean matches(final T document, final Map<String, Object> criteria, final FieldReader<T> fields) {
+        for(Map.Entry<String, Object> criterion: criteria.entrySet()){
+            if(!matchesValue(fields.get(document, criterion.getKey()), criterion.getValue())){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesValue(final Object value, final Object expected) {
+        if(value instanceof Collection){
+            for(Object element: (Collection<?>) value){
+                if(matchesValue(element, expected)){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if(expected instanceof Pattern){
+            return value instanceof String && ((Pattern) expected).matcher((String) value).find();
+        }
+        return expected != null && expected.equals(value);
+    }
+
+    /**
+     * Returns the elements of a list that are not part of another one
+     *
+     * @param elements List<String>
+     * @param others List<String>
+     * @return List<String>
+     */
+    private static List<String> difference(final List<String> elements, final List<String> others) {
+        final List<String> difference = new ArrayList<String>(elements);
+        difference.removeAll(others);
+        return difference;
+    }
+
+    /**
+     * Copies an entity through its mongodb representation
+     *
+     * @param entity T
+     * @return T null if the entity is null
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(final T entity) {
+        if(entity == null){
+            return null;
+        }
+        return (T) MAPPER.getUnmarshaller().unmarshall(MAPPER.getMarshaller().marshall(entity), entity.getClass());
+    }
+
+    private static <T> List<T> copyAll(final Collection<T> entities) {
+        final List<T> copies = new ArrayList<T>(entities.size());
+        for(T entity: entities){
+            copies.add(copy(entity));
+        }
+        return copies;
+    }
+
+    /**
+     * Reads the field of a document that a query parameter targets
+     */
+    private interface FieldReader<T> {
+        Object get(T document, String field);
+    }
+
+    private static final FieldReader<DbArtifact> ARTIFACT_FIELDS = new FieldReader<DbArtifact>() {
+        @Override
+        public Object get(final DbArtifact artifact, final String field) {
+            if(DbCollections.DEFAULT_ID.equals(field)){
+                return artifact.getGavc();
+            }
+            if(DbArtifact.GROUPID_DB_FIELD.equals(field)){
+                return artifact.getGroupId();
+            }
+            if(DbArtifact.ARTIFACTID_DB_FIELD.equals(field)){
+                return artifact.getArtifactId();
+            }
+            if(DbArtifact.VERSION_DB_FIELD.equals(field)){
+                return artifact.getVersion();
+            }
+            if(DbArtifact.CLASSIFIER_DB_FIELD.equals(field)){
+                return artifact.getClassifier();
+            }
+            if(DbArtifact.TYPE_DB_FIELD.equals(field)){
+                return artifact.getType();
+            }
+            if(DbArtifact.EXTENSION_DB_FIELD.equals(field)){
+                return artifact.getExtension();
+            }
+            if(DbArtifact.PROMOTION_DB_FIELD.equals(field)){
+                return artifact.isPromoted();
+            }
+            if(DbArtifact.LICENCES_DB_FIELD.equals(field)){
+                return artifact.getLicenses();
+            }
+            if(DbArtifact.DOWNLOAD_URL_DB_FIELD.equals(field)){
+                return artifact.getDownloadUrl();
+            }
+            if(DbArtifact.SIZE_DB_FIELD.equals(field)){
+                return artifact.getSize();
+            }
+            if(DbArtifact.DO_NOT_USE.equals(field)){
+                return artifact.getDoNotUse();
+            }
+            if(DbArtifact.PROVIDER.equals(field)){
+                return artifact.getProvider();
+            }
+            return null;
+        }
+    };
+
+    private static final FieldReader<DbModule> MODULE_FIELDS = new FieldReader<DbModule>() {
+        @Override
+        public Object get(final DbModule module, final String field) {
+            if(DbCollections.DEFAULT_ID.equals(field)){
+                return module.getId();
+            }
+            if(DbModule.NAME_DB_FIELD.equals(field)){
+                return module.getName();
+            }
+            if(DbModule.VERSION_DB_FIELD.equals(field)){
+                return module.getVersion();
+            }
+            if(DbModule.PROMOTION_DB_FIELD.equals(field)){
+                return module.isPromoted();
+            }
+            if(DbModule.IS_SUBMODULE_DB_FIELD.equals(field)){
+                return module.isSubmodule();
+            }
+            if(DbModule.ORGANIZATION_DB_FIELD.equals(field)){
+                return module.getOrganization();
+            }
+            if(DbModule.HAS_DB_FIELD.equals(field)){
+                return module.getHas();
+            }
+            if(DbModule.USE_DB_FIELD.equals(field)){
+                return module.getUses();
+            }
+            return null;
+        }
+    };
+
+    /**
+     * Secondary index: value of a field -> ids of the documents that hold it. It is written under the lock of its
+     * collection and read without lock.
+     */
+    private static final class Index {
+
+        private final ConcurrentMap<String, Set<String>> entries = new ConcurrentHashMap<String, Set<String>>();
+
+        void add(final Collection<String> keys, final String id) {
+            for(String key: keys){
+                Set<String> ids = entries.get(key);
+                if(ids == null){
+                    ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                    entries.put(key, ids);
+                }
+                ids.add(id);
+            }
+        }
+
+        void remove(final Collection<String> keys, final String id) {
+            for(String key: keys){
+                final Set<String> ids = entries.get(key);
+                if(ids != null){
+                    ids.remove(id);
+                    if(ids.isEmpty()){
+                        entries.remove(key);
+                    }
+                }
+            }
+        }
+
+        Set<String> get(final String key) {
+            final Set<String> ids = entries.get(key);
+            return ids == null ? Collections.<String>emptySet() : ids;
+        }
+
+        Set<String> keys() {
+            return entries.keySet();
+        }
+    }
+}
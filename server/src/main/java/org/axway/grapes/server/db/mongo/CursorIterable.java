@@ -0,0 +1,66 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.google.common.collect.Lists;
+import com.mongodb.DBCursor;
+import org.jongo.ResultHandler;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Cursor Iterable
+ *
+ * <p>Maps the documents of a database cursor while they are read. The cursor can be iterated once, it must be closed
+ * when it is not read to the end so that the database releases it right away.</p>
+ *
+ * @author jdcoffre
+ */
+class CursorIterable<T> implements Iterable<T>, Closeable {
+
+    private final DBCursor cursor;
+    private final ResultHandler<T> resultHandler;
+
+    CursorIterable(final DBCursor cursor, final ResultHandler<T> resultHandler) {
+        this.cursor = cursor;
+        this.resultHandler = resultHandler;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return resultHandler.map(cursor.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("The documents of a cursor cannot be removed.");
+            }
+        };
+    }
+
+    /**
+     * Reads all the documents of the cursor and closes it
+     *
+     * @return List<T>
+     */
+    List<T> toList() {
+        try {
+            return Lists.newArrayList(iterator());
+        } finally {
+            close();
+        }
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+}
@@ -3,6 +3,7 @@ package org.axway.grapes.server.db.mongo;
 import org.axway.grapes.server.db.DBRegExp;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -58,6 +59,40 @@ public final class JongoUtils {
 		return generateQuery(params);
 	}
 
+	/**
+	 * Generate a Jongo query regarding a set of parameters, restricted to the documents which field is greater than a value.
+	 * The value is not part of the query, it has to be bound to the '#' placeholder.
+	 *
+	 * @param params Map<queryKey, queryValue> of query parameters
+	 * @param field String the field of the range
+	 * @return String
+	 */
+	public static String generateRangeQuery(final Map<String,Object> params, final String field){
+		return "{$and: [" + generateQuery(params) + ", {" + field + ": {$gt: #}}]}";
+	}
+
+	/**
+	 * Generate the keys of an ascending index keeping the order of the fields.
+	 *
+	 * @param fields List<String>
+	 * @return String
+	 */
+	public static String generateIndexKeys(final List<String> fields) {
+		final StringBuilder sb = new StringBuilder();
+
+		sb.append("{");
+		for(String field: fields){
+			if(sb.length() > 1){
+				sb.append(", ");
+			}
+			sb.append(field);
+			sb.append(": 1");
+		}
+		sb.append("}");
+
+		return sb.toString();
+	}
+
 	/**
 	 * Handle the serialization of String, Integer and boolean parameters.
 	 * 
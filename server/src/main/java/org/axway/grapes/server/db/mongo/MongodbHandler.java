@@ -1,21 +1,46 @@
 package org.axway.grapes.server.db.mongo;
 
+import com.google.common.base.Optional;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
+import com.google.common.collect.PeekingIterator;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DBCollection;
+import com.mongodb.DBCursor;
+import com.mongodb.DBObject;
 import com.mongodb.DB;
+import com.mongodb.DefaultDBDecoder;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.MongoException;
+import com.mongodb.ReadPreference;
 import com.mongodb.ServerAddress;
+import com.mongodb.WriteResult;
 import com.sun.jersey.api.NotFoundException;
 import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.core.cache.CacheMetrics;
 import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.options.PageHandler;
+import org.axway.grapes.server.core.version.Versions;
+import org.axway.grapes.server.db.ChangeStamps;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
+import org.jongo.Find;
 import org.jongo.Jongo;
+import org.jongo.Mapper;
 import org.jongo.MongoCollection;
+import org.jongo.ResultHandler;
+import org.jongo.bson.Bson;
+import org.jongo.marshall.jackson.JacksonMapper;
+import org.jongo.query.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
@@ -31,101 +56,228 @@ import java.util.regex.Pattern;
  * @author jdcoffre
  */
 public class MongodbHandler implements RepositoryHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MongodbHandler.class);
+
+    // maximum number of ids sent in a single $in query
+    private static final int BULK_QUERY_SIZE = 1000;
+
+    // upper bound of the size in bytes of a change event, used to size the capped collection of the change log
+    private static final int CHANGE_EVENT_SIZE = 512;
+    // id and field of the counter document that numbers the change events
+    private static final String CHANGE_SEQUENCE_ID = "changes";
+    private static final String CHANGE_SEQUENCE_FIELD = "value";
+    // a sequence number is reserved before its event is inserted, possibly by another server: a gap in the change log
+    // is an event that is still being inserted, unless the event that follows the gap is older than this delay
+    static final long CHANGE_GAP_TIMEOUT = 30000;
+    // a latest version entry is written only if its versions did not change since they have been read, else it is retried
+    private static final int LATEST_VERSION_REFRESH_ATTEMPTS = 10;
+    // the artifacts stamped by the other servers since this delay before a rebuild are added again after it
+    private static final long REBUILD_CLOCK_SKEW = 30000;
+    // fields of the artifacts the latest versions are built from
+    private static final String LATEST_VERSION_ARTIFACT_FIELDS = "{ " + DbArtifact.GROUPID_DB_FIELD + ": 1, " +
+            DbArtifact.ARTIFACTID_DB_FIELD + ": 1, " + DbArtifact.VERSION_DB_FIELD + ": 1, " +
+            DbArtifact.CLASSIFIER_DB_FIELD + ": 1, " + DbArtifact.EXTENSION_DB_FIELD + ": 1}";
+
     // cache for credentials
-    private LoadingCache<String, DbCredential> credentialCache;
+    private final LoadingCache<String, Optional<DbCredential>> credentialCache;
     // DB connection
     private final DB db;
-
-    public MongodbHandler(final DataBaseConfig config) throws UnknownHostException {
-        final ServerAddress address = new ServerAddress(config.getHost() , config.getPort());
-        final MongoClient mongo = new MongoClient(address);
+    // Jongo instance shared by all the requests
+    private final Jongo jongo;
+    // Jongo mapper, also used to build the upsert documents
+    private static final Mapper MAPPER = new JacksonMapper.Builder().build();
+    // read preference of the heavy read queries
+    private final ReadPreference readPreference;
+    // the change events are numbered and inserted under this lock so that they are visible in their order
+    private final Object changeLogLock = new Object();
+
+    public MongodbHandler(final DataBaseConfig config, final String credentialCachePolicy) throws UnknownHostException {
+        final MongoClient mongo = new MongoClient(getServerAddresses(config), getClientOptions(config));
         db = mongo.getDB(config.getDatastore());
 
         if(config.getUser() != null && config.getPwd() != null){
             db.authenticate(config.getUser(), config.getPwd());
         }
 
+        jongo = new Jongo(db, MAPPER);
+        readPreference = ReadPreference.valueOf(config.getReadPreference());
+
         // Init credentials' cache
-        credentialCache = CacheBuilder.newBuilder()
-                .maximumSize(1000)
+        credentialCache = CacheBuilder.from(credentialCachePolicy)
+                .recordStats()
                 .build(
-                        new CacheLoader<String, DbCredential>() {
-                            public DbCredential load(String user) {
-                                return getCredential(user);
+                        new CacheLoader<String, Optional<DbCredential>>() {
+                            public Optional<DbCredential> load(String user) {
+                                return Optional.fromNullable(loadCredential(user));
                             }
                         });
+        CacheMetrics.register(MongodbHandler.class, "credentials", credentialCache);
+
+        ensureIndexes();
+        ensureLatestVersions();
+        ensureChangeLog(config.getChangeLogSize());
+    }
+
+    /**
+     * Creates the capped collection of the change log if it does not exist. The size of an existing change log is
+     * not changed.
+     *
+     * @param changeLogSize int the maximum number of events
+     */
+    private void ensureChangeLog(final int changeLogSize) {
+        if(db.collectionExists(DbCollections.DB_CHANGE_EVENTS)){
+            return;
+        }
+
+        LOG.info("Create the change log, it keeps the last " + changeLogSize + " changes.");
+        try {
+            db.createCollection(DbCollections.DB_CHANGE_EVENTS, new BasicDBObject("capped", true)
+                    .append("size", (long) changeLogSize * CHANGE_EVENT_SIZE)
+                    .append("max", changeLogSize));
+        } catch (MongoException e) {
+            // another server may have created it in the meantime
+            LOG.warn("Failed to create the change log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the latest versions if they have never been built, they are maintained by the artifact writes afterward.
+     */
+    private void ensureLatestVersions() {
+        final Jongo datastore = getJongoDataStore();
+
+        if(datastore.getCollection(DbCollections.DB_LATEST_VERSIONS).count() == 0 &&
+                datastore.getCollection(DbCollections.DB_ARTIFACTS).count() > 0){
+            LOG.info("Building the latest versions of the artifacts...");
+            LOG.info(rebuildLatestVersions() + " latest versions have been built.");
+        }
+    }
+
+    /**
+     * Creates the indexes declared in DbCollections. Nothing is done for the indexes that already exist.
+     */
+    private void ensureIndexes() {
+        final Jongo datastore = getJongoDataStore();
+
+        for(DbIndex index: DbCollections.INDEXES){
+            LOG.info("Ensure index " + index);
+            datastore.getCollection(index.getCollection())
+                    .ensureIndex(JongoUtils.generateIndexKeys(index.getFields()));
+        }
     }
     
     /**
-	 * Initialize a connection with the database using Jongo.
+     * Returns the addresses of the database servers: the replica set members if any, the host/port pair otherwise.
+     *
+     * @param config DataBaseConfig
+     * @return List<ServerAddress>
+     * @throws UnknownHostException
+     */
+    protected static List<ServerAddress> getServerAddresses(final DataBaseConfig config) throws UnknownHostException {
+        final List<ServerAddress> addresses = new ArrayList<ServerAddress>();
+
+        for(String member: config.getReplicaSetMembers()){
+            addresses.add(new ServerAddress(member));
+        }
+        if(addresses.isEmpty()){
+            addresses.add(new ServerAddress(config.getHost(), config.getPort()));
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Generates the connection pool options of the client from the configuration.
+     * The default read preference stays primary, the configured one is only applied to the heavy read queries.
+     *
+     * @param config DataBaseConfig
+     * @return MongoClientOptions
+     */
+    protected static MongoClientOptions getClientOptions(final DataBaseConfig config) {
+        return MongoClientOptions.builder()
+                .connectionsPerHost(config.getConnectionsPerHost())
+                .threadsAllowedToBlockForConnectionMultiplier(config.getWaitQueueMultiplier())
+                .maxWaitTime(config.getMaxWaitTime())
+                .connectTimeout(config.getConnectTimeout())
+                .socketTimeout(config.getSocketTimeout())
+                .build();
+    }
+
+    /**
+	 * Returns the Jongo instance shared by all the requests.
 	 * 
-	 * <p>WARNING: The database connection is closed only when Datastore instance is garbage collected!!!!</p>
+	 * <p>The connection pool is handled by the MongoClient, the instance is thread safe.</p>
 	 * 
 	 * @return Jongo instance
 	 */
 	private Jongo getJongoDataStore() {
-		return new Jongo(db);
+		return jongo;
 	}
 
+    /**
+     * Returns a collection on which the heavy read queries are performed using the configured read preference.
+     *
+     * @param collectionName String
+     * @return MongoCollection
+     */
+    private MongoCollection getReadCollection(final String collectionName) {
+        return getJongoDataStore().getCollection(collectionName).withReadPreference(readPreference);
+    }
+
     @Override
 	public void store(final DbCredential credential) {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection dbCredentials = datastore.getCollection(DbCollections.DB_CREDENTIALS);
 
-		final DbCredential dbCredential = getCredential(credential.getUser());
-
-        if(dbCredential == null){
-            dbCredentials.save(credential);
-        }
-        else{
-            dbCredentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbCredential.getUser())).with(credential);
-        }
+        dbCredentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, credential.getUser()))
+                .upsert()
+                .with(credential);
 
         credentialCache.invalidate(credential.getUser());
 	}
 
     @Override
     public void addUserRole(final String user, final AvailableRoles role) {
-        final DbCredential credential = getCredential(user);
-
-        if(credential == null){
-            throw new WebApplicationException(Response.Status.NOT_FOUND);
-        }
-
-        final Jongo datastore = getJongoDataStore();
-        final MongoCollection credentials = datastore.getCollection(DbCollections.DB_CREDENTIALS);
-
-        if(!credential.getRoles().contains(role)){
-            credential.addRole(role);
-            credentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
-                    .with("{ $set: { \""+ DbCredential.ROLES_FIELD + "\": #}} " , credential.getRoles());
-        }
-
-        credentialCache.invalidate(credential.getUser());
-
+        updateUserRoles(user, "{ $addToSet: { " + DbCredential.ROLES_FIELD + ": #}}", role);
     }
 
     @Override
     public void removeUserRole(final String user, final AvailableRoles role) {
-        final DbCredential credential = getCredential(user);
+        updateUserRoles(user, "{ $pull: { " + DbCredential.ROLES_FIELD + ": #}}", role);
+    }
 
-        if(credential == null){
+    /**
+     * Adds or removes a role in place, so that two concurrent updates of the roles of a user do not overwrite each other
+     *
+     * @param user String
+     * @param modifier String the update of the roles
+     * @param role AvailableRoles
+     */
+    private void updateUserRoles(final String user, final String modifier, final AvailableRoles role) {
+        final WriteResult result = getJongoDataStore().getCollection(DbCollections.DB_CREDENTIALS)
+                .update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
+                .with(modifier, role.name());
+
+        if(result.getN() == 0){
             throw new WebApplicationException(Response.Status.NOT_FOUND);
         }
 
-        final Jongo datastore = getJongoDataStore();
-        final MongoCollection credentials = datastore.getCollection(DbCollections.DB_CREDENTIALS);
-
-        if(credential.getRoles().contains(role)){
-            credential.removeRole(role);
-            credentials.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
-                    .with("{ $set: { \""+ DbCredential.ROLES_FIELD + "\": #}} " , credential.getRoles());
-        }
-        credentialCache.invalidate(credential.getUser());
+        credentialCache.invalidate(user);
     }
 
     @Override
     public DbCredential getCredential(final String user) {
+        return credentialCache.getUnchecked(user).orNull();
+    }
+
+    /**
+     * Reads a credential in the database, bypassing the cache
+     *
+     * @param user String
+     * @return DbCredential or null if the user does not exist
+     */
+    private DbCredential loadCredential(final String user) {
 		final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_CREDENTIALS)
 				.findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, user))
@@ -136,14 +288,13 @@ public class MongodbHandler implements RepositoryHandler {
     public void store(final DbLicense license) {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection dbLicenses = datastore.getCollection(DbCollections.DB_LICENSES);
-        final DbLicense dbLicense = getLicense(license.getName());
 
-        if(dbLicense == null){
-            dbLicenses.save(license);
-        }
-        else {
-            dbLicenses.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbLicense.getName())).with(license);
-        }
+        license.setChangeStamp(ChangeStamps.next());
+        dbLicenses.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, license.getName()))
+                .upsert()
+                .with(license);
+
+        logChange(DbChangeEvent.EntityType.LICENSE, DbChangeEvent.Operation.STORE, license.getName());
 
     }
 
@@ -191,16 +342,99 @@ public class MongodbHandler implements RepositoryHandler {
             final Jongo datastore = getJongoDataStore();
             datastore.getCollection(DbCollections.DB_LICENSES)
                     .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name));
+            logChange(DbChangeEvent.EntityType.LICENSE, DbChangeEvent.Operation.DELETE, name);
         }
     }
 
+    /**
+     * Opens a cursor on the documents of a collection that match the parameters and which field is greater than a
+     * value, see findAfter. The cursor is given to the caller that closes it.
+     *
+     * @param collectionName String
+     * @param params Map<String, Object>
+     * @param field String the field of the range
+     * @param after String the lower bound of the range, null for no range
+     * @param projection DBObject the fields to read, null for all of them
+     * @return DBCursor
+     */
+    private DBCursor openAfter(final String collectionName, final Map<String, Object> params, final String field, final String after, final DBObject projection) {
+        final Query query = after == null ?
+                MAPPER.getQueryFactory().createQuery(JongoUtils.generateQuery(params)) :
+                MAPPER.getQueryFactory().createQuery(JongoUtils.generateRangeQuery(params, field), after);
+
+        final DBCursor cursor = getJongoDataStore().getCollection(collectionName).getDBCollection()
+                .find(query.toDBObject(), projection);
+        cursor.setReadPreference(readPreference);
+
+        return cursor;
+    }
+
+    /**
+     * Opens a cursor on a page of the documents of a collection that match the parameters, see findPage
+     *
+     * @param collectionName String
+     * @param params Map<String, Object>
+     * @param page PageHandler
+     * @param projection DBObject the fields to read, null for all of them
+     * @return DBCursor
+     */
+    private DBCursor openPage(final String collectionName, final Map<String, Object> params, final PageHandler page, final DBObject projection) {
+        final DBCursor cursor = openAfter(collectionName, params, DbCollections.DEFAULT_ID, page.getAfter(), projection);
+
+        if(page.isPaged()){
+            cursor.sort(new BasicDBObject(DbCollections.DEFAULT_ID, 1));
+        }
+        if(page.getLimit() != null){
+            cursor.limit(page.getLimit());
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Find the documents of a collection that match the parameters and which field is greater than a value
+     *
+     * @param collectionName String
+     * @param params Map<String, Object>
+     * @param field String the field of the range
+     * @param after String the lower bound of the range, null for no range
+     * @return Find
+     */
+    private Find findAfter(final String collectionName, final Map<String, Object> params, final String field, final String after) {
+        final MongoCollection collection = getReadCollection(collectionName);
+
+        if(after == null){
+            return collection.find(JongoUtils.generateQuery(params));
+        }
+        return collection.find(JongoUtils.generateRangeQuery(params, field), after);
+    }
+
+    /**
+     * Find a page of the documents of a collection that match the parameters. A page is a range of ids.
+     *
+     * @param collectionName String
+     * @param params Map<String, Object>
+     * @param page PageHandler
+     * @return Find
+     */
+    private Find findPage(final String collectionName, final Map<String, Object> params, final PageHandler page) {
+        final Find find = findAfter(collectionName, params, DbCollections.DEFAULT_ID, page.getAfter());
+
+        if(page.isPaged()){
+            find.sort("{ " + DbCollections.DEFAULT_ID + ": 1}");
+        }
+        if(page.getLimit() != null){
+            find.limit(page.getLimit());
+        }
+
+        return find;
+    }
+
     @Override
     public List<DbArtifact> getArtifacts(final FiltersHolder filters) {
-        final Jongo datastore = getJongoDataStore();
         final List<DbArtifact> artifacts = new ArrayList<DbArtifact>();
 
-        final Iterable<DbArtifact> dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS)
-                .find(JongoUtils.generateQuery(filters.getArtifactFieldsFilters()))
+        final Iterable<DbArtifact> dbArtifacts = findPage(DbCollections.DB_ARTIFACTS, filters.getArtifactFieldsFilters(), filters.getPageHandler())
                 .as(DbArtifact.class);
 
         for(DbArtifact dbArtifact: dbArtifacts){
@@ -209,27 +443,37 @@ public class MongodbHandler implements RepositoryHandler {
         return artifacts;
     }
 
+    @Override
+    public Iterable<DbArtifact> streamArtifacts(final FiltersHolder filters) {
+        final DBCursor cursor = openPage(DbCollections.DB_ARTIFACTS, filters.getArtifactFieldsFilters(), filters.getPageHandler(), null);
+        return new CursorIterable<DbArtifact>(cursor, new EntityResultHandler<DbArtifact>(DbArtifact.class));
+    }
+
     @Override
     public void addLicenseToArtifact(final DbArtifact artifact, final String licenseId) {
-        final Jongo datastore = getJongoDataStore();
-        final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
         artifact.addLicense(licenseId);
-        artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                .with("{ $set: { \""+ DbArtifact.LICENCES_DB_FIELD + "\": #}} " , artifact.getLicenses());
 
+        // the license is added in place, a concurrent update of the licenses of the artifact is not lost
+        final WriteResult result = getJongoDataStore().getCollection(DbCollections.DB_ARTIFACTS)
+                .update("{ " + DbCollections.DEFAULT_ID + ": #, " + DbArtifact.LICENCES_DB_FIELD + ": { $ne: # }}", artifact.getGavc(), licenseId)
+                .with("{ $addToSet: { \"" + DbArtifact.LICENCES_DB_FIELD + "\": #}, $set: { \"" + DbArtifact.CHANGE_STAMP_DB_FIELD + "\": #}} ", licenseId, ChangeStamps.next());
+
+        if(result.getN() > 0){
+            logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+        }
     }
 
     @Override
     public void removeLicenseFromArtifact(final DbArtifact artifact, final String licenseId) {
-        final Jongo datastore = getJongoDataStore();
-        final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
+        artifact.removeLicense(licenseId);
 
-        if(artifact.getLicenses().contains(licenseId)){
-            artifact.removeLicense(licenseId);
-            artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                    .with("{ $set: { \""+ DbArtifact.LICENCES_DB_FIELD + "\": #}} " , artifact.getLicenses());
-        }
+        final WriteResult result = getJongoDataStore().getCollection(DbCollections.DB_ARTIFACTS)
+                .update("{ " + DbCollections.DEFAULT_ID + ": #, " + DbArtifact.LICENCES_DB_FIELD + ": # }", artifact.getGavc(), licenseId)
+                .with("{ $pull: { \"" + DbArtifact.LICENCES_DB_FIELD + "\": #}, $set: { \"" + DbArtifact.CHANGE_STAMP_DB_FIELD + "\": #}} ", licenseId, ChangeStamps.next());
 
+        if(result.getN() > 0){
+            logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
+        }
     }
 
     @Override
@@ -238,38 +482,112 @@ public class MongodbHandler implements RepositoryHandler {
         final MongoCollection licenses = datastore.getCollection(DbCollections.DB_LICENSES);
 
         licenses.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, license.getName()))
-                .with("{ $set: { \""+ DbLicense.APPROVED_DB_FIELD + "\": #}} " , approved);
+                .with("{ $set: { \""+ DbLicense.APPROVED_DB_FIELD + "\": #, \"" + DbLicense.CHANGE_STAMP_DB_FIELD + "\": #}} " , approved, ChangeStamps.next());
+
+        logChange(DbChangeEvent.EntityType.LICENSE, DbChangeEvent.Operation.UPDATE, license.getName());
     }
 
     @Override
     public void store(final DbArtifact artifact) {
         final Jongo datastore = getJongoDataStore();
-        final MongoCollection dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
-        final DbArtifact dbArtifact = getArtifact(artifact.getGavc());
+        final DBCollection dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS).getDBCollection();
+
+        // the previous document tells if the artifact is a new one
+        artifact.setChangeStamp(ChangeStamps.next());
+        final DBObject previous = dbArtifacts.findAndModify(new BasicDBObject(DbCollections.DEFAULT_ID, artifact.getGavc()),
+                new BasicDBObject(DbCollections.DEFAULT_ID, 1), null, false, getArtifactUpsert(artifact), false, true);
 
-        if(dbArtifact == null){
-            dbArtifacts.save(artifact);
+        if(previous == null){
+            addLatestVersion(artifact);
         }
-        else{
 
-            // Important: merge existing license and new ones :
-            //    * because an existing license could have been manually enforce by a user
-            //    * because all Grapes clients are not to send license information
-            for(String license: dbArtifact.getLicenses()){
-                artifact.addLicense(license);
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.STORE, artifact.getGavc());
+    }
+
+    @Override
+    public boolean storeIfNew(final DbArtifact artifact) {
+        final Jongo datastore = getJongoDataStore();
+        final DBCollection dbArtifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS).getDBCollection();
+
+        artifact.setChangeStamp(ChangeStamps.next());
+        final DBObject previous = dbArtifacts.findAndModify(new BasicDBObject(DbCollections.DEFAULT_ID, artifact.getGavc()),
+                new BasicDBObject(DbCollections.DEFAULT_ID, 1), null, false, getArtifactInsert(artifact), false, true);
+
+        if(previous != null){
+            return false;
+        }
+
+        addLatestVersion(artifact);
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.STORE, artifact.getGavc());
+        return true;
+    }
+
+    @Override
+    public void storeArtifacts(final Collection<DbArtifact> artifacts) {
+        final MongoCollection dbArtifacts = getJongoDataStore().getCollection(DbCollections.DB_ARTIFACTS);
+
+        // the last occurrence of an artifact wins, as if they were stored one by one
+        final Map<String, DbArtifact> toStore = new LinkedHashMap<String, DbArtifact>();
+        for(DbArtifact artifact: artifacts){
+            artifact.setChangeStamp(ChangeStamps.next());
+            toStore.put(artifact.getGavc(), artifact);
+        }
+
+        final Set<String> existingGavcs = getExistingIds(dbArtifacts, toStore.keySet());
+
+        final List<DbArtifact> newArtifacts = new ArrayList<DbArtifact>();
+        for(DbArtifact artifact: toStore.values()){
+            if(existingGavcs.contains(artifact.getGavc())){
+                // same license merge as a single store
+                dbArtifacts.getDBCollection().update(new BasicDBObject(DbCollections.DEFAULT_ID, artifact.getGavc()),
+                        getArtifactUpsert(artifact), true, false);
+            }
+            else{
+                newArtifacts.add(artifact);
             }
+        }
 
-            dbArtifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbArtifact.getGavc())).with(artifact);
+        for(List<DbArtifact> artifactBatch: Lists.partition(newArtifacts, BULK_QUERY_SIZE)){
+            try{
+                dbArtifacts.insert(artifactBatch.toArray());
+            }
+            catch (MongoException.DuplicateKey e){
+                // another server stored some of them since they have been checked, the batch is written again one by one
+                LOG.info("Artifacts stored concurrently, the batch is upserted: " + e.getMessage());
+                for(DbArtifact artifact: artifactBatch){
+                    dbArtifacts.getDBCollection().update(new BasicDBObject(DbCollections.DEFAULT_ID, artifact.getGavc()),
+                            getArtifactUpsert(artifact), true, false);
+                }
+            }
         }
+
+        addLatestVersions(newArtifacts);
+        logChanges(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.STORE, toStore.keySet());
     }
 
     @Override
     public List<String> getGavcs(final FiltersHolder filters) {
+        if(filters.getPageHandler().isPaged()){
+            return openGavcs(filters).toList();
+        }
+
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_ARTIFACTS).distinct(DbCollections.DEFAULT_ID)
                 .query(JongoUtils.generateQuery(filters.getArtifactFieldsFilters())).as(String.class);
     }
 
+    @Override
+    public Iterable<String> streamGavcs(final FiltersHolder filters) {
+        return openGavcs(filters);
+    }
+
+    private CursorIterable<String> openGavcs(final FiltersHolder filters) {
+        final DBCursor cursor = openPage(DbCollections.DB_ARTIFACTS, filters.getArtifactFieldsFilters(), filters.getPageHandler(),
+                new BasicDBObject(DbCollections.DEFAULT_ID, 1))
+                .sort(new BasicDBObject(DbCollections.DEFAULT_ID, 1));
+        return new CursorIterable<String>(cursor, new FieldResultHandler(DbCollections.DEFAULT_ID));
+    }
+
     @Override
     public List<String> getGroupIds(final FiltersHolder filters) {
         final Jongo datastore = getJongoDataStore();
@@ -278,6 +596,7 @@ public class MongodbHandler implements RepositoryHandler {
 
     @Override
     public List<String> getArtifactVersions(final DbArtifact artifact) {
+        // read from the artifacts themselves: the latest versions may not have been built yet for this artifact
         final Jongo datastore = getJongoDataStore();
         final Map<String,Object> params = new HashMap<String, Object>();
         params.put(DbArtifact.GROUPID_DB_FIELD, artifact.getGroupId());
@@ -297,6 +616,23 @@ public class MongodbHandler implements RepositoryHandler {
                 .as(DbArtifact.class);
     }
 
+    @Override
+    public Map<String, DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        final Map<String, DbArtifact> artifacts = new HashMap<String, DbArtifact>();
+
+        for(List<String> gavcBatch: Lists.partition(new ArrayList<String>(gavcs), BULK_QUERY_SIZE)){
+            final Iterable<DbArtifact> dbArtifacts = getReadCollection(DbCollections.DB_ARTIFACTS)
+                    .find("{ " + DbCollections.DEFAULT_ID + ": { $in: # }}", gavcBatch)
+                    .as(DbArtifact.class);
+
+            for(DbArtifact dbArtifact: dbArtifacts){
+                artifacts.put(dbArtifact.getGavc(), dbArtifact);
+            }
+        }
+
+        return artifacts;
+    }
+
     @Override
     public void deleteArtifact(final String gavc) {
         final DbArtifact artifact = getArtifact(gavc);
@@ -308,16 +644,206 @@ public class MongodbHandler implements RepositoryHandler {
             final Jongo datastore = getJongoDataStore();
             datastore.getCollection(DbCollections.DB_ARTIFACTS)
                     .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, gavc));
+            removeLatestVersion(artifact);
+            logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.DELETE, gavc);
+        }
+    }
+
+    /**
+     * Adds the version of a new artifact to its latest version entry, the entry is created if needed
+     *
+     * @param artifact DbArtifact
+     */
+    private void addLatestVersion(final DbArtifact artifact) {
+        addLatestVersions(Collections.singletonList(artifact));
+    }
+
+    /**
+     * Adds the versions of new artifacts to their latest version entries, each entry is updated once whatever the number
+     * of its new versions
+     *
+     * @param artifacts List<DbArtifact>
+     */
+    private void addLatestVersions(final List<DbArtifact> artifacts) {
+        final Map<String, List<DbArtifact>> artifactsPerId = new LinkedHashMap<String, List<DbArtifact>>();
+        for(DbArtifact artifact: artifacts){
+            final String id = DbLatestVersion.generateID(artifact);
+            List<DbArtifact> sameIdArtifacts = artifactsPerId.get(id);
+
+            if(sameIdArtifacts == null){
+                sameIdArtifacts = new ArrayList<DbArtifact>();
+                artifactsPerId.put(id, sameIdArtifacts);
+            }
+            sameIdArtifacts.add(artifact);
+        }
+
+        final MongoCollection latestVersions = getJongoDataStore().getCollection(DbCollections.DB_LATEST_VERSIONS);
+        for(Map.Entry<String, List<DbArtifact>> entry: artifactsPerId.entrySet()){
+            final String id = entry.getKey();
+            final DbArtifact artifact = entry.getValue().get(0);
+            final List<String> versions = new ArrayList<String>();
+            for(DbArtifact sameIdArtifact: entry.getValue()){
+                versions.add(sameIdArtifact.getVersion());
+            }
+
+            latestVersions.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, id))
+                    .upsert()
+                    .with("{ $addToSet: { " + DbLatestVersion.VERSIONS_DB_FIELD + ": { $each: #}}, $set: { " +
+                            DbLatestVersion.GROUPID_DB_FIELD + ": #, " +
+                            DbLatestVersion.ARTIFACTID_DB_FIELD + ": #, " +
+                            DbLatestVersion.CLASSIFIER_DB_FIELD + ": #, " +
+                            DbLatestVersion.EXTENSION_DB_FIELD + ": #, " +
+                            DbLatestVersion.DATA_MODEL_VERSION + ": #}}",
+                            versions, artifact.getGroupId(), artifact.getArtifactId(),
+                            artifact.getClassifier(), artifact.getExtension(), DbCollections.datamodelVersion);
+
+            refreshLatestVersion(latestVersions, id);
         }
     }
 
+    /**
+     * Removes the version of a deleted artifact from its latest version entry, the entry is removed with its last version
+     *
+     * @param artifact DbArtifact
+     */
+    private void removeLatestVersion(final DbArtifact artifact) {
+        final MongoCollection latestVersions = getJongoDataStore().getCollection(DbCollections.DB_LATEST_VERSIONS);
+        final String id = DbLatestVersion.generateID(artifact);
+
+        latestVersions.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, id))
+                .with("{ $pull: { " + DbLatestVersion.VERSIONS_DB_FIELD + ": #}}", artifact.getVersion());
+
+        refreshLatestVersion(latestVersions, id);
+    }
+
+    /**
+     * Computes again the last release and the last version of a latest version entry from its versions.
+     * The entry is only written if its versions are still the ones that have been read: if another write changed them
+     * in the meantime, the last versions are computed again from the new versions.
+     *
+     * @param latestVersions MongoCollection
+     * @param id String
+     */
+    private void refreshLatestVersion(final MongoCollection latestVersions, final String id) {
+        final String versionsQuery = "{ " + DbCollections.DEFAULT_ID + ": #, " + DbLatestVersion.VERSIONS_DB_FIELD + ": #}";
+
+        for(int attempt = 0; attempt < LATEST_VERSION_REFRESH_ATTEMPTS; attempt++){
+            final DbLatestVersion latestVersion = latestVersions.findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, id))
+                    .as(DbLatestVersion.class);
+
+            if(latestVersion == null){
+                return;
+            }
+
+            final WriteResult result;
+            if(latestVersion.getVersions().isEmpty()){
+                result = latestVersions.remove(versionsQuery, id, latestVersion.getVersions());
+            }
+            else{
+                Versions.updateLatestVersion(latestVersion);
+                result = latestVersions.update(versionsQuery, id, latestVersion.getVersions())
+                        .with("{ $set: { " +
+                                DbLatestVersion.LAST_RELEASE_DB_FIELD + ": #, " +
+                                DbLatestVersion.LAST_VERSION_DB_FIELD + ": #}}",
+                        latestVersion.getLastRelease(), latestVersion.getLastVersion());
+            }
+
+            if(result.getN() > 0){
+                return;
+            }
+        }
+
+        LOG.warn("The latest version " + id + " is still being updated after " + LATEST_VERSION_REFRESH_ATTEMPTS +
+                " attempts, its last versions may be out of date until the next rebuild.");
+    }
+
+    @Override
+    public Map<String, DbLatestVersion> getLatestVersions(final Collection<String> ids) {
+        final Map<String, DbLatestVersion> latestVersions = new HashMap<String, DbLatestVersion>();
+
+        for(List<String> idBatch: Lists.partition(new ArrayList<String>(ids), BULK_QUERY_SIZE)){
+            final Iterable<DbLatestVersion> dbLatestVersions = getReadCollection(DbCollections.DB_LATEST_VERSIONS)
+                    .find("{ " + DbCollections.DEFAULT_ID + ": { $in: # }}", idBatch)
+                    .as(DbLatestVersion.class);
+
+            for(DbLatestVersion dbLatestVersion: dbLatestVersions){
+                latestVersions.put(dbLatestVersion.getId(), dbLatestVersion);
+            }
+        }
+
+        return latestVersions;
+    }
+
+    @Override
+    public int rebuildLatestVersions() {
+        final Jongo datastore = getJongoDataStore();
+        final long rebuildStart = System.currentTimeMillis();
+        final Map<String, DbLatestVersion> latestVersions = new HashMap<String, DbLatestVersion>();
+
+        final Iterable<DbArtifact> artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS)
+                .find()
+                .projection(LATEST_VERSION_ARTIFACT_FIELDS)
+                .as(DbArtifact.class);
+
+        for(DbArtifact artifact: artifacts){
+            final String id = DbLatestVersion.generateID(artifact);
+            DbLatestVersion latestVersion = latestVersions.get(id);
+
+            if(latestVersion == null){
+                latestVersion = new DbLatestVersion();
+                latestVersion.setId(id);
+                latestVersion.setGroupId(artifact.getGroupId());
+                latestVersion.setArtifactId(artifact.getArtifactId());
+                latestVersion.setClassifier(artifact.getClassifier());
+                latestVersion.setExtension(artifact.getExtension());
+                latestVersions.put(id, latestVersion);
+            }
+
+            if(!latestVersion.getVersions().contains(artifact.getVersion())){
+                latestVersion.getVersions().add(artifact.getVersion());
+            }
+        }
+
+        // the entries are replaced in place so that the latest versions stay readable during the rebuild
+        final MongoCollection dbLatestVersions = datastore.getCollection(DbCollections.DB_LATEST_VERSIONS);
+        for(DbLatestVersion latestVersion: latestVersions.values()){
+            Versions.updateLatestVersion(latestVersion);
+            dbLatestVersions.save(latestVersion);
+        }
+
+        // removes the entries of the artifacts that do not exist anymore
+        final List<String> orphans = new ArrayList<String>();
+        for(DbLatestVersion latestVersion: dbLatestVersions.find().projection("{ " + DbCollections.DEFAULT_ID + ": 1}").as(DbLatestVersion.class)){
+            if(!latestVersions.containsKey(latestVersion.getId())){
+                orphans.add(latestVersion.getId());
+            }
+        }
+        for(List<String> orphanBatch: Lists.partition(orphans, BULK_QUERY_SIZE)){
+            dbLatestVersions.remove("{ " + DbCollections.DEFAULT_ID + ": { $in: # }}", orphanBatch);
+        }
+
+        // the artifacts stored during the rebuild may have been overwritten by the entries built from the artifacts read before
+        final List<DbArtifact> storedArtifacts = new ArrayList<DbArtifact>();
+        for(DbArtifact artifact: datastore.getCollection(DbCollections.DB_ARTIFACTS)
+                .find("{ " + DbArtifact.CHANGE_STAMP_DB_FIELD + ": { $gte: # }}", rebuildStart - REBUILD_CLOCK_SKEW)
+                .projection(LATEST_VERSION_ARTIFACT_FIELDS)
+                .as(DbArtifact.class)){
+            storedArtifacts.add(artifact);
+        }
+        addLatestVersions(storedArtifacts);
+
+        return latestVersions.size();
+    }
+
     @Override
     public void updateDoNotUse(final DbArtifact artifact, final Boolean doNotUse) {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
         artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                .with("{ $set: { \""+ DbArtifact.DO_NOT_USE + "\": #}} " , doNotUse);
+                .with("{ $set: { \""+ DbArtifact.DO_NOT_USE + "\": #, \"" + DbArtifact.CHANGE_STAMP_DB_FIELD + "\": #}} " , doNotUse, ChangeStamps.next());
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
     }
 
     @Override
@@ -326,7 +852,9 @@ public class MongodbHandler implements RepositoryHandler {
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
         artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                .with("{ $set: { \""+ DbArtifact.DOWNLOAD_URL_DB_FIELD + "\": #}} " , downLoadUrl);
+                .with("{ $set: { \""+ DbArtifact.DOWNLOAD_URL_DB_FIELD + "\": #, \"" + DbArtifact.CHANGE_STAMP_DB_FIELD + "\": #}} " , downLoadUrl, ChangeStamps.next());
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
     }
 
     @Override
@@ -335,16 +863,17 @@ public class MongodbHandler implements RepositoryHandler {
         final MongoCollection artifacts = datastore.getCollection(DbCollections.DB_ARTIFACTS);
 
         artifacts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, artifact.getGavc()))
-                .with("{ $set: { \""+ DbArtifact.PROVIDER + "\": #}} " , provider);
+                .with("{ $set: { \""+ DbArtifact.PROVIDER + "\": #, \"" + DbArtifact.CHANGE_STAMP_DB_FIELD + "\": #}} " , provider, ChangeStamps.next());
+
+        logChange(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, artifact.getGavc());
     }
 
     @Override
     public List<DbModule> getAncestors(final DbArtifact artifact, final FiltersHolder filters) {
-        final Jongo datastore = getJongoDataStore();
         final Map<String, Object> queryParams = filters.getModuleFieldsFilters();
         queryParams.put(DbModule.USE_DB_FIELD, artifact.getGavc());
 
-        final Iterable<DbModule> results = datastore.getCollection(DbCollections.DB_MODULES)
+        final Iterable<DbModule> results = getReadCollection(DbCollections.DB_MODULES)
                 .find(JongoUtils.generateQuery(queryParams))
                 .as(DbModule.class);
 
@@ -356,31 +885,89 @@ public class MongodbHandler implements RepositoryHandler {
         return ancestors;
     }
 
+    @Override
+    public List<DbModule> getModulesUsing(final Collection<String> gavcs) {
+        final List<DbModule> modules = new ArrayList<DbModule>();
+
+        for(List<String> gavcBatch: Lists.partition(new ArrayList<String>(gavcs), BULK_QUERY_SIZE)){
+            final Iterable<DbModule> dbModules = getReadCollection(DbCollections.DB_MODULES)
+                    .find("{ " + DbModule.USE_DB_FIELD + ": { $in: # }}", gavcBatch)
+                    .projection("{ " + DbModule.NAME_DB_FIELD + ": 1, " + DbModule.VERSION_DB_FIELD + ": 1, "
+                            + DbModule.HAS_DB_FIELD + ": 1, " + DbModule.USE_DB_FIELD + ": 1}")
+                    .as(DbModule.class);
+
+            for(DbModule dbModule: dbModules){
+                modules.add(dbModule);
+            }
+        }
+
+        return modules;
+    }
+
     @Override
     public void store(final DbModule module) {
         final Jongo datastore = getJongoDataStore();
-        final MongoCollection dbModules = datastore.getCollection(DbCollections.DB_MODULES);
-        final DbModule dbModule = getModule(module.getId());
+        final DBCollection dbModules = datastore.getCollection(DbCollections.DB_MODULES).getDBCollection();
 
         // has to be done due to mongo limitation: https://jira.mongodb.org/browse/SERVER-267
         module.updateHasAndUse();
+        module.setChangeStamp(ChangeStamps.next());
 
-        if(dbModule == null){
-            dbModules.save(module);
+        dbModules.update(new BasicDBObject(DbCollections.DEFAULT_ID, module.getId()), getModuleUpsert(module), true, false);
+        logChange(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.STORE, module.getId());
+    }
+
+    @Override
+    public void storeModules(final Collection<DbModule> modules) {
+        final MongoCollection dbModules = getJongoDataStore().getCollection(DbCollections.DB_MODULES);
+
+        // the last occurrence of a module wins, as if they were stored one by one
+        final Map<String, DbModule> toStore = new LinkedHashMap<String, DbModule>();
+        for(DbModule module: modules){
+            module.setChangeStamp(ChangeStamps.next());
+            toStore.put(module.getId(), module);
         }
-        else{
-            // let's keep the old build info and override with new values if any
-            final Map<String,String> consolidatedBuildInfo = dbModule.getBuildInfo();
-            consolidatedBuildInfo.putAll(module.getBuildInfo());
-            module.setBuildInfo(consolidatedBuildInfo);
 
-            dbModules.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbModule.getId())).with(module);
+        final Set<String> existingIds = getExistingIds(dbModules, toStore.keySet());
+
+        final List<DbModule> newModules = new ArrayList<DbModule>();
+        for(DbModule module: toStore.values()){
+            // has to be done due to mongo limitation: https://jira.mongodb.org/browse/SERVER-267
+            module.updateHasAndUse();
+
+            if(existingIds.contains(module.getId())){
+                // same build info merge as a single store
+                dbModules.getDBCollection().update(new BasicDBObject(DbCollections.DEFAULT_ID, module.getId()),
+                        getModuleUpsert(module), true, false);
+            }
+            else{
+                newModules.add(module);
+            }
         }
 
+        for(List<DbModule> moduleBatch: Lists.partition(newModules, BULK_QUERY_SIZE)){
+            try{
+                dbModules.insert(moduleBatch.toArray());
+            }
+            catch (MongoException.DuplicateKey e){
+                // another server stored some of them since they have been checked, the batch is written again one by one
+                LOG.info("Modules stored concurrently, the batch is upserted: " + e.getMessage());
+                for(DbModule module: moduleBatch){
+                    dbModules.getDBCollection().update(new BasicDBObject(DbCollections.DEFAULT_ID, module.getId()),
+                            getModuleUpsert(module), true, false);
+                }
+            }
+        }
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.STORE, toStore.keySet());
     }
 
     @Override
     public List<String> getModuleNames(final FiltersHolder filters) {
+        if(filters.getPageHandler().isPaged()){
+            return openModuleNames(filters).toList();
+        }
+
         final Jongo datastore = getJongoDataStore();
         return datastore.getCollection(DbCollections.DB_MODULES)
                 .distinct(DbModule.NAME_DB_FIELD)
@@ -388,6 +975,41 @@ public class MongodbHandler implements RepositoryHandler {
                 .as(String.class);
     }
 
+    @Override
+    public Iterable<String> streamModuleNames(final FiltersHolder filters) {
+        return openModuleNames(filters);
+    }
+
+    private CursorIterable<String> openModuleNames(final FiltersHolder filters) {
+        // the names are not unique, the page is limited while iterating
+        final DBCursor cursor = openAfter(DbCollections.DB_MODULES, filters.getModuleFieldsFilters(),
+                    DbModule.NAME_DB_FIELD, filters.getPageHandler().getAfter(), new BasicDBObject(DbModule.NAME_DB_FIELD, 1))
+                .sort(new BasicDBObject(DbModule.NAME_DB_FIELD, 1));
+        final Integer limit = filters.getPageHandler().getLimit();
+
+        // the names are sorted, the duplicates are consecutive
+        return new CursorIterable<String>(cursor, new FieldResultHandler(DbModule.NAME_DB_FIELD)) {
+            @Override
+            public Iterator<String> iterator() {
+                final PeekingIterator<String> sortedNames = Iterators.peekingIterator(super.iterator());
+                final Iterator<String> distinctNames = new AbstractIterator<String>() {
+                    @Override
+                    protected String computeNext() {
+                        if(!sortedNames.hasNext()){
+                            return endOfData();
+                        }
+                        final String name = sortedNames.next();
+                        while(sortedNames.hasNext() && name.equals(sortedNames.peek())){
+                            sortedNames.next();
+                        }
+                        return name;
+                    }
+                };
+                return limit == null ? distinctNames : Iterators.limit(distinctNames, limit);
+            }
+        };
+    }
+
     @Override
     public List<String> getModuleVersions(final String name, final FiltersHolder filters) {
         final Map<String, Object> params = filters.getModuleFieldsFilters();
@@ -406,13 +1028,28 @@ public class MongodbHandler implements RepositoryHandler {
                 .as(DbModule.class);
     }
 
+    @Override
+    public Map<String, DbModule> getModules(final Collection<String> moduleIds) {
+        final Map<String, DbModule> modules = new HashMap<String, DbModule>();
+
+        for(List<String> idBatch: Lists.partition(new ArrayList<String>(moduleIds), BULK_QUERY_SIZE)){
+            final Iterable<DbModule> dbModules = getReadCollection(DbCollections.DB_MODULES)
+                    .find("{ " + DbCollections.DEFAULT_ID + ": { $in: # }}", idBatch)
+                    .as(DbModule.class);
+
+            for(DbModule dbModule: dbModules){
+                modules.put(dbModule.getId(), dbModule);
+            }
+        }
+
+        return modules;
+    }
+
     @Override
     public List<DbModule> getModules(final FiltersHolder filters) {
-        final Jongo datastore = getJongoDataStore();
         final List<DbModule> modules = new ArrayList<DbModule>();
 
-        final Iterable<DbModule> dbModules = datastore.getCollection(DbCollections.DB_MODULES)
-                .find(JongoUtils.generateQuery(filters.getModuleFieldsFilters()))
+        final Iterable<DbModule> dbModules = findPage(DbCollections.DB_MODULES, filters.getModuleFieldsFilters(), filters.getPageHandler())
                 .as(DbModule.class);
 
         for(DbModule dbModule: dbModules){
@@ -422,6 +1059,12 @@ public class MongodbHandler implements RepositoryHandler {
     }
 
 
+    @Override
+    public Iterable<DbModule> streamModules(final FiltersHolder filters) {
+        final DBCursor cursor = openPage(DbCollections.DB_MODULES, filters.getModuleFieldsFilters(), filters.getPageHandler(), null);
+        return new CursorIterable<DbModule>(cursor, new EntityResultHandler<DbModule>(DbModule.class));
+    }
+
     @Override
     public void deleteModule(final String moduleId) {
         final DbModule module = getModule(moduleId);
@@ -433,6 +1076,7 @@ public class MongodbHandler implements RepositoryHandler {
             final Jongo datastore = getJongoDataStore();
             datastore.getCollection(DbCollections.DB_MODULES)
                     .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, moduleId));
+            logChange(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.DELETE, moduleId);
         }
     }
 
@@ -442,7 +1086,51 @@ public class MongodbHandler implements RepositoryHandler {
         final MongoCollection modules = datastore.getCollection(DbCollections.DB_MODULES);
 
         modules.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, module.getId()))
-                .with("{ $set: { \""+ DbModule.PROMOTION_DB_FIELD + "\": #}} " , Boolean.TRUE);
+                .with("{ $set: { \""+ DbModule.PROMOTION_DB_FIELD + "\": #, \"" + DbModule.CHANGE_STAMP_DB_FIELD + "\": #}} " , Boolean.TRUE, ChangeStamps.next());
+
+        logChange(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, module.getId());
+    }
+
+    @Override
+    public void promoteModules(final Collection<String> moduleIds) {
+        final List<String> promoted = promote(getJongoDataStore().getCollection(DbCollections.DB_MODULES), DbModule.PROMOTION_DB_FIELD, moduleIds);
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, promoted);
+    }
+
+    @Override
+    public void promoteArtifacts(final Collection<String> gavcs) {
+        final List<String> promoted = promote(getJongoDataStore().getCollection(DbCollections.DB_ARTIFACTS), DbArtifact.PROMOTION_DB_FIELD, gavcs);
+        logChanges(DbChangeEvent.EntityType.ARTIFACT, DbChangeEvent.Operation.UPDATE, promoted);
+    }
+
+    /**
+     * Flags a set of documents as promoted with a multi-update, the documents that are already promoted are not rewritten.
+     * The documents to promote are read first, so that only the ones that change are logged.
+     *
+     * @param collection MongoCollection
+     * @param promotionField String
+     * @param ids Collection<String>
+     * @return List<String> the ids of the documents that have been promoted
+     */
+    private List<String> promote(final MongoCollection collection, final String promotionField, final Collection<String> ids) {
+        final String notPromotedQuery = "{ " + DbCollections.DEFAULT_ID + ": { $in: # }, " + promotionField + ": { $ne: # }}";
+        final List<String> promoted = new ArrayList<String>();
+
+        for(List<String> idBatch: Lists.partition(new ArrayList<String>(new LinkedHashSet<String>(ids)), BULK_QUERY_SIZE)){
+            final List<String> toPromote = collection.distinct(DbCollections.DEFAULT_ID)
+                    .query(notPromotedQuery, idBatch, Boolean.TRUE)
+                    .as(String.class);
+            if(toPromote.isEmpty()){
+                continue;
+            }
+
+            collection.update(notPromotedQuery, toPromote, Boolean.TRUE)
+                    .multi()
+                    .with("{ $set: { \"" + promotionField + "\": #, \"" + DbModule.CHANGE_STAMP_DB_FIELD + "\": #}} ", Boolean.TRUE, ChangeStamps.next());
+            promoted.addAll(toPromote);
+        }
+
+        return promoted;
     }
 
     @Override
@@ -453,6 +1141,29 @@ public class MongodbHandler implements RepositoryHandler {
                 .as(DbModule.class);
     }
 
+    @Override
+    public Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        final Set<String> requested = new HashSet<String>(gavcs);
+        final Map<String, DbModule> modules = new HashMap<String, DbModule>();
+
+        for(List<String> gavcBatch: Lists.partition(new ArrayList<String>(requested), BULK_QUERY_SIZE)){
+            final Iterable<DbModule> dbModules = getReadCollection(DbCollections.DB_MODULES)
+                    .find("{ " + DbModule.HAS_DB_FIELD + ": { $in: # }}", gavcBatch)
+                    .as(DbModule.class);
+
+            for(DbModule dbModule: dbModules){
+                for(String gavc: dbModule.getHas()){
+                    // keep the first match as getRootModuleOf() does
+                    if(requested.contains(gavc) && !modules.containsKey(gavc)){
+                        modules.put(gavc, dbModule);
+                    }
+                }
+            }
+        }
+
+        return modules;
+    }
+
     @Override
     public DbModule getModuleOf(final String gavc) {
         final DbModule module = getRootModuleOf(gavc);
@@ -488,6 +1199,7 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         datastore.getCollection(DbCollections.DB_ORGANIZATION)
                 .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, organizationId));
+        logChange(DbChangeEvent.EntityType.ORGANIZATION, DbChangeEvent.Operation.DELETE, organizationId);
     }
 
     @Override
@@ -495,43 +1207,55 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection dbOrganizations = datastore.getCollection(DbCollections.DB_ORGANIZATION);
 
-        if(getOrganization(organization.getName()) == null){
-            dbOrganizations.save(organization);
-        }
-        else{
-            dbOrganizations.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, organization.getName())).with(organization);
-        }
+        organization.setChangeStamp(ChangeStamps.next());
+        dbOrganizations.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, organization.getName()))
+                .upsert()
+                .with(organization);
+        logChange(DbChangeEvent.EntityType.ORGANIZATION, DbChangeEvent.Operation.STORE, organization.getName());
     }
 
     @Override
     public void addModulesOrganization(final String corporateGidPrefix, final DbOrganization organization){
         final Jongo datastore = getJongoDataStore();
+        final String query = "{ "+DbModule.HAS_DB_FIELD+" :#}";
+        final List<String> moduleIds = getModuleIds(query, Pattern.compile(corporateGidPrefix + "*"));
 
         datastore.getCollection(DbCollections.DB_MODULES)
-                .update("{ "+DbModule.HAS_DB_FIELD+" :#}", Pattern.compile(corporateGidPrefix + "*"))
+                .update(query, Pattern.compile(corporateGidPrefix + "*"))
                 .multi()
-                .with("{$set: " + JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()) + "}");
+                .with("{$set: { " + DbModule.ORGANIZATION_DB_FIELD + ": #, " + DbModule.CHANGE_STAMP_DB_FIELD + ": #}}", organization.getName(), ChangeStamps.next());
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, moduleIds);
     }
 
     @Override
     public void removeModulesOrganization(final String corporateGidPrefix, final DbOrganization organization){
         final Jongo datastore = getJongoDataStore();
+        final String query = "{ $and: [" +
+                "{ " + DbModule.HAS_DB_FIELD + " :#} ," +
+                JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()) + "]}";
+        final List<String> moduleIds = getModuleIds(query, Pattern.compile(corporateGidPrefix + "*"));
 
         datastore.getCollection(DbCollections.DB_MODULES)
-                .update("{ $and: [" +
-                        "{ " + DbModule.HAS_DB_FIELD + " :#} ," +
-                        JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()) + "]}"
-                        , Pattern.compile(corporateGidPrefix + "*"))
+                .update(query, Pattern.compile(corporateGidPrefix + "*"))
                 .multi()
-                .with("{$set: { " + DbModule.ORGANIZATION_DB_FIELD + " : \"\"}}");
+                .with("{$set: { " + DbModule.ORGANIZATION_DB_FIELD + " : \"\", " + DbModule.CHANGE_STAMP_DB_FIELD + ": #}}", ChangeStamps.next());
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, moduleIds);
     }
 
     @Override
     public void removeModulesOrganization(final DbOrganization organization){
         final Jongo datastore = getJongoDataStore();
+        final String query = JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName());
+        // a single module is updated: the first match
+        final List<String> moduleIds = getModuleIds(query);
+
         datastore.getCollection(DbCollections.DB_MODULES)
-                .update(JongoUtils.generateQuery(DbModule.ORGANIZATION_DB_FIELD, organization.getName()))
-                .with("{$set: { "+DbModule.ORGANIZATION_DB_FIELD+" : \"\"}}");
+                .update(query)
+                .with("{$set: { "+DbModule.ORGANIZATION_DB_FIELD+" : \"\", " + DbModule.CHANGE_STAMP_DB_FIELD + ": #}}", ChangeStamps.next());
+
+        logChanges(DbChangeEvent.EntityType.MODULE, DbChangeEvent.Operation.UPDATE, moduleIds.subList(0, Math.min(1, moduleIds.size())));
     }
 
     @Override
@@ -548,12 +1272,10 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         final MongoCollection dbProducts = datastore.getCollection(DbCollections.DB_PRODUCT);
 
-        if(getOrganization(dbProduct.getName()) == null){
-            dbProducts.save(dbProduct);
-        }
-        else {
-            dbProducts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbProduct.getName())).with(dbProduct);
-        }
+        dbProducts.update(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, dbProduct.getName()))
+                .upsert()
+                .with(dbProduct);
+        logChange(DbChangeEvent.EntityType.PRODUCT, DbChangeEvent.Operation.STORE, dbProduct.getName());
     }
 
     @Override
@@ -575,5 +1297,313 @@ public class MongodbHandler implements RepositoryHandler {
         final Jongo datastore = getJongoDataStore();
         datastore.getCollection(DbCollections.DB_PRODUCT)
                 .remove(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, name));
+        logChange(DbChangeEvent.EntityType.PRODUCT, DbChangeEvent.Operation.DELETE, name);
+    }
+
+    @Override
+    public void store(final DbIngestionTicket ticket) {
+        getJongoDataStore().getCollection(DbCollections.DB_INGESTION_TICKETS).save(ticket);
+    }
+
+    @Override
+    public DbIngestionTicket getIngestionTicket(final String id) {
+        return getJongoDataStore().getCollection(DbCollections.DB_INGESTION_TICKETS)
+                .findOne(JongoUtils.generateQuery(DbCollections.DEFAULT_ID, id))
+                .as(DbIngestionTicket.class);
+    }
+
+    @Override
+    public long getIngestionTicketCount(final DbIngestionTicket.Status status) {
+        return getJongoDataStore().getCollection(DbCollections.DB_INGESTION_TICKETS)
+                .count(JongoUtils.generateQuery(DbIngestionTicket.STATUS_DB_FIELD, status.name()));
+    }
+
+    @Override
+    public DbIngestionTicket claimIngestionTicket(final String owner) {
+        return getJongoDataStore().getCollection(DbCollections.DB_INGESTION_TICKETS)
+                .findAndModify(JongoUtils.generateQuery(DbIngestionTicket.STATUS_DB_FIELD, DbIngestionTicket.Status.PENDING.name()))
+                .sort("{ " + DbIngestionTicket.CREATED_DB_FIELD + ": 1}")
+                .with("{ $set: { " + DbIngestionTicket.STATUS_DB_FIELD + ": #, " + DbIngestionTicket.OWNER_DB_FIELD + ": #, " +
+                                DbIngestionTicket.UPDATED_DB_FIELD + ": #}}",
+                        DbIngestionTicket.Status.IN_PROGRESS.name(), owner, System.currentTimeMillis())
+                .returnNew()
+                .as(DbIngestionTicket.class);
+    }
+
+    @Override
+    public int releaseIngestionTickets(final long claimedBefore) {
+        return getJongoDataStore().getCollection(DbCollections.DB_INGESTION_TICKETS)
+                .update("{ " + DbIngestionTicket.STATUS_DB_FIELD + ": #, " + DbIngestionTicket.UPDATED_DB_FIELD + ": { $lt: # }}",
+                        DbIngestionTicket.Status.IN_PROGRESS.name(), claimedBefore)
+                .multi()
+                .with("{ $set: { " + DbIngestionTicket.STATUS_DB_FIELD + ": #}, $unset: { " + DbIngestionTicket.OWNER_DB_FIELD + ": \"\"}}",
+                        DbIngestionTicket.Status.PENDING.name())
+                .getN();
+    }
+
+    @Override
+    public int purgeIngestionTickets(final long closedBefore) {
+        final List<String> closed = Arrays.asList(DbIngestionTicket.Status.DONE.name(), DbIngestionTicket.Status.FAILED.name());
+
+        return getJongoDataStore().getCollection(DbCollections.DB_INGESTION_TICKETS)
+                .remove("{ " + DbIngestionTicket.STATUS_DB_FIELD + ": { $in: # }, " + DbIngestionTicket.UPDATED_DB_FIELD + ": { $lt: # }}",
+                        closed, closedBefore)
+                .getN();
+    }
+
+    @Override
+    public List<DbChangeEvent> getChangeEvents(final long since, final int limit) {
+        final Iterable<DbChangeEvent> events = getJongoDataStore().getCollection(DbCollections.DB_CHANGE_EVENTS)
+                .find("{ " + DbCollections.DEFAULT_ID + ": { $gt: # }}", since)
+                .sort("{ " + DbCollections.DEFAULT_ID + ": 1}")
+                .limit(limit)
+                .as(DbChangeEvent.class);
+
+        return getContiguousEvents(since, events, System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the events that follow a sequence number up to the first recent gap. The events that follow a gap are
+     * returned once they are older than CHANGE_GAP_TIMEOUT: the missing event has been lost by then, or dropped from
+     * the capped collection.
+     *
+     * @param since long
+     * @param events Iterable<DbChangeEvent> the events that follow since, in their order
+     * @param now long current time in milliseconds
+     * @return List<DbChangeEvent>
+     */
+    static List<DbChangeEvent> getContiguousEvents(final long since, final Iterable<DbChangeEvent> events, final long now) {
+        final List<DbChangeEvent> contiguousEvents = new ArrayList<DbChangeEvent>();
+        long expected = since + 1;
+
+        for(DbChangeEvent event: events){
+            if(event.getSequence() != expected && now - event.getTime() < CHANGE_GAP_TIMEOUT){
+                // the missing events may still be inserted, a reader must not move its cursor past them
+                break;
+            }
+            contiguousEvents.add(event);
+            expected = event.getSequence() + 1;
+        }
+
+        return contiguousEvents;
+    }
+
+    @Override
+    public long getFirstChangeSequence() {
+        final Iterator<DbChangeEvent> first = getJongoDataStore().getCollection(DbCollections.DB_CHANGE_EVENTS)
+                .find()
+                .sort("{ " + DbCollections.DEFAULT_ID + ": 1}")
+                .limit(1)
+                .as(DbChangeEvent.class)
+                .iterator();
+
+        return first.hasNext() ? first.next().getSequence() : 0;
+    }
+
+    @Override
+    public long getLastChangeSequence() {
+        final DBObject counter = getJongoDataStore().getCollection(DbCollections.DB_CHANGE_SEQUENCE).getDBCollection()
+                .findOne(new BasicDBObject(DbCollections.DEFAULT_ID, CHANGE_SEQUENCE_ID));
+
+        return counter == null ? 0 : ((Number) counter.get(CHANGE_SEQUENCE_FIELD)).longValue();
+    }
+
+    /**
+     * Appends a change event to the change log
+     *
+     * @param entityType DbChangeEvent.EntityType
+     * @param operation DbChangeEvent.Operation
+     * @param entityId String
+     */
+    private void logChange(final DbChangeEvent.EntityType entityType, final DbChangeEvent.Operation operation, final String entityId) {
+        logChanges(entityType, operation, Collections.singletonList(entityId));
+    }
+
+    /**
+     * Appends the change events of a set of elements to the change log. The sequence numbers of the events are reserved
+     * in a single update of the counter and the events are inserted by batches.
+     *
+     * <p>The lock only orders the events of this server. The servers that share the database reserve their numbers from
+     * the same counter but insert their events independently: the log can have transient gaps, that getChangeEvents()
+     * does not go past. The events are logged after the write of the elements, not with it: the event of a change is
+     * lost if the server stops in between.</p>
+     *
+     * @param entityType DbChangeEvent.EntityType
+     * @param operation DbChangeEvent.Operation
+     * @param entityIds Collection<String>
+     */
+    private void logChanges(final DbChangeEvent.EntityType entityType, final DbChangeEvent.Operation operation, final Collection<String> entityIds) {
+        if(entityIds.isEmpty()){
+            return;
+        }
+
+        final MongoCollection changeEvents = getJongoDataStore().getCollection(DbCollections.DB_CHANGE_EVENTS);
+
+        synchronized (changeLogLock) {
+            long sequence = reserveChangeSequences(entityIds.size()) - entityIds.size();
+
+            final List<DbChangeEvent> events = new ArrayList<DbChangeEvent>(entityIds.size());
+            for(String entityId: entityIds){
+                events.add(new DbChangeEvent(++sequence, entityType, entityId, operation));
+            }
+
+            for(List<DbChangeEvent> eventBatch: Lists.partition(events, BULK_QUERY_SIZE)){
+                changeEvents.insert(eventBatch.toArray());
+            }
+        }
+    }
+
+    /**
+     * Reserves a range of sequence numbers, the counter is shared by all the servers that use the database
+     *
+     * @param count int the number of sequence numbers to reserve
+     * @return long the last reserved sequence number
+     */
+    private long reserveChangeSequences(final int count) {
+        final DBObject counter = getJongoDataStore().getCollection(DbCollections.DB_CHANGE_SEQUENCE).getDBCollection()
+                .findAndModify(new BasicDBObject(DbCollections.DEFAULT_ID, CHANGE_SEQUENCE_ID), null, null, false,
+                        new BasicDBObject("$inc", new BasicDBObject(CHANGE_SEQUENCE_FIELD, count)), true, true);
+
+        return ((Number) counter.get(CHANGE_SEQUENCE_FIELD)).longValue();
+    }
+
+    /**
+     * Returns the ids of the modules that match a query
+     *
+     * @param query String
+     * @param parameters Object...
+     * @return List<String>
+     */
+    private List<String> getModuleIds(final String query, final Object... parameters) {
+        final Iterable<String> ids = getJongoDataStore().getCollection(DbCollections.DB_MODULES)
+                .find(query, parameters)
+                .projection("{ " + DbCollections.DEFAULT_ID + ": 1}")
+                .map(new FieldResultHandler(DbCollections.DEFAULT_ID));
+
+        return Lists.newArrayList(ids);
+    }
+
+    /**
+     * Returns the ids, among the given ones, of the documents that exist in a collection
+     *
+     * @param collection MongoCollection
+     * @param ids Collection<String>
+     * @return Set<String>
+     */
+    private Set<String> getExistingIds(final MongoCollection collection, final Collection<String> ids) {
+        final Set<String> existingIds = new HashSet<String>();
+
+        for(List<String> idBatch: Lists.partition(new ArrayList<String>(ids), BULK_QUERY_SIZE)){
+            final Iterable<String> existingBatch = collection
+                    .find("{ " + DbCollections.DEFAULT_ID + ": { $in: # }}", idBatch)
+                    .projection("{ " + DbCollections.DEFAULT_ID + ": 1}")
+                    .map(new FieldResultHandler(DbCollections.DEFAULT_ID));
+
+            for(String id: existingBatch){
+                existingIds.add(id);
+            }
+        }
+
+        return existingIds;
+    }
+
+    /**
+     * Generates the upsert of an artifact: all its fields are set except the licenses that are added to the existing
+     * ones. An existing license could have been manually enforced by a user and all the Grapes clients do not send
+     * license information.
+     *
+     * @param artifact DbArtifact
+     * @return DBObject
+     */
+    static DBObject getArtifactUpsert(final DbArtifact artifact) {
+        final DBObject fields = toDocument(artifact);
+        fields.removeField(DbArtifact.LICENCES_DB_FIELD);
+
+        final BasicDBObject update = new BasicDBObject("$set", fields);
+        update.put("$addToSet", new BasicDBObject(DbArtifact.LICENCES_DB_FIELD, new BasicDBObject("$each", artifact.getLicenses())));
+
+        return update;
+    }
+
+    /**
+     * Generates the upsert of an artifact that only writes it if it does not exist yet
+     *
+     * @param artifact DbArtifact
+     * @return DBObject
+     */
+    static DBObject getArtifactInsert(final DbArtifact artifact) {
+        return new BasicDBObject("$setOnInsert", toDocument(artifact));
+    }
+
+    /**
+     * Generates the upsert of a module: all its fields are set except the build info that is set entry by entry, the
+     * existing build info is kept and overridden with the new values if any. The keys are escaped so that a key
+     * containing a '.' (e.g. java.version) is not taken for a path.
+     *
+     * @param module DbModule
+     * @return DBObject
+     */
+    static DBObject getModuleUpsert(final DbModule module) {
+        final DBObject fields = toDocument(module);
+        fields.removeField(DbModule.BUILD_INFO_DB_FIELD);
+
+        for(Map.Entry<String, String> buildInfo: module.getBuildInfo().entrySet()){
+            fields.put(DbModule.BUILD_INFO_DB_FIELD + "." + EscapedKeys.escape(buildInfo.getKey()), buildInfo.getValue());
+        }
+
+        final BasicDBObject update = new BasicDBObject("$set", fields);
+        if(module.getBuildInfo().isEmpty()){
+            update.put("$setOnInsert", new BasicDBObject(DbModule.BUILD_INFO_DB_FIELD, new BasicDBObject()));
+        }
+
+        return update;
+    }
+
+    /**
+     * Marshalls an entity the way Jongo does, without its id that cannot be part of an update
+     *
+     * @param entity Object
+     * @return DBObject
+     */
+    private static DBObject toDocument(final Object entity) {
+        final byte[] bson = MAPPER.getMarshaller().marshall(entity).toByteArray();
+        final DBObject document = DefaultDBDecoder.FACTORY.create().decode(bson, (DBCollection) null);
+        document.removeField(DbCollections.DEFAULT_ID);
+
+        return document;
+    }
+
+    /**
+     * Maps the query results to entities the way Jongo does
+     */
+    private static final class EntityResultHandler<T> implements ResultHandler<T> {
+
+        private final Class<T> type;
+
+        EntityResultHandler(final Class<T> type) {
+            this.type = type;
+        }
+
+        @Override
+        public T map(final DBObject result) {
+            return MAPPER.getUnmarshaller().unmarshall(Bson.createDocument(result), type);
+        }
+    }
+
+    /**
+     * Maps the query results to the value of one of their fields
+     */
+    private static final class FieldResultHandler implements ResultHandler<String> {
+
+        private final String field;
+
+        FieldResultHandler(final String field) {
+            this.field = field;
+        }
+
+        @Override
+        public String map(final DBObject result) {
+            return (String) result.get(field);
+        }
     }
 }
@@ -1,16 +1,24 @@
 package org.axway.grapes.server.webapp.auth;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.yammer.dropwizard.auth.AuthenticationException;
 import com.yammer.dropwizard.auth.Authenticator;
 import com.yammer.dropwizard.auth.basic.BasicCredentials;
 import org.apache.commons.codec.binary.Base64;
+import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.cache.CacheMetrics;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.security.MessageDigest;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Grapes Authenticator
@@ -25,8 +33,24 @@ public class GrapesAuthenticator implements Authenticator<BasicCredentials, DbCr
 
     private final RepositoryHandler repoHandler;
 
+    // cache of the password digests, indexed by (user, password)
+    private final LoadingCache<BasicCredentials, String> digestCache;
+
     public GrapesAuthenticator(final RepositoryHandler repoHandler) {
+        this(repoHandler, GrapesServerConfig.DEFAULT_AUTHENTICATION_CACHE_POLICY);
+    }
+
+    public GrapesAuthenticator(final RepositoryHandler repoHandler, final String cachePolicy) {
         this.repoHandler = repoHandler;
+        this.digestCache = CacheBuilder.from(cachePolicy)
+                .recordStats()
+                .build(
+                        new CacheLoader<BasicCredentials, String>() {
+                            public String load(final BasicCredentials credentials) throws AuthenticationException {
+                                return encrypt(credentials.getPassword());
+                            }
+                        });
+        CacheMetrics.register(GrapesAuthenticator.class, "digests", digestCache);
     }
 
     @Override
@@ -36,7 +60,7 @@ public class GrapesAuthenticator implements Authenticator<BasicCredentials, DbCr
             return Optional.absent();
         }
 
-        final String encryptedPwd = encrypt(credentials.getPassword());
+        final String encryptedPwd = getDigest(credentials);
 
         final DbCredential dbCredential = repoHandler.getCredential(credentials.getUsername());
 
@@ -47,6 +71,32 @@ public class GrapesAuthenticator implements Authenticator<BasicCredentials, DbCr
         return Optional.absent();
     }
 
+    /**
+     * Returns the digest of the password of the credentials, computing it only if it is not cached yet
+     *
+     * @param credentials BasicCredentials
+     * @return String
+     * @throws AuthenticationException
+     */
+    private String getDigest(final BasicCredentials credentials) throws AuthenticationException {
+        try {
+            return digestCache.get(credentials);
+        } catch (ExecutionException e) {
+            throw (AuthenticationException) e.getCause();
+        } catch (UncheckedExecutionException e) {
+            throw new AuthenticationException("Error occurred during password encryption", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the statistics of the digest cache
+     *
+     * @return CacheStats
+     */
+    CacheStats getDigestCacheStats() {
+        return digestCache.stats();
+    }
+
     /**
      * Encrypt passwords
      *
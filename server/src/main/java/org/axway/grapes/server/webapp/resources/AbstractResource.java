@@ -4,23 +4,52 @@
  */
 package org.axway.grapes.server.webapp.resources;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.yammer.dropwizard.jersey.params.IntParam;
 import com.yammer.dropwizard.views.View;
+import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.BulkItemStatus;
 import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Scope;
 import org.axway.grapes.commons.utils.JsonUtils;
 import org.axway.grapes.server.config.CommunityConfig;
 import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.core.*;
+import org.axway.grapes.server.core.cache.ReportCache;
+import org.axway.grapes.server.core.graphs.AncestorsWalker;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
+import org.axway.grapes.server.core.ingestion.ModuleIngester;
 import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.ModelMapper;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.webapp.views.serialization.JsonStreamingOutput;
+import org.eclipse.jetty.http.HttpStatus;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
-import java.io.IOException;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.core.Variant;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 
 /**
  * Abstract resource
@@ -31,16 +60,28 @@ import java.io.IOException;
  */
 public abstract class AbstractResource extends View {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ObjectMapper NDJSON_MAPPER = new ObjectMapper().disable(MapperFeature.USE_GETTERS_AS_SETTERS);
+
+    // the representations a resource can be rendered in, they do not share their entity tags
+    private static final List<Variant> VARIANTS = Variant.mediaTypes(MediaType.TEXT_HTML_TYPE, MediaType.APPLICATION_JSON_TYPE).add().build();
+
     private final RepositoryHandler repositoryHandler;
     private final GrapesServerConfig grapesConfig;
 
     private final ModelMapper modelMapper;
+    private final ServerContext serverContext;
     
     protected AbstractResource(final RepositoryHandler repoHandler, final String templateName, final GrapesServerConfig dmConfig) {
+        this(repoHandler, templateName, dmConfig, new ServerContext(repoHandler));
+	}
+
+    protected AbstractResource(final RepositoryHandler repoHandler, final String templateName, final GrapesServerConfig dmConfig, final ServerContext serverContext) {
 		super(templateName);
         this.grapesConfig = dmConfig;
         this.repositoryHandler = repoHandler;
         this.modelMapper = new ModelMapper(repoHandler);
+        this.serverContext = serverContext;
 	}
     
     /**
@@ -60,7 +101,7 @@ public abstract class AbstractResource extends View {
      * @return OrganizationHandler
      */
     protected OrganizationHandler getOrganizationHandler(){
-        return new OrganizationHandler(repositoryHandler);
+        return new OrganizationHandler(repositoryHandler, serverContext.getReportCache());
     }
 
     /**
@@ -72,13 +113,22 @@ public abstract class AbstractResource extends View {
         return new ProductHandler(repositoryHandler);
     }
 
+    /**
+     * Return a ChangeHandler
+     *
+     * @return ChangeHandler
+     */
+    protected ChangeHandler getChangeHandler(){
+        return new ChangeHandler(repositoryHandler);
+    }
+
     /**
      * Return a ModuleHandler
      *
      * @return ArtifactHandler
      */
     protected ModuleHandler getModuleHandler(){
-        return new ModuleHandler(repositoryHandler);
+        return new ModuleHandler(repositoryHandler, serverContext.getGraphIndex(), serverContext.getVersionsIndex(), serverContext.getReportCache());
     }
 
     /**
@@ -87,7 +137,7 @@ public abstract class AbstractResource extends View {
      * @return ArtifactHandler
      */
     protected ArtifactHandler getArtifactHandler(){
-        return new ArtifactHandler(repositoryHandler);
+        return new ArtifactHandler(repositoryHandler, serverContext.getLicenseMatcher(), serverContext.getVersionsIndex(), serverContext.getReportCache());
     }
 
     /**
@@ -96,7 +146,7 @@ public abstract class AbstractResource extends View {
      * @return DependencyHandler
      */
     protected DependencyHandler getDependencyHandler(){
-        return new DependencyHandler(repositoryHandler);
+        return new DependencyHandler(repositoryHandler, serverContext.getGraphIndex(), serverContext.getVersionsIndex());
     }
 
     /**
@@ -105,7 +155,7 @@ public abstract class AbstractResource extends View {
      * @return LicenseHandler
      */
     protected LicenseHandler getLicenseHandler(){
-        return new LicenseHandler(repositoryHandler);
+        return new LicenseHandler(repositoryHandler, serverContext.getLicenseMatcher(), serverContext.getReportCache());
     }
 
     /**
@@ -114,7 +164,348 @@ public abstract class AbstractResource extends View {
      * @return LicenseHandler
      */
     protected GraphsHandler getGraphsHandler(final FiltersHolder filtersHolder){
-        return new GraphsHandler(repositoryHandler,filtersHolder);
+        return new GraphsHandler(repositoryHandler, filtersHolder, serverContext.getGraphIndex());
+    }
+
+    /**
+     * Return a ModuleIngester
+     *
+     * @return ModuleIngester
+     */
+    protected ModuleIngester getModuleIngester(){
+        return new ModuleIngester(repositoryHandler, serverContext);
+    }
+
+    /**
+     * Return the queue of the asynchronous ingestion, null if it is not enabled
+     *
+     * @return IngestionQueue
+     */
+    protected IngestionQueue getIngestionQueue(){
+        return serverContext.getIngestionQueue();
+    }
+
+    /**
+     * Return an AncestorsWalker
+     *
+     * @return AncestorsWalker
+     */
+    protected AncestorsWalker getAncestorsWalker(){
+        return new AncestorsWalker(repositoryHandler, serverContext.getGraphIndex());
+    }
+
+    /**
+     * Streams, as a JSON array, the modules that use the artifacts directly or transitively.
+     * The ancestors are written while the graph is walked so that big results are not held in memory.
+     *
+     * @param gavcs Collection<String> the artifacts to start from
+     * @param depth IntParam the number of levels to walk, the whole graph if null
+     * @param excludedModuleId String a module to leave out of the result, can be null
+     * @return StreamingOutput
+     */
+    protected StreamingOutput getTransitiveAncestors(final Collection<String> gavcs, final IntParam depth, final String excludedModuleId){
+        final int maxDepth = depth == null ? AncestorsWalker.UNLIMITED_DEPTH : depth.get();
+        if(maxDepth < 1){
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("The depth must be a positive integer.")
+                    .build());
+        }
+
+        final AncestorsWalker walker = getAncestorsWalker();
+
+        return new StreamingOutput() {
+            @Override
+            public void write(final OutputStream output) throws IOException {
+                final JsonGenerator json = JSON_FACTORY.createGenerator(output);
+                json.writeStartArray();
+
+                walker.walk(gavcs, maxDepth, new AncestorsWalker.Visitor() {
+                    @Override
+                    public void visit(final String moduleId, final int moduleDepth) throws IOException {
+                        if(moduleId.equals(excludedModuleId)){
+                            return;
+                        }
+                        json.writeStartObject();
+                        json.writeStringField("id", moduleId);
+                        json.writeStringField("name", DataUtils.getModuleName(moduleId));
+                        json.writeStringField("version", DataUtils.getModuleVersion(moduleId));
+                        json.writeNumberField("depth", moduleDepth);
+                        json.writeEndObject();
+                    }
+                });
+
+                json.writeEndArray();
+                json.close();
+            }
+        };
+    }
+
+    /**
+     * Check if the client asked for a JSON list written while the database is read instead of a materialized one
+     *
+     * @param uriInfo UriInfo
+     * @return boolean
+     */
+    protected boolean isStreamRequested(final UriInfo uriInfo){
+        return Boolean.valueOf(uriInfo.getQueryParameters().getFirst(ServerAPI.STREAM_PARAM));
+    }
+
+    /**
+     * Builds the response of a list page, it gives the id to start the next page from when the page is full
+     *
+     * @param entity Object the list
+     * @param filters FiltersHolder the filters that hold the page request
+     * @param pageSize int the number of elements of the list
+     * @param lastId String the id of the last element of the list
+     * @return Response
+     */
+    protected Response getPageResponse(final Object entity, final FiltersHolder filters, final int pageSize, final String lastId){
+        final Response.ResponseBuilder response = Response.ok(entity);
+        final String nextPage = filters.getPageHandler().getNextPage(pageSize, lastId);
+
+        if(nextPage != null){
+            response.header(ServerAPI.NEXT_PAGE_HEADER, nextPage);
+        }
+
+        return response.build();
+    }
+
+    /**
+     * Builds the response of a list written while it is read from the database. A limited page is bounded: it is
+     * read before being written so that the id to start the next page from can be given in the headers.
+     *
+     * @param items Iterable<T> the list, closed once read if it is Closeable
+     * @param converter Function the conversion of the elements before they are written
+     * @param idGetter Function the id of an element, to start the next page from
+     * @param filters FiltersHolder the filters that hold the page request
+     * @param ndjson boolean true for newline delimited JSON, false for a JSON array
+     * @return Response
+     */
+    protected <T> Response getStreamResponse(final Iterable<T> items, final Function<? super T, ?> converter,
+                                             final Function<? super T, String> idGetter, final FiltersHolder filters, final boolean ndjson){
+        final Response.ResponseBuilder response;
+
+        if(filters.getPageHandler().getLimit() == null){
+            response = Response.ok(new JsonStreamingOutput<T>(getObjectMapper(), items, converter, ndjson));
+        }
+        else{
+            final List<T> page = readAll(items);
+            response = Response.ok(new JsonStreamingOutput<T>(getObjectMapper(), page, converter, ndjson));
+
+            final String lastId = page.isEmpty() ? null : idGetter.apply(page.get(page.size() - 1));
+            final String nextPage = filters.getPageHandler().getNextPage(page.size(), lastId);
+            if(nextPage != null){
+                response.header(ServerAPI.NEXT_PAGE_HEADER, nextPage);
+            }
+        }
+
+        return response.type(ndjson ? ServerAPI.NDJSON_MEDIA_TYPE : MediaType.APPLICATION_JSON).build();
+    }
+
+    private static <T> List<T> readAll(final Iterable<T> items){
+        try {
+            return Lists.newArrayList(items);
+        } finally {
+            if(items instanceof Closeable){
+                try {
+                    ((Closeable) items).close();
+                } catch (IOException e) {
+                    throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the strong entity tag of the response of a single entity: the representations that have the same tag
+     * are built from the same documents in the same states, in the same media type.
+     *
+     * @param request Request
+     * @param stamps ReadStamps the stamps of the documents the response is built from
+     * @return EntityTag
+     */
+    protected EntityTag getEntityTag(final Request request, final ReadStamps stamps){
+        final Variant variant = request.selectVariant(VARIANTS);
+        final ReadStamps tagged = new ReadStamps(stamps);
+        tagged.add("mediaType", variant == null ? null : variant.getMediaType());
+
+        return new EntityTag(tagged.getTag());
+    }
+
+    /**
+     * Generates the weak entity tag of a computed view: the views that have the same tag are built from the same
+     * documents in the same states, with the same query parameters and in the same media type.
+     *
+     * @param request Request
+     * @param uriInfo UriInfo
+     * @param stamps ReadStamps the stamps of the documents the view is built from
+     * @return EntityTag
+     */
+    protected EntityTag getViewTag(final Request request, final UriInfo uriInfo, final ReadStamps stamps){
+        final Variant variant = request.selectVariant(VARIANTS);
+        final ReadStamps tagged = new ReadStamps(stamps);
+        tagged.add("mediaType", variant == null ? null : variant.getMediaType());
+        tagged.add("query", uriInfo.getRequestUri().getRawQuery());
+
+        return new EntityTag(tagged.getTag(), true);
+    }
+
+    /**
+     * Builds the response of a computed view: a 304 if the client already has the view, the tagged view otherwise
+     *
+     * @param request Request
+     * @param uriInfo UriInfo
+     * @param entity Object the view
+     * @param stamps ReadStamps the stamps of the documents the view is built from
+     * @return Response
+     */
+    protected Response getViewResponse(final Request request, final UriInfo uriInfo, final Object entity, final ReadStamps stamps){
+        final EntityTag tag = getViewTag(request, uriInfo, stamps);
+        final Response.ResponseBuilder notModified = evaluatePreconditions(request, tag, stamps);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        return getTaggedResponse(entity, tag, stamps);
+    }
+
+    /**
+     * Returns a report from the report cache, it is built if it is not cached
+     *
+     * @param reportName String the kind of report
+     * @param id String the id of the module or of the artifact the report is about
+     * @param filters FiltersHolder the filters the report is built with
+     * @param builder ReportBuilder
+     * @return CachedReport
+     */
+    protected <T> ReportCache.CachedReport<T> getReport(final String reportName, final String id, final FiltersHolder filters, final ReportCache.ReportBuilder<T> builder){
+        return serverContext.getReportCache().get(ReportCache.getKey(reportName, id, filters), builder);
+    }
+
+    /**
+     * Checks the conditional headers of the request against the tag of the response
+     *
+     * @param request Request
+     * @param tag EntityTag
+     * @param stamps ReadStamps the stamps the tag has been generated from
+     * @return ResponseBuilder a 304 response if the client already has the response, null otherwise
+     */
+    protected Response.ResponseBuilder evaluatePreconditions(final Request request, final EntityTag tag, final ReadStamps stamps){
+        final Date lastModified = getLastModified(tag, stamps);
+        final Response.ResponseBuilder notModified = lastModified == null ?
+                request.evaluatePreconditions(tag) :
+                request.evaluatePreconditions(lastModified, tag);
+
+        return notModified == null ? null : notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    /**
+     * Builds a 200 response with the validators that the client will send back in its next conditional requests
+     *
+     * @param entity Object
+     * @param tag EntityTag
+     * @param stamps ReadStamps the stamps the tag has been generated from
+     * @return Response
+     */
+    protected Response getTaggedResponse(final Object entity, final EntityTag tag, final ReadStamps stamps){
+        return Response.ok(entity)
+                .tag(tag)
+                .lastModified(getLastModified(tag, stamps))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * The last modification date is only relevant for a single entity. The date of a computed view would not change
+     * when one of the documents it is built from is deleted.
+     */
+    private Date getLastModified(final EntityTag tag, final ReadStamps stamps){
+        if(tag.isWeak() || stamps.getLastStamp() == 0){
+            return null;
+        }
+        return new Date(stamps.getLastStamp());
+    }
+
+    /**
+     * Reads the elements of a NDJSON body, one element per line. The blank lines are skipped.
+     * A line that cannot be read gets a 400 status and a null element, the statuses of the other elements are left null.
+     *
+     * @param input InputStream the posted body
+     * @param type Class<T> the type of the elements
+     * @param statuses List<BulkItemStatus> filled with one status per element
+     * @return List<T>
+     */
+    protected <T> List<T> readNdjson(final InputStream input, final Class<T> type, final List<BulkItemStatus> statuses){
+        final List<T> elements = new ArrayList<T>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, Charset.forName("UTF-8")));
+
+        try {
+            int lineNumber = 0;
+            String line;
+            while((line = reader.readLine()) != null){
+                lineNumber++;
+                if(line.trim().isEmpty()){
+                    continue;
+                }
+
+                try {
+                    elements.add(NDJSON_MAPPER.readValue(line, type));
+                    statuses.add(null);
+                } catch (IOException e) {
+                    elements.add(null);
+                    statuses.add(DataModelFactory.createBulkItemStatus("line " + lineNumber, HttpStatus.BAD_REQUEST_400,
+                            "Failed to read the element: " + e.getMessage()));
+                }
+            }
+        } catch (IOException e) {
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Failed to read the posted stream: " + e.getMessage())
+                    .build());
+        }
+
+        return elements;
+    }
+
+    /**
+     * Turns the error raised while an element of a bulk post was handled into the status of this element
+     *
+     * @param id String the id of the element
+     * @param error WebApplicationException
+     * @return BulkItemStatus
+     */
+    protected BulkItemStatus getErrorStatus(final String id, final WebApplicationException error){
+        final Response response = error.getResponse();
+        final Object message = response.getEntity();
+
+        return DataModelFactory.createBulkItemStatus(id, response.getStatus(), message == null ? null : message.toString());
+    }
+
+    /**
+     * Builds the response of a bulk post from the statuses of its elements:<br/>
+     * - 201 if all the elements have been stored<br/>
+     * - 400 if none of them has been stored<br/>
+     * - 207 otherwise
+     *
+     * @param statuses List<BulkItemStatus>
+     * @return Response
+     */
+    protected Response getBulkResponse(final List<BulkItemStatus> statuses){
+        int nbStored = 0;
+        for(BulkItemStatus status: statuses){
+            if(status.getStatus() == HttpStatus.CREATED_201){
+                nbStored++;
+            }
+        }
+
+        int responseStatus = HttpStatus.MULTI_STATUS_207;
+        if(nbStored == statuses.size()){
+            responseStatus = HttpStatus.CREATED_201;
+        }
+        else if(nbStored == 0){
+            responseStatus = HttpStatus.BAD_REQUEST_400;
+        }
+
+        return Response.status(responseStatus).entity(statuses).type(MediaType.APPLICATION_JSON_TYPE).build();
     }
 
     /**
@@ -126,6 +517,15 @@ public abstract class AbstractResource extends View {
         return grapesConfig;
     }
 
+    /**
+     * Returns the JSON mapper of the environment, for the responses that are written by the resources
+     *
+     * @return ObjectMapper
+     */
+    protected ObjectMapper getObjectMapper(){
+        return serverContext.getObjectMapper();
+    }
+
     /**
      * Returns model mapper for data-model conversion
      *
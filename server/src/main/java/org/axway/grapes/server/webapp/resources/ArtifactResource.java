@@ -1,16 +1,24 @@
 package org.axway.grapes.server.webapp.resources;
 
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.yammer.dropwizard.auth.Auth;
 import com.yammer.dropwizard.jersey.caching.CacheControl;
 import com.yammer.dropwizard.jersey.params.BooleanParam;
+import com.yammer.dropwizard.jersey.params.IntParam;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.BulkItemStatus;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Module;
 import org.axway.grapes.commons.datamodel.Organization;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.core.ArtifactHandler;
+import org.axway.grapes.server.core.cache.ReportCache;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
@@ -22,12 +30,17 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -47,6 +60,10 @@ public class ArtifactResource extends AbstractResource {
         super(repoHandler, "ArtifactResourceDocumentation.ftl", dmConfig);
     }
 
+    public ArtifactResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig, final ServerContext serverContext) {
+        super(repoHandler, "ArtifactResourceDocumentation.ftl", dmConfig, serverContext);
+    }
+
     /**
      * Handle artifact posts when the server got a request POST <grapes_url>/artifact & MIME that contains the artifact.
      *
@@ -78,6 +95,115 @@ public class ArtifactResource extends AbstractResource {
         return Response.ok().status(HttpStatus.CREATED_201).build();
     }
 
+    /**
+     * Handle the post of a batch of artifacts, posted as a JSON array.
+     * This method is call via POST <grapes_url>/artifact/bulk
+     *
+     * @param credential DbCredential
+     * @param artifacts List<Artifact>
+     * @return Response the status of each artifact, in the order of the array
+     */
+    @POST
+    @Path(ServerAPI.BULK)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response postArtifacts(@Auth final DbCredential credential, final List<Artifact> artifacts){
+        if(!credential.getRoles().contains(AvailableRoles.DEPENDENCY_NOTIFIER)){
+            throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+
+        LOG.info("Got a post Artifacts request.");
+
+        if(artifacts == null){
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("The artifacts to store are missing.")
+                    .build());
+        }
+
+        final List<BulkItemStatus> statuses = new ArrayList<BulkItemStatus>();
+        for(int i = 0; i < artifacts.size(); i++){
+            statuses.add(null);
+        }
+
+        return storeArtifacts(artifacts, statuses);
+    }
+
+    /**
+     * Handle the post of a batch of artifacts, posted as NDJSON: one artifact per line.
+     * This method is call via POST <grapes_url>/artifact/bulk
+     *
+     * @param credential DbCredential
+     * @param input InputStream
+     * @return Response the status of each artifact, in the order of the lines
+     */
+    @POST
+    @Path(ServerAPI.BULK)
+    @Consumes(ServerAPI.NDJSON_MEDIA_TYPE)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response postArtifactStream(@Auth final DbCredential credential, final InputStream input){
+        if(!credential.getRoles().contains(AvailableRoles.DEPENDENCY_NOTIFIER)){
+            throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+
+        LOG.info("Got a post Artifact stream request.");
+
+        final List<BulkItemStatus> statuses = new ArrayList<BulkItemStatus>();
+        final List<Artifact> artifacts = readNdjson(input, Artifact.class, statuses);
+
+        return storeArtifacts(artifacts, statuses);
+    }
+
+    /**
+     * Validates all the artifacts of a batch then stores the valid ones at once, with their licenses.
+     *
+     * @param artifacts List<Artifact> the posted artifacts, null if it could not be read
+     * @param statuses List<BulkItemStatus> the statuses already known, null for the artifacts that have been read
+     * @return Response
+     */
+    private Response storeArtifacts(final List<Artifact> artifacts, final List<BulkItemStatus> statuses) {
+        final List<DbArtifact> dbArtifacts = new ArrayList<DbArtifact>();
+
+        for(int i = 0; i < artifacts.size(); i++){
+            final Artifact artifact = artifacts.get(i);
+            if(statuses.get(i) != null){
+                continue;
+            }
+            if(artifact == null){
+                statuses.set(i, DataModelFactory.createBulkItemStatus("artifact " + i, HttpStatus.BAD_REQUEST_400, "Artifact cannot be null!"));
+                continue;
+            }
+
+            final DbArtifact dbArtifact = getModelMapper().getDbArtifact(artifact);
+            try{
+                // Checks if the data is corrupted
+                DataValidator.validate(artifact);
+
+                dbArtifacts.add(dbArtifact);
+                statuses.set(i, DataModelFactory.createBulkItemStatus(dbArtifact.getGavc(), HttpStatus.CREATED_201, null));
+            }
+            catch (WebApplicationException e){
+                statuses.set(i, getErrorStatus(dbArtifact.getGavc(), e));
+            }
+        }
+
+        // The licenses are stored with the Artifacts
+        final Map<String, List<String>> licenseIds = new HashMap<String, List<String>>();
+        for(int i = 0; i < artifacts.size(); i++){
+            if(statuses.get(i).getStatus() == HttpStatus.CREATED_201){
+                final String gavc = statuses.get(i).getId();
+                if(!licenseIds.containsKey(gavc)){
+                    licenseIds.put(gavc, new ArrayList<String>());
+                }
+                licenseIds.get(gavc).addAll(artifacts.get(i).getLicenses());
+            }
+        }
+
+        // Store the Artifacts
+        getArtifactHandler().storeAll(dbArtifacts, licenseIds);
+
+        return getBulkResponse(statuses);
+    }
+
     /**
      * Return a list of gavc, stored in Grapes, regarding the filters passed in the query parameters.
      * This method is call via GET <grapes_url>/artifact/gavcs
@@ -89,15 +215,38 @@ public class ArtifactResource extends AbstractResource {
     @Path(ServerAPI.GET_GAVCS)
     public Response getGavcs(@Context final UriInfo uriInfo){
         LOG.info("Got a get gavc request.");
-        final ListView view = new ListView("GAVCS view", "gavc");
         final FiltersHolder filters = new FiltersHolder();
         filters.init(uriInfo.getQueryParameters());
 
+        if(isStreamRequested(uriInfo)){
+            final Iterable<String> gavcs = getArtifactHandler().streamArtifactGavcs(filters);
+            return getStreamResponse(gavcs, Functions.<String>identity(), Functions.<String>identity(), filters, false);
+        }
+
+        final ListView view = new ListView("GAVCS view", "gavc");
         final List<String> gavcs = getArtifactHandler().getArtifactGavcs(filters);
         Collections.sort(gavcs);
         view.addAll(gavcs);
 
-        return Response.ok(view).build();
+        return getPageResponse(view, filters, gavcs.size(), gavcs.isEmpty() ? null : gavcs.get(gavcs.size() - 1));
+    }
+
+    /**
+     * Stream the gavcs, stored in Grapes, regarding the filters passed in the query parameters. One gavc per line.
+     * This method is call via GET <grapes_url>/artifact/gavcs with the media type application/x-ndjson
+     *
+     * @return Response A newline delimited JSON list of gavc
+     */
+    @GET
+    @Produces(ServerAPI.NDJSON_MEDIA_TYPE)
+    @Path(ServerAPI.GET_GAVCS)
+    public Response streamGavcs(@Context final UriInfo uriInfo){
+        LOG.info("Got a stream gavc request.");
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(uriInfo.getQueryParameters());
+
+        final Iterable<String> gavcs = getArtifactHandler().streamArtifactGavcs(filters);
+        return getStreamResponse(gavcs, Functions.<String>identity(), Functions.<String>identity(), filters, true);
     }
 
     /**
@@ -173,23 +322,35 @@ public class ArtifactResource extends AbstractResource {
     @GET
     @Produces({MediaType.TEXT_HTML, MediaType.APPLICATION_JSON})
     @Path("/{gavc}")
-    public Response get(@PathParam("gavc") final String gavc){
+    public Response get(@PathParam("gavc") final String gavc, @Context final Request request){
         LOG.info("Got a get artifact request.");
-        final ArtifactView view = new ArtifactView();
-
         final DbArtifact dbArtifact = getArtifactHandler().getArtifact(gavc);
+        final DbOrganization dbOrganization = getArtifactHandler().getOrganization(dbArtifact);
+
+        final ReadStamps stamps = new ReadStamps();
+        stamps.add(dbArtifact);
+        if(dbOrganization != null){
+            stamps.add(dbOrganization);
+        }
+
+        final EntityTag tag = getEntityTag(request, stamps);
+        final Response.ResponseBuilder notModified = evaluatePreconditions(request, tag, stamps);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        final ArtifactView view = new ArtifactView();
         view.setShouldNotBeUse(dbArtifact.getDoNotUse());
 
         final Artifact artifact = getModelMapper().getArtifact(dbArtifact);
         view.setArtifact(artifact);
 
-        final DbOrganization dbOrganization = getArtifactHandler().getOrganization(dbArtifact);
         if(dbOrganization != null){
             final Organization organization = getModelMapper().getOrganization(dbOrganization);
             view.setOrganization(organization);
         }
 
-        return Response.ok(view).build();
+        return getTaggedResponse(view, tag, stamps);
     }
 
     /**
@@ -320,17 +481,49 @@ public class ArtifactResource extends AbstractResource {
         filters.getDecorator().setShowLicenses(false);
         filters.init(uriInfo.getQueryParameters());
 
-        final AncestorsView view = new AncestorsView("Ancestor List Of " + gavc, getLicenseHandler().getLicenses(), filters.getDecorator());
-
-        final List<DbModule> dbAncestors = getArtifactHandler().getAncestors(gavc, filters);
-        final Artifact artifact = DataUtils.createArtifact(gavc);
+        final ReportCache.CachedReport<AncestorsView> report = getReport("ancestors", gavc, filters, new ReportCache.ReportBuilder<AncestorsView>() {
+            @Override
+            public AncestorsView build(final ReadStamps stamps) {
+                final AncestorsView view = new AncestorsView("Ancestor List Of " + gavc, getLicenseHandler().getLicenses(stamps), filters.getDecorator());
+
+                // the modules that start using the artifact invalidate the view
+                stamps.add(ReadStamps.usesKey(gavc), null);
+                final List<DbModule> dbAncestors = getArtifactHandler().getAncestors(gavc, filters);
+                for(DbModule dbAncestor : dbAncestors){
+                    stamps.add(dbAncestor);
+                }
+
+                final Map<String, DbArtifact> dbArtifacts = getModuleHandler().getModulesArtifacts(dbAncestors, stamps);
+                final Artifact artifact = DataUtils.createArtifact(gavc);
+                for(DbModule dbAncestor : dbAncestors){
+                    final Module ancestor = getModelMapper().getModule(dbAncestor, dbArtifacts);
+                    view.addAncestor(ancestor, artifact);
+                }
+
+                return view;
+            }
+        });
+
+        return Response.ok(report.getReport()).build();
+    }
 
-        for(DbModule dbAncestor : dbAncestors){
-            final Module ancestor = getModelMapper().getModule(dbAncestor);
-            view.addAncestor(ancestor, artifact);
-        }
+    /**
+     * Return all the modules that use an artifact, directly or through other modules, with the depth at which they use it.
+     * This method is call via GET <grapes_url>/artifact/<gavc>/ancestors/transitive
+     *
+     * @param gavc String
+     * @param depth IntParam optional number of levels to walk
+     * @return Response A JSON list of modules
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{gavc}" + ServerAPI.GET_ANCESTORS + ServerAPI.GET_TRANSITIVE)
+    @CacheControl(maxAge = 5, maxAgeUnit = TimeUnit.MINUTES)
+    public Response getTransitiveAncestors(@PathParam("gavc") final String gavc, @QueryParam(ServerAPI.DEPTH_PARAM) final IntParam depth){
+        LOG.info("Got a get artifact transitive ancestors request.");
+        final DbArtifact artifact = getArtifactHandler().getArtifact(gavc);
 
-        return Response.ok(view).build();
+        return Response.ok(getTransitiveAncestors(Collections.singleton(artifact.getGavc()), depth, null)).build();
     }
 
     /**
@@ -480,6 +673,10 @@ public class ArtifactResource extends AbstractResource {
         final FiltersHolder filters = new FiltersHolder();
         filters.init(uriInfo.getQueryParameters());
 
+        if(isStreamRequested(uriInfo)){
+            return streamArtifacts(filters, false);
+        }
+
         final List<Artifact> artifacts = new ArrayList<Artifact>();
 
         final List<DbArtifact> dbArtifacts = getArtifactHandler().getArtifacts(filters);
@@ -487,6 +684,42 @@ public class ArtifactResource extends AbstractResource {
             artifacts.add(getModelMapper().getArtifact(dbArtifact));
         }
 
-        return Response.ok(artifacts).build();
+        final String lastId = dbArtifacts.isEmpty() ? null : dbArtifacts.get(dbArtifacts.size() - 1).getGavc();
+        return getPageResponse(artifacts, filters, dbArtifacts.size(), lastId);
+    }
+
+    /**
+     * Stream all the artifacts that matches the filters. One artifact per line.
+     * This method is call via GET <grapes_url>/artifact/all with the media type application/x-ndjson
+     *
+     * @param uriInfo UriInfo
+     * @return Response A newline delimited JSON list of artifacts
+     */
+    @GET
+    @Produces(ServerAPI.NDJSON_MEDIA_TYPE)
+    @Path(ServerAPI.GET_ALL)
+    public Response streamAll(@Context final UriInfo uriInfo){
+        LOG.info("Got a stream all artifact request.");
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(uriInfo.getQueryParameters());
+
+        return streamArtifacts(filters, true);
+    }
+
+    private Response streamArtifacts(final FiltersHolder filters, final boolean ndjson) {
+        final Iterable<DbArtifact> dbArtifacts = getArtifactHandler().streamArtifacts(filters);
+
+        return getStreamResponse(dbArtifacts, new Function<DbArtifact, Artifact>() {
+            @Override
+            public Artifact apply(final DbArtifact dbArtifact) {
+                return getModelMapper().getArtifact(dbArtifact);
+            }
+        }, new Function<DbArtifact, String>() {
+            @Override
+            public String apply(final DbArtifact dbArtifact) {
+                return dbArtifact.getGavc();
+            }
+        }, filters, ndjson);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package org.axway.grapes.server.webapp.resources;
+
+import com.yammer.dropwizard.jersey.params.IntParam;
+import com.yammer.dropwizard.jersey.params.LongParam;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.commons.datamodel.ChangeEvent;
+import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ChangeHandler;
+import org.axway.grapes.server.core.ServerContext;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Change Resource
+ *
+ * <p>This server resource gives the changes of the modules, artifacts, licenses, organizations and products, in the
+ * order they happened, so that the clients can keep their copy of the data up to date.<br/>
+ * This resource extends DepManViews to holds its own documentation.
+ * The documentation is available in ChangeResourceDocumentation.ftl file.</p>
+ *
+ * @author jdcoffre
+ */
+@Path(ServerAPI.CHANGES_RESOURCE)
+public class ChangeResource extends AbstractResource {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeResource.class);
+
+    public ChangeResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig) {
+        super(repoHandler, "ChangeResourceDocumentation.ftl", dmConfig);
+    }
+
+    public ChangeResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig, final ServerContext serverContext) {
+        super(repoHandler, "ChangeResourceDocumentation.ftl", dmConfig, serverContext);
+    }
+
+    /**
+     * Return the changes that follow a sequence number.
+     * This method is call via GET <grapes_url>/changes?since=<sequence>&limit=<size>
+     *
+     * @param since LongParam the sequence number of the last known change
+     * @param limit IntParam the maximum number of changes
+     * @return Response A list of changes in JSON, the next page header is set when the page is full
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getChanges(@QueryParam(ServerAPI.SINCE_PARAM) @DefaultValue("0") final LongParam since,
+                               @QueryParam(ServerAPI.PAGE_LIMIT_PARAM) @DefaultValue("" + ChangeHandler.MAX_PAGE_SIZE) final IntParam limit){
+        LOG.info("Got a get changes request.");
+
+        final List<DbChangeEvent> dbEvents = getChangeHandler().getChanges(since.get(), limit.get());
+
+        final List<ChangeEvent> events = new ArrayList<ChangeEvent>(dbEvents.size());
+        for(DbChangeEvent dbEvent: dbEvents){
+            events.add(getModelMapper().getChangeEvent(dbEvent));
+        }
+
+        final Response.ResponseBuilder response = Response.ok(events);
+        if(!events.isEmpty() && events.size() == Math.min(limit.get(), ChangeHandler.MAX_PAGE_SIZE)){
+            response.header(ServerAPI.NEXT_PAGE_HEADER, events.get(events.size() - 1).getSequence());
+        }
+
+        return response.build();
+    }
+
+    /**
+     * Return the sequence number of the last change.
+     * This method is call via GET <grapes_url>/changes/last
+     *
+     * @return Response A number in JSON
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path(ServerAPI.GET_LAST_SEQUENCE)
+    public Response getLastSequence(){
+        LOG.info("Got a get last change request.");
+        return Response.ok(getChangeHandler().getLastSequence()).build();
+    }
+}
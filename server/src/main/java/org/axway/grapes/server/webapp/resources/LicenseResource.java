@@ -5,6 +5,7 @@ import com.yammer.dropwizard.jersey.params.BooleanParam;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.License;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
@@ -41,6 +42,10 @@ public class LicenseResource extends AbstractResource{
     public LicenseResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig){
         super(repoHandler, "LicenseResourceDocumentation.ftl", dmConfig);
     }
+
+    public LicenseResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig, final ServerContext serverContext) {
+        super(repoHandler, "LicenseResourceDocumentation.ftl", dmConfig, serverContext);
+    }
     
     /**
 	 * Handle license posts when the server got a request POST <dm_url>/license & MIME that contains the license.
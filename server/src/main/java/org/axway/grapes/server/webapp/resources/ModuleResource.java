@@ -1,18 +1,30 @@
 package org.axway.grapes.server.webapp.resources;
 
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.yammer.dropwizard.auth.Auth;
 import com.yammer.dropwizard.jersey.caching.CacheControl;
+import com.yammer.dropwizard.jersey.params.BooleanParam;
+import com.yammer.dropwizard.jersey.params.IntParam;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.BulkItemStatus;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
 import org.axway.grapes.commons.datamodel.Dependency;
 import org.axway.grapes.commons.datamodel.License;
 import org.axway.grapes.commons.datamodel.Module;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.core.ArtifactHandler;
+import org.axway.grapes.server.core.ModuleHandler;
+import org.axway.grapes.server.core.OrganizationHandler;
+import org.axway.grapes.server.core.cache.ReportCache;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.core.options.filters.CorporateFilter;
 import org.axway.grapes.server.core.reports.DependencyReport;
 import org.axway.grapes.server.db.DataUtils;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.db.datamodel.DbCredential.AvailableRoles;
@@ -24,9 +36,14 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.URL;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
@@ -49,16 +66,25 @@ public class ModuleResource extends AbstractResource{
         super(repoHandler, "ModuleResourceDocumentation.ftl", dmConfig);
     }
 
+    public ModuleResource(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig, final ServerContext serverContext) {
+        super(repoHandler, "ModuleResourceDocumentation.ftl", dmConfig, serverContext);
+    }
+
     /**
-     * Handle the update/addition of a module in Grapes database
+     * Handle the update/addition of a module in Grapes database.
+     * If the asynchronous ingestion is enabled and the client asked for it, the module is queued once validated:
+     * the response is a 202 that holds the ticket to follow the ingestion.
      *
      * @param credential DbCredential
+     * @param async BooleanParam
      * @param module Module
      * @return Response
      */
     @POST
-    @Produces(MediaType.TEXT_HTML)
-    public Response postModule(@Auth final DbCredential credential, final Module module){
+    @Produces({MediaType.TEXT_HTML, MediaType.APPLICATION_JSON})
+    public Response postModule(@Auth final DbCredential credential,
+                               @QueryParam(ServerAPI.ASYNC_PARAM) final BooleanParam async,
+                               final Module module){
         if(!credential.getRoles().contains(AvailableRoles.DEPENDENCY_NOTIFIER)){
             throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
         }
@@ -68,31 +94,173 @@ public class ModuleResource extends AbstractResource{
         // Checks if the data is corrupted
         DataValidator.validate(module);
 
-        // turn it into DbModel
-        final DbModule dbModule = getModelMapper().getDbModule(module);
-        final DbOrganization organization = getOrganizationHandler().getMatchingOrganization(dbModule);
-        if(organization != null){
-            dbModule.setOrganization(organization.getName());
+        final IngestionQueue ingestionQueue = getIngestionQueue();
+        if(async != null && async.get() && ingestionQueue != null){
+            final DbIngestionTicket ticket = ingestionQueue.submit(module, credential.getUser());
+            final URI ticketUri = UriBuilder.fromResource(ModuleResource.class)
+                    .path(ServerAPI.INGESTION)
+                    .path(ticket.getId())
+                    .build();
+
+            return Response.status(Response.Status.ACCEPTED)
+                    .location(ticketUri)
+                    .entity(getModelMapper().getIngestionTicket(ticket))
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .build();
         }
 
-        // Save the module
-        getModuleHandler().store(dbModule);
+        getModuleIngester().ingest(module);
 
-        final ArtifactHandler artifactHandler = getArtifactHandler();
+        return Response.ok().status(HttpStatus.CREATED_201).build();
+    }
 
-        // Add the artifacts
-        final Set<Artifact> artifacts = DataUtils.getAllArtifacts(module);
-        for(final Artifact artifact: artifacts){
-            artifactHandler.store(getModelMapper().getDbArtifact(artifact));
+    /**
+     * Return the status of the asynchronous ingestion of a module.
+     * This method is call via GET <grapes_url>/module/ingestion/{ticketId}
+     *
+     * @param ticketId String the ticket that has been provided when the module has been posted
+     * @return Response
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path(ServerAPI.INGESTION + "/{ticketId}")
+    public Response getIngestionTicket(@PathParam("ticketId") final String ticketId){
+        LOG.info("Got a get ingestion ticket request.");
+
+        final IngestionQueue ingestionQueue = getIngestionQueue();
+        if(ingestionQueue == null){
+            throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND)
+                    .entity("The asynchronous ingestion is not enabled.")
+                    .build());
         }
 
-        // Add dependencies that does not already exist
-        for(final Dependency dep: DataUtils.getAllDependencies(module)){
-            final DbArtifact dbDependency = getModelMapper().getDbArtifact(dep.getTarget());
-            artifactHandler.storeIfNew(dbDependency);
+        final DbIngestionTicket ticket = ingestionQueue.getTicket(ticketId);
+        if(ticket == null){
+            throw new WebApplicationException(Response.status(Response.Status.NOT_FOUND)
+                    .entity("Ingestion ticket " + ticketId + " does not exist.")
+                    .build());
         }
 
-        return Response.ok().status(HttpStatus.CREATED_201).build();
+        return Response.ok(getModelMapper().getIngestionTicket(ticket)).build();
+    }
+
+    /**
+     * Handle the update/addition of a batch of modules, posted as a JSON array.
+     * This method is call via POST <grapes_url>/module/bulk
+     *
+     * @param credential DbCredential
+     * @param modules List<Module>
+     * @return Response the status of each module, in the order of the array
+     */
+    @POST
+    @Path(ServerAPI.BULK)
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response postModules(@Auth final DbCredential credential, final List<Module> modules){
+        if(!credential.getRoles().contains(AvailableRoles.DEPENDENCY_NOTIFIER)){
+            throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+
+        LOG.info("Got a post Modules request.");
+
+        if(modules == null){
+            throw new WebApplicationException(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("The modules to store are missing.")
+                    .build());
+        }
+
+        final List<BulkItemStatus> statuses = new ArrayList<BulkItemStatus>();
+        for(int i = 0; i < modules.size(); i++){
+            statuses.add(null);
+        }
+
+        return storeModules(modules, statuses);
+    }
+
+    /**
+     * Handle the update/addition of a batch of modules, posted as NDJSON: one module per line.
+     * This method is call via POST <grapes_url>/module/bulk
+     *
+     * @param credential DbCredential
+     * @param input InputStream
+     * @return Response the status of each module, in the order of the lines
+     */
+    @POST
+    @Path(ServerAPI.BULK)
+    @Consumes(ServerAPI.NDJSON_MEDIA_TYPE)
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response postModuleStream(@Auth final DbCredential credential, final InputStream input){
+        if(!credential.getRoles().contains(AvailableRoles.DEPENDENCY_NOTIFIER)){
+            throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+
+        LOG.info("Got a post Module stream request.");
+
+        final List<BulkItemStatus> statuses = new ArrayList<BulkItemStatus>();
+        final List<Module> modules = readNdjson(input, Module.class, statuses);
+
+        return storeModules(modules, statuses);
+    }
+
+    /**
+     * Validates all the modules of a batch then stores the valid ones at once, with their artifacts and dependencies.
+     *
+     * @param modules List<Module> the posted modules, null if it could not be read
+     * @param statuses List<BulkItemStatus> the statuses already known, null for the modules that have been read
+     * @return Response
+     */
+    private Response storeModules(final List<Module> modules, final List<BulkItemStatus> statuses) {
+        final OrganizationHandler organizationHandler = getOrganizationHandler();
+        final List<DbOrganization> organizations = organizationHandler.getAllOrganizations();
+
+        final List<DbModule> dbModules = new ArrayList<DbModule>();
+        final List<DbArtifact> dbArtifacts = new ArrayList<DbArtifact>();
+        final List<DbArtifact> dbDependencies = new ArrayList<DbArtifact>();
+
+        for(int i = 0; i < modules.size(); i++){
+            final Module module = modules.get(i);
+            if(statuses.get(i) != null){
+                continue;
+            }
+            if(module == null){
+                statuses.set(i, DataModelFactory.createBulkItemStatus("module " + i, HttpStatus.BAD_REQUEST_400, "Module cannot be null!"));
+                continue;
+            }
+
+            final String moduleId = DbModule.generateID(module.getName(), module.getVersion());
+            try{
+                // Checks if the data is corrupted
+                DataValidator.validate(module);
+
+                final DbModule dbModule = getModelMapper().getDbModule(module);
+                final DbOrganization organization = organizationHandler.getMatchingOrganization(dbModule, organizations);
+                if(organization != null){
+                    dbModule.setOrganization(organization.getName());
+                }
+
+                dbModules.add(dbModule);
+                for(final Artifact artifact: DataUtils.getAllArtifacts(module)){
+                    dbArtifacts.add(getModelMapper().getDbArtifact(artifact));
+                }
+                for(final Dependency dep: DataUtils.getAllDependencies(module)){
+                    dbDependencies.add(getModelMapper().getDbArtifact(dep.getTarget()));
+                }
+
+                statuses.set(i, DataModelFactory.createBulkItemStatus(moduleId, HttpStatus.CREATED_201, null));
+            }
+            catch (WebApplicationException e){
+                statuses.set(i, getErrorStatus(moduleId, e));
+            }
+        }
+
+        // Save the modules, their artifacts and the dependencies that does not already exist
+        getModuleHandler().storeAll(dbModules);
+
+        final ArtifactHandler artifactHandler = getArtifactHandler();
+        artifactHandler.storeAll(dbArtifacts);
+        artifactHandler.storeAllIfNew(dbDependencies);
+
+        return getBulkResponse(statuses);
     }
 
     /**
@@ -112,12 +280,38 @@ public class ModuleResource extends AbstractResource{
         final FiltersHolder filters = new FiltersHolder();
         filters.init(uriInfo.getQueryParameters());
 
+        if(isStreamRequested(uriInfo)){
+            final Iterable<String> moduleNames = getModuleHandler().streamModuleNames(filters);
+            return getStreamResponse(moduleNames, Functions.<String>identity(), Functions.<String>identity(), filters, false);
+        }
+
         final ListView view = new ListView("Module names view", "name");
         final List<String> moduleNames = getModuleHandler().getModuleNames(filters);
         Collections.sort(moduleNames);
         view.addAll(moduleNames);
 
-        return Response.ok(view).build();
+        final String lastName = moduleNames.isEmpty() ? null : moduleNames.get(moduleNames.size() - 1);
+        return getPageResponse(view, filters, moduleNames.size(), lastName);
+    }
+
+    /**
+     * Stream the module names, stored in Grapes, regarding the filters passed in the query parameters. One name per line.
+     * This method is call via GET <dm_url>/module/names with the media type application/x-ndjson
+     *
+     * @param uriInfo UriInfo
+     * @return Response A newline delimited JSON list of moduleNames
+     */
+    @GET
+    @Produces(ServerAPI.NDJSON_MEDIA_TYPE)
+    @Path(ServerAPI.GET_NAMES)
+    public Response streamNames(@Context final UriInfo uriInfo){
+        LOG.info("Got a stream module names request.");
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(uriInfo.getQueryParameters());
+
+        final Iterable<String> moduleNames = getModuleHandler().streamModuleNames(filters);
+        return getStreamResponse(moduleNames, Functions.<String>identity(), Functions.<String>identity(), filters, true);
     }
 
     @GET
@@ -174,17 +368,27 @@ public class ModuleResource extends AbstractResource{
     @GET
     @Produces({MediaType.TEXT_HTML, MediaType.APPLICATION_JSON})
     @Path("/{name}/{version}")
-    public Response get(@PathParam("name") final String name, @PathParam("version") final String version){
+    public Response get(@PathParam("name") final String name, @PathParam("version") final String version, @Context final Request request){
         LOG.info("Got a get module request.");
-        final ModuleView view = new ModuleView();
-
         final String moduleId = DbModule.generateID(name, version);
         final DbModule dbModule = getModuleHandler().getModule(moduleId);
-        final Module module = getModelMapper().getModule(dbModule);
+
+        final ReadStamps stamps = new ReadStamps();
+        stamps.add(dbModule);
+        final Map<String, DbArtifact> dbArtifacts = getModuleHandler().getModuleArtifacts(dbModule, stamps);
+
+        final EntityTag tag = getEntityTag(request, stamps);
+        final Response.ResponseBuilder notModified = evaluatePreconditions(request, tag, stamps);
+        if(notModified != null){
+            return notModified.build();
+        }
+
+        final ModuleView view = new ModuleView();
+        final Module module = getModelMapper().getModule(dbModule, dbArtifacts);
         view.setModule(module);
         view.setOrganization(dbModule.getOrganization());
 
-        return Response.ok(view).build();
+        return getTaggedResponse(view, tag, stamps);
     }
 
     /**
@@ -250,29 +454,77 @@ public class ModuleResource extends AbstractResource{
                                      @Context final UriInfo uriInfo){
         LOG.info("Got a get module ancestors request.");
         final String moduleId = DbModule.generateID(name, version);
-        final DbModule dbModule = getModuleHandler().getModule(moduleId);
-        final DbOrganization dbOrganization = getModuleHandler().getOrganization(dbModule);
-        final ArtifactHandler artifactHandler = getArtifactHandler();
         final FiltersHolder filters = new FiltersHolder();
         filters.getDecorator().setShowLicenses(false);
         filters.init(uriInfo.getQueryParameters());
-        filters.setCorporateFilter(new CorporateFilter(dbOrganization));
 
-        final AncestorsView view = new AncestorsView("Ancestor List Of " + name +" in version " + version , getLicenseHandler().getLicenses(), filters.getDecorator());
-
-        for(final String artifactId: DataUtils.getAllArtifacts(dbModule)){
-            final DbArtifact dbArtifact = artifactHandler.getArtifact(artifactId);
-            final Artifact artifact = getModelMapper().getArtifact(dbArtifact);
+        final ReportCache.CachedReport<AncestorsView> report = getReport("ancestors", moduleId, filters, new ReportCache.ReportBuilder<AncestorsView>() {
+            @Override
+            public AncestorsView build(final ReadStamps stamps) {
+                final ModuleHandler moduleHandler = getModuleHandler();
+                final DbModule dbModule = moduleHandler.getModule(moduleId);
+                final DbOrganization dbOrganization = moduleHandler.getOrganization(dbModule);
+                stamps.add(dbModule);
+                stamps.add(dbOrganization);
+                filters.setCorporateFilter(new CorporateFilter(dbOrganization));
+
+                final ArtifactHandler artifactHandler = getArtifactHandler();
+                final AncestorsView view = new AncestorsView("Ancestor List Of " + name +" in version " + version , getLicenseHandler().getLicenses(stamps), filters.getDecorator());
+
+                final Map<Artifact, List<DbModule>> ancestors = new LinkedHashMap<Artifact, List<DbModule>>();
+                final List<DbModule> allAncestors = new ArrayList<DbModule>();
+                for(final String artifactId: DataUtils.getAllArtifacts(dbModule)){
+                    final DbArtifact dbArtifact = artifactHandler.getArtifact(artifactId);
+                    stamps.add(dbArtifact);
+                    // the modules that start using the artifact invalidate the view
+                    stamps.add(ReadStamps.usesKey(artifactId), null);
+
+                    final List<DbModule> artifactAncestors = new ArrayList<DbModule>();
+                    for(final DbModule dbAncestor: artifactHandler.getAncestors(artifactId, filters)){
+                        if(!dbAncestor.getId().equals(dbModule.getId())){
+                            stamps.add(dbAncestor);
+                            artifactAncestors.add(dbAncestor);
+                        }
+                    }
+                    ancestors.put(getModelMapper().getArtifact(dbArtifact), artifactAncestors);
+                    allAncestors.addAll(artifactAncestors);
+                }
 
-            for(final DbModule dbAncestor: artifactHandler.getAncestors(artifactId, filters)){
-                if(!dbAncestor.getId().equals(dbModule.getId())){
-                    final Module ancestor = getModelMapper().getModule(dbAncestor);
-                    view.addAncestor(ancestor, artifact);
+                final Map<String, DbArtifact> dbArtifacts = moduleHandler.getModulesArtifacts(allAncestors, stamps);
+                for(Map.Entry<Artifact, List<DbModule>> entry: ancestors.entrySet()){
+                    for(DbModule dbAncestor: entry.getValue()){
+                        view.addAncestor(getModelMapper().getModule(dbAncestor, dbArtifacts), entry.getKey());
+                    }
                 }
+
+                return view;
             }
-        }
+        });
 
-        return Response.ok(view).build();
+        return Response.ok(report.getReport()).build();
+    }
+
+    /**
+     * Return all the modules that use a module, directly or through other modules, with the depth at which they use it.
+     * This method is call via GET <dm_url>/module/<name>/<version>/ancestors/transitive
+     *
+     * @param name String
+     * @param version String
+     * @param depth IntParam optional number of levels to walk
+     * @return Response A JSON list of modules
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("/{name}/{version}" + ServerAPI.GET_ANCESTORS + ServerAPI.GET_TRANSITIVE)
+    @CacheControl(maxAge = 5, maxAgeUnit = TimeUnit.MINUTES)
+    public Response getTransitiveAncestors(@PathParam("name") final String name,
+                                           @PathParam("version") final String version,
+                                           @QueryParam(ServerAPI.DEPTH_PARAM) final IntParam depth){
+        LOG.info("Got a get module transitive ancestors request.");
+        final String moduleId = DbModule.generateID(name, version);
+        final DbModule dbModule = getModuleHandler().getModule(moduleId);
+
+        return Response.ok(getTransitiveAncestors(DataUtils.getAllArtifacts(dbModule), depth, dbModule.getId())).build();
     }
 
     /**
@@ -291,17 +543,24 @@ public class ModuleResource extends AbstractResource{
     @CacheControl(maxAge = 5, maxAgeUnit = TimeUnit.MINUTES)
     public Response getDependencies(@PathParam("name") final String name,
                                     @PathParam("version") final String version,
-                                    @Context final UriInfo uriInfo){
+                                    @Context final UriInfo uriInfo,
+                                    @Context final Request request){
 
         LOG.info("Got a get module dependencies request.");
         final FiltersHolder filters = new FiltersHolder();
         filters.init(uriInfo.getQueryParameters());
-
-        final DependencyListView view = new DependencyListView("Dependency List Of " + name + " in version " + version, getLicenseHandler().getLicenses(), filters.getDecorator());
         final String moduleId = DbModule.generateID(name, version);
-        view.addAll(getDependencyHandler().getModuleDependencies(moduleId, filters));
 
-        return Response.ok(view).build();
+        final ReportCache.CachedReport<DependencyListView> report = getReport("dependencies", moduleId, filters, new ReportCache.ReportBuilder<DependencyListView>() {
+            @Override
+            public DependencyListView build(final ReadStamps stamps) {
+                final DependencyListView view = new DependencyListView("Dependency List Of " + name + " in version " + version, getLicenseHandler().getLicenses(stamps), filters.getDecorator());
+                view.addAll(getDependencyHandler().getModuleDependencies(moduleId, filters, stamps));
+                return view;
+            }
+        });
+
+        return getViewResponse(request, uriInfo, report.getReport(), report.getStamps());
     }
 
     /**
@@ -320,16 +579,22 @@ public class ModuleResource extends AbstractResource{
     @CacheControl(maxAge = 5, maxAgeUnit = TimeUnit.MINUTES)
     public Response getDependencyReport(@PathParam("name") final String name,
                                     @PathParam("version") final String version,
-                                    @Context final UriInfo uriInfo){
+                                    @Context final UriInfo uriInfo,
+                                    @Context final Request request){
 
         LOG.info("Got a get dependency report request.");
         final FiltersHolder filters = new FiltersHolder();
         filters.init(uriInfo.getQueryParameters());
-
         final String moduleId = DbModule.generateID(name, version);
-        final DependencyReport report = getDependencyHandler().getDependencyReport(moduleId, filters);
 
-        return Response.ok(report).build();
+        final ReportCache.CachedReport<DependencyReport> report = getReport("dependencyReport", moduleId, filters, new ReportCache.ReportBuilder<DependencyReport>() {
+            @Override
+            public DependencyReport build(final ReadStamps stamps) {
+                return getDependencyHandler().getDependencyReport(moduleId, filters, stamps);
+            }
+        });
+
+        return getViewResponse(request, uriInfo, report.getReport(), report.getStamps());
     }
 
     /**
@@ -397,29 +662,51 @@ public class ModuleResource extends AbstractResource{
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Path("/{name}/{version}" + ServerAPI.PROMOTION + ServerAPI.GET_FEASIBLE)
-    public Response canBePromoted(@PathParam("name") final String name, @PathParam("version") final String version){
+    public Response canBePromoted(@PathParam("name") final String name, @PathParam("version") final String version,
+                                  @Context final UriInfo uriInfo, @Context final Request request){
         LOG.info("Got a is the module promotable request.");
         final String moduleId = DbModule.generateID(name,version);
-        final PromotionReportView promotionReportView = getModuleHandler().getPromotionReport(moduleId);
+        final ReportCache.CachedReport<PromotionReportView> report = getPromotionReport(moduleId, false);
 
-        return Response.ok(promotionReportView.canBePromoted()).build();
+        return getViewResponse(request, uriInfo, report.getReport().canBePromoted(), report.getStamps());
     }
 
     /**
      * Return a promotion report
      *
+     * In full recursive mode, the report contains the reports of the dependencies that are not promoted.
+     *
      * @return Response A promotion report
      */
     @GET
     @Produces({MediaType.TEXT_HTML, MediaType.APPLICATION_JSON})
     @Path("/{name}/{version}" + ServerAPI.PROMOTION + ServerAPI.GET_REPORT)
     @CacheControl(maxAge = 5, maxAgeUnit = TimeUnit.MINUTES)
-    public Response getPromotionStatusReport(@PathParam("name") final String name, @PathParam("version") final String version){
+    public Response getPromotionStatusReport(@PathParam("name") final String name, @PathParam("version") final String version,
+                                             @Context final UriInfo uriInfo, @Context final Request request){
         LOG.info("Got a get promotion report request.");
         final String moduleId = DbModule.generateID(name, version);
-        final PromotionReportView promotionReportView = getModuleHandler().getPromotionReport(moduleId);
 
-        return Response.ok(promotionReportView).build();
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(uriInfo.getQueryParameters());
+        final ReportCache.CachedReport<PromotionReportView> report = getPromotionReport(moduleId, filters.getDepthHandler().getFullRecursive());
+
+        return getViewResponse(request, uriInfo, report.getReport(), report.getStamps());
+    }
+
+    /**
+     * The promotion reports only depend on the recursive mode, the other query parameters share the same report
+     */
+    private ReportCache.CachedReport<PromotionReportView> getPromotionReport(final String moduleId, final boolean fullRecursive) {
+        final FiltersHolder reportFilters = new FiltersHolder();
+        reportFilters.getDepthHandler().setFullRecursive(fullRecursive);
+
+        return getReport("promotion", moduleId, reportFilters, new ReportCache.ReportBuilder<PromotionReportView>() {
+            @Override
+            public PromotionReportView build(final ReadStamps stamps) {
+                return getModuleHandler().getPromotionReport(moduleId, fullRecursive, stamps);
+            }
+        });
     }
 
     /**
@@ -490,6 +777,10 @@ public class ModuleResource extends AbstractResource{
         final FiltersHolder filters = new FiltersHolder();
         filters.init(uriInfo.getQueryParameters());
 
+        if(isStreamRequested(uriInfo)){
+            return streamModules(filters, false);
+        }
+
         final List<Module> modules = new ArrayList<Module>();
         final List<DbModule> dbModules = getModuleHandler().getModules(filters);
 
@@ -498,7 +789,43 @@ public class ModuleResource extends AbstractResource{
             modules.add(module);
         }
 
-        return Response.ok(modules).build();
+        final String lastId = dbModules.isEmpty() ? null : dbModules.get(dbModules.size() - 1).getId();
+        return getPageResponse(modules, filters, dbModules.size(), lastId);
+    }
+
+    /**
+     * Stream the modules regarding the query parameter filters. One module per line.
+     * This method is call via GET <dm_url>/module/all with the media type application/x-ndjson
+     *
+     * @param uriInfo
+     * @return Response
+     */
+    @GET
+    @Produces(ServerAPI.NDJSON_MEDIA_TYPE)
+    @Path(ServerAPI.GET_ALL)
+    public Response streamAllModules(@Context final UriInfo uriInfo){
+        LOG.info("Got a stream all modules request.");
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.init(uriInfo.getQueryParameters());
+
+        return streamModules(filters, true);
+    }
+
+    private Response streamModules(final FiltersHolder filters, final boolean ndjson) {
+        final Iterable<DbModule> dbModules = getModuleHandler().streamModules(filters);
+
+        return getStreamResponse(dbModules, new Function<DbModule, Module>() {
+            @Override
+            public Module apply(final DbModule dbModule) {
+                return getModelMapper().getModule(dbModule);
+            }
+        }, new Function<DbModule, String>() {
+            @Override
+            public String apply(final DbModule dbModule) {
+                return dbModule.getId();
+            }
+        }, filters, ndjson);
     }
 
 }
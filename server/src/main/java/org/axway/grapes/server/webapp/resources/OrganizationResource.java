@@ -4,6 +4,7 @@ import com.yammer.dropwizard.auth.Auth;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.Organization;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
 import org.axway.grapes.server.db.datamodel.DbOrganization;
@@ -36,6 +37,10 @@ public class OrganizationResource extends AbstractResource {
         super(repositoryHandler, "OrganizationResourceDocumentation.ftl", configuration);
     }
 
+    public OrganizationResource(final RepositoryHandler repositoryHandler, final GrapesServerConfig configuration, final ServerContext serverContext) {
+        super(repositoryHandler, "OrganizationResourceDocumentation.ftl", configuration, serverContext);
+    }
+
 
     /**
      * Handle organization posts when the server got a request POST <dm_url>/organization & MIME that contains an organization.
@@ -4,6 +4,7 @@ import com.google.common.collect.Lists;
 import com.yammer.dropwizard.auth.Auth;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.core.ModuleHandler;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbCredential;
@@ -38,6 +39,10 @@ public class ProductResource extends AbstractResource {
         super(repositoryHandler, "ProductResourceDocumentation.ftl", configuration);
     }
 
+    public ProductResource(final RepositoryHandler repositoryHandler, final GrapesServerConfig configuration, final ServerContext serverContext) {
+        super(repositoryHandler, "ProductResourceDocumentation.ftl", configuration, serverContext);
+    }
+
     /**
      * Handle product posts when the server got a request POST /product & MIME that contains an organization.
      *
@@ -308,5 +313,32 @@ public class ProductResource extends AbstractResource {
         return Response.ok().status(Response.Status.CREATED).build();
     }
 
+    /**
+     * Promotes all the modules of a delivery, with their artifacts
+     *
+     * @param credential DbCredential
+     * @param name String product name
+     * @param delivery String delivery name
+     * @return Response
+     */
+    @POST
+    @Path("/{name}" + ServerAPI.GET_DELIVERIES + "/{delivery}" + ServerAPI.PROMOTION)
+    public Response promoteDelivery(@Auth final DbCredential credential, @PathParam("name") final String name, @PathParam("delivery") final String delivery){
+        if(!credential.getRoles().contains(DbCredential.AvailableRoles.DEPENDENCY_NOTIFIER)){
+            throw new WebApplicationException(Response.status(Response.Status.UNAUTHORIZED).build());
+        }
+        LOG.info("Got a promote delivery request for product " + name +".");
 
+        final DbProduct dbProduct = getProductHandler().getProduct(name);
+
+        final List<String> modules = dbProduct.getDeliveries().get(delivery);
+        if(modules == null){
+            throw new WebApplicationException(Response.serverError().status(HttpStatus.NOT_FOUND_404)
+                    .entity("Delivery " + delivery + " does not exist for product "+ name + ".").build());
+        }
+
+        getModuleHandler().promoteModules(modules);
+
+        return Response.ok("done").build();
+    }
 }
@@ -1,6 +1,7 @@
 package org.axway.grapes.server.webapp.resources;
 
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.db.RepositoryHandler;
 
 import javax.ws.rs.Path;
@@ -12,4 +13,8 @@ public class RootResource extends AbstractResource {
         super(repoHandler, "RootResource.ftl", config);
     }
 
+    public RootResource(final RepositoryHandler repoHandler, final GrapesServerConfig config, final ServerContext serverContext) {
+        super(repoHandler, "RootResource.ftl", config, serverContext);
+    }
+
 }
\ No newline at end of file
@@ -2,11 +2,15 @@ package org.axway.grapes.server.webapp.resources;
 
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
+import org.axway.grapes.server.core.cache.ReportCache;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
 import org.axway.grapes.server.core.graphs.TreeNode;
 import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.ReadStamps;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.webapp.views.serialization.GraphStreamingOutput;
 import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +39,10 @@ public class Sequoia extends AbstractResource{
         super(repoHandler, "Sequoia.ftl",dmConfig);
     }
 
+    public Sequoia(final RepositoryHandler repoHandler, final GrapesServerConfig dmConfig, final ServerContext serverContext) {
+        super(repoHandler, "Sequoia.ftl", dmConfig, serverContext);
+    }
+
 
     /**
      * Perform a module dependency graph of the target and return the graph as a JSON
@@ -52,7 +60,48 @@ public class Sequoia extends AbstractResource{
                                    @Context final UriInfo uriInfo){
 
         LOG.info("Dependency Checker got a get module graph export request.");
+        return exportModuleGraph(moduleName, moduleVersion, uriInfo, GraphStreamingOutput.Format.JSON);
+    }
+
+    /**
+     * Perform a module dependency graph of the target and return the graph as a Graphviz DOT document
+     *
+     * @param moduleName
+     * @param moduleVersion
+     * @param uriInfo
+     * @return Response
+     */
+    @GET
+    @Produces(ServerAPI.DOT_MEDIA_TYPE)
+    @Path("/graph/{name}/{version}")
+    public Response getModuleGraphAsDot(@PathParam("name") final String moduleName,
+                                        @PathParam("version") final String moduleVersion,
+                                        @Context final UriInfo uriInfo){
+
+        LOG.info("Dependency Checker got a get module graph DOT export request.");
+        return exportModuleGraph(moduleName, moduleVersion, uriInfo, GraphStreamingOutput.Format.DOT);
+    }
+
+    /**
+     * Perform a module dependency graph of the target and return the graph as a GraphML document
+     *
+     * @param moduleName
+     * @param moduleVersion
+     * @param uriInfo
+     * @return Response
+     */
+    @GET
+    @Produces(ServerAPI.GRAPHML_MEDIA_TYPE)
+    @Path("/graph/{name}/{version}")
+    public Response getModuleGraphAsGraphML(@PathParam("name") final String moduleName,
+                                            @PathParam("version") final String moduleVersion,
+                                            @Context final UriInfo uriInfo){
 
+        LOG.info("Dependency Checker got a get module graph GraphML export request.");
+        return exportModuleGraph(moduleName, moduleVersion, uriInfo, GraphStreamingOutput.Format.GRAPHML);
+    }
+
+    private Response exportModuleGraph(final String moduleName, final String moduleVersion, final UriInfo uriInfo, final GraphStreamingOutput.Format format) {
         if(moduleName == null || moduleVersion == null){
             return Response.serverError().status(HttpStatus.NOT_ACCEPTABLE_406).build();
         }
@@ -61,9 +110,14 @@ public class Sequoia extends AbstractResource{
         filters.init(uriInfo.getQueryParameters());
 
         final String moduleId = DbModule.generateID(moduleName, moduleVersion);
-        final AbstractGraph moduleGraph = getGraphsHandler(filters).getModuleGraph(moduleId);
-
-        return Response.ok(moduleGraph).build();
+        final ReportCache.CachedReport<AbstractGraph> report = getReport("graph", moduleId, filters, new ReportCache.ReportBuilder<AbstractGraph>() {
+            @Override
+            public AbstractGraph build(final ReadStamps stamps) {
+                return getGraphsHandler(filters).getModuleGraph(moduleId, stamps);
+            }
+        });
+
+        return Response.ok(new GraphStreamingOutput(report.getReport(), format)).build();
     }
 
 
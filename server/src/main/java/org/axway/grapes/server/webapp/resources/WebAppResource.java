@@ -2,6 +2,7 @@ package org.axway.grapes.server.webapp.resources;
 
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
 import org.axway.grapes.server.db.RepositoryHandler;
 
 import javax.ws.rs.Path;
@@ -19,4 +20,8 @@ public class WebAppResource extends AbstractResource{
     public WebAppResource(final RepositoryHandler repoHandler, final GrapesServerConfig config) {
         super(repoHandler, "WebApp.ftl", config);
     }
+
+    public WebAppResource(final RepositoryHandler repoHandler, final GrapesServerConfig config, final ServerContext serverContext) {
+        super(repoHandler, "WebApp.ftl", config, serverContext);
+    }
 }
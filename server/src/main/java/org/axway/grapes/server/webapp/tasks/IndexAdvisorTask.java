@@ -0,0 +1,180 @@
+package org.axway.grapes.server.webapp.tasks;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.mongodb.BasicDBObject;
+import com.mongodb.DB;
+import com.mongodb.DBObject;
+import com.mongodb.MongoClient;
+import com.mongodb.ServerAddress;
+import com.yammer.dropwizard.tasks.Task;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.datamodel.DbModule;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Index Advisor Task
+ *
+ * <p>At runtime, this task explains the queries of the repository handler and reports the index that each of them uses.
+ * The queries that end up in a collection scan are flagged.
+ * To run it: POST <host>:<adminPort>/indexAdvisor<p>
+ *
+ * @author jdcoffre
+ */
+public class IndexAdvisorTask extends Task {
+
+    private static final String LEGACY_INDEX_CURSOR = "BtreeCursor";
+    private static final String INDEX_SCAN_STAGE = "IXSCAN";
+
+    private final DataBaseConfig config;
+
+    public IndexAdvisorTask(final DataBaseConfig configuration) {
+        super("indexAdvisor");
+        this.config = configuration;
+    }
+
+    @Override
+    public void execute(final ImmutableMultimap<String, String> args, final PrintWriter printWriter) throws Exception {
+        final MongoClient mongo = new MongoClient(new ServerAddress(config.getHost(), config.getPort()));
+
+        try{
+            final DB db = mongo.getDB(config.getDatastore());
+            if(config.getUser() != null && config.getPwd() != null){
+                db.authenticate(config.getUser(), config.getPwd());
+            }
+
+            int collectionScans = 0;
+            for(QueryProbe probe: getProbes()){
+                final DBObject explanation = db.getCollection(probe.collection).find(probe.query).explain();
+                final String index = getUsedIndex(explanation);
+
+                if(index == null){
+                    collectionScans++;
+                    printWriter.println("[COLLSCAN] " + probe.name + " on " + probe.collection + " " + probe.query + " performs a collection scan");
+                }
+                else{
+                    printWriter.println("[OK]       " + probe.name + " on " + probe.collection + " uses index " + index);
+                }
+            }
+
+            printWriter.println(collectionScans + " quer" + (collectionScans > 1 ? "ies" : "y") + " performing a collection scan.");
+        }
+        finally {
+            mongo.close();
+            printWriter.flush();
+        }
+    }
+
+    /**
+     * Returns the name of the index used by an explained query or null if the query performs a collection scan.
+     * It handles both the legacy explain format (cursor) and the query planner format of Mongodb 3.0+.
+     *
+     * @param explanation DBObject
+     * @return String
+     */
+    static String getUsedIndex(final DBObject explanation) {
+        final Object cursor = explanation.get("cursor");
+        if(cursor != null){
+            final String cursorType = cursor.toString();
+            if(cursorType.startsWith(LEGACY_INDEX_CURSOR)){
+                return cursorType.substring(LEGACY_INDEX_CURSOR.length()).trim();
+            }
+            return null;
+        }
+
+        final Object queryPlanner = explanation.get("queryPlanner");
+        if(queryPlanner instanceof DBObject){
+            return getIndexScan(((DBObject) queryPlanner).get("winningPlan"));
+        }
+
+        return null;
+    }
+
+    private static String getIndexScan(final Object stage) {
+        if(!(stage instanceof DBObject)){
+            return null;
+        }
+
+        final DBObject planStage = (DBObject) stage;
+        if(INDEX_SCAN_STAGE.equals(planStage.get("stage"))){
+            return String.valueOf(planStage.get("indexName"));
+        }
+
+        final String index = getIndexScan(planStage.get("inputStage"));
+        if(index != null){
+            return index;
+        }
+
+        final Object inputStages = planStage.get("inputStages");
+        if(inputStages instanceof List){
+            for(Object inputStage: (List<?>) inputStages){
+                final String inputIndex = getIndexScan(inputStage);
+                if(inputIndex != null){
+                    return inputIndex;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the queries performed by the repository handler with sample values
+     *
+     * @return List<QueryProbe>
+     */
+    static List<QueryProbe> getProbes() {
+        final List<QueryProbe> probes = new ArrayList<QueryProbe>();
+
+        probes.add(new QueryProbe("getRootModuleOf", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.HAS_DB_FIELD, "")));
+        probes.add(new QueryProbe("getRootModulesOf", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.HAS_DB_FIELD, new BasicDBObject("$in", Collections.singletonList("")))));
+        probes.add(new QueryProbe("getAncestors", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.USE_DB_FIELD, "")));
+        probes.add(new QueryProbe("getModuleVersions", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.NAME_DB_FIELD, "")));
+        probes.add(new QueryProbe("getModules by version", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.VERSION_DB_FIELD, "")));
+        probes.add(new QueryProbe("getModules by organization", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.ORGANIZATION_DB_FIELD, "")));
+        probes.add(new QueryProbe("addModulesOrganization", DbCollections.DB_MODULES,
+                new BasicDBObject(DbModule.HAS_DB_FIELD, Pattern.compile("org.sample*"))));
+        probes.add(new QueryProbe("getArtifactVersions", DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, "")
+                        .append(DbArtifact.ARTIFACTID_DB_FIELD, "")
+                        .append(DbArtifact.CLASSIFIER_DB_FIELD, "")
+                        .append(DbArtifact.EXTENSION_DB_FIELD, "")));
+        probes.add(new QueryProbe("getArtifacts by groupId", DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.GROUPID_DB_FIELD, "")));
+        probes.add(new QueryProbe("getArtifacts by artifactId", DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.ARTIFACTID_DB_FIELD, "")));
+        probes.add(new QueryProbe("getArtifacts by version", DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.VERSION_DB_FIELD, "")));
+        probes.add(new QueryProbe("getArtifacts by licenseId", DbCollections.DB_ARTIFACTS,
+                new BasicDBObject(DbArtifact.LICENCES_DB_FIELD, "")));
+
+        return probes;
+    }
+
+    /**
+     * Sample of a query performed by the repository handler
+     */
+    static class QueryProbe {
+        private final String name;
+        private final String collection;
+        private final DBObject query;
+
+        QueryProbe(final String name, final String collection, final DBObject query) {
+            this.name = name;
+            this.collection = collection;
+            this.query = query;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.axway.grapes.server.webapp.tasks;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.yammer.dropwizard.tasks.Task;
+import org.axway.grapes.server.db.RepositoryHandler;
+
+import java.io.PrintWriter;
+
+/**
+ * Rebuild Latest Versions Task
+ *
+ * <p>At runtime, this task builds again the latest release and latest version of all the artifacts from their versions.
+ * The latest versions are maintained at each artifact write, this task fixes them if they have been altered outside of Grapes.
+ * To run it: POST <host>:<adminPort>/rebuildLatestVersions<p>
+ *
+ * @author jdcoffre
+ */
+public class RebuildLatestVersionsTask extends Task {
+
+    private final RepositoryHandler repoHandler;
+
+    public RebuildLatestVersionsTask(final RepositoryHandler repoHandler) {
+        super("rebuildLatestVersions");
+        this.repoHandler = repoHandler;
+    }
+
+    @Override
+    public void execute(final ImmutableMultimap<String, String> args, final PrintWriter printer) throws Exception {
+        printer.println("Rebuilding the latest versions ...");
+
+        final long start = System.currentTimeMillis();
+        final int nbLatestVersions = repoHandler.rebuildLatestVersions();
+
+        printer.println(nbLatestVersions + " latest versions have been built in " + (System.currentTimeMillis() - start) + "ms.");
+        printer.println("Task performed successfully.");
+    }
+
+}
@@ -0,0 +1,187 @@
+package org.axway.grapes.server.webapp.views.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.axway.grapes.server.core.graphs.AbstractGraph;
+import org.axway.grapes.server.core.graphs.GraphDependency;
+import org.axway.grapes.server.core.graphs.GraphElement;
+
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.*;
+
+/**
+ * Graph Streaming Output
+ *
+ * <p>Writes the nodes and the edges of a graph straight to the response, in one of the supported formats:</p>
+ * <ul>
+ *     <li>JSON: the same document as the serialized graph, elements then dependencies</li>
+ *     <li>DOT: a Graphviz digraph, the root elements are drawn with a bold outline</li>
+ *     <li>GraphML: the element versions and the dependency types are provided as data keys</li>
+ * </ul>
+ *
+ * @author jdcoffre
+ */
+public class GraphStreamingOutput implements StreamingOutput {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final XMLOutputFactory XML_FACTORY = XMLOutputFactory.newInstance();
+
+    private static final String GRAPHML_NAMESPACE = "http://graphml.graphdrawing.org/xmlns";
+
+    public enum Format {
+        JSON, DOT, GRAPHML
+    }
+
+    private final AbstractGraph graph;
+    private final Format format;
+
+    public GraphStreamingOutput(final AbstractGraph graph, final Format format) {
+        this.graph = graph;
+        this.format = format;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        switch (format){
+            case DOT:
+                writeDot(output);
+                break;
+            case GRAPHML:
+                writeGraphML(output);
+                break;
+            default:
+                writeJson(output);
+        }
+    }
+
+    private void writeJson(final OutputStream output) throws IOException {
+        final JsonGenerator json = MAPPER.getFactory().createGenerator(output);
+        json.writeStartObject();
+
+        json.writeArrayFieldStart("elements");
+        for(GraphElement element: graph.elements()){
+            json.writeObject(element);
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("dependencies");
+        for(GraphDependency dependency: graph.dependencies()){
+            json.writeObject(dependency);
+        }
+        json.writeEndArray();
+
+        json.writeEndObject();
+        json.close();
+    }
+
+    private void writeDot(final OutputStream output) throws IOException {
+        final Writer dot = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"));
+        dot.write("digraph {\n");
+
+        for(GraphElement element: graph.elements()){
+            dot.write("  ");
+            dot.write(quote(element.getValue()));
+            dot.write(" [label=");
+            dot.write(quote(element.getVersion() == null ? element.getValue() : element.getValue() + "\n" + element.getVersion()));
+            if(element.isRoot()){
+                dot.write(", style=bold");
+            }
+            dot.write("];\n");
+        }
+
+        for(GraphDependency dependency: graph.dependencies()){
+            dot.write("  ");
+            dot.write(quote(dependency.getSource()));
+            dot.write(" -> ");
+            dot.write(quote(dependency.getTarget()));
+            dot.write(" [label=");
+            dot.write(quote(dependency.getType()));
+            dot.write("];\n");
+        }
+
+        dot.write("}\n");
+        dot.flush();
+    }
+
+    private static String quote(final String value) {
+        if(value == null){
+            return "\"\"";
+        }
+
+        final StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for(char c: value.toCharArray()){
+            if(c == '"' || c == '\\'){
+                sb.append('\\').append(c);
+            }
+            else if(c == '\n'){
+                sb.append("\\n");
+            }
+            else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private void writeGraphML(final OutputStream output) throws IOException {
+        try {
+            final XMLStreamWriter xml = XML_FACTORY.createXMLStreamWriter(output, "UTF-8");
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("graphml");
+            xml.writeDefaultNamespace(GRAPHML_NAMESPACE);
+
+            writeGraphMLKey(xml, "version", "node", "string");
+            writeGraphMLKey(xml, "root", "node", "boolean");
+            writeGraphMLKey(xml, "type", "edge", "string");
+
+            xml.writeStartElement("graph");
+            xml.writeAttribute("edgedefault", "directed");
+
+            for(GraphElement element: graph.elements()){
+                xml.writeStartElement("node");
+                xml.writeAttribute("id", element.getValue());
+                writeGraphMLData(xml, "version", element.getVersion());
+                writeGraphMLData(xml, "root", String.valueOf(element.isRoot()));
+                xml.writeEndElement();
+            }
+
+            for(GraphDependency dependency: graph.dependencies()){
+                xml.writeStartElement("edge");
+                xml.writeAttribute("source", dependency.getSource());
+                xml.writeAttribute("target", dependency.getTarget());
+                writeGraphMLData(xml, "type", dependency.getType());
+                xml.writeEndElement();
+            }
+
+            xml.writeEndElement();
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Failed to write the GraphML document: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeGraphMLKey(final XMLStreamWriter xml, final String id, final String scope, final String type) throws XMLStreamException {
+        xml.writeEmptyElement("key");
+        xml.writeAttribute("id", id);
+        xml.writeAttribute("for", scope);
+        xml.writeAttribute("attr.name", id);
+        xml.writeAttribute("attr.type", type);
+    }
+
+    private static void writeGraphMLData(final XMLStreamWriter xml, final String key, final String value) throws XMLStreamException {
+        if(value == null){
+            return;
+        }
+        xml.writeStartElement("data");
+        xml.writeAttribute("key", key);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+}
@@ -0,0 +1,76 @@
+package org.axway.grapes.server.webapp.views.serialization;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Json Streaming Output
+ *
+ * <p>Writes the elements of an iterable as soon as they are read, either in a JSON array or in newline delimited JSON.
+ * Nothing but the current element is held in memory, so big lists can be sent straight from a database cursor.</p>
+ *
+ * <p>The elements are written with the JSON mapper of the environment. An iterable that is Closeable (e.g. a database
+ * cursor) is closed once written, also when the client goes away before the end.</p>
+ *
+ * @author jdcoffre
+ */
+public class JsonStreamingOutput<T> implements StreamingOutput {
+
+    private final ObjectMapper mapper;
+    private final Iterable<T> items;
+    private final Function<? super T, ?> converter;
+    private final boolean ndjson;
+
+    public JsonStreamingOutput(final ObjectMapper mapper, final Iterable<T> items, final Function<? super T, ?> converter, final boolean ndjson) {
+        this.mapper = mapper;
+        this.items = items;
+        this.converter = converter;
+        this.ndjson = ndjson;
+    }
+
+    public JsonStreamingOutput(final ObjectMapper mapper, final Iterable<T> items, final boolean ndjson) {
+        this(mapper, items, Functions.identity(), ndjson);
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        try {
+            final JsonGenerator json = mapper.getFactory().createGenerator(output);
+
+            if(ndjson){
+                json.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            }
+            else{
+                json.writeStartArray();
+            }
+
+            boolean empty = true;
+            for(T item: items){
+                json.writeObject(converter.apply(item));
+                empty = false;
+            }
+
+            if(ndjson){
+                if(!empty){
+                    json.writeRaw('\n');
+                }
+            }
+            else{
+                json.writeEndArray();
+            }
+            json.close();
+        } finally {
+            if(items instanceof Closeable){
+                ((Closeable) items).close();
+            }
+        }
+    }
+}
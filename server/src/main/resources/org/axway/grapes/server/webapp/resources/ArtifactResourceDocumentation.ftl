@@ -70,6 +70,7 @@
             <ul class="nav nav-list bs-docs-sidenav" data-spy="affix" data-offset-top="80">
                 <li class=""><a data-toggle="collapse" data-target="#accordion1" href="#artifact"><i class="icon-chevron-right"></i> Resource documentation</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion1" href="#artifact"><i class="icon-chevron-right"></i> Add/update an artifact</a></li>
+                <li class=""><a data-toggle="collapse" data-target="#accordion1b" href="#artifact-bulk"><i class="icon-chevron-right"></i> Add/update artifacts in bulk</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion2" href="#artifact-gavcs"><i class="icon-chevron-right"></i> List all artifact ids</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion3" href="#artifact-versions"><i class="icon-chevron-right"></i> List all versions of an artifact</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion4" href="#artifact-last-version"><i class="icon-chevron-right"></i> Last version of an artifact</a></li>
@@ -78,6 +79,7 @@
                 <li class=""><a data-toggle="collapse" data-target="#accordion6" href="#artifact-module"><i class="icon-chevron-right"></i> Get artifact module</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion7" href="#artifact-organization"><i class="icon-chevron-right"></i> Get artifact organization</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion8" href="#artifact-ancestors"><i class="icon-chevron-right"></i> Who use this artifact?</a></li>
+                <li class=""><a data-toggle="collapse" data-target="#accordion8b" href="#artifact-transitive-ancestors"><i class="icon-chevron-right"></i> Who use this artifact, transitively?</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion9" href="#artifact-licenses"><i class="icon-chevron-right"></i> Get artifact licenses</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion9" href="#artifact-licenses"><i class="icon-chevron-right"></i> Add artifact license</a></li>
                 <li class=""><a data-toggle="collapse" data-target="#accordion9" href="#artifact-licenses"><i class="icon-chevron-right"></i> Remove artifact license</a></li>
@@ -112,6 +114,28 @@
                 </ul>
             </div>
         </section>
+        <section id="artifact-bulk">
+            <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion1b">
+                <h2>@ /artifact/bulk</h2>
+            </a>
+            <div id="accordion1b" class="collapse">
+                <ul>
+                    <li>
+                        <h3>POST</h3>
+                        <ul>
+                            <li>Add/update a batch of artifacts in a single request</li>
+                            <li>Expects a JSON array of artifacts (application/json) or one JSON artifact per line (application/x-ndjson) in the request content</li>
+                            <li>All the artifacts are checked before any of them is stored, the ones that do not suit the model are left out</li>
+                            <li>Returns a JSON list that gives the status of each artifact, in the posted order: its id, 201 if it has been stored or the error status and message</li>
+                            <li>Return status 201 if all the artifacts have been stored, 207 if some of them only, 400 if none</li>
+                            <li>Json Artifact example:
+                                <pre>${getArtifactJsonModel()}</pre>
+                            </li>
+                        </ul>
+                    </li>
+                </ul>
+            </div>
+        </section>
         <section id="artifact-gavcs">
             <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion2">
                 <h2>@ /artifact/gavcs</h2>
@@ -123,6 +147,8 @@
                         <ul>
                             <li>Get artifact gavcs</li>
                             <li>Returns HTML view or a Json list of string</li>
+                            <li>Add stream=true to get the Json list written while the database is read, or ask for application/x-ndjson to get one element per line</li>
+                            <li>Add limit=N to get a page of N elements, the X-Grapes-Next-Page response header gives the value of the after parameter that returns the next page</li>
                             <li>
                                 Optional parameters:
                                 <br/>
@@ -341,6 +367,42 @@
                 </ul>
             </div>
         </section>
+        <section id="artifact-transitive-ancestors">
+            <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion8b">
+                <h2>@ /artifact/{gavc}/ancestors/transitive</h2>
+            </a>
+            <div id="accordion8b" class="collapse">
+                <ul>
+                    <li>
+                        <h3>GET</h3>
+                        <ul>
+                            <li>Get all the projects that use an artifact, directly or through other projects</li>
+                            <li>Returns a Json list of modules (id, name, version and depth), depth 1 being the direct users</li>
+                            <li>
+                                Optional parameters:
+                                <br/>
+                                <table class="table table-bordered table-hover" style="font-size:90%;margin-top:8px;">
+                                    <thead>
+                                    <tr>
+                                        <td><strong>Parameter</strong></td>
+                                        <td><strong>Default Value</strong></td>
+                                        <td><strong>Description</strong></td>
+                                    </tr>
+                                    </thead>
+                                    <tbody>
+                                    <tr>
+                                        <td>depth</td>
+                                        <td>-</td>
+                                        <td>Number of levels to walk, the whole graph is walked if not set</td>
+                                    </tr>
+                                    </tbody>
+                                </table>
+                            </li>
+                        </ul>
+                    </li>
+                </ul>
+            </div>
+        </section>
         <section id="artifact-licenses">
             <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion9">
                 <h2>@ /artifact/{gavc}/licenses</h2>
@@ -68,17 +68,21 @@
                     <ul class="nav nav-list bs-docs-sidenav" data-spy="affix" data-offset-top="80">
                         <li class=""><a data-toggle="collapse" data-target="#accordion1" href="#module"><i class="icon-chevron-right"></i> Resource documentation</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion1" href="#module"><i class="icon-chevron-right"></i> Add/update a module</a></li>
+                        <li class=""><a data-toggle="collapse" data-target="#accordion1b" href="#module-bulk"><i class="icon-chevron-right"></i> Add/update modules in bulk</a></li>
+                        <li class=""><a data-toggle="collapse" data-target="#accordion1c" href="#module-ingestion"><i class="icon-chevron-right"></i> Follow an asynchronous ingestion</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion2" href="#module-names"><i class="icon-chevron-right"></i> Get all names</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion3" href="#module-versions"><i class="icon-chevron-right"></i> Get all versions</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion4" href="#module-target"><i class="icon-chevron-right"></i> Get a module</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion4" href="#module-target"><i class="icon-chevron-right"></i> Delete a module</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion5" href="#module-organization"><i class="icon-chevron-right"></i> Get a module organization</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion6" href="#module-ancestors"><i class="icon-chevron-right"></i> Who is using my module?</a></li>
+                        <li class=""><a data-toggle="collapse" data-target="#accordion6b" href="#module-transitive-ancestors"><i class="icon-chevron-right"></i> Who is using my module, transitively?</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion7" href="#module-dependencies"><i class="icon-chevron-right"></i> Module dependencies</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion8" href="#module-licenses"><i class="icon-chevron-right"></i> Get module licenses</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion9" href="#module-promotion"><i class="icon-chevron-right"></i> Get promotion status</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion9" href="#module-promotion"><i class="icon-chevron-right"></i> Promote a module</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion10" href="#module-promotion-doable"><i class="icon-chevron-right"></i> Can it be promoted?</a></li>
+                        <li class=""><a data-toggle="collapse" data-target="#accordion10b" href="#module-promotion-report"><i class="icon-chevron-right"></i> Get a promotion report</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion11" href="#module-buildinfo"><i class="icon-chevron-right"></i> Get/Update build info</a></li>
                     </ul>
                 </div>
@@ -102,6 +106,8 @@
                                         <li>Add/update module</li>
                                         <li>Expects a JSON module in the request content</li>
                                         <li>Return status 201 if ok 400 if the Json does not suits the model</li>
+                                        <li>Optional parameter: async=true, if the asynchronous ingestion is enabled on the server the module is queued once checked</li>
+                                        <li>Return status 202 with the JSON ingestion ticket if the module has been queued, 503 with a Retry-After header if the queue is full</li>
                                         <li>Json Module example:
                                             <pre>${getModuleJsonModel()}</pre>
                                         </li>
@@ -119,6 +125,45 @@
                             </ul>
                         </div>
                     </section>
+                    <section id="module-bulk">
+                        <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion1b">
+                            <h2>@ /module/bulk</h2>
+                        </a>
+                        <div id="accordion1b" class="collapse">
+                            <ul>
+                                <li>
+                                    <h3>POST</h3>
+                                    <ul>
+                                        <li>Add/update a batch of modules in a single request</li>
+                                        <li>Expects a JSON array of modules (application/json) or one JSON module per line (application/x-ndjson) in the request content</li>
+                                        <li>All the modules are checked before any of them is stored, the ones that do not suit the model are left out</li>
+                                        <li>Returns a JSON list that gives the status of each module, in the posted order: its id, 201 if it has been stored or the error status and message</li>
+                                        <li>Return status 201 if all the modules have been stored, 207 if some of them only, 400 if none</li>
+                                        <li>Json Module example:
+                                            <pre>${getModuleJsonModel()}</pre>
+                                        </li>
+                                    </ul>
+                                </li>
+                            </ul>
+                        </div>
+                    </section>
+                    <section id="module-ingestion">
+                        <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion1c">
+                            <h2>@ /module/ingestion/{ticketId}</h2>
+                        </a>
+                        <div id="accordion1c" class="collapse">
+                            <ul>
+                                <li>
+                                    <h3>GET</h3>
+                                    <ul>
+                                        <li>Get the status of the asynchronous ingestion of a module: PENDING, IN_PROGRESS, DONE or FAILED with its cause</li>
+                                        <li>Returns JSON</li>
+                                        <li>Return status 404 if the ticket does not exist or if the asynchronous ingestion is not enabled</li>
+                                    </ul>
+                                </li>
+                            </ul>
+                        </div>
+                    </section>
                     <section id="module-names">
                         <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion2">
                             <h2>@ /module/names</h2>
@@ -130,6 +175,8 @@
                                     <ul>
                                         <li>Get modules names</li>
                                         <li>Returns HTML view or a Json list of string</li>
+                                        <li>Add stream=true to get the Json list written while the database is read, or ask for application/x-ndjson to get one element per line</li>
+                                        <li>Add limit=N to get a page of N elements, the X-Grapes-Next-Page response header gives the value of the after parameter that returns the next page</li>
                                         <li>
                                             Optional parameters:
                                             <br/>
@@ -307,6 +354,42 @@
                             </ul>
                         </div>
                     </section>
+                    <section id="module-transitive-ancestors">
+                        <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion6b">
+                            <h2>@ /module/{name}/{version}/ancestors/transitive</h2>
+                        </a>
+                        <div id="accordion6b" class="collapse">
+                            <ul>
+                                <li>
+                                    <h3>GET</h3>
+                                    <ul>
+                                        <li>Get all the projects that use a module, directly or through other projects</li>
+                                        <li>Returns a Json list of modules (id, name, version and depth), depth 1 being the direct users</li>
+                                        <li>
+                                            Optional parameters:
+                                            <br/>
+                                            <table class="table table-bordered table-hover" style="font-size:90%;margin-top:8px;">
+                                                <thead>
+                                                <tr>
+                                                    <td><strong>Parameter</strong></td>
+                                                    <td><strong>Default Value</strong></td>
+                                                    <td><strong>Description</strong></td>
+                                                </tr>
+                                                </thead>
+                                                <tbody>
+                                                <tr>
+                                                    <td>depth</td>
+                                                    <td>-</td>
+                                                    <td>Number of levels to walk, the whole graph is walked if not set</td>
+                                                </tr>
+                                                </tbody>
+                                            </table>
+                                        </li>
+                                    </ul>
+                                </li>
+                            </ul>
+                        </div>
+                    </section>
                     <section id="module-dependencies">
                         <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion7">
                             <h2>@ /module/{name}/{version}/dependencies</h2>
@@ -456,6 +539,40 @@
                             </ul>
                         </div>
                     </section>
+                    <section id="module-promotion-report">
+                        <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion10b">
+                            <h2>@ /module/{name}/{version}/promotion/report</h2>
+                        </a>
+                        <div id="accordion10b" class="collapse">
+                            <ul>
+                                <li>
+                                    <h3>GET</h3>
+                                    <ul>
+                                        <li>Get the promotion report of a module: its corporate dependencies that are not promoted and the do-not-use artifacts it depends on</li>
+                                        <li>Returns HTML or JSON</li>
+                                        <li>Parameters:
+                                            <table class="table table-bordered table-hover" style="font-size:90%;margin-top:8px;">
+                                                <thead>
+                                                <tr>
+                                                    <td><strong>Parameter</strong></td>
+                                                    <td><strong>Default Value</strong></td>
+                                                    <td><strong>Description</strong></td>
+                                                </tr>
+                                                </thead>
+                                                <tbody>
+                                                <tr>
+                                                    <td>fullRecursive</td>
+                                                    <td>false</td>
+                                                    <td>Add the reports of the dependencies that are not promoted, till the end of the dependency graph</td>
+                                                </tr>
+                                                </tbody>
+                                            </table>
+                                        </li>
+                                    </ul>
+                                </li>
+                            </ul>
+                        </div>
+                    </section>
                     <section id="module-buildinfo">
                         <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion11">
                             <h2>@ /module/{name}/{version}/buildinfo</h2>
@@ -75,6 +75,7 @@
                         <li class=""><a data-toggle="collapse" data-target="#accordion4" href="#product-deliveries"><i class="icon-chevron-right"></i> Get the existing deliveries</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion4" href="#product-deliveries"><i class="icon-chevron-right"></i> Create a new delivery</a></li>
                         <li class=""><a data-toggle="collapse" data-target="#accordion5" href="#product-delivery"><i class="icon-chevron-right"></i> Get/update the modules of a delivery</a></li>
+                        <li class=""><a data-toggle="collapse" data-target="#accordion6" href="#product-delivery-promotion"><i class="icon-chevron-right"></i> Promote a delivery</a></li>
                     </ul>
                 </div>
                 <div class="span8">
@@ -220,6 +221,23 @@
                             </ul>
                         </div>
                     </section>
+                    <section id="product-delivery-promotion">
+                        <a class="page-header btn-link" data-toggle="collapse" data-target="#accordion6">
+                            <h2>@ /product/{name}/deliveries/{deliveryId}/promotion</h2>
+                        </a>
+                        <div id="accordion6" class="collapse">
+                            <ul>
+                                <li>
+                                    <h3>POST</h3>
+                                    <ul>
+                                        <li>Promote all the modules of a delivery and their artifacts</li>
+                                        <li>All the modules are checked before anything is promoted</li>
+                                        <li>Return status 200 if ok or 404 if the product/delivery/modules don't exist</li>
+                                    </ul>
+                                </li>
+                            </ul>
+                        </div>
+                    </section>
                 </div>
             </div>
         </div>
@@ -0,0 +1,34 @@
+package org.axway.grapes.server;
+
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.db.DBException;
+import org.axway.grapes.server.db.memory.InMemoryHandler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DbResolverTest {
+
+    @Test
+    public void resolveTheMemoryDbSystem() throws Exception {
+        assertTrue(DbResolver.getNewRepoHandler(getConfig("memory")) instanceof InMemoryHandler);
+    }
+
+    @Test(expected = DBException.class)
+    public void unknownDbSystem() throws Exception {
+        DbResolver.getNewRepoHandler(getConfig("unknown"));
+    }
+
+    private static GrapesServerConfig getConfig(final String dbSystem) {
+        final DataBaseConfig dataBaseConfig = mock(DataBaseConfig.class);
+        when(dataBaseConfig.getDbsystem()).thenReturn(dbSystem);
+        when(dataBaseConfig.getChangeLogSize()).thenReturn(100);
+
+        final GrapesServerConfig config = mock(GrapesServerConfig.class);
+        when(config.getDataBaseConfig()).thenReturn(dataBaseConfig);
+        return config;
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.Test;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -40,11 +41,13 @@ public class ArtifactHandlerTest {
         artifact.setVersion("1.0.0-SNAPSHOT");
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.storeIfNew(artifact)).thenReturn(true);
         final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
 
         handler.storeIfNew(artifact);
 
-        verify(repositoryHandler, times(1)).store(artifact);
+        verify(repositoryHandler, times(1)).storeIfNew(artifact);
+        verify(repositoryHandler, never()).store(artifact);
     }
 
     @Test
@@ -54,14 +57,37 @@ public class ArtifactHandlerTest {
         artifact.setVersion("1.0.0-SNAPSHOT");
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
-        when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
+        when(repositoryHandler.storeIfNew(artifact)).thenReturn(false);
         final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
 
         handler.storeIfNew(artifact);
 
+        verify(repositoryHandler, times(1)).storeIfNew(artifact);
         verify(repositoryHandler, never()).store(artifact);
     }
 
+    @Test
+    public void storeAllIfNewInsertsEachMissingArtifact(){
+        final DbArtifact artifact1 = new DbArtifact();
+        artifact1.setArtifactId("test1");
+        artifact1.setVersion("1.0.0");
+        final DbArtifact artifact2 = new DbArtifact();
+        artifact2.setArtifactId("test2");
+        artifact2.setVersion("1.0.0");
+
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.storeIfNew(artifact1)).thenReturn(true);
+        when(repositoryHandler.storeIfNew(artifact2)).thenReturn(false);
+        final ArtifactHandler handler = new ArtifactHandler(repositoryHandler);
+
+        handler.storeAllIfNew(Arrays.asList(artifact1, artifact2, artifact1));
+
+        verify(repositoryHandler, times(1)).storeIfNew(artifact1);
+        verify(repositoryHandler, times(1)).storeIfNew(artifact2);
+        verify(repositoryHandler, never()).storeArtifacts(anyCollection());
+        verify(repositoryHandler, never()).getArtifacts(anyCollection());
+    }
+
     @Test
     public void addAnExistingLicenseToAnArtifactThatDoesNotHoldAnyLicenseYet(){
         final DbLicense license = new DbLicense();
@@ -0,0 +1,87 @@
+package org.axway.grapes.server.core;
+
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.List;
+
+import static junit.framework.TestCase.*;
+import static org.mockito.Mockito.*;
+
+public class ChangeHandlerTest {
+
+    @Test
+    public void getChanges(){
+        final DbChangeEvent event = new DbChangeEvent(3, DbChangeEvent.EntityType.MODULE, "module:1.0.0", DbChangeEvent.Operation.STORE);
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repositoryHandler.getFirstChangeSequence()).thenReturn(1L);
+        when(repositoryHandler.getChangeEvents(2, 10)).thenReturn(Collections.singletonList(event));
+
+        final ChangeHandler handler = new ChangeHandler(repositoryHandler);
+        final List<DbChangeEvent> changes = handler.getChanges(2, 10);
+
+        assertEquals(1, changes.size());
+        assertEquals(event, changes.get(0));
+    }
+
+    @Test
+    public void theLimitIsBounded(){
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        final ChangeHandler handler = new ChangeHandler(repositoryHandler);
+
+        handler.getChanges(0, ChangeHandler.MAX_PAGE_SIZE * 10);
+        verify(repositoryHandler, times(1)).getChangeEvents(0, ChangeHandler.MAX_PAGE_SIZE);
+    }
+
+    @Test
+    public void getChangesWithWrongParameters(){
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        final ChangeHandler handler = new ChangeHandler(repositoryHandler);
+
+        WebApplicationException exception = null;
+        try {
+            handler.getChanges(-1, 10);
+        }
+        catch (WebApplicationException e){
+            exception = e;
+        }
+        assertNotNull(exception);
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), exception.getResponse().getStatus());
+
+        exception = null;
+        try {
+            handler.getChanges(0, 0);
+        }
+        catch (WebApplicationException e){
+            exception = e;
+        }
+        assertNotNull(exception);
+        assertEquals(Response.Status.BAD_REQUEST.getStatusCode(), exception.getResponse().getStatus());
+    }
+
+    @Test
+    public void getChangesThatAreNoLongerKept(){
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repositoryHandler.getFirstChangeSequence()).thenReturn(20L);
+        final ChangeHandler handler = new ChangeHandler(repositoryHandler);
+
+        // the change that follows 19 is still kept
+        handler.getChanges(19, 10);
+
+        WebApplicationException exception = null;
+        try {
+            handler.getChanges(18, 10);
+        }
+        catch (WebApplicationException e){
+            exception = e;
+        }
+        assertNotNull(exception);
+        assertEquals(Response.Status.GONE.getStatusCode(), exception.getResponse().getStatus());
+        verify(repositoryHandler, never()).getChangeEvents(18, 10);
+    }
+}
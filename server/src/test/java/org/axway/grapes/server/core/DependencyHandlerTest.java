@@ -11,10 +11,14 @@ import org.junit.Test;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotNull;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
 public class DependencyHandlerTest {
@@ -87,10 +91,7 @@ public class DependencyHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
-        when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
-        when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
-        when(repositoryHandler.getArtifact(dependency3.getGavc())).thenReturn(dependency3);
-        when(repositoryHandler.getArtifact(dependency4.getGavc())).thenReturn(dependency4);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3, dependency4));
 
         final FiltersHolder filters = new FiltersHolder();
         filters.getScopeHandler().setScopeComp(true);
@@ -105,10 +106,8 @@ public class DependencyHandlerTest {
 
         assertNotNull(dependencies);
         assertEquals(4, dependencies.size());
-        verify(repositoryHandler, times(1)).getArtifact(dependency1.getGavc());
-        verify(repositoryHandler, times(1)).getArtifact(dependency2.getGavc());
-        verify(repositoryHandler, times(1)).getArtifact(dependency3.getGavc());
-        verify(repositoryHandler, times(1)).getArtifact(dependency4.getGavc());
+        verify(repositoryHandler, times(1)).getArtifacts(anyCollectionOf(String.class));
+        verify(repositoryHandler, never()).getArtifact(anyString());
     }
 
     @Test
@@ -148,10 +147,7 @@ public class DependencyHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
-        when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
-        when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
-        when(repositoryHandler.getArtifact(dependency3.getGavc())).thenReturn(dependency3);
-        when(repositoryHandler.getArtifact(dependency4.getGavc())).thenReturn(dependency4);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3, dependency4));
 
         final FiltersHolder filters = new FiltersHolder();
         filters.getScopeHandler().setScopeComp(true);
@@ -204,11 +200,11 @@ public class DependencyHandlerTest {
         when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
         when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
         when(repositoryHandler.getModule(module3.getId())).thenReturn(module3);
-        when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
-        when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
-        when(repositoryHandler.getArtifact(dependency3.getGavc())).thenReturn(dependency3);
-        when(repositoryHandler.getRootModuleOf(dependency1.getGavc())).thenReturn(module2);
-        when(repositoryHandler.getRootModuleOf(dependency2.getGavc())).thenReturn(module3);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3));
+        final Map<String, DbModule> rootModules = new HashMap<String, DbModule>();
+        rootModules.put(dependency1.getGavc(), module2);
+        rootModules.put(dependency2.getGavc(), module3);
+        when(repositoryHandler.getRootModulesOf(anyCollectionOf(String.class))).thenReturn(rootModules);
 
 
         final FiltersHolder filters = new FiltersHolder();
@@ -269,11 +265,11 @@ public class DependencyHandlerTest {
         when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
         when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
         when(repositoryHandler.getModule(module3.getId())).thenReturn(module3);
-        when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
-        when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
-        when(repositoryHandler.getArtifact(dependency3.getGavc())).thenReturn(dependency3);
-        when(repositoryHandler.getRootModuleOf(dependency1.getGavc())).thenReturn(module2);
-        when(repositoryHandler.getRootModuleOf(dependency2.getGavc())).thenReturn(module3);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3));
+        final Map<String, DbModule> rootModules = new HashMap<String, DbModule>();
+        rootModules.put(dependency1.getGavc(), module2);
+        rootModules.put(dependency2.getGavc(), module3);
+        when(repositoryHandler.getRootModulesOf(anyCollectionOf(String.class))).thenReturn(rootModules);
 
 
         final FiltersHolder filters = new FiltersHolder();
@@ -330,12 +326,12 @@ public class DependencyHandlerTest {
         when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
         when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
         when(repositoryHandler.getModule(module3.getId())).thenReturn(module3);
-        when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
-        when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
-        when(repositoryHandler.getArtifact(dependency3.getGavc())).thenReturn(dependency3);
-        when(repositoryHandler.getRootModuleOf(dependency1.getGavc())).thenReturn(module2);
-        when(repositoryHandler.getRootModuleOf(dependency2.getGavc())).thenReturn(module3);
-        when(repositoryHandler.getRootModuleOf(dependency3.getGavc())).thenReturn(module1);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3));
+        final Map<String, DbModule> rootModules = new HashMap<String, DbModule>();
+        rootModules.put(dependency1.getGavc(), module2);
+        rootModules.put(dependency2.getGavc(), module3);
+        rootModules.put(dependency3.getGavc(), module1);
+        when(repositoryHandler.getRootModulesOf(anyCollectionOf(String.class))).thenReturn(rootModules);
 
 
         final FiltersHolder filters = new FiltersHolder();
@@ -384,10 +380,7 @@ public class DependencyHandlerTest {
 
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
         when(repositoryHandler.getModule(module.getId())).thenReturn(module);
-        when(repositoryHandler.getArtifact(dependency1.getGavc())).thenReturn(dependency1);
-        when(repositoryHandler.getArtifact(dependency2.getGavc())).thenReturn(dependency2);
-        when(repositoryHandler.getArtifact(dependency3.getGavc())).thenReturn(dependency3);
-        when(repositoryHandler.getArtifact(dependency4.getGavc())).thenReturn(dependency4);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3, dependency4));
 
         final FiltersHolder filters = new FiltersHolder();
         filters.getScopeHandler().setScopeComp(true);
@@ -434,4 +427,69 @@ public class DependencyHandlerTest {
         assertEquals(dependency4.getGavc(), dependencies.get(0).getTarget().getGavc());
     }
 
+    @Test
+    public void getModuleDependenciesResolvesEachLevelInOneLookup(){
+        final DbModule module1 = new DbModule();
+        module1.setName("module1");
+        module1.setVersion("1.0.0");
+
+        final DbModule module2 = new DbModule();
+        module2.setName("module2");
+        module2.setVersion("1.0.0");
+
+        final DbArtifact dependency1 = new DbArtifact();
+        dependency1.setGroupId("org.axway.grapes.test.module2");
+        dependency1.setArtifactId("dependency1");
+        dependency1.setVersion("1.0.0");
+        module1.addDependency(dependency1.getGavc(), Scope.COMPILE);
+
+        final DbArtifact dependency2 = new DbArtifact();
+        dependency2.setGroupId("org.axway.grapes.test.module2");
+        dependency2.setArtifactId("dependency2");
+        dependency2.setVersion("1.0.0");
+        module1.addDependency(dependency2.getGavc(), Scope.COMPILE);
+
+        final DbArtifact dependency3 = new DbArtifact();
+        dependency3.setGroupId("org.axway.grapes.test");
+        dependency3.setArtifactId("dependency3");
+        dependency3.setVersion("1.0.0");
+        module2.addDependency(dependency3.getGavc(), Scope.COMPILE);
+
+        final DbArtifact dependency4 = new DbArtifact();
+        dependency4.setGroupId("org.axway.grapes.test");
+        dependency4.setArtifactId("dependency4");
+        dependency4.setVersion("1.0.0");
+        module2.addDependency(dependency4.getGavc(), Scope.COMPILE);
+
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(indexByGavc(dependency1, dependency2, dependency3, dependency4));
+        final Map<String, DbModule> rootModules = new HashMap<String, DbModule>();
+        rootModules.put(dependency1.getGavc(), module2);
+        rootModules.put(dependency2.getGavc(), module2);
+        when(repositoryHandler.getRootModulesOf(anyCollectionOf(String.class))).thenReturn(rootModules);
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.getScopeHandler().setScopeComp(true);
+        filters.getDecorator().setShowThirdparty(true);
+        filters.getDepthHandler().setFullRecursive(true);
+
+        final DependencyHandler dependencyHandler = new DependencyHandler(repositoryHandler);
+        final List<Dependency> dependencies = dependencyHandler.getModuleDependencies(module1.getId(), filters);
+
+        assertEquals(4, dependencies.size());
+        verify(repositoryHandler, times(2)).getArtifacts(anyCollectionOf(String.class));
+        verify(repositoryHandler, times(2)).getRootModulesOf(anyCollectionOf(String.class));
+        verify(repositoryHandler, never()).getArtifact(anyString());
+        verify(repositoryHandler, never()).getRootModuleOf(anyString());
+    }
+
+    private static Map<String, DbArtifact> indexByGavc(final DbArtifact... artifacts){
+        final Map<String, DbArtifact> index = new HashMap<String, DbArtifact>();
+        for(DbArtifact artifact: artifacts){
+            index.put(artifact.getGavc(), artifact);
+        }
+        return index;
+    }
+
 }
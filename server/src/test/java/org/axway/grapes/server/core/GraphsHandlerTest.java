@@ -3,6 +3,7 @@ package org.axway.grapes.server.core;
 
 import org.axway.grapes.commons.datamodel.Scope;
 import org.axway.grapes.server.core.graphs.AbstractGraph;
+import org.axway.grapes.server.core.graphs.DependencyGraphIndex;
 import org.axway.grapes.server.core.graphs.GraphDependency;
 import org.axway.grapes.server.core.graphs.GraphElement;
 import org.axway.grapes.server.core.graphs.TreeNode;
@@ -188,5 +189,35 @@ public class GraphsHandlerTest {
 
     }
 
-
+    @Test
+    public void indexedGraphsAreTheSameAsTheDatabaseOnes(){
+        final DependencyCase[] testCases = {
+                new TC03_ModuleWithOneSubmoduleAndDependencyOfEachType(),
+                new TC06_ModuleWithOneArtifactWithTransitiveDependencies(),
+                new TC07_ModuleWithOneArtifactWithLoopDependencies()
+        };
+        final String[] moduleIds = {
+                DbModule.generateID(TC03_ModuleWithOneSubmoduleAndDependencyOfEachType.MODULE_NAME, TC03_ModuleWithOneSubmoduleAndDependencyOfEachType.MODULE_VERSION),
+                DbModule.generateID(TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_NAME, TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_VERSION),
+                DbModule.generateID(TC07_ModuleWithOneArtifactWithLoopDependencies.MODULE_NAME, TC07_ModuleWithOneArtifactWithLoopDependencies.MODULE_VERSION)
+        };
+
+        for(int i = 0; i < testCases.length; i++){
+            repoHandler = new TestingRepositoryHandler();
+            repoHandler.loadTestCase(testCases[i]);
+
+            final DependencyGraphIndex graphIndex = new DependencyGraphIndex();
+            graphIndex.load(repoHandler);
+
+            final AbstractGraph expected = new GraphsHandler(repoHandler, filters).getModuleGraph(moduleIds[i]);
+            final AbstractGraph graph = new GraphsHandler(repoHandler, filters, graphIndex).getModuleGraph(moduleIds[i]);
+
+            assertEquals(expected.getElements().size(), graph.getElements().size());
+            assertEquals(expected.getDependencies().size(), graph.getDependencies().size());
+            for(int j = 0; j < expected.getElements().size(); j++){
+                assertEquals(expected.getElements().get(j).getValue(), graph.getElements().get(j).getValue());
+                assertEquals(expected.getElements().get(j).getVersion(), graph.getElements().get(j).getVersion());
+            }
+        }
+    }
 }
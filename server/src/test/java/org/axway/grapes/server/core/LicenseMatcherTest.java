@@ -0,0 +1,110 @@
+package org.axway.grapes.server.core;
+
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.*;
+
+public class LicenseMatcherTest {
+
+    private static DbLicense createLicense(final String name, final String regexp) {
+        final DbLicense license = new DbLicense();
+        license.setName(name);
+        license.setRegexp(regexp);
+        return license;
+    }
+
+    @Test
+    public void resolveTheLicenseOfTheMatchingRegexp(){
+        final DbLicense apache = createLicense("Apache-2.0", "(?i)apache.*(2|2\\.0)");
+        final DbLicense gpl = createLicense("GPL", "((L)?GPL)-(\\d)");
+        final DbLicense mit = createLicense("MIT", "MIT.*");
+        final DbLicense bsd = createLicense("BSD", null);
+
+        final List<DbLicense> licenses = new ArrayList<DbLicense>();
+        licenses.add(apache);
+        licenses.add(gpl);
+        licenses.add(mit);
+        licenses.add(bsd);
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(licenses);
+        final LicenseMatcher matcher = new LicenseMatcher(repoHandler);
+
+        assertEquals(apache, matcher.resolve("apache License, Version 2.0"));
+        assertEquals(gpl, matcher.resolve("LGPL-3"));
+        assertEquals(mit, matcher.resolve("MIT License"));
+        assertEquals(bsd, matcher.resolve("BSD"));
+        assertNull(matcher.resolve("BSD-3"));
+        assertNull(matcher.resolve("EPL"));
+        assertEquals(4, matcher.getLicenses().size());
+    }
+
+    @Test
+    public void regexpsWithBackReferencesAreStillResolved(){
+        final DbLicense license = createLicense("Twice", "(ab)-\\1");
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
+        final LicenseMatcher matcher = new LicenseMatcher(repoHandler);
+
+        assertEquals(license, matcher.resolve("ab-ab"));
+        assertNull(matcher.resolve("ab-cd"));
+    }
+
+    @Test
+    public void invalidRegexpsAreSkipped(){
+        final DbLicense broken = createLicense("Broken", "(GPL");
+        final DbLicense mit = createLicense("MIT", "MIT.*");
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(Arrays.asList(broken, mit));
+        final LicenseMatcher matcher = new LicenseMatcher(repoHandler);
+
+        assertEquals(mit, matcher.resolve("MIT License"));
+        assertNull(matcher.resolve("(GPL"));
+    }
+
+    @Test
+    public void regexpsWithNamedGroupsAreStillResolved(){
+        final DbLicense apache = createLicense("Apache-2.0", "Apache-(?<version>\\d)");
+        final DbLicense gpl = createLicense("GPL", "GPL-(?<version>\\d)");
+        final DbLicense mit = createLicense("MIT", "MIT.*");
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(Arrays.asList(apache, gpl, mit));
+        final LicenseMatcher matcher = new LicenseMatcher(repoHandler);
+
+        assertEquals(apache, matcher.resolve("Apache-2"));
+        assertEquals(gpl, matcher.resolve("GPL-3"));
+        assertEquals(mit, matcher.resolve("MIT License"));
+    }
+
+    @Test
+    public void licensesAreLoadedOnceUntilInvalidation(){
+        final DbLicense license = createLicense("Test", null);
+        final DbLicense newLicense = createLicense("New", null);
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
+        final LicenseMatcher matcher = new LicenseMatcher(repoHandler);
+
+        assertEquals(license, matcher.resolve("Test"));
+        assertNull(matcher.resolve("New"));
+        verify(repoHandler, times(1)).getAllLicenses();
+
+        when(repoHandler.getAllLicenses()).thenReturn(Collections.singletonList(newLicense));
+        matcher.invalidate();
+
+        assertEquals(newLicense, matcher.resolve("New"));
+        verify(repoHandler, times(2)).getAllLicenses();
+    }
+}
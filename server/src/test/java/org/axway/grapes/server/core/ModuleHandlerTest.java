@@ -1,7 +1,9 @@
 package org.axway.grapes.server.core;
 
 
+import com.google.common.collect.Lists;
 import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.core.graphs.DependencyGraphIndex;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
@@ -31,6 +33,26 @@ public class ModuleHandlerTest {
         verify(repositoryHandler, times(1)).store(module);
     }
 
+    @Test
+    public void storedAndDeletedModulesUpdateTheGraphIndex(){
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        final DependencyGraphIndex graphIndex = new DependencyGraphIndex();
+        graphIndex.load(repositoryHandler);
+        final ModuleHandler handler = new ModuleHandler(repositoryHandler, graphIndex);
+
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+        module.addDependency("org.axway.grapes.test:dependency:1.0.0::jar", Scope.COMPILE);
+        when(repositoryHandler.getModule(module.getId())).thenReturn(module);
+
+        handler.store(module);
+        assertEquals(1, graphIndex.getConsumingModules("org.axway.grapes.test:dependency:1.0.0::jar").size());
+
+        handler.deleteModule(module.getId());
+        assertEquals(0, graphIndex.getConsumingModules("org.axway.grapes.test:dependency:1.0.0::jar").size());
+    }
+
     @Test
     public void checkGetAllModuleNames(){
         final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
@@ -202,7 +224,59 @@ public class ModuleHandlerTest {
         final ModuleHandler handler = new ModuleHandler(repositoryHandler);
         handler.promoteModule(module.getId());
 
+        verify(repositoryHandler, times(1)).promoteArtifacts(Collections.singletonList(artifact1.getGavc()));
         verify(repositoryHandler, times(1)).promoteModule(module);
+        verify(repositoryHandler, never()).store(artifact1);
+    }
+
+    @Test
+    public void promoteModules(){
+        final DbModule module1 = new DbModule();
+        module1.setName("module1");
+        module1.setVersion("1.0.0");
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setArtifactId("artifact1");
+        artifact.setVersion("1.0.0");
+        module1.addArtifact(artifact);
+
+        final DbModule module2 = new DbModule();
+        module2.setName("module2");
+        module2.setVersion("1.0.0");
+
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.getModule(module1.getId())).thenReturn(module1);
+        when(repositoryHandler.getModule(module2.getId())).thenReturn(module2);
+
+        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+        final List<String> moduleIds = Lists.newArrayList(module1.getId(), module2.getId());
+        handler.promoteModules(moduleIds);
+
+        verify(repositoryHandler, times(1)).promoteArtifacts(Collections.singleton(artifact.getGavc()));
+        verify(repositoryHandler, times(1)).promoteModules(moduleIds);
+    }
+
+    @Test
+    public void promoteModulesWithAModuleThatDoesNotExist(){
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+
+        final RepositoryHandler repositoryHandler = mock(RepositoryHandler.class);
+        when(repositoryHandler.getModule(module.getId())).thenReturn(module);
+        final ModuleHandler handler = new ModuleHandler(repositoryHandler);
+
+        WebApplicationException exception = null;
+        try{
+            handler.promoteModules(Lists.newArrayList(module.getId(), "doesNotExist"));
+        }
+        catch (WebApplicationException e){
+            exception = e;
+        }
+
+        assertNotNull(exception);
+        assertEquals(javax.ws.rs.core.Response.Status.NOT_FOUND.getStatusCode(), exception.getResponse().getStatus());
+        verify(repositoryHandler, never()).promoteArtifacts(anyCollection());
+        verify(repositoryHandler, never()).promoteModules(anyCollection());
     }
 
 
@@ -4,16 +4,24 @@ import org.axway.grapes.server.core.version.IncomparableException;
 import org.axway.grapes.server.core.version.NotHandledVersionException;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
 import org.junit.Test;
 
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static com.mongodb.util.MyAsserts.*;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class VersionsHandlerTest {
@@ -115,9 +123,62 @@ public class VersionsHandlerTest {
         assertTrue(versionsHandler.isUpToDate(artifact));
     }
 
+    @Test
+    public void isUpToDateReadsTheLatestVersions() {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("com.axway.tests");
+        artifact.setArtifactId("artifact");
+
+        final DbLatestVersion latestVersion = new DbLatestVersion();
+        latestVersion.setId(DbLatestVersion.generateID(artifact));
+        latestVersion.setVersions(Arrays.asList("2.0.0-SNAPSHOT", "2.1.0-1", "4.0.0-SNAPSHOT"));
+        latestVersion.setLastRelease("2.1.0-1");
+        latestVersion.setLastVersion("4.0.0-SNAPSHOT");
+        when(repositoryHandler.getLatestVersions(anyCollectionOf(String.class)))
+                .thenReturn(Collections.singletonMap(latestVersion.getId(), latestVersion));
+
+        artifact.setVersion("2.0.0-SNAPSHOT");
+        assertFalse(versionsHandler.isUpToDate(artifact));
+
+        artifact.setVersion("2.1.0-1");
+        assertTrue(versionsHandler.isUpToDate(artifact));
+
+        artifact.setVersion("4.0.0-SNAPSHOT");
+        assertTrue(versionsHandler.isUpToDate(artifact));
+        verify(repositoryHandler, never()).getArtifactVersions((DbArtifact) anyObject());
+    }
+
     @Test
     public void lastVersionDoesNotExist() throws UnknownHostException, IncomparableException, NotHandledVersionException {
         String lastVersion = versionsHandler.getLastVersion(new ArrayList<String>());
         assertNull(lastVersion);
     }
+
+    @Test
+    public void getTheLatestVersionsInASingleLookup() {
+        final DbArtifact indexed = new DbArtifact();
+        indexed.setGroupId("com.axway.tests");
+        indexed.setArtifactId("indexed");
+        indexed.setVersion("1.0.0-1");
+
+        final DbArtifact missing = new DbArtifact();
+        missing.setGroupId("com.axway.tests");
+        missing.setArtifactId("missing");
+        missing.setVersion("1.0.0-1");
+
+        final DbLatestVersion latestVersion = new DbLatestVersion();
+        latestVersion.setId(DbLatestVersion.generateID(indexed));
+        latestVersion.setLastRelease("3.0.0-1");
+
+        when(repositoryHandler.getLatestVersions(anyCollectionOf(String.class)))
+                .thenReturn(Collections.singletonMap(latestVersion.getId(), latestVersion));
+        when(repositoryHandler.getArtifactVersions(missing)).thenReturn(Arrays.asList("1.0.0-1", "1.1.0-2", "2.0.0-SNAPSHOT"));
+
+        final Map<String, DbLatestVersion> latestVersions = versionsHandler.getLatestVersions(Arrays.asList(indexed, missing));
+        assertEquals(2, latestVersions.size());
+        assertEquals("3.0.0-1", latestVersions.get(DbLatestVersion.generateID(indexed)).getLastRelease());
+        assertEquals("1.1.0-2", latestVersions.get(DbLatestVersion.generateID(missing)).getLastRelease());
+        assertEquals("2.0.0-SNAPSHOT", latestVersions.get(DbLatestVersion.generateID(missing)).getLastVersion());
+        verify(repositoryHandler, times(1)).getLatestVersions(anyCollectionOf(String.class));
+    }
 }
@@ -0,0 +1,33 @@
+package org.axway.grapes.server.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.yammer.metrics.Metrics;
+import com.yammer.metrics.core.Gauge;
+import com.yammer.metrics.core.MetricName;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CacheMetricsTest {
+
+    @Test
+    public void theGaugesReportOnTheLastRegisteredCache(){
+        final Cache<String, String> first = CacheBuilder.newBuilder().recordStats().build();
+        first.put("key1", "value1");
+        first.put("key2", "value2");
+        CacheMetrics.register(CacheMetricsTest.class, "test", first);
+
+        final Cache<String, String> second = CacheBuilder.newBuilder().recordStats().build();
+        second.put("key1", "value1");
+        second.getIfPresent("key1");
+        CacheMetrics.register(CacheMetricsTest.class, "test", second);
+
+        assertEquals(1L, getGauge("test-size").value());
+        assertEquals(1L, getGauge("test-hits").value());
+    }
+
+    private static Gauge<?> getGauge(final String name) {
+        return (Gauge<?>) Metrics.defaultRegistry().allMetrics().get(new MetricName(CacheMetricsTest.class, name));
+    }
+}
@@ -0,0 +1,156 @@
+package org.axway.grapes.server.core.cache;
+
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.ReadStamps;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ReportCacheTest {
+
+    @Test
+    public void reportsAreBuiltOnce(){
+        final ReportCache cache = new ReportCache();
+        final CountingBuilder builder = new CountingBuilder(getModule("module", "artifact1"));
+
+        final ReportCache.CachedReport<String> first = cache.get("report", builder);
+        final ReportCache.CachedReport<String> second = cache.get("report", builder);
+
+        assertEquals(1, builder.builds.get());
+        assertSame(first.getReport(), second.getReport());
+        assertEquals(1, cache.getStats().hitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void writtenDocumentsInvalidateTheReportsBuiltFromThem(){
+        final ReportCache cache = new ReportCache();
+        final DbModule module1 = getModule("module1", "artifact1");
+        final DbModule module2 = getModule("module2", "artifact2");
+        final CountingBuilder builder1 = new CountingBuilder(module1);
+        final CountingBuilder builder2 = new CountingBuilder(module2);
+        cache.get("report1", builder1);
+        cache.get("report2", builder2);
+
+        final DbArtifact artifact = getArtifact("artifact3");
+        builder1.module.addArtifact(artifact);
+        cache.invalidate(builder1.module);
+        cache.get("report1", builder1);
+        cache.get("report2", builder2);
+        assertEquals(2, builder1.builds.get());
+        assertEquals(1, builder2.builds.get());
+
+        cache.invalidate(artifact);
+        cache.get("report1", builder1);
+        cache.get("report2", builder2);
+        assertEquals(3, builder1.builds.get());
+        assertEquals(1, builder2.builds.get());
+
+        cache.invalidateAll();
+        cache.get("report2", builder2);
+        assertEquals(2, builder2.builds.get());
+    }
+
+    @Test
+    public void reportsBuiltDuringAWriteAreNotCached(){
+        final ReportCache cache = new ReportCache();
+        final DbModule module = getModule("module", "artifact1");
+
+        final ReportCache.ReportBuilder<String> builder = new ReportCache.ReportBuilder<String>() {
+            @Override
+            public String build(final ReadStamps stamps) {
+                stamps.add(module);
+                cache.invalidate(Collections.singleton(ReadStamps.moduleKey("other")));
+                return "report";
+            }
+        };
+
+        assertEquals("report", cache.get("report", builder).getReport());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void reportsAreWeightedByTheirDocuments(){
+        final ReportCache cache = new ReportCache("maximumWeight=10, concurrencyLevel=1");
+
+        // a module and an artifact: each report weighs 3
+        for(int i = 0; i < 3; i++){
+            cache.get("small" + i, new CountingBuilder(getModule("module" + i, "artifact" + i)));
+        }
+        assertEquals(3, cache.size());
+
+        final CountingBuilder bigBuilder = new CountingBuilder(getModule("big", "artifact1"));
+        for(int i = 2; i < 6; i++){
+            bigBuilder.module.addArtifact(getArtifact("artifact" + i));
+        }
+        cache.get("big", bigBuilder);
+
+        // the two oldest reports leave room for the big one
+        assertEquals(2, cache.size());
+        cache.get("big", bigBuilder);
+        assertEquals(1, bigBuilder.builds.get());
+    }
+
+    @Test
+    public void noReportCacheBuildsTheReportsEachTime(){
+        final CountingBuilder builder = new CountingBuilder(getModule("module", "artifact1"));
+
+        ReportCache.NONE.get("report", builder);
+        ReportCache.NONE.get("report", builder);
+
+        assertEquals(2, builder.builds.get());
+        assertEquals(0, ReportCache.NONE.size());
+    }
+
+    @Test
+    public void cacheKeysDependOnTheFilters(){
+        final FiltersHolder filters = new FiltersHolder();
+        final FiltersHolder sameFilters = new FiltersHolder();
+        final FiltersHolder otherFilters = new FiltersHolder();
+        otherFilters.getDepthHandler().setFullRecursive(true);
+
+        assertEquals(ReportCache.getKey("report", "module", filters), ReportCache.getKey("report", "module", sameFilters));
+        assertNotEquals(ReportCache.getKey("report", "module", filters), ReportCache.getKey("report", "module", otherFilters));
+        assertNotEquals(ReportCache.getKey("report", "module", filters), ReportCache.getKey("other", "module", filters));
+    }
+
+    private DbModule getModule(final String name, final String artifactId) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.addArtifact(getArtifact(artifactId));
+        return module;
+    }
+
+    private DbArtifact getArtifact(final String artifactId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        return artifact;
+    }
+
+    private static class CountingBuilder implements ReportCache.ReportBuilder<String> {
+        private final DbModule module;
+        private final AtomicInteger builds = new AtomicInteger();
+
+        private CountingBuilder(final DbModule module) {
+            this.module = module;
+        }
+
+        @Override
+        public String build(final ReadStamps stamps) {
+            builds.incrementAndGet();
+            stamps.add(module);
+            for(String gavc: module.getArtifacts()){
+                stamps.add(ReadStamps.artifactKey(gavc), null);
+            }
+            return "report of " + module.getId() + " " + builds.get();
+        }
+    }
+}
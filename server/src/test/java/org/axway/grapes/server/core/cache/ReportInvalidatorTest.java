@@ -0,0 +1,103 @@
+package org.axway.grapes.server.core.cache;
+
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.db.ReadStamps;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+public class ReportInvalidatorTest {
+
+    @Test
+    public void aModuleStoredByAnotherServerInvalidatesTheReportsOnTheArtifactsItUses(){
+        final ReportCache cache = new ReportCache();
+        final CountingBuilder ancestors = new CountingBuilder(ReadStamps.usesKey("groupId:artifact:1.0.0::jar"));
+        final CountingBuilder other = new CountingBuilder(ReadStamps.usesKey("groupId:other:1.0.0::jar"));
+        cache.get("ancestors", ancestors);
+        cache.get("other", other);
+
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+        module.addDependency("groupId:artifact:1.0.0::jar", Scope.COMPILE);
+
+        final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repoHandler.getModule(module.getId())).thenReturn(module);
+
+        new ReportInvalidator(cache, repoHandler).onChange(
+                new DbChangeEvent(1, DbChangeEvent.EntityType.MODULE, module.getId(), DbChangeEvent.Operation.STORE));
+
+        cache.get("ancestors", ancestors);
+        cache.get("other", other);
+        assertEquals(2, ancestors.builds.get());
+        assertEquals(1, other.builds.get());
+    }
+
+    @Test
+    public void aDeletedModuleInvalidatesTheReportsBuiltFromIt(){
+        final ReportCache cache = new ReportCache();
+        final CountingBuilder builder = new CountingBuilder(ReadStamps.moduleKey("module:1.0.0"));
+        cache.get("report", builder);
+
+        new ReportInvalidator(cache, GrapesTestUtils.getRepoHandlerMock()).onChange(
+                new DbChangeEvent(1, DbChangeEvent.EntityType.MODULE, "module:1.0.0", DbChangeEvent.Operation.DELETE));
+
+        cache.get("report", builder);
+        assertEquals(2, builder.builds.get());
+    }
+
+    @Test
+    public void artifactAndLicenseChangesInvalidateTheReportsBuiltFromThem(){
+        final ReportCache cache = new ReportCache();
+        final CountingBuilder artifactBuilder = new CountingBuilder(ReadStamps.artifactKey("groupId:artifact:1.0.0::jar"));
+        final CountingBuilder licenseBuilder = new CountingBuilder(ReadStamps.licensesKey());
+        cache.get("artifact", artifactBuilder);
+        cache.get("license", licenseBuilder);
+
+        final ReportInvalidator invalidator = new ReportInvalidator(cache, GrapesTestUtils.getRepoHandlerMock());
+        invalidator.onChange(new DbChangeEvent(1, DbChangeEvent.EntityType.ARTIFACT, "groupId:artifact:1.0.0::jar", DbChangeEvent.Operation.UPDATE));
+        cache.get("artifact", artifactBuilder);
+        cache.get("license", licenseBuilder);
+        assertEquals(2, artifactBuilder.builds.get());
+        assertEquals(1, licenseBuilder.builds.get());
+
+        invalidator.onChange(new DbChangeEvent(2, DbChangeEvent.EntityType.LICENSE, "GPL", DbChangeEvent.Operation.STORE));
+        cache.get("artifact", artifactBuilder);
+        cache.get("license", licenseBuilder);
+        assertEquals(2, artifactBuilder.builds.get());
+        assertEquals(2, licenseBuilder.builds.get());
+    }
+
+    @Test
+    public void allTheReportsAreInvalidatedWhenChangesHaveBeenDropped(){
+        final ReportCache cache = new ReportCache();
+        cache.get("report", new CountingBuilder(ReadStamps.moduleKey("module:1.0.0")));
+        assertEquals(1, cache.size());
+
+        new ReportInvalidator(cache, GrapesTestUtils.getRepoHandlerMock()).onChangesLost();
+        assertEquals(0, cache.size());
+    }
+
+    private static class CountingBuilder implements ReportCache.ReportBuilder<String> {
+        private final String documentKey;
+        private final AtomicInteger builds = new AtomicInteger();
+
+        private CountingBuilder(final String documentKey) {
+            this.documentKey = documentKey;
+        }
+
+        @Override
+        public String build(final ReadStamps stamps) {
+            builds.incrementAndGet();
+            stamps.add(documentKey, null);
+            return "report " + builds.get();
+        }
+    }
+}
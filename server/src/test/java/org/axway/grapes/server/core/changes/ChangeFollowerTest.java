@@ -0,0 +1,105 @@
+package org.axway.grapes.server.core.changes;
+
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.core.ChangeHandler;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+public class ChangeFollowerTest {
+
+    private static DbChangeEvent createEvent(final long sequence) {
+        return new DbChangeEvent(sequence, DbChangeEvent.EntityType.MODULE, "module:" + sequence, DbChangeEvent.Operation.STORE);
+    }
+
+    @Test
+    public void theChangesThatFollowTheCursorAreHandedOver(){
+        final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repoHandler.getLastChangeSequence()).thenReturn(5L);
+        when(repoHandler.getChangeEvents(5, ChangeHandler.MAX_PAGE_SIZE)).thenReturn(Arrays.asList(createEvent(6), createEvent(7)));
+        when(repoHandler.getChangeEvents(7, ChangeHandler.MAX_PAGE_SIZE)).thenReturn(Collections.<DbChangeEvent>emptyList());
+
+        final ChangeListener listener = mock(ChangeListener.class);
+        final ChangeFollower follower = new ChangeFollower(repoHandler, 1000);
+        follower.addListener(listener);
+        follower.init();
+
+        assertEquals(2, follower.poll());
+        assertEquals(7, follower.getCursor());
+        verify(listener, times(2)).onChange(any(DbChangeEvent.class));
+
+        assertEquals(0, follower.poll());
+        verify(listener, never()).onChangesLost();
+    }
+
+    @Test
+    public void fullPagesAreReadUntilTheEnd(){
+        final List<DbChangeEvent> page = new ArrayList<DbChangeEvent>();
+        for(int i = 1; i <= ChangeHandler.MAX_PAGE_SIZE; i++){
+            page.add(createEvent(i));
+        }
+
+        final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repoHandler.getChangeEvents(0, ChangeHandler.MAX_PAGE_SIZE)).thenReturn(page);
+        when(repoHandler.getChangeEvents(ChangeHandler.MAX_PAGE_SIZE, ChangeHandler.MAX_PAGE_SIZE))
+                .thenReturn(Collections.singletonList(createEvent(ChangeHandler.MAX_PAGE_SIZE + 1)));
+
+        final ChangeFollower follower = new ChangeFollower(repoHandler, 1000);
+        follower.init();
+
+        assertEquals(ChangeHandler.MAX_PAGE_SIZE + 1, follower.poll());
+        assertEquals(ChangeHandler.MAX_PAGE_SIZE + 1, follower.getCursor());
+    }
+
+    @Test
+    public void theListenersReloadWhenChangesHaveBeenDropped(){
+        final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repoHandler.getLastChangeSequence()).thenReturn(5L);
+
+        final ChangeListener listener = mock(ChangeListener.class);
+        final ChangeFollower follower = new ChangeFollower(repoHandler, 1000);
+        follower.addListener(listener);
+        follower.init();
+
+        // the capped change log has wrapped while the server was not reading it
+        when(repoHandler.getFirstChangeSequence()).thenReturn(20L);
+        when(repoHandler.getLastChangeSequence()).thenReturn(30L);
+
+        assertEquals(0, follower.poll());
+        assertEquals(30, follower.getCursor());
+        verify(listener).onChangesLost();
+        verify(listener, never()).onChange(any(DbChangeEvent.class));
+    }
+
+    @Test
+    public void aChangeThatFailsIsHandedOverAgain(){
+        final RepositoryHandler repoHandler = GrapesTestUtils.getRepoHandlerMock();
+        when(repoHandler.getChangeEvents(0, ChangeHandler.MAX_PAGE_SIZE)).thenReturn(Collections.singletonList(createEvent(1)));
+
+        final ChangeListener listener = mock(ChangeListener.class);
+        doThrow(new RuntimeException("database down")).doNothing().when(listener).onChange(any(DbChangeEvent.class));
+
+        final ChangeFollower follower = new ChangeFollower(repoHandler, 1000);
+        follower.addListener(listener);
+        follower.init();
+
+        try {
+            follower.poll();
+            fail("The failure of the listener should be reported");
+        } catch (RuntimeException e) {
+            assertEquals(0, follower.getCursor());
+        }
+
+        assertEquals(1, follower.poll());
+        assertEquals(1, follower.getCursor());
+    }
+}
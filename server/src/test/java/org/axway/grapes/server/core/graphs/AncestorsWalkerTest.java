@@ -0,0 +1,110 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AncestorsWalkerTest {
+
+    private TestingRepositoryHandler repoHandler;
+    private DbModule application;
+    private DbModule library;
+
+    private static DbArtifact createArtifact(final String artifactId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.axway.grapes.test");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        return artifact;
+    }
+
+    private static DbModule createModule(final String name, final DbArtifact... artifacts) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.addArtifacts(Arrays.asList(artifacts));
+        return module;
+    }
+
+    private static Map<String, Integer> walk(final AncestorsWalker walker, final String gavc, final int maxDepth) throws IOException {
+        final Map<String, Integer> ancestors = new LinkedHashMap<String, Integer>();
+        walker.walk(Collections.singleton(gavc), maxDepth, new AncestorsWalker.Visitor() {
+            @Override
+            public void visit(final String moduleId, final int depth) {
+                ancestors.put(moduleId, depth);
+            }
+        });
+        return ancestors;
+    }
+
+    @Before
+    public void init(){
+        // application -> library (submodule library-api) -> core, tool -> application and core
+        final DbModule core = createModule("core", createArtifact("core"));
+
+        library = createModule("library", createArtifact("library"));
+        final DbModule libraryApi = createModule("library-api", createArtifact("library-api"));
+        libraryApi.addDependency(createArtifact("core").getGavc(), Scope.COMPILE);
+        library.addSubmodule(libraryApi);
+
+        application = createModule("application", createArtifact("application"));
+        application.addDependency(createArtifact("library-api").getGavc(), Scope.COMPILE);
+
+        final DbModule tool = createModule("tool", createArtifact("tool"));
+        tool.addDependency(createArtifact("application").getGavc(), Scope.RUNTIME);
+        tool.addDependency(createArtifact("core").getGavc(), Scope.TEST);
+
+        repoHandler = new TestingRepositoryHandler();
+        repoHandler.store(core);
+        repoHandler.store(library);
+        repoHandler.store(application);
+        repoHandler.store(tool);
+    }
+
+    @Test
+    public void walkTheDatabase() throws IOException {
+        final AncestorsWalker walker = new AncestorsWalker(repoHandler, new DependencyGraphIndex());
+        final Map<String, Integer> ancestors = walk(walker, createArtifact("core").getGavc(), AncestorsWalker.UNLIMITED_DEPTH);
+
+        assertEquals(3, ancestors.size());
+        assertEquals(Integer.valueOf(1), ancestors.get(library.getId()));
+        assertEquals(Integer.valueOf(1), ancestors.get("tool:1.0.0"));
+        assertEquals(Integer.valueOf(2), ancestors.get(application.getId()));
+    }
+
+    @Test
+    public void walkIsLimitedByTheDepth() throws IOException {
+        final AncestorsWalker walker = new AncestorsWalker(repoHandler, null);
+        final Map<String, Integer> ancestors = walk(walker, createArtifact("core").getGavc(), 1);
+
+        assertEquals(2, ancestors.size());
+        assertTrue(ancestors.containsKey(library.getId()));
+        assertTrue(ancestors.containsKey("tool:1.0.0"));
+    }
+
+    @Test
+    public void indexedWalkIsTheSameAsTheDatabaseOne() throws IOException {
+        final DependencyGraphIndex graphIndex = new DependencyGraphIndex();
+        graphIndex.load(repoHandler);
+
+        for(String artifactId: Arrays.asList("core", "library-api", "application", "tool")){
+            final String gavc = createArtifact(artifactId).getGavc();
+            for(int depth = 1; depth < 4; depth++){
+                assertEquals(walk(new AncestorsWalker(repoHandler, null), gavc, depth),
+                        walk(new AncestorsWalker(repoHandler, graphIndex), gavc, depth));
+            }
+        }
+    }
+}
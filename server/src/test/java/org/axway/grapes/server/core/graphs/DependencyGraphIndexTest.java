@@ -0,0 +1,147 @@
+package org.axway.grapes.server.core.graphs;
+
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class DependencyGraphIndexTest {
+
+    private DbModule application;
+    private DbModule library;
+    private DbModule core;
+    private DependencyGraphIndex graphIndex;
+
+    private static DbArtifact createArtifact(final String artifactId) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.axway.grapes.test");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        return artifact;
+    }
+
+    private static DbModule createModule(final String name, final DbArtifact... artifacts) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.addArtifacts(Arrays.asList(artifacts));
+        return module;
+    }
+
+    @Before
+    public void init(){
+        // application -> library (submodule library-api) -> core
+        core = createModule("core", createArtifact("core"));
+
+        library = createModule("library", createArtifact("library"));
+        final DbModule libraryApi = createModule("library-api", createArtifact("library-api"));
+        libraryApi.addDependency(createArtifact("core").getGavc(), Scope.COMPILE);
+        library.addSubmodule(libraryApi);
+
+        application = createModule("application", createArtifact("application"));
+        application.addDependency(createArtifact("library-api").getGavc(), Scope.COMPILE);
+        application.addDependency(createArtifact("junit").getGavc(), Scope.TEST);
+
+        final List<DbModule> modules = new ArrayList<DbModule>();
+        modules.add(application);
+        modules.add(library);
+        modules.add(core);
+
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getModules(any(FiltersHolder.class))).thenReturn(modules);
+
+        graphIndex = new DependencyGraphIndex();
+        graphIndex.load(repoHandler);
+    }
+
+    @Test
+    public void notLoadedIndexIsNotUpdated(){
+        final DependencyGraphIndex notLoaded = new DependencyGraphIndex();
+        notLoaded.update(core);
+
+        assertFalse(notLoaded.isLoaded());
+        assertNull(notLoaded.getRootModuleIdOf(createArtifact("core").getGavc()));
+        assertTrue(graphIndex.isLoaded());
+    }
+
+    @Test
+    public void getProducingModules(){
+        final String apiGavc = createArtifact("library-api").getGavc();
+
+        assertEquals(library.getId(), graphIndex.getRootModuleIdOf(apiGavc));
+        assertEquals(library.getId(), graphIndex.getRootModuleIdsOf(Arrays.asList(apiGavc)).get(apiGavc));
+        assertNull(graphIndex.getRootModuleIdOf(createArtifact("junit").getGavc()));
+    }
+
+    @Test
+    public void getTransitiveDependencies(){
+        assertEquals(3, graphIndex.getTransitiveDependencies(application.getId(), Integer.MAX_VALUE).size());
+        assertEquals(2, graphIndex.getTransitiveDependencies(application.getId(), 1).size());
+    }
+
+    @Test
+    public void getTransitiveAncestors(){
+        final Map<String, Integer> ancestors = graphIndex.getTransitiveAncestors(createArtifact("core").getGavc(), Integer.MAX_VALUE);
+
+        assertEquals(2, ancestors.size());
+        assertEquals(Integer.valueOf(1), ancestors.get(library.getId()));
+        assertEquals(Integer.valueOf(2), ancestors.get(application.getId()));
+        assertEquals(1, graphIndex.getTransitiveAncestors(createArtifact("core").getGavc(), 1).size());
+    }
+
+    @Test
+    public void updateAndRemoveModules(){
+        final String coreGavc = createArtifact("core").getGavc();
+        assertEquals(Arrays.asList(library.getId()), graphIndex.getConsumingModules(coreGavc));
+
+        final DbModule tool = createModule("tool", createArtifact("tool"));
+        tool.addDependency(coreGavc, Scope.RUNTIME);
+        graphIndex.update(tool);
+        assertEquals(2, graphIndex.getConsumingModules(coreGavc).size());
+
+        tool.flushDependencies();
+        graphIndex.update(tool);
+        assertEquals(1, graphIndex.getConsumingModules(coreGavc).size());
+
+        graphIndex.remove(library.getId());
+        assertTrue(graphIndex.getConsumingModules(coreGavc).isEmpty());
+        assertNull(graphIndex.getRootModuleIdOf(createArtifact("library-api").getGavc()));
+        assertEquals(2, graphIndex.getTransitiveDependencies(application.getId(), Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void changesOfTheOtherServersAreApplied(){
+        final String coreGavc = createArtifact("core").getGavc();
+        final RepositoryHandler repoHandler = mock(RepositoryHandler.class);
+        when(repoHandler.getModules(any(FiltersHolder.class))).thenReturn(Arrays.asList(application, library, core));
+        graphIndex.load(repoHandler);
+
+        // another server adds a dependency to core then deletes the library
+        final DbModule tool = createModule("tool", createArtifact("tool"));
+        tool.addDependency(coreGavc, Scope.RUNTIME);
+        when(repoHandler.getModule(tool.getId())).thenReturn(tool);
+        graphIndex.onChange(new DbChangeEvent(1, DbChangeEvent.EntityType.MODULE, tool.getId(), DbChangeEvent.Operation.STORE));
+        assertEquals(2, graphIndex.getConsumingModules(coreGavc).size());
+
+        graphIndex.onChange(new DbChangeEvent(2, DbChangeEvent.EntityType.MODULE, library.getId(), DbChangeEvent.Operation.DELETE));
+        assertEquals(Arrays.asList(tool.getId()), graphIndex.getConsumingModules(coreGavc));
+        assertNull(graphIndex.getRootModuleIdOf(createArtifact("library-api").getGavc()));
+
+        // the artifact changes do not touch the graph
+        graphIndex.onChange(new DbChangeEvent(3, DbChangeEvent.EntityType.ARTIFACT, coreGavc, DbChangeEvent.Operation.UPDATE));
+        verify(repoHandler, never()).getModule(coreGavc);
+    }
+}
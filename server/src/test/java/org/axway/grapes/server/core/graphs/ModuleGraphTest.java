@@ -37,4 +37,20 @@ public class ModuleGraphTest {
         assertEquals(Scope.TEST.toString(), graph.getDependencies().get(0).getType());
         
     }
+
+    @Test
+    public void dependenciesAreDeduplicated(){
+        ModuleGraph graph = new ModuleGraph();
+        graph.addElement("test", "1.0.0-SNAPSHOT", true);
+        graph.addElement("test2", "1.0.0-SNAPSHOT", false);
+        graph.addDependency("test", "test2", Scope.COMPILE);
+        graph.addDependency("test", "test2", Scope.COMPILE);
+        graph.addDependency("test", "test2", Scope.TEST);
+        graph.addDependency("test", "test", Scope.TEST);
+
+        assertEquals(2, graph.getDependencies().size());
+        assertEquals(2, graph.dependencies().size());
+        assertEquals(Scope.COMPILE.toString(), graph.getDependencies().get(0).getType());
+        assertEquals(Scope.TEST.toString(), graph.getDependencies().get(1).getType());
+    }
 }
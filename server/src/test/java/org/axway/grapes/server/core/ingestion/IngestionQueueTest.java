@@ -0,0 +1,125 @@
+package org.axway.grapes.server.core.ingestion;
+
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.db.datamodel.DbIngestionTicket;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+
+import static org.junit.Assert.*;
+
+public class IngestionQueueTest {
+
+    private TestingRepositoryHandler repoHandler;
+
+    @Before
+    public void init(){
+        repoHandler = new TestingRepositoryHandler();
+    }
+
+    @Test
+    public void submitStoresAPendingTicket(){
+        final IngestionQueue queue = new IngestionQueue(repoHandler, 10);
+        final Module module = DataModelFactory.createModule("module", "1.0.0");
+
+        final DbIngestionTicket ticket = queue.submit(module, "user");
+
+        assertNotNull(ticket.getId());
+        assertEquals(DbIngestionTicket.Status.PENDING, ticket.getStatus());
+        assertEquals("user", ticket.getUser());
+        assertNotNull(ticket.getModule());
+        assertEquals(ticket, queue.getTicket(ticket.getId()));
+        assertEquals(1, queue.getDepth());
+    }
+
+    @Test
+    public void fullQueueRejectsTheNewModules(){
+        final IngestionQueue queue = new IngestionQueue(repoHandler, 2);
+        queue.submit(DataModelFactory.createModule("module1", "1.0.0"), "user");
+        queue.submit(DataModelFactory.createModule("module2", "1.0.0"), "user");
+
+        WebApplicationException exception = null;
+        try {
+            queue.submit(DataModelFactory.createModule("module3", "1.0.0"), "user");
+        } catch (WebApplicationException e) {
+            exception = e;
+        }
+
+        assertNotNull(exception);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE_503, exception.getResponse().getStatus());
+        assertEquals(IngestionQueue.RETRY_AFTER, exception.getResponse().getMetadata().getFirst("Retry-After"));
+        assertEquals(2, queue.getDepth());
+    }
+
+    @Test
+    public void claimedModulesLeaveTheQueue(){
+        final IngestionQueue queue = new IngestionQueue(repoHandler, 1);
+        final DbIngestionTicket ticket = queue.submit(DataModelFactory.createModule("module1", "1.0.0"), "user");
+
+        final DbIngestionTicket claimed = queue.claim();
+        assertEquals(ticket.getId(), claimed.getId());
+        assertEquals(DbIngestionTicket.Status.IN_PROGRESS, claimed.getStatus());
+        assertEquals(0, queue.getDepth());
+        assertNull(queue.claim());
+
+        // the queue accepts new modules as soon as a module is claimed
+        queue.submit(DataModelFactory.createModule("module2", "1.0.0"), "user");
+        assertEquals(1, queue.getDepth());
+    }
+
+    @Test
+    public void closedTicketsDoNotKeepTheModule(){
+        final IngestionQueue queue = new IngestionQueue(repoHandler, 10);
+        queue.submit(DataModelFactory.createModule("module1", "1.0.0"), "user");
+        queue.submit(DataModelFactory.createModule("module2", "1.0.0"), "user");
+
+        final DbIngestionTicket done = queue.claim();
+        queue.done(done);
+        final DbIngestionTicket failed = queue.claim();
+        queue.failed(failed, "error");
+
+        assertEquals(DbIngestionTicket.Status.DONE, queue.getTicket(done.getId()).getStatus());
+        assertNull(queue.getTicket(done.getId()).getModule());
+        assertEquals(DbIngestionTicket.Status.FAILED, queue.getTicket(failed.getId()).getStatus());
+        assertEquals("error", queue.getTicket(failed.getId()).getMessage());
+        assertNull(queue.getTicket(failed.getId()).getModule());
+    }
+
+    @Test
+    public void releasePutsTheExpiredModulesBackInTheQueue(){
+        final IngestionQueue queue = new IngestionQueue(repoHandler, 10, 60000, 60000);
+        queue.submit(DataModelFactory.createModule("module1", "1.0.0"), "user");
+        final DbIngestionTicket claimed = queue.claim();
+        assertNotNull(claimed.getOwner());
+        assertEquals(0, queue.getDepth());
+
+        // the module is still leased to its server
+        assertEquals(0, queue.release());
+        assertEquals(0, queue.getDepth());
+
+        claimed.setUpdated(System.currentTimeMillis() - 120000);
+        assertEquals(1, queue.release());
+        assertEquals(1, queue.getDepth());
+    }
+
+    @Test
+    public void purgeRemovesTheOldClosedTickets(){
+        final IngestionQueue queue = new IngestionQueue(repoHandler, 10, 60000, 60000);
+        queue.submit(DataModelFactory.createModule("module1", "1.0.0"), "user");
+        queue.submit(DataModelFactory.createModule("module2", "1.0.0"), "user");
+
+        final DbIngestionTicket old = queue.claim();
+        queue.done(old);
+        old.setUpdated(System.currentTimeMillis() - 120000);
+        final DbIngestionTicket recent = queue.claim();
+        queue.done(recent);
+
+        assertEquals(1, queue.purge());
+        assertNull(queue.getTicket(old.getId()));
+        assertNotNull(queue.getTicket(recent.getId()));
+    }
+}
@@ -0,0 +1,76 @@
+package org.axway.grapes.server.core.ingestion;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.DataModelFactory;
+import org.axway.grapes.commons.datamodel.Module;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.core.ServerContext;
+import org.axway.grapes.server.db.datamodel.DbIngestionTicket;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IngestionWorkersTest {
+
+    private TestingRepositoryHandler repoHandler;
+    private IngestionQueue queue;
+    private IngestionWorkers workers;
+
+    @Before
+    public void init(){
+        repoHandler = new TestingRepositoryHandler();
+        queue = new IngestionQueue(repoHandler, 10);
+        workers = new IngestionWorkers(queue, new ModuleIngester(repoHandler, new ServerContext(repoHandler)), 1, 10);
+    }
+
+    @Test
+    public void drainOneIngestsTheOldestModule(){
+        final Module module = DataModelFactory.createModule("module", "1.0.0");
+        final Artifact artifact = DataModelFactory.createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifactId", "1.0.0", "", "jar", "jar");
+        module.addArtifact(artifact);
+
+        final DbIngestionTicket ticket = queue.submit(module, "user");
+        assertTrue(workers.drainOne());
+
+        final DbModule dbModule = repoHandler.getModule(DbModule.generateID("module", "1.0.0"));
+        assertNotNull(dbModule);
+        assertEquals(1, dbModule.getArtifacts().size());
+        assertNotNull(repoHandler.getArtifact(artifact.getGavc()));
+        assertEquals(DbIngestionTicket.Status.DONE, queue.getTicket(ticket.getId()).getStatus());
+        assertFalse(workers.drainOne());
+    }
+
+    @Test
+    public void unreadableModuleFailsItsTicket(){
+        final DbIngestionTicket ticket = queue.submit(DataModelFactory.createModule("module", "1.0.0"), "user");
+        ticket.setModule("{not a module");
+        repoHandler.store(ticket);
+
+        assertTrue(workers.drainOne());
+
+        assertEquals(DbIngestionTicket.Status.FAILED, queue.getTicket(ticket.getId()).getStatus());
+        assertNotNull(queue.getTicket(ticket.getId()).getMessage());
+    }
+
+    @Test
+    public void startDrainsTheInterruptedModules() throws Exception {
+        final DbIngestionTicket ticket = queue.submit(DataModelFactory.createModule("module", "1.0.0"), "user");
+        // claimed by a server that stopped before the end of its lease
+        queue.claim().setUpdated(System.currentTimeMillis() - IngestionQueue.DEFAULT_LEASE - 1);
+
+        workers.start();
+        try {
+            for(int i = 0; i < 500 && queue.getTicket(ticket.getId()).getStatus() != DbIngestionTicket.Status.DONE; i++){
+                Thread.sleep(10);
+            }
+        } finally {
+            workers.stop();
+        }
+
+        assertEquals(DbIngestionTicket.Status.DONE, queue.getTicket(ticket.getId()).getStatus());
+        assertNotNull(repoHandler.getModule(DbModule.generateID("module", "1.0.0")));
+    }
+}
@@ -0,0 +1,62 @@
+package org.axway.grapes.server.core.options;
+
+import com.sun.jersey.core.util.MultivaluedMapImpl;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MultivaluedMap;
+
+import static org.junit.Assert.*;
+
+public class PageHandlerTest {
+
+    @Test
+    public void notPagedByDefault(){
+        final PageHandler pageHandler = new PageHandler();
+        pageHandler.init(new MultivaluedMapImpl());
+
+        assertFalse(pageHandler.isPaged());
+        assertNull(pageHandler.getNextPage(1000, "last"));
+    }
+
+    @Test
+    public void initFromQueryParameters(){
+        final MultivaluedMap<String, String> queryParameters = new MultivaluedMapImpl();
+        queryParameters.add(ServerAPI.PAGE_AFTER_PARAM, "first");
+        queryParameters.add(ServerAPI.PAGE_LIMIT_PARAM, "2");
+
+        final PageHandler pageHandler = new PageHandler();
+        pageHandler.init(queryParameters);
+
+        assertTrue(pageHandler.isPaged());
+        assertEquals("first", pageHandler.getAfter());
+        assertEquals(Integer.valueOf(2), pageHandler.getLimit());
+    }
+
+    @Test
+    public void onlyFullPagesHaveANextPage(){
+        final PageHandler pageHandler = new PageHandler();
+        pageHandler.setLimit(2);
+
+        assertEquals("second", pageHandler.getNextPage(2, "second"));
+        assertNull(pageHandler.getNextPage(1, "first"));
+        assertNull(pageHandler.getNextPage(0, null));
+    }
+
+    @Test(expected = WebApplicationException.class)
+    public void limitMustBePositive(){
+        final MultivaluedMap<String, String> queryParameters = new MultivaluedMapImpl();
+        queryParameters.add(ServerAPI.PAGE_LIMIT_PARAM, "0");
+
+        new PageHandler().init(queryParameters);
+    }
+
+    @Test(expected = WebApplicationException.class)
+    public void limitMustBeAnInteger(){
+        final MultivaluedMap<String, String> queryParameters = new MultivaluedMapImpl();
+        queryParameters.add(ServerAPI.PAGE_LIMIT_PARAM, "ten");
+
+        new PageHandler().init(queryParameters);
+    }
+}
@@ -0,0 +1,166 @@
+package org.axway.grapes.server.core.promotion;
+
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.core.ModuleHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.axway.grapes.server.materials.cases.TC06_ModuleWithOneArtifactWithTransitiveDependencies;
+import org.axway.grapes.server.materials.cases.TC07_ModuleWithOneArtifactWithLoopDependencies;
+import org.axway.grapes.server.webapp.views.PromotionReportView;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PromotionEvaluatorTest {
+
+    private TestingRepositoryHandler repoHandler;
+    private PromotionEvaluator evaluator;
+
+    @Before
+    public void init(){
+        repoHandler = new TestingRepositoryHandler();
+
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        organization.getCorporateGroupIdPrefixes().add(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        repoHandler.store(organization);
+
+        evaluator = new PromotionEvaluator(repoHandler, new ModuleHandler(repoHandler));
+    }
+
+    @Test
+    public void onlyTheRootModuleIsEvaluatedByDefault(){
+        repoHandler.loadTestCase(new TC06_ModuleWithOneArtifactWithTransitiveDependencies());
+        final DbModule module = repoHandler.getModule(DbModule.generateID(TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_NAME, TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_VERSION));
+
+        final PromotionReportView report = evaluator.evaluate(module, false);
+
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_NAME, report.getRootModule().getName());
+        assertEquals(1, report.getUnPromotedDependencies().size());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_MODULE, report.getUnPromotedDependencies().get(0).getName());
+        assertEquals(1, report.getUnPromotedDependencies().get(0).getArtifacts().size());
+        assertTrue(report.getDependencyReports().isEmpty());
+        assertFalse(report.canBePromoted());
+    }
+
+    @Test
+    public void fullRecursiveEvaluationReportsTheTransitiveDependencies(){
+        repoHandler.loadTestCase(new TC06_ModuleWithOneArtifactWithTransitiveDependencies());
+        final DbModule module = repoHandler.getModule(DbModule.generateID(TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_NAME, TC06_ModuleWithOneArtifactWithTransitiveDependencies.MODULE_VERSION));
+
+        final PromotionReportView report = evaluator.evaluate(module, true);
+
+        final String dependencyId = DbModule.generateID(TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_MODULE, TC06_ModuleWithOneArtifactWithTransitiveDependencies.DEPENDENCY_VERSION);
+        final PromotionReportView dependencyReport = report.getTargetedDependencyReport(dependencyId);
+        assertNotNull(dependencyReport);
+        assertEquals(1, dependencyReport.getUnPromotedDependencies().size());
+        assertEquals(TC06_ModuleWithOneArtifactWithTransitiveDependencies.TRANSITIVE_DEPENDENCY_MODULE, dependencyReport.getUnPromotedDependencies().get(0).getName());
+
+        final String transitiveId = DbModule.generateID(TC06_ModuleWithOneArtifactWithTransitiveDependencies.TRANSITIVE_DEPENDENCY_MODULE, TC06_ModuleWithOneArtifactWithTransitiveDependencies.TRANSITIVE_DEPENDENCY_VERSION);
+        assertNotNull(dependencyReport.getTargetedDependencyReport(transitiveId));
+        assertTrue(dependencyReport.getTargetedDependencyReport(transitiveId).getUnPromotedDependencies().isEmpty());
+    }
+
+    @Test
+    public void dependencyLoopsDoNotEndUpInTheReports(){
+        repoHandler.loadTestCase(new TC07_ModuleWithOneArtifactWithLoopDependencies());
+        final DbModule module = repoHandler.getModule(DbModule.generateID(TC07_ModuleWithOneArtifactWithLoopDependencies.MODULE_NAME, TC07_ModuleWithOneArtifactWithLoopDependencies.MODULE_VERSION));
+
+        final PromotionReportView report = evaluator.evaluate(module, true);
+
+        final String dependencyId = DbModule.generateID(TC07_ModuleWithOneArtifactWithLoopDependencies.DEPENDENCY_MODULE, TC07_ModuleWithOneArtifactWithLoopDependencies.DEPENDENCY_VERSION);
+        final PromotionReportView dependencyReport = report.getTargetedDependencyReport(dependencyId);
+        assertNotNull(dependencyReport);
+
+        // the dependency uses the root module, which report is being built
+        assertEquals(1, dependencyReport.getUnPromotedDependencies().size());
+        assertTrue(dependencyReport.getDependencyReports().isEmpty());
+    }
+
+    @Test
+    public void doNotUseArtifactsAreReportedOnce(){
+        final DbArtifact doNotUse = new DbArtifact();
+        doNotUse.setGroupId("org.third.party");
+        doNotUse.setArtifactId("deprecated");
+        doNotUse.setVersion("1.0.0");
+        doNotUse.setDoNotUse(true);
+        repoHandler.store(doNotUse);
+
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+        module.setOrganization(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        module.addDependency(doNotUse.getGavc(), Scope.COMPILE);
+        module.addDependency(doNotUse.getGavc(), Scope.TEST);
+        module.addDependency("org.third.party:missing:1.0.0::jar", Scope.COMPILE);
+        repoHandler.store(module);
+
+        final PromotionReportView report = evaluator.evaluate(module, false);
+
+        assertEquals(1, report.getDoNotUseArtifacts().size());
+        assertEquals(doNotUse.getGavc(), report.getDoNotUseArtifacts().get(0).getGavc());
+        assertTrue(report.getUnPromotedDependencies().isEmpty());
+        assertFalse(report.canBePromoted());
+    }
+
+    @Test
+    public void wideLevelsAreFullyEvaluated(){
+        final DbModule module = new DbModule();
+        module.setName("root");
+        module.setVersion("1.0.0");
+        module.setOrganization(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+
+        final DbArtifact shared = createArtifact("shared");
+        final DbModule sharedModule = createModule("shared", shared);
+        repoHandler.store(shared);
+        repoHandler.store(sharedModule);
+
+        // more dependencies than a chunk so that the level is split
+        final int nbDependencies = 180;
+        for(int i = 0; i < nbDependencies; i++){
+            final DbArtifact artifact = createArtifact("dependency" + i);
+            final DbModule dependency = createModule("dependency" + i, artifact);
+            dependency.addDependency(shared.getGavc(), Scope.COMPILE);
+            repoHandler.store(artifact);
+            repoHandler.store(dependency);
+            module.addDependency(artifact.getGavc(), Scope.COMPILE);
+        }
+        repoHandler.store(module);
+
+        final PromotionReportView report = evaluator.evaluate(module, true);
+
+        assertEquals(nbDependencies, report.getUnPromotedDependencies().size());
+        // the reports of the transitive dependencies are flattened in the root report
+        assertEquals(nbDependencies + 1, report.getDependencyReports().size());
+
+        // the shared module is evaluated once and its report is shared by all the modules that use it
+        final String sharedId = sharedModule.getId();
+        final PromotionReportView sharedReport = report.getTargetedDependencyReport(DbModule.generateID("dependency0", "1.0.0")).getTargetedDependencyReport(sharedId);
+        assertNotNull(sharedReport);
+        for(int i = 1; i < nbDependencies; i++){
+            assertSame(sharedReport, report.getTargetedDependencyReport(DbModule.generateID("dependency" + i, "1.0.0")).getTargetedDependencyReport(sharedId));
+        }
+    }
+
+    private DbArtifact createArtifact(final String name) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(GrapesTestUtils.CORPORATE_GROUPID_4TEST + "." + name);
+        artifact.setArtifactId(name);
+        artifact.setVersion("1.0.0");
+        artifact.setExtension("jar");
+        return artifact;
+    }
+
+    private DbModule createModule(final String name, final DbArtifact artifact) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion("1.0.0");
+        module.setOrganization(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
+        module.addArtifact(artifact);
+        return module;
+    }
+}
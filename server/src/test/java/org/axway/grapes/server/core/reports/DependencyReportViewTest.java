@@ -11,6 +11,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 public class DependencyReportViewTest {
 
@@ -37,4 +38,42 @@ public class DependencyReportViewTest {
         assertEquals("1.0.0", version);
     }
 
+    @Test
+    public void dependenciesAreIndexedByTarget(){
+        final Artifact library = DataModelFactory.createArtifact("org.axway", "library", "1.0.0", "", "", "jar");
+        final Artifact tool = DataModelFactory.createArtifact("com.axway", "tool", "2.0.0", "", "", "jar");
+
+        final Dependency dep1 = DataModelFactory.createDependency(library, Scope.COMPILE);
+        dep1.setSourceName("module-c");
+        final Dependency dep2 = DataModelFactory.createDependency(library, Scope.TEST);
+        dep2.setSourceName("module-a");
+        final Dependency dep3 = DataModelFactory.createDependency(tool, Scope.RUNTIME);
+        dep3.setSourceName("module-b");
+
+        final DependencyReport view = new DependencyReport("test");
+        view.addDependency(dep1, "1.1.0");
+        view.addDependency(dep2, "1.1.0");
+        view.addDependency(dep3, "2.0.0");
+        view.addShouldNotUse(tool.getGavc());
+
+        final List<Artifact> targets = view.getDependencyTargets();
+        assertEquals(2, targets.size());
+        assertEquals(tool, targets.get(0));
+        assertEquals(library, targets.get(1));
+
+        assertEquals(2, view.getNbEntry(library));
+        assertEquals(1, view.getNbEntry(tool));
+        assertEquals(0, view.getNbEntry(DataModelFactory.createArtifact("org.axway", "unknown", "1.0.0", "", "", "jar")));
+
+        final List<Dependency> sources = view.getDependencies(library, "1.0.0");
+        assertEquals(2, sources.size());
+        assertEquals("module-a", sources.get(0).getSourceName());
+        assertEquals("module-c", sources.get(1).getSourceName());
+        assertTrue(view.getDependencies(library, "9.9.9").isEmpty());
+
+        assertEquals(1, view.shouldNotBeUsed(tool.getGavc()));
+        assertEquals(0, view.shouldNotBeUsed(library.getGavc()));
+        assertEquals(3, view.getDependencies().size());
+    }
+
 }
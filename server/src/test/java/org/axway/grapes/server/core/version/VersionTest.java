@@ -246,4 +246,19 @@ public class VersionTest {
 		assertEquals(-1, version2.compare(version3));
 	}
 
+	@Test
+	public void parsedVersionsAreCached() throws NotHandledVersionException, IncomparableException {
+		Version version1 = Version.valueOf("1.0.0-1-4");
+		Version version2 = Version.valueOf("1.0.0-1-4");
+
+		assertSame(version1, version2);
+		assertTrue(version1.isBranch());
+		assertEquals(0, version1.compare(new Version("1.0.0-1-4")));
+	}
+
+	@Test(expected = NotHandledVersionException.class)
+	public void branchVersionsNeedABranchId() throws NotHandledVersionException {
+		new Version("1.0.0-SNAPSHOT-1");
+	}
+
 }
@@ -0,0 +1,144 @@
+package org.axway.grapes.server.core.version;
+
+import org.axway.grapes.server.core.VersionsHandler;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class VersionsIndexTest {
+
+    private TestingRepositoryHandler repoHandler;
+
+    private static DbArtifact createArtifact(final String artifactId, final String version) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.axway.grapes.test");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion(version);
+        artifact.setClassifier("");
+        artifact.setExtension("jar");
+        return artifact;
+    }
+
+    @Before
+    public void init(){
+        repoHandler = new TestingRepositoryHandler();
+        for(String version: Arrays.asList("0.1.0-1", "2.1.0-1", "0.1.0-SNAPSHOT", "1.1.0-SNAPSHOT", "2.0.0-SNAPSHOT", "4.0.0-SNAPSHOT")){
+            repoHandler.store(createArtifact("library", version));
+        }
+        repoHandler.store(createArtifact("branched", "1.0.0-1-4"));
+        repoHandler.store(createArtifact("branched", "1.0.0-2-SNAPSHOT"));
+        repoHandler.store(createArtifact("mixed", "1.0.0-1"));
+        repoHandler.store(createArtifact("mixed", "1.0.0-1-1"));
+        repoHandler.store(createArtifact("exotic", "bbbbbb"));
+    }
+
+    @Test
+    public void notLoadedIndexIsNotUpdated() throws IncomparableException, NotHandledVersionException {
+        final VersionsIndex index = new VersionsIndex();
+        index.add(createArtifact("library", "1.0.0-1"));
+
+        assertFalse(index.isLoaded());
+        assertNull(index.getLastVersion(createArtifact("library", "1.0.0-1")));
+    }
+
+    @Test
+    public void getTheLastVersions() throws IncomparableException, NotHandledVersionException {
+        final VersionsIndex index = new VersionsIndex();
+        index.load(repoHandler);
+        assertTrue(index.isLoaded());
+
+        final DbArtifact library = createArtifact("library", "0.1.0-1");
+        assertEquals(6, index.getVersions(library).size());
+        assertEquals("4.0.0-SNAPSHOT", index.getLastVersion(library));
+        assertEquals("2.1.0-1", index.getLastRelease(library));
+
+        final DbArtifact branched = createArtifact("branched", "1.0.0-1-4");
+        assertEquals("1.0.0-2-SNAPSHOT", index.getLastVersion(branched));
+        assertEquals("1.0.0-1-4", index.getLastRelease(branched));
+
+        assertNull(index.getLastVersion(createArtifact("unknown", "1.0.0")));
+        assertTrue(index.getVersions(createArtifact("unknown", "1.0.0")).isEmpty());
+    }
+
+    @Test(expected = IncomparableException.class)
+    public void branchAndTrunkReleasesCannotBeCompared() throws IncomparableException, NotHandledVersionException {
+        final VersionsIndex index = new VersionsIndex();
+        index.load(repoHandler);
+        index.getLastRelease(createArtifact("mixed", "1.0.0-1"));
+    }
+
+    @Test(expected = NotHandledVersionException.class)
+    public void notHandledVersionsAreReported() throws IncomparableException, NotHandledVersionException {
+        final VersionsIndex index = new VersionsIndex();
+        index.load(repoHandler);
+        index.getLastVersion(createArtifact("exotic", "bbbbbb"));
+    }
+
+    @Test
+    public void indexIsUpdated() throws IncomparableException, NotHandledVersionException {
+        final VersionsIndex index = new VersionsIndex();
+        index.load(repoHandler);
+
+        final DbArtifact newRelease = createArtifact("library", "5.0.0-1");
+        index.add(newRelease);
+        assertEquals("5.0.0-1", index.getLastVersion(newRelease));
+        assertEquals("5.0.0-1", index.getLastRelease(newRelease));
+
+        index.remove(newRelease);
+        index.remove(createArtifact("library", "4.0.0-SNAPSHOT"));
+        assertEquals("2.1.0-1", index.getLastVersion(newRelease));
+        assertEquals(5, index.getVersions(newRelease).size());
+    }
+
+    @Test
+    public void indexedAndDatabaseResultsAreTheSame() throws IncomparableException, NotHandledVersionException {
+        final VersionsIndex index = new VersionsIndex();
+        index.load(repoHandler);
+
+        final DbArtifact library = createArtifact("library", "2.1.0-1");
+        final VersionsHandler indexed = new VersionsHandler(repoHandler, index);
+        final VersionsHandler scanned = new VersionsHandler(repoHandler);
+        final List<String> versions = index.getVersions(library);
+
+        assertEquals(scanned.getLastRelease(versions), indexed.getLastRelease(library));
+        assertEquals(scanned.getLastVersion(versions), indexed.getLastVersion(library));
+        assertTrue(indexed.isUpToDate(library));
+        assertFalse(indexed.isUpToDate(createArtifact("library", "1.1.0-SNAPSHOT")));
+    }
+
+    @Test
+    public void changesOfTheOtherServersAreApplied() throws IncomparableException, NotHandledVersionException {
+        final DbArtifact release = createArtifact("library", "1.0.0-1");
+        final RepositoryHandler mockedRepoHandler = mock(RepositoryHandler.class);
+        when(mockedRepoHandler.streamArtifacts(any(FiltersHolder.class))).thenReturn(Collections.singletonList(release));
+
+        final VersionsIndex index = new VersionsIndex();
+        index.load(mockedRepoHandler);
+
+        // another server stores a new release then deletes it
+        when(mockedRepoHandler.getArtifactVersions(any(DbArtifact.class))).thenReturn(Arrays.asList("1.0.0-1", "2.0.0-1"));
+        index.onChange(new DbChangeEvent(1, DbChangeEvent.EntityType.ARTIFACT, createArtifact("library", "2.0.0-1").getGavc(), DbChangeEvent.Operation.STORE));
+        assertEquals("2.0.0-1", index.getLastRelease(release));
+
+        when(mockedRepoHandler.getArtifactVersions(any(DbArtifact.class))).thenReturn(Arrays.asList("1.0.0-1"));
+        index.onChange(new DbChangeEvent(2, DbChangeEvent.EntityType.ARTIFACT, createArtifact("library", "2.0.0-1").getGavc(), DbChangeEvent.Operation.DELETE));
+        assertEquals("1.0.0-1", index.getLastRelease(release));
+        assertEquals(1, index.getVersions(release).size());
+
+        // the updates of the artifacts do not change their versions
+        index.onChange(new DbChangeEvent(3, DbChangeEvent.EntityType.ARTIFACT, release.getGavc(), DbChangeEvent.Operation.UPDATE));
+        verify(mockedRepoHandler, times(2)).getArtifactVersions(any(DbArtifact.class));
+    }
+}
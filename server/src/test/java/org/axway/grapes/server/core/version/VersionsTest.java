@@ -0,0 +1,32 @@
+package org.axway.grapes.server.core.version;
+
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class VersionsTest {
+
+    @Test
+    public void updateLatestVersion() {
+        final DbLatestVersion latestVersion = new DbLatestVersion();
+        latestVersion.setVersions(Arrays.asList("1.0.0-1", "1.1.0-2", "2.0.0-SNAPSHOT"));
+
+        Versions.updateLatestVersion(latestVersion);
+        assertEquals("1.1.0-2", latestVersion.getLastRelease());
+        assertEquals("2.0.0-SNAPSHOT", latestVersion.getLastVersion());
+    }
+
+    @Test
+    public void notComparableLatestVersions() {
+        final DbLatestVersion latestVersion = new DbLatestVersion();
+        latestVersion.setVersions(Arrays.asList("1.0.0-1", "1.0.0-1-1", "2.0.0-SNAPSHOT"));
+
+        Versions.updateLatestVersion(latestVersion);
+        assertNull(latestVersion.getLastRelease());
+        assertNull(latestVersion.getLastVersion());
+    }
+}
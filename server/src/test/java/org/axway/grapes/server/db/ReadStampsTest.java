@@ -0,0 +1,83 @@
+package org.axway.grapes.server.db;
+
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ReadStampsTest {
+
+    @Test
+    public void theTagDoesNotDependOnTheReadingOrder(){
+        final DbModule module = createModule(10);
+        final DbArtifact artifact = createArtifact("artifact", 20);
+
+        final ReadStamps stamps1 = new ReadStamps();
+        stamps1.add(module);
+        stamps1.add(artifact);
+
+        final ReadStamps stamps2 = new ReadStamps();
+        stamps2.add(artifact);
+        stamps2.add(module);
+
+        assertEquals(stamps1.getTag(), stamps2.getTag());
+        assertEquals(20, stamps1.getLastStamp());
+    }
+
+    @Test
+    public void aNewStampChangesTheTag(){
+        final DbModule module = createModule(10);
+        final ReadStamps stamps1 = new ReadStamps();
+        stamps1.add(module);
+
+        module.setChangeStamp(11);
+        final ReadStamps stamps2 = new ReadStamps();
+        stamps2.add(module);
+
+        assertNotEquals(stamps1.getTag(), stamps2.getTag());
+    }
+
+    @Test
+    public void missingArtifactsArePartOfTheTag(){
+        final DbArtifact artifact = createArtifact("artifact", 20);
+        final Map<String, DbArtifact> found = new HashMap<String, DbArtifact>();
+        found.put(artifact.getGavc(), artifact);
+
+        final ReadStamps withMissing = new ReadStamps();
+        withMissing.addArtifacts(Arrays.asList(artifact.getGavc(), "missing:gavc"), found);
+
+        final ReadStamps withoutMissing = new ReadStamps();
+        withoutMissing.addArtifacts(Collections.singletonList(artifact.getGavc()), found);
+
+        assertNotEquals(withMissing.getTag(), withoutMissing.getTag());
+    }
+
+    @Test
+    public void theStampsAreIncreasing(){
+        final long stamp = ChangeStamps.next();
+        assertTrue(ChangeStamps.next() > stamp);
+    }
+
+    private DbModule createModule(final long stamp) {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1.0.0");
+        module.setChangeStamp(stamp);
+        return module;
+    }
+
+    private DbArtifact createArtifact(final String artifactId, final long stamp) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion("1.0.0");
+        artifact.setChangeStamp(stamp);
+        return artifact;
+    }
+}
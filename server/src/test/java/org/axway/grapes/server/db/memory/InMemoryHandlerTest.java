@@ -0,0 +1,414 @@
+package org.axway.grapes.server.db.memory;
+
+import com.sun.jersey.api.NotFoundException;
+import org.axway.grapes.commons.datamodel.Scope;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.options.filters.CorporateFilter;
+import org.axway.grapes.server.core.options.filters.LicenseIdFilter;
+import org.axway.grapes.server.core.options.filters.ModuleNameFilter;
+import org.axway.grapes.server.core.options.filters.OrganizationFilter;
+import org.axway.grapes.server.core.options.filters.PromotedFilter;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbCredential;
+import org.axway.grapes.server.db.datamodel.DbIngestionTicket;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+import org.axway.grapes.server.db.datamodel.DbLicense;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.DbOrganization;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InMemoryHandlerTest {
+
+    private InMemoryHandler handler;
+
+    @Before
+    public void setUp() {
+        final DataBaseConfig config = mock(DataBaseConfig.class);
+        when(config.getChangeLogSize()).thenReturn(5);
+        handler = new InMemoryHandler(config);
+    }
+
+    @Test
+    public void storedEntitiesAreNotShared() {
+        final DbArtifact artifact = createArtifact("org.axway", "artifact", "1.0.0");
+        handler.store(artifact);
+
+        artifact.setDownloadUrl("changed by the caller");
+        final DbArtifact stored = handler.getArtifact(artifact.getGavc());
+        assertEquals("", stored.getDownloadUrl());
+
+        stored.setDownloadUrl("changed by the reader");
+        assertEquals("", handler.getArtifact(artifact.getGavc()).getDownloadUrl());
+    }
+
+    @Test
+    public void artifactStoreMergesTheLicenses() {
+        final DbArtifact artifact = createArtifact("org.axway", "artifact", "1.0.0");
+        artifact.addLicense("license1");
+        handler.store(artifact);
+
+        final DbArtifact update = createArtifact("org.axway", "artifact", "1.0.0");
+        update.addLicense("license2");
+        update.setProvider("provider");
+        handler.store(update);
+
+        final DbArtifact stored = handler.getArtifact(artifact.getGavc());
+        assertEquals(Arrays.asList("license1", "license2"), stored.getLicenses());
+        assertEquals("provider", stored.getProvider());
+        assertFalse(handler.storeIfNew(update));
+    }
+
+    @Test
+    public void licenseFilterFollowsTheLicenseUpdates() {
+        final DbArtifact artifact = createArtifact("org.axway", "artifact", "1.0.0");
+        artifact.addLicense("license1");
+        handler.store(artifact);
+        handler.store(createArtifact("org.axway", "other", "1.0.0"));
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.addFilter(new LicenseIdFilter("license1"));
+        assertEquals(Collections.singletonList(artifact.getGavc()), handler.getGavcs(filters));
+
+        handler.removeLicenseFromArtifact(handler.getArtifact(artifact.getGavc()), "license1");
+        assertTrue(handler.getGavcs(filters).isEmpty());
+
+        handler.addLicenseToArtifact(handler.getArtifact(artifact.getGavc()), "license1");
+        assertEquals(1, handler.getArtifacts(filters).size());
+    }
+
+    @Test
+    public void licenseUpdatesFromStaleArtifactsAreNotLost() {
+        final DbArtifact artifact = createArtifact("org.axway", "artifact", "1.0.0");
+        handler.store(artifact);
+
+        // two updates made from the same read of the artifact
+        final DbArtifact firstRead = handler.getArtifact(artifact.getGavc());
+        final DbArtifact secondRead = handler.getArtifact(artifact.getGavc());
+        handler.addLicenseToArtifact(firstRead, "license1");
+        handler.addLicenseToArtifact(secondRead, "license2");
+        assertEquals(2, handler.getArtifact(artifact.getGavc()).getLicenses().size());
+
+        handler.removeLicenseFromArtifact(firstRead, "license1");
+        assertEquals(Collections.singletonList("license2"), handler.getArtifact(artifact.getGavc()).getLicenses());
+    }
+
+    @Test
+    public void corporateFilterMatchesTheGroupIdPrefixes() {
+        handler.store(createArtifact("org.axway.module", "artifact", "1.0.0"));
+        handler.store(createArtifact("com.thirdparty", "artifact", "1.0.0"));
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.addFilter(new CorporateFilter(createOrganization("organization", "org.axway")));
+
+        final List<DbArtifact> artifacts = handler.getArtifacts(filters);
+        assertEquals(1, artifacts.size());
+        assertEquals("org.axway.module", artifacts.get(0).getGroupId());
+    }
+
+    @Test
+    public void pagesAreRangesOfIds() {
+        for(String artifactId: Arrays.asList("e", "c", "a", "d", "b")){
+            handler.store(createArtifact("org.axway", artifactId, "1.0.0"));
+        }
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.getPageHandler().setLimit(2);
+        filters.getPageHandler().setAfter(createArtifact("org.axway", "b", "1.0.0").getGavc());
+
+        final List<String> gavcs = handler.getGavcs(filters);
+        assertEquals(2, gavcs.size());
+        assertEquals(createArtifact("org.axway", "c", "1.0.0").getGavc(), gavcs.get(0));
+        assertEquals(createArtifact("org.axway", "d", "1.0.0").getGavc(), gavcs.get(1));
+    }
+
+    @Test
+    public void ancestorsFollowTheModuleUpdates() {
+        final DbArtifact dependency = createArtifact("com.thirdparty", "library", "1.0.0");
+        final DbModule module = createModule("module", "1.0.0");
+        module.addDependency(dependency.getGavc(), Scope.COMPILE);
+        handler.store(module);
+
+        assertEquals(1, handler.getAncestors(dependency, new FiltersHolder()).size());
+        assertEquals(1, handler.getModulesUsing(Collections.singletonList(dependency.getGavc())).size());
+
+        // the new build of the module does not use the library anymore
+        handler.store(createModule("module", "1.0.0"));
+        assertTrue(handler.getAncestors(dependency, new FiltersHolder()).isEmpty());
+        assertTrue(handler.getModulesUsing(Collections.singletonList(dependency.getGavc())).isEmpty());
+    }
+
+    @Test
+    public void moduleStoreMergesTheBuildInfo() {
+        final DbModule module = createModule("module", "1.0.0");
+        module.getBuildInfo().put("buildId", "1");
+        module.getBuildInfo().put("jdk", "1.6");
+        handler.store(module);
+
+        final DbModule update = createModule("module", "1.0.0");
+        update.getBuildInfo().put("buildId", "2");
+        handler.store(update);
+
+        final DbModule stored = handler.getModule(module.getId());
+        assertEquals("2", stored.getBuildInfo().get("buildId"));
+        assertEquals("1.6", stored.getBuildInfo().get("jdk"));
+    }
+
+    @Test
+    public void findTheModuleOfAnArtifact() {
+        final DbArtifact artifact = createArtifact("org.axway", "artifact", "1.0.0");
+        final DbModule submodule = createModule("submodule", "1.0.0");
+        submodule.addArtifact(artifact);
+        final DbModule module = createModule("module", "1.0.0");
+        module.addSubmodule(submodule);
+        handler.store(module);
+
+        assertEquals(module.getId(), handler.getRootModuleOf(artifact.getGavc()).getId());
+        assertEquals(submodule.getId(), handler.getModuleOf(artifact.getGavc()).getId());
+        assertEquals(1, handler.getRootModulesOf(Arrays.asList(artifact.getGavc(), "unknown")).size());
+        assertNull(handler.getRootModuleOf("unknown"));
+    }
+
+    @Test
+    public void moduleNamesAndVersions() {
+        handler.store(createModule("module", "1.0.0"));
+        handler.store(createModule("module", "2.0.0"));
+        handler.store(createModule("module-b", "1.0.0"));
+        handler.store(createModule("another", "1.0.0"));
+
+        assertEquals(Arrays.asList("another", "module", "module-b"), handler.getModuleNames(new FiltersHolder()));
+        assertEquals(Arrays.asList("1.0.0", "2.0.0"), handler.getModuleVersions("module", new FiltersHolder()));
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.getPageHandler().setAfter("another");
+        filters.getPageHandler().setLimit(1);
+        assertEquals(Collections.singletonList("module"), handler.getModuleNames(filters));
+
+        final FiltersHolder nameFilter = new FiltersHolder();
+        nameFilter.addFilter(new ModuleNameFilter("module"));
+        assertEquals(2, handler.getModules(nameFilter).size());
+    }
+
+    @Test
+    public void moduleOrganizations() {
+        final DbModule corporate = createModule("corporate", "1.0.0");
+        corporate.addArtifact(createArtifact("org.axway.module", "artifact", "1.0.0"));
+        handler.store(corporate);
+
+        final DbModule thirdParty = createModule("thirdParty", "1.0.0");
+        thirdParty.addArtifact(createArtifact("com.thirdparty", "artifact", "1.0.0"));
+        handler.store(thirdParty);
+
+        final DbOrganization organization = createOrganization("organization", "org.axway");
+        handler.store(organization);
+        handler.addModulesOrganization("org.axway", organization);
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.addFilter(new OrganizationFilter("organization"));
+        final List<DbModule> modules = handler.getModules(filters);
+        assertEquals(1, modules.size());
+        assertEquals(corporate.getId(), modules.get(0).getId());
+
+        handler.removeModulesOrganization("org.axway", organization);
+        assertTrue(handler.getModules(filters).isEmpty());
+        assertEquals("", handler.getModule(corporate.getId()).getOrganization());
+    }
+
+    @Test
+    public void promoteModules() {
+        handler.store(createModule("module", "1.0.0"));
+        handler.store(createModule("module", "2.0.0"));
+        final long lastSequence = handler.getLastChangeSequence();
+
+        handler.promoteModules(Arrays.asList("module:1.0.0", "unknown:1.0.0"));
+
+        final FiltersHolder filters = new FiltersHolder();
+        filters.addFilter(new PromotedFilter(true));
+        final List<DbModule> promoted = handler.getModules(filters);
+        assertEquals(1, promoted.size());
+        assertEquals("module:1.0.0", promoted.get(0).getId());
+
+        // only the modules that have been promoted are logged
+        assertEquals(lastSequence + 1, handler.getLastChangeSequence());
+
+        handler.promoteModules(Collections.singletonList("module:1.0.0"));
+        assertEquals(lastSequence + 1, handler.getLastChangeSequence());
+    }
+
+    @Test
+    public void latestVersionsFollowTheArtifacts() {
+        final DbArtifact first = createArtifact("org.axway", "artifact", "1.0.0");
+        final DbArtifact second = createArtifact("org.axway", "artifact", "1.1.0");
+        handler.storeArtifacts(Arrays.asList(first, second));
+
+        final String id = DbLatestVersion.generateID(first);
+        assertEquals(Arrays.asList("1.0.0", "1.1.0"), handler.getArtifactVersions(first));
+        assertEquals("1.1.0", handler.getLatestVersions(Collections.singletonList(id)).get(id).getLastRelease());
+
+        handler.deleteArtifact(second.getGavc());
+        assertEquals(Collections.singletonList("1.0.0"), handler.getArtifactVersions(first));
+        assertEquals("1.0.0", handler.getLatestVersions(Collections.singletonList(id)).get(id).getLastRelease());
+
+        handler.deleteArtifact(first.getGavc());
+        assertTrue(handler.getLatestVersions(Collections.singletonList(id)).isEmpty());
+        assertEquals(0, handler.rebuildLatestVersions());
+    }
+
+    @Test
+    public void rebuildTheLatestVersions() {
+        final DbArtifact first = createArtifact("org.axway", "artifact", "1.0.0");
+        final DbArtifact second = createArtifact("org.axway", "artifact", "1.1.0");
+        final DbArtifact other = createArtifact("org.axway", "other", "2.0.0");
+        handler.storeArtifacts(Arrays.asList(first, second, other));
+
+        assertEquals(2, handler.rebuildLatestVersions());
+        assertEquals(Arrays.asList("1.0.0", "1.1.0"), handler.getArtifactVersions(first));
+        assertEquals(Collections.singletonList("2.0.0"), handler.getArtifactVersions(other));
+
+        final String id = DbLatestVersion.generateID(first);
+        assertEquals("1.1.0", handler.getLatestVersions(Collections.singletonList(id)).get(id).getLastVersion());
+    }
+
+    @Test
+    public void changeLogKeepsTheLastEvents() {
+        for(int i = 0; i < 7; i++){
+            handler.store(createLicense("license" + i));
+        }
+
+        assertEquals(7, handler.getLastChangeSequence());
+        assertEquals(3, handler.getFirstChangeSequence());
+
+        final List<DbChangeEvent> events = handler.getChangeEvents(4, 2);
+        assertEquals(2, events.size());
+        assertEquals(5, events.get(0).getSequence());
+        assertEquals("license4", events.get(0).getEntityId());
+        assertEquals(DbChangeEvent.EntityType.LICENSE, events.get(0).getEntityType());
+    }
+
+    @Test
+    public void claimTheOldestPendingTicket() {
+        handler.store(createTicket("recent", 2000));
+        handler.store(createTicket("oldest", 1000));
+
+        final DbIngestionTicket claimed = handler.claimIngestionTicket("server");
+        assertEquals("oldest", claimed.getId());
+        assertEquals(DbIngestionTicket.Status.IN_PROGRESS, claimed.getStatus());
+        assertEquals("server", claimed.getOwner());
+        assertEquals(1, handler.getIngestionTicketCount(DbIngestionTicket.Status.PENDING));
+
+        assertEquals("recent", handler.claimIngestionTicket("server").getId());
+        assertNull(handler.claimIngestionTicket("server"));
+
+        // the tickets claimed after the lease limit are not released
+        assertEquals(0, handler.releaseIngestionTickets(claimed.getUpdated()));
+        assertEquals(2, handler.releaseIngestionTickets(System.currentTimeMillis() + 1));
+        assertEquals(2, handler.getIngestionTicketCount(DbIngestionTicket.Status.PENDING));
+        assertNull(handler.getIngestionTicket("oldest").getOwner());
+    }
+
+    @Test
+    public void purgeTheOldClosedTickets() {
+        final DbIngestionTicket done = createTicket("done", 1000);
+        done.setStatus(DbIngestionTicket.Status.DONE);
+        done.setUpdated(1000);
+        handler.store(done);
+        final DbIngestionTicket recent = createTicket("recent", 3000);
+        recent.setStatus(DbIngestionTicket.Status.FAILED);
+        recent.setUpdated(3000);
+        handler.store(recent);
+        handler.store(createTicket("pending", 1000));
+
+        assertEquals(1, handler.purgeIngestionTickets(2000));
+        assertNull(handler.getIngestionTicket("done"));
+        assertNotNull(handler.getIngestionTicket("recent"));
+        assertNotNull(handler.getIngestionTicket("pending"));
+    }
+
+    @Test
+    public void userRoles() {
+        final DbCredential credential = new DbCredential();
+        credential.setUser("user");
+        credential.setPassword("password");
+        handler.store(credential);
+
+        handler.addUserRole("user", DbCredential.AvailableRoles.DATA_UPDATER);
+        assertTrue(handler.getCredential("user").getRoles().contains(DbCredential.AvailableRoles.DATA_UPDATER));
+
+        handler.removeUserRole("user", DbCredential.AvailableRoles.DATA_UPDATER);
+        assertFalse(handler.getCredential("user").getRoles().contains(DbCredential.AvailableRoles.DATA_UPDATER));
+
+        try {
+            handler.addUserRole("unknown", DbCredential.AvailableRoles.DATA_UPDATER);
+            fail("The user does not exist");
+        } catch (WebApplicationException e) {
+            assertEquals(404, e.getResponse().getStatus());
+        }
+    }
+
+    @Test
+    public void deleteAModuleThatDoesNotExist() {
+        handler.store(createModule("module", "1.0.0"));
+        handler.deleteModule("module:1.0.0");
+        assertNull(handler.getModule("module:1.0.0"));
+
+        try {
+            handler.deleteModule("module:1.0.0");
+            fail("The module does not exist");
+        } catch (NotFoundException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    private static DbArtifact createArtifact(final String groupId, final String artifactId, final String version) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId(groupId);
+        artifact.setArtifactId(artifactId);
+        artifact.setVersion(version);
+        artifact.setExtension("jar");
+        return artifact;
+    }
+
+    private static DbModule createModule(final String name, final String version) {
+        final DbModule module = new DbModule();
+        module.setName(name);
+        module.setVersion(version);
+        return module;
+    }
+
+    private static DbOrganization createOrganization(final String name, final String corporateGroupId) {
+        final DbOrganization organization = new DbOrganization();
+        organization.setName(name);
+        organization.getCorporateGroupIdPrefixes().add(corporateGroupId);
+        return organization;
+    }
+
+    private static DbLicense createLicense(final String name) {
+        final DbLicense license = new DbLicense();
+        license.setName(name);
+        return license;
+    }
+
+    private static DbIngestionTicket createTicket(final String id, final long created) {
+        final DbIngestionTicket ticket = new DbIngestionTicket();
+        ticket.setId(id);
+        ticket.setStatus(DbIngestionTicket.Status.PENDING);
+        ticket.setCreated(created);
+        return ticket;
+    }
+}
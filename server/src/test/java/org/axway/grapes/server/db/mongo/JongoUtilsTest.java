@@ -2,6 +2,8 @@ package org.axway.grapes.server.db.mongo;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -21,6 +23,19 @@ public class JongoUtilsTest {
 		assertEquals("{key1: true}", JongoUtils.generateQuery("key1", true));
 		assertEquals("{key2: 'value2', key1: 'value1'}", JongoUtils.generateQuery(params));
 	}
-	
+
+	@Test
+	public void generateRangeQuery(){
+		assertEquals("{$and: [{}, {_id: {$gt: #}}]}", JongoUtils.generateRangeQuery(new HashMap<String, Object>(), "_id"));
+		assertEquals("{$and: [{promoted: true}, {name: {$gt: #}}]}",
+				JongoUtils.generateRangeQuery(Collections.<String, Object>singletonMap("promoted", true), "name"));
+	}
+
+	@Test
+	public void generateIndexKeysKeepsTheFieldOrder(){
+		assertEquals("{has: 1}", JongoUtils.generateIndexKeys(Arrays.asList("has")));
+		assertEquals("{groupId: 1, artifactId: 1, classifier: 1}",
+				JongoUtils.generateIndexKeys(Arrays.asList("groupId", "artifactId", "classifier")));
+	}
 
 }
\ No newline at end of file
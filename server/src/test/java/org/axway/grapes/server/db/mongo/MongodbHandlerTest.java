@@ -0,0 +1,197 @@
+package org.axway.grapes.server.db.mongo;
+
+import com.mongodb.DBObject;
+import com.mongodb.MongoClientOptions;
+import com.mongodb.ServerAddress;
+import org.axway.grapes.server.config.DataBaseConfig;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbCollections;
+import org.axway.grapes.server.db.datamodel.DbModule;
+import org.axway.grapes.server.db.datamodel.EscapedKeys;
+import org.jongo.Mapper;
+import org.jongo.bson.BsonDocument;
+import org.jongo.marshall.jackson.JacksonMapper;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MongodbHandlerTest {
+
+    @Test
+    public void checkClientOptions() {
+        final DataBaseConfig config = mock(DataBaseConfig.class);
+        when(config.getConnectionsPerHost()).thenReturn(50);
+        when(config.getWaitQueueMultiplier()).thenReturn(3);
+        when(config.getMaxWaitTime()).thenReturn(1000);
+        when(config.getConnectTimeout()).thenReturn(2000);
+        when(config.getSocketTimeout()).thenReturn(3000);
+
+        final MongoClientOptions options = MongodbHandler.getClientOptions(config);
+        assertEquals(50, options.getConnectionsPerHost());
+        assertEquals(3, options.getThreadsAllowedToBlockForConnectionMultiplier());
+        assertEquals(1000, options.getMaxWaitTime());
+        assertEquals(2000, options.getConnectTimeout());
+        assertEquals(3000, options.getSocketTimeout());
+    }
+
+    @Test
+    public void useHostAndPortWhenThereIsNoReplicaSetMember() throws Exception {
+        final DataBaseConfig config = mock(DataBaseConfig.class);
+        when(config.getReplicaSetMembers()).thenReturn(new ArrayList<String>());
+        when(config.getHost()).thenReturn("localhost");
+        when(config.getPort()).thenReturn(27018);
+
+        final List<ServerAddress> addresses = MongodbHandler.getServerAddresses(config);
+        assertEquals(1, addresses.size());
+        assertEquals(27018, addresses.get(0).getPort());
+    }
+
+    @Test
+    public void useReplicaSetMembers() throws Exception {
+        final List<String> members = new ArrayList<String>();
+        members.add("localhost:27018");
+        members.add("localhost:27019");
+
+        final DataBaseConfig config = mock(DataBaseConfig.class);
+        when(config.getReplicaSetMembers()).thenReturn(members);
+
+        final List<ServerAddress> addresses = MongodbHandler.getServerAddresses(config);
+        assertEquals(2, addresses.size());
+        assertEquals(27018, addresses.get(0).getPort());
+        assertEquals(27019, addresses.get(1).getPort());
+    }
+
+    @Test
+    public void artifactUpsertMergesTheLicenses() {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.setArtifactId("artifactId");
+        artifact.setVersion("1.0.0");
+        artifact.addLicense("license");
+
+        final DBObject upsert = MongodbHandler.getArtifactUpsert(artifact);
+
+        final DBObject set = (DBObject) upsert.get("$set");
+        assertEquals("groupId", set.get(DbArtifact.GROUPID_DB_FIELD));
+        assertFalse(set.containsField(DbCollections.DEFAULT_ID));
+        assertFalse(set.containsField(DbArtifact.LICENCES_DB_FIELD));
+
+        final DBObject licenses = (DBObject) ((DBObject) upsert.get("$addToSet")).get(DbArtifact.LICENCES_DB_FIELD);
+        assertEquals(artifact.getLicenses(), licenses.get("$each"));
+    }
+
+    @Test
+    public void artifactInsertOnlySetsTheFieldsOnInsert() {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.addLicense("license");
+
+        final DBObject insert = MongodbHandler.getArtifactInsert(artifact);
+
+        assertEquals(1, insert.keySet().size());
+        final DBObject setOnInsert = (DBObject) insert.get("$setOnInsert");
+        assertEquals("groupId", setOnInsert.get(DbArtifact.GROUPID_DB_FIELD));
+        assertEquals(artifact.getLicenses(), setOnInsert.get(DbArtifact.LICENCES_DB_FIELD));
+        assertFalse(setOnInsert.containsField(DbCollections.DEFAULT_ID));
+    }
+
+    @Test
+    public void moduleUpsertSetsTheBuildInfoEntryByEntry() {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        final Map<String, String> buildInfo = new HashMap<String, String>();
+        buildInfo.put("agent", "jenkins");
+        module.setBuildInfo(buildInfo);
+
+        final DBObject upsert = MongodbHandler.getModuleUpsert(module);
+
+        final DBObject set = (DBObject) upsert.get("$set");
+        assertEquals("module", set.get(DbModule.NAME_DB_FIELD));
+        assertEquals("jenkins", set.get(DbModule.BUILD_INFO_DB_FIELD + ".agent"));
+        assertFalse(set.containsField(DbModule.BUILD_INFO_DB_FIELD));
+        assertFalse(set.containsField(DbCollections.DEFAULT_ID));
+        assertNull(upsert.get("$setOnInsert"));
+    }
+
+    @Test
+    public void moduleUpsertEscapesTheDotsOfTheBuildInfoKeys() {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        final Map<String, String> buildInfo = new HashMap<String, String>();
+        buildInfo.put("java.version", "1.7");
+        module.setBuildInfo(buildInfo);
+
+        final DBObject set = (DBObject) MongodbHandler.getModuleUpsert(module).get("$set");
+
+        final String key = DbModule.BUILD_INFO_DB_FIELD + "." + EscapedKeys.escape("java.version");
+        assertEquals("1.7", set.get(key));
+        assertFalse(set.containsField(DbModule.BUILD_INFO_DB_FIELD + ".java.version"));
+    }
+
+    @Test
+    public void buildInfoKeysAreRestoredWhenTheModuleIsRead() {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        final Map<String, String> buildInfo = new HashMap<String, String>();
+        buildInfo.put("java.version", "1.7");
+        buildInfo.put("$agent", "jenkins");
+        module.setBuildInfo(buildInfo);
+
+        final Mapper mapper = new JacksonMapper.Builder().build();
+        final BsonDocument document = mapper.getMarshaller().marshall(module);
+
+        final DBObject storedBuildInfo = (DBObject) document.toDBObject().get(DbModule.BUILD_INFO_DB_FIELD);
+        assertFalse(storedBuildInfo.containsField("java.version"));
+        assertFalse(storedBuildInfo.containsField("$agent"));
+
+        final DbModule readModule = mapper.getUnmarshaller().unmarshall(document, DbModule.class);
+        assertEquals(buildInfo, readModule.getBuildInfo());
+    }
+
+    @Test
+    public void moduleUpsertWithoutBuildInfoCreatesAnEmptyOne() {
+        final DbModule module = new DbModule();
+        module.setName("module");
+
+        final DBObject upsert = MongodbHandler.getModuleUpsert(module);
+
+        assertFalse(((DBObject) upsert.get("$set")).containsField(DbModule.BUILD_INFO_DB_FIELD));
+        assertTrue(((DBObject) upsert.get("$setOnInsert")).containsField(DbModule.BUILD_INFO_DB_FIELD));
+    }
+
+    @Test
+    public void changeEventsStopAtARecentGap() {
+        final long now = System.currentTimeMillis();
+        final List<DbChangeEvent> events = new ArrayList<DbChangeEvent>();
+        events.add(createChangeEvent(11, now));
+        events.add(createChangeEvent(13, now));
+
+        // 12 may still be inserted by another server
+        final List<DbChangeEvent> contiguousEvents = MongodbHandler.getContiguousEvents(10, events, now);
+        assertEquals(1, contiguousEvents.size());
+        assertEquals(11, contiguousEvents.get(0).getSequence());
+
+        // a gap at the start of the page is not skipped either
+        assertTrue(MongodbHandler.getContiguousEvents(9, events, now).isEmpty());
+
+        // 12 has been lost
+        assertEquals(2, MongodbHandler.getContiguousEvents(10, events, now + MongodbHandler.CHANGE_GAP_TIMEOUT).size());
+    }
+
+    private static DbChangeEvent createChangeEvent(final long sequence, final long time) {
+        final DbChangeEvent event = new DbChangeEvent(sequence, DbChangeEvent.EntityType.MODULE, "module:1.0.0", DbChangeEvent.Operation.STORE);
+        event.setTime(time);
+        return event;
+    }
+}
@@ -2,13 +2,13 @@ package org.axway.grapes.server.materials;
 
 import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.core.options.FiltersHolder;
+import org.axway.grapes.server.core.version.Versions;
 import org.axway.grapes.server.db.DataUtils;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.materials.cases.DependencyCase;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Repository Handler
@@ -25,6 +25,8 @@ public class TestingRepositoryHandler implements RepositoryHandler {
     private final List<DbModule> modules = new ArrayList<DbModule>();
     private final List<DbArtifact> artifacts = new ArrayList<DbArtifact>();
     private final List<DbLicense> licenses = new ArrayList<DbLicense>();
+    private final Map<String, DbLatestVersion> latestVersions = new HashMap<String, DbLatestVersion>();
+    private final Map<String, DbIngestionTicket> ingestionTickets = new LinkedHashMap<String, DbIngestionTicket>();
 
     @Override
     public void store(final DbCredential credential) {
@@ -94,6 +96,11 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public Iterable<DbArtifact> streamArtifacts(final FiltersHolder filters) {
+        return new ArrayList<DbArtifact>(artifacts);
+    }
+
     @Override
     public void addLicenseToArtifact(DbArtifact artifact, String licenseId) {
         //To change body of implemented methods use File | Settings | File Templates.
@@ -114,11 +121,37 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         artifacts.add(dbArtifact);
     }
 
+    @Override
+    public boolean storeIfNew(final DbArtifact dbArtifact) {
+        if(getArtifact(dbArtifact.getGavc()) != null){
+            return false;
+        }
+
+        store(dbArtifact);
+        return true;
+    }
+
+    @Override
+    public void storeArtifacts(final Collection<DbArtifact> dbArtifacts) {
+        for(DbArtifact dbArtifact: dbArtifacts){
+            store(dbArtifact);
+        }
+    }
+
     @Override
     public List<String> getGavcs(final FiltersHolder filters) {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public Iterable<String> streamGavcs(final FiltersHolder filters) {
+        final Set<String> gavcs = new TreeSet<String>();
+        for(DbArtifact artifact: artifacts){
+            gavcs.add(artifact.getGavc());
+        }
+        return gavcs;
+    }
+
     @Override
     public List<String> getGroupIds(FiltersHolder filters) {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
@@ -140,6 +173,48 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;
     }
 
+    @Override
+    public Map<String, DbArtifact> getArtifacts(final Collection<String> gavcs) {
+        final Map<String, DbArtifact> results = new HashMap<String, DbArtifact>();
+        for(String gavc: gavcs){
+            final DbArtifact artifact = getArtifact(gavc);
+            if(artifact != null){
+                results.put(gavc, artifact);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, DbLatestVersion> getLatestVersions(final Collection<String> ids) {
+        final Map<String, DbLatestVersion> results = new HashMap<String, DbLatestVersion>();
+        for(String id: ids){
+            if(latestVersions.containsKey(id)){
+                results.put(id, latestVersions.get(id));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public int rebuildLatestVersions() {
+        latestVersions.clear();
+        for(DbArtifact artifact: artifacts){
+            final String id = DbLatestVersion.generateID(artifact);
+            if(!latestVersions.containsKey(id)){
+                final DbLatestVersion latestVersion = new DbLatestVersion();
+                latestVersion.setId(id);
+                latestVersions.put(id, latestVersion);
+            }
+            latestVersions.get(id).getVersions().add(artifact.getVersion());
+        }
+
+        for(DbLatestVersion latestVersion: latestVersions.values()){
+            Versions.updateLatestVersion(latestVersion);
+        }
+        return latestVersions.size();
+    }
+
     @Override
     public void deleteArtifact(final String gavc) {
         //To change body of implemented methods use File | Settings | File Templates.
@@ -165,17 +240,44 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public List<DbModule> getModulesUsing(final Collection<String> gavcs) {
+        final List<DbModule> results = new ArrayList<DbModule>();
+        for(DbModule module: modules){
+            if(!Collections.disjoint(module.getUses(), gavcs)){
+                results.add(module);
+            }
+        }
+        return results;
+    }
+
     @Override
     public void store(final DbModule dbModule) {
         dbModule.updateHasAndUse();
         modules.add(dbModule);
     }
 
+    @Override
+    public void storeModules(final Collection<DbModule> dbModules) {
+        for(DbModule dbModule: dbModules){
+            store(dbModule);
+        }
+    }
+
     @Override
     public List<String> getModuleNames(final FiltersHolder filters) {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public Iterable<String> streamModuleNames(final FiltersHolder filters) {
+        final Set<String> names = new TreeSet<String>();
+        for(DbModule module: modules){
+            names.add(module.getName());
+        }
+        return names;
+    }
+
     @Override
     public List<String> getModuleVersions(final String name, final FiltersHolder filters) {
         return null;  //To change body of implemented methods use File | Settings | File Templates.
@@ -192,9 +294,26 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;
     }
 
+    @Override
+    public Map<String, DbModule> getModules(final Collection<String> moduleIds) {
+        final Map<String, DbModule> results = new HashMap<String, DbModule>();
+        for(String moduleId: moduleIds){
+            final DbModule module = getModule(moduleId);
+            if(module != null){
+                results.put(moduleId, module);
+            }
+        }
+        return results;
+    }
+
     @Override
     public List<DbModule> getModules(FiltersHolder filters) {
-        return null;  //To change body of implemented methods use File | Settings | File Templates.
+        return new ArrayList<DbModule>(modules);
+    }
+
+    @Override
+    public Iterable<DbModule> streamModules(final FiltersHolder filters) {
+        return new ArrayList<DbModule>(modules);
     }
 
     @Override
@@ -207,6 +326,24 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         //To change body of implemented methods use File | Settings | File Templates.
     }
 
+    @Override
+    public void promoteModules(final Collection<String> moduleIds) {
+        for(DbModule module: modules){
+            if(moduleIds.contains(module.getId())){
+                module.setPromoted(true);
+            }
+        }
+    }
+
+    @Override
+    public void promoteArtifacts(final Collection<String> gavcs) {
+        for(DbArtifact artifact: artifacts){
+            if(gavcs.contains(artifact.getGavc())){
+                artifact.setPromoted(true);
+            }
+        }
+    }
+
     @Override
     public DbModule getRootModuleOf(final String gavc) {
         for(DbModule module: modules){
@@ -218,6 +355,18 @@ public class TestingRepositoryHandler implements RepositoryHandler {
         return null;
     }
 
+    @Override
+    public synchronized Map<String, DbModule> getRootModulesOf(final Collection<String> gavcs) {
+        final Map<String, DbModule> results = new HashMap<String, DbModule>();
+        for(String gavc: gavcs){
+            final DbModule module = getRootModuleOf(gavc);
+            if(module != null){
+                results.put(gavc, module);
+            }
+        }
+        return results;
+    }
+
     @Override
     public DbModule getModuleOf(final String gavc) {
         for(DbModule module: modules){
@@ -336,6 +485,84 @@ public class TestingRepositoryHandler implements RepositoryHandler {
     }
 
 
+    @Override
+    public synchronized void store(final DbIngestionTicket ticket) {
+        ingestionTickets.put(ticket.getId(), ticket);
+    }
+
+    @Override
+    public synchronized DbIngestionTicket getIngestionTicket(final String id) {
+        return ingestionTickets.get(id);
+    }
+
+    @Override
+    public synchronized long getIngestionTicketCount(final DbIngestionTicket.Status status) {
+        long count = 0;
+        for(DbIngestionTicket ticket: ingestionTickets.values()){
+            if(ticket.getStatus() == status){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized DbIngestionTicket claimIngestionTicket(final String owner) {
+        for(DbIngestionTicket ticket: ingestionTickets.values()){
+            if(ticket.getStatus() == DbIngestionTicket.Status.PENDING){
+                ticket.setStatus(DbIngestionTicket.Status.IN_PROGRESS);
+                ticket.setOwner(owner);
+                ticket.setUpdated(System.currentTimeMillis());
+                return ticket;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized int releaseIngestionTickets(final long claimedBefore) {
+        int released = 0;
+        for(DbIngestionTicket ticket: ingestionTickets.values()){
+            if(ticket.getStatus() == DbIngestionTicket.Status.IN_PROGRESS && ticket.getUpdated() < claimedBefore){
+                ticket.setStatus(DbIngestionTicket.Status.PENDING);
+                ticket.setOwner(null);
+                released++;
+            }
+        }
+        return released;
+    }
+
+    @Override
+    public synchronized int purgeIngestionTickets(final long closedBefore) {
+        int purged = 0;
+        final Iterator<DbIngestionTicket> tickets = ingestionTickets.values().iterator();
+        while(tickets.hasNext()){
+            final DbIngestionTicket ticket = tickets.next();
+            if(ticket.getStatus() != DbIngestionTicket.Status.PENDING && ticket.getStatus() != DbIngestionTicket.Status.IN_PROGRESS &&
+                    ticket.getUpdated() < closedBefore){
+                tickets.remove();
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    @Override
+    public List<DbChangeEvent> getChangeEvents(final long since, final int limit) {
+        // the testing handler does not log the changes
+        return Collections.emptyList();
+    }
+
+    @Override
+    public long getFirstChangeSequence() {
+        return 0;
+    }
+
+    @Override
+    public long getLastChangeSequence() {
+        return 0;
+    }
+
     public void loadTestCase(final DependencyCase testCase) {
         final DbOrganization organization = new DbOrganization();
         organization.setName(GrapesTestUtils.ORGANIZATION_NAME_4TEST);
@@ -125,5 +125,18 @@ public class GrapesAuthenticatorTest {
 		assertNotNull(result);
 		assertFalse(result.isPresent());
 	}
-    
+
+    @Test
+    public void digestIsComputedOncePerCredentials() throws AuthenticationException, UnknownHostException{
+        final RepositoryHandler repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        final GrapesAuthenticator authenticator = new GrapesAuthenticator(repositoryHandler);
+        final BasicCredentials credentials = new BasicCredentials(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST);
+
+        assertTrue(authenticator.authenticate(credentials).isPresent());
+        assertTrue(authenticator.authenticate(new BasicCredentials(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST)).isPresent());
+        assertFalse(authenticator.authenticate(new BasicCredentials(GrapesTestUtils.USER_4TEST, "wrongPassword")).isPresent());
+
+        assertEquals(2, authenticator.getDigestCacheStats().missCount());
+        assertEquals(1, authenticator.getDigestCacheStats().hitCount());
+    }
 }
@@ -1,5 +1,6 @@
 package org.axway.grapes.server.webapp.resources;
 
+import com.google.common.collect.Lists;
 import com.sun.jersey.api.client.ClientResponse;
 import com.sun.jersey.api.client.GenericType;
 import com.sun.jersey.api.client.WebResource;
@@ -10,6 +11,7 @@ import com.yammer.dropwizard.testing.ResourceTest;
 import com.yammer.dropwizard.views.ViewMessageBodyWriter;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.*;
+import org.axway.grapes.commons.utils.JsonUtils;
 import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.config.GrapesServerConfig;
 import org.axway.grapes.server.core.options.FiltersHolder;
@@ -19,13 +21,21 @@ import org.axway.grapes.server.db.datamodel.*;
 import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
 import org.eclipse.jetty.http.HttpStatus;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
@@ -86,6 +96,87 @@ public class ArtifactResourceTest extends ResourceTest {
         assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
     }
 
+    @Test
+    public void postArtifacts() throws AuthenticationException, UnknownHostException {
+        final Artifact artifact1 = DataModelFactory.createArtifact("groupId", "artifactId", "1.0.0", "classifier", "type", "extension");
+        final Artifact artifact2 = DataModelFactory.createArtifact("groupId", "artifactId", "2.0.0", "classifier", "type", "extension");
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, Lists.newArrayList(artifact1, artifact2));
+        assertNotNull(response);
+        assertEquals(HttpStatus.CREATED_201, response.getStatus());
+
+        final List<BulkItemStatus> statuses = response.getEntity(new GenericType<List<BulkItemStatus>>(){});
+        assertEquals(2, statuses.size());
+        assertEquals("groupId:artifactId:1.0.0:classifier:extension", statuses.get(0).getId());
+        assertEquals(HttpStatus.CREATED_201, statuses.get(0).getStatus());
+        assertEquals("groupId:artifactId:2.0.0:classifier:extension", statuses.get(1).getId());
+        assertEquals(HttpStatus.CREATED_201, statuses.get(1).getStatus());
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).storeArtifacts(captor.capture());
+        verify(repositoryHandler, never()).store((DbArtifact) anyObject());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    public void postArtifactsWithLicenses() throws AuthenticationException, UnknownHostException {
+        final DbLicense license = new DbLicense();
+        license.setName("Apache 2.0");
+        license.setRegexp("Apache.*2.*");
+        when(repositoryHandler.getAllLicenses()).thenReturn(Collections.singletonList(license));
+
+        final Artifact artifact1 = DataModelFactory.createArtifact("groupId", "artifactId", "1.0.0", "classifier", "type", "extension");
+        artifact1.addLicense("Apache License 2.0");
+        final Artifact artifact2 = DataModelFactory.createArtifact("groupId", "artifactId", "2.0.0", "classifier", "type", "extension");
+        artifact2.addLicense("custom");
+
+        // the license of an artifact that already has one is not overridden by an unknown license
+        final DbArtifact stored = new ModelMapper(repositoryHandler).getDbArtifact(artifact2);
+        stored.addLicense("GPL");
+        when(repositoryHandler.getArtifacts(anyCollectionOf(String.class))).thenReturn(Collections.singletonMap(stored.getGavc(), stored));
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, Lists.newArrayList(artifact1, artifact2));
+        assertNotNull(response);
+        assertEquals(HttpStatus.CREATED_201, response.getStatus());
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).storeArtifacts(captor.capture());
+        verify(repositoryHandler, never()).addLicenseToArtifact((DbArtifact) anyObject(), anyString());
+
+        final List<DbArtifact> storedArtifacts = new ArrayList<DbArtifact>(captor.getValue());
+        assertEquals(Collections.singletonList("Apache 2.0"), storedArtifacts.get(0).getLicenses());
+        assertTrue(storedArtifacts.get(1).getLicenses().isEmpty());
+    }
+
+    @Test
+    public void postArtifactStream() throws AuthenticationException, IOException {
+        final Artifact artifact = DataModelFactory.createArtifact("groupId", "artifactId", "1.0.0", "classifier", "type", "extension");
+        final Artifact malFormedArtifact = DataModelFactory.createArtifact("groupId", null, null, null, null, null);
+        final String body = JsonUtils.serialize(artifact) + "\n" + JsonUtils.serialize(malFormedArtifact);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(ServerAPI.NDJSON_MEDIA_TYPE).accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, body);
+        assertNotNull(response);
+        assertEquals(HttpStatus.MULTI_STATUS_207, response.getStatus());
+
+        final List<BulkItemStatus> statuses = response.getEntity(new GenericType<List<BulkItemStatus>>(){});
+        assertEquals(2, statuses.size());
+        assertEquals(HttpStatus.CREATED_201, statuses.get(0).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST_400, statuses.get(1).getStatus());
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).storeArtifacts(captor.capture());
+        assertEquals(1, captor.getValue().size());
+    }
+
     @Test
     public void updateDownloadURL() throws AuthenticationException, UnknownHostException {
         final DbArtifact artifact = new DbArtifact();
@@ -171,6 +262,93 @@ public class ArtifactResourceTest extends ResourceTest {
         assertEquals("gavc1", gavcsResults.get(0));
     }
 
+    @Test
+    public void getGavcsPage() throws UnknownHostException{
+        final ArgumentCaptor<FiltersHolder> filters = ArgumentCaptor.forClass(FiltersHolder.class);
+        when(repositoryHandler.getGavcs(filters.capture())).thenReturn(Lists.newArrayList("gavc2", "gavc3"));
+
+        WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.GET_GAVCS);
+        ClientResponse response = resource.queryParam(ServerAPI.PAGE_AFTER_PARAM, "gavc1")
+                .queryParam(ServerAPI.PAGE_LIMIT_PARAM, "2")
+                .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("gavc3", response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+        assertEquals(Lists.newArrayList("gavc2", "gavc3"), response.getEntity(new GenericType<List<String>>(){}));
+
+        assertEquals("gavc1", filters.getValue().getPageHandler().getAfter());
+        assertEquals(Integer.valueOf(2), filters.getValue().getPageHandler().getLimit());
+
+        response = resource.queryParam(ServerAPI.PAGE_LIMIT_PARAM, "3").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNull(response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+
+        response = resource.queryParam(ServerAPI.PAGE_LIMIT_PARAM, "-1").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
+    }
+
+    @Test
+    public void streamGavcs() throws UnknownHostException{
+        when(repositoryHandler.streamGavcs((FiltersHolder) anyObject())).thenReturn(Lists.newArrayList("gavc1", "gavc2"));
+
+        WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.GET_GAVCS);
+        ClientResponse response = resource.queryParam(ServerAPI.STREAM_PARAM, "true").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final List<String> gavcsResults = response.getEntity(new GenericType<List<String>>(){});
+        assertEquals(Lists.newArrayList("gavc1", "gavc2"), gavcsResults);
+
+        response = resource.accept(ServerAPI.NDJSON_MEDIA_TYPE).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(ServerAPI.NDJSON_MEDIA_TYPE, response.getType().toString());
+        assertEquals("\"gavc1\"\n\"gavc2\"\n", response.getEntity(String.class));
+        verify(repositoryHandler, never()).getGavcs((FiltersHolder) anyObject());
+    }
+
+    @Test
+    public void streamGavcsPage() throws UnknownHostException{
+        when(repositoryHandler.streamGavcs((FiltersHolder) anyObject())).thenReturn(Lists.newArrayList("gavc2", "gavc3"));
+
+        WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.GET_GAVCS)
+                .queryParam(ServerAPI.PAGE_LIMIT_PARAM, "2");
+        ClientResponse response = resource.queryParam(ServerAPI.STREAM_PARAM, "true").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("gavc3", response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+        assertEquals(Lists.newArrayList("gavc2", "gavc3"), response.getEntity(new GenericType<List<String>>(){}));
+
+        response = resource.accept(ServerAPI.NDJSON_MEDIA_TYPE).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("gavc3", response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+        assertEquals("\"gavc2\"\n\"gavc3\"\n", response.getEntity(String.class));
+
+        when(repositoryHandler.streamGavcs((FiltersHolder) anyObject())).thenReturn(Lists.newArrayList("gavc4"));
+        response = resource.accept(ServerAPI.NDJSON_MEDIA_TYPE).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNull(response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+    }
+
+    @Test
+    public void streamAllArtifacts() throws IOException {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.setArtifactId("artifactId");
+        artifact.setVersion("version");
+        when(repositoryHandler.streamArtifacts((FiltersHolder) anyObject())).thenReturn(Lists.newArrayList(artifact, artifact));
+
+        final WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.GET_ALL);
+        final ClientResponse response = resource.accept(ServerAPI.NDJSON_MEDIA_TYPE).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final String[] lines = response.getEntity(String.class).split("\n");
+        assertEquals(2, lines.length);
+        for(String line: lines){
+            assertEquals(artifact.getGavc(), JsonUtils.unserializeArtifact(line).getGavc());
+        }
+        verify(repositoryHandler, never()).getArtifacts((FiltersHolder) anyObject());
+    }
+
     @Test
     public void getAllGroupIds() throws UnknownHostException{
         final List<String> groupIds = new ArrayList<String>();
@@ -227,6 +405,38 @@ public class ArtifactResourceTest extends ResourceTest {
     }
 
 
+    @Test
+    public void getAnArtifactWithItsTag() throws UnknownHostException{
+        final DbArtifact dbArtifact = new DbArtifact();
+        dbArtifact.setGroupId("groupId");
+        dbArtifact.setArtifactId("artifactId");
+        dbArtifact.setVersion("1.0.0-SNAPSHOT");
+        dbArtifact.setChangeStamp(1000000L);
+        when(repositoryHandler.getArtifact(dbArtifact.getGavc())).thenReturn(dbArtifact);
+
+        final WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + "/" + dbArtifact.getGavc());
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final EntityTag tag = response.getEntityTag();
+        assertNotNull(tag);
+        assertFalse(tag.isWeak());
+        assertEquals(dbArtifact.getChangeStamp(), response.getLastModified().getTime());
+
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_MODIFIED_304, response.getStatus());
+        assertEquals(tag, response.getEntityTag());
+
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_MODIFIED_SINCE, "Thu, 01 Jan 1970 00:20:00 GMT").get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_MODIFIED_304, response.getStatus());
+
+        dbArtifact.setDoNotUse(true);
+        dbArtifact.setChangeStamp(2000000L);
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNotEquals(tag, response.getEntityTag());
+    }
+
     @Test
     public void deleteAnArtifact() throws UnknownHostException, AuthenticationException{
         when(repositoryHandler.getArtifact(anyString())).thenReturn(new DbArtifact());
@@ -266,6 +476,52 @@ public class ArtifactResourceTest extends ResourceTest {
         assertEquals(Scope.TEST, dependencyList.get(0).getScope());
     }
 
+    @Test
+    public void getTransitiveAncestors() throws UnknownHostException {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.setArtifactId("artifactId");
+        artifact.setVersion("version");
+
+        final DbModule library = new DbModule();
+        library.setName("library");
+        library.setVersion("1.0");
+        final DbArtifact libraryArtifact = new DbArtifact();
+        libraryArtifact.setGroupId("groupId");
+        libraryArtifact.setArtifactId("library");
+        libraryArtifact.setVersion("1.0");
+        library.addArtifact(libraryArtifact);
+        library.updateHasAndUse();
+
+        final DbModule application = new DbModule();
+        application.setName("application");
+        application.setVersion("2.0");
+
+        when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
+        when(repositoryHandler.getModulesUsing(Collections.singleton(artifact.getGavc()))).thenReturn(Collections.singletonList(library));
+        when(repositoryHandler.getModulesUsing(Collections.singletonList(libraryArtifact.getGavc()))).thenReturn(Collections.singletonList(application));
+
+        WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + "/" + artifact.getGavc() + ServerAPI.GET_ANCESTORS + ServerAPI.GET_TRANSITIVE);
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final List<Map<String, Object>> ancestors = response.getEntity(new GenericType<List<Map<String, Object>>>(){});
+        assertEquals(2, ancestors.size());
+        assertEquals(library.getId(), ancestors.get(0).get("id"));
+        assertEquals(1, ancestors.get(0).get("depth"));
+        assertEquals(application.getName(), ancestors.get(1).get("name"));
+        assertEquals(application.getVersion(), ancestors.get(1).get("version"));
+        assertEquals(2, ancestors.get(1).get("depth"));
+
+        response = resource.queryParam(ServerAPI.DEPTH_PARAM, "1").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(1, response.getEntity(new GenericType<List<Map<String, Object>>>(){}).size());
+
+        response = resource.queryParam(ServerAPI.DEPTH_PARAM, "0").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
+    }
+
     @Test
     public void getLicenses() throws UnknownHostException {
         final DbArtifact artifact = new DbArtifact();
@@ -339,6 +595,32 @@ public class ArtifactResourceTest extends ResourceTest {
         assertEquals("2", lastVersion);
     }
 
+    @Test
+    public void getLastVersionFromTheLatestVersions() throws UnknownHostException {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("groupId");
+        artifact.setArtifactId("artifactId");
+        artifact.setVersion("1.0.0-1");
+
+        final DbLatestVersion latestVersion = new DbLatestVersion();
+        latestVersion.setId(DbLatestVersion.generateID(artifact));
+        latestVersion.setVersions(Lists.newArrayList("1.0.0-1", "1.2.0-SNAPSHOT"));
+        latestVersion.setLastRelease("1.0.0-1");
+        latestVersion.setLastVersion("1.2.0-SNAPSHOT");
+
+        when(repositoryHandler.getArtifact(artifact.getGavc())).thenReturn(artifact);
+        when(repositoryHandler.getLatestVersions(Collections.singleton(latestVersion.getId())))
+                .thenReturn(Collections.singletonMap(latestVersion.getId(), latestVersion));
+
+        WebResource resource = client().resource("/" + ServerAPI.ARTIFACT_RESOURCE + "/" + artifact.getGavc() + ServerAPI.GET_LAST_VERSION);
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("1.2.0-SNAPSHOT", response.getEntity(String.class));
+
+        verify(repositoryHandler, never()).getArtifactVersions((DbArtifact) anyObject());
+    }
+
     @Test
     public void getAddLicenseToArtifact() throws AuthenticationException, UnknownHostException {
         final DbArtifact artifact = new DbArtifact();
@@ -0,0 +1,102 @@
+package org.axway.grapes.server.webapp.resources;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.GenericType;
+import com.sun.jersey.api.client.WebResource;
+import com.yammer.dropwizard.auth.basic.BasicAuthProvider;
+import com.yammer.dropwizard.testing.ResourceTest;
+import com.yammer.dropwizard.views.ViewMessageBodyWriter;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.axway.grapes.commons.datamodel.ChangeEvent;
+import org.axway.grapes.server.GrapesTestUtils;
+import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.db.RepositoryHandler;
+import org.axway.grapes.server.db.datamodel.DbChangeEvent;
+import org.axway.grapes.server.db.datamodel.DbCredential;
+import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
+import org.eclipse.jetty.http.HttpStatus;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChangeResourceTest extends ResourceTest {
+
+    private RepositoryHandler repositoryHandler;
+
+    @Override
+    protected void setUpResources() throws Exception {
+        repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
+        final ChangeResource resource = new ChangeResource(repositoryHandler, mock(GrapesServerConfig.class));
+        addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repositoryHandler), "test auth"));
+        addProvider(ViewMessageBodyWriter.class);
+        addResource(resource);
+    }
+
+    @Test
+    public void getDocumentation(){
+        WebResource resource = client().resource("/" + ServerAPI.CHANGES_RESOURCE);
+        ClientResponse response = resource.type(MediaType.TEXT_HTML).get(ClientResponse.class);
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+    }
+
+    @Test
+    public void getChanges(){
+        final List<DbChangeEvent> events = new ArrayList<DbChangeEvent>();
+        events.add(new DbChangeEvent(6, DbChangeEvent.EntityType.ARTIFACT, "groupId:artifactId:1.0.0::jar", DbChangeEvent.Operation.UPDATE));
+        events.add(new DbChangeEvent(7, DbChangeEvent.EntityType.MODULE, "module:1.0.0", DbChangeEvent.Operation.DELETE));
+        when(repositoryHandler.getChangeEvents(5, 2)).thenReturn(events);
+        when(repositoryHandler.getChangeEvents(7, 2)).thenReturn(new ArrayList<DbChangeEvent>());
+
+        WebResource resource = client().resource("/" + ServerAPI.CHANGES_RESOURCE)
+                .queryParam(ServerAPI.SINCE_PARAM, "5")
+                .queryParam(ServerAPI.PAGE_LIMIT_PARAM, "2");
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("7", response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+
+        final List<ChangeEvent> changes = response.getEntity(new GenericType<List<ChangeEvent>>(){});
+        assertEquals(2, changes.size());
+        assertEquals(6, changes.get(0).getSequence());
+        assertEquals(ChangeEvent.ARTIFACT, changes.get(0).getEntityType());
+        assertEquals("groupId:artifactId:1.0.0::jar", changes.get(0).getEntityId());
+        assertEquals(ChangeEvent.UPDATE, changes.get(0).getOperation());
+        assertEquals(ChangeEvent.MODULE, changes.get(1).getEntityType());
+        assertEquals(ChangeEvent.DELETE, changes.get(1).getOperation());
+
+        resource = client().resource("/" + ServerAPI.CHANGES_RESOURCE)
+                .queryParam(ServerAPI.SINCE_PARAM, "7")
+                .queryParam(ServerAPI.PAGE_LIMIT_PARAM, "2");
+        response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNull(response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+        assertTrue(response.getEntity(new GenericType<List<ChangeEvent>>(){}).isEmpty());
+    }
+
+    @Test
+    public void getChangesThatAreNoLongerKept(){
+        when(repositoryHandler.getFirstChangeSequence()).thenReturn(100L);
+
+        WebResource resource = client().resource("/" + ServerAPI.CHANGES_RESOURCE)
+                .queryParam(ServerAPI.SINCE_PARAM, "5");
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.GONE_410, response.getStatus());
+    }
+
+    @Test
+    public void getLastSequence(){
+        when(repositoryHandler.getLastChangeSequence()).thenReturn(42L);
+
+        WebResource resource = client().resource("/" + ServerAPI.CHANGES_RESOURCE + ServerAPI.GET_LAST_SEQUENCE);
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(Long.valueOf(42), response.getEntity(Long.class));
+    }
+}
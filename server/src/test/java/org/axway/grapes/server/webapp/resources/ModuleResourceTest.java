@@ -11,12 +11,16 @@ import com.yammer.dropwizard.testing.ResourceTest;
 import com.yammer.dropwizard.views.ViewMessageBodyWriter;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.*;
+import org.axway.grapes.commons.utils.JsonUtils;
 import org.axway.grapes.server.GrapesTestUtils;
 import org.axway.grapes.server.config.GrapesServerConfig;
+import org.axway.grapes.server.core.ServerContext;
+import org.axway.grapes.server.core.ingestion.IngestionQueue;
 import org.axway.grapes.server.core.options.FiltersHolder;
 import org.axway.grapes.server.db.RepositoryHandler;
 import org.axway.grapes.server.db.datamodel.DbArtifact;
 import org.axway.grapes.server.db.datamodel.DbCredential;
+import org.axway.grapes.server.db.datamodel.DbIngestionTicket;
 import org.axway.grapes.server.db.datamodel.DbLicense;
 import org.axway.grapes.server.db.datamodel.DbModule;
 import org.axway.grapes.server.webapp.auth.GrapesAuthenticator;
@@ -24,8 +28,12 @@ import org.eclipse.jetty.http.HttpStatus;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +41,7 @@ import java.util.Map;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
@@ -40,13 +49,17 @@ import static org.mockito.Mockito.*;
 public class ModuleResourceTest extends ResourceTest {
 
     private RepositoryHandler repositoryHandler;
+    private ServerContext serverContext;
 
     @Override
     protected void setUpResources() throws Exception {
         repositoryHandler = GrapesTestUtils.getRepoHandlerMock();
         final GrapesServerConfig config =mock(GrapesServerConfig.class);
         
-        final ModuleResource resource = new ModuleResource(repositoryHandler, config);
+        serverContext = new ServerContext(repositoryHandler);
+        serverContext.setIngestionQueue(new IngestionQueue(repositoryHandler, 10));
+
+        final ModuleResource resource = new ModuleResource(repositoryHandler, config, serverContext);
         addProvider(new BasicAuthProvider<DbCredential>(new GrapesAuthenticator(repositoryHandler), "test auth"));
         addProvider(ViewMessageBodyWriter.class);
         addResource(resource);
@@ -89,6 +102,75 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
     }
 
+    @Test
+    public void postModuleAsynchronously() throws UnknownHostException, AuthenticationException {
+        final Module module = DataModelFactory.createModule("module", "1.0.0-SNAPSHOT");
+        final Artifact artifact = DataModelFactory.createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifactId", "version", "classifier", "type", "extension");
+        module.addArtifact(artifact);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE).queryParam(ServerAPI.ASYNC_PARAM, "true");
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).post(ClientResponse.class, module);
+        assertNotNull(response);
+        assertEquals(HttpStatus.ACCEPTED_202, response.getStatus());
+
+        final IngestionTicket ticket = response.getEntity(IngestionTicket.class);
+        assertNotNull(ticket.getId());
+        assertEquals(DbIngestionTicket.Status.PENDING.name(), ticket.getStatus());
+        assertTrue(response.getLocation().getPath().endsWith(ServerAPI.INGESTION + "/" + ticket.getId()));
+
+        final ArgumentCaptor<DbIngestionTicket> captor = ArgumentCaptor.forClass(DbIngestionTicket.class);
+        verify(repositoryHandler, times(1)).store(captor.capture());
+        verify(repositoryHandler, never()).store((DbModule) anyObject());
+        assertEquals(ticket.getId(), captor.getValue().getId());
+        assertEquals(GrapesTestUtils.USER_4TEST, captor.getValue().getUser());
+    }
+
+    @Test
+    public void postMalFormedModuleAsynchronously() throws UnknownHostException, AuthenticationException {
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE).queryParam(ServerAPI.ASYNC_PARAM, "true");
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, DataModelFactory.createModule(null, null));
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
+
+        verify(repositoryHandler, never()).store((DbIngestionTicket) anyObject());
+    }
+
+    @Test
+    public void postModuleOnAFullQueue() throws UnknownHostException, AuthenticationException {
+        when(repositoryHandler.getIngestionTicketCount(DbIngestionTicket.Status.PENDING)).thenReturn(10L);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE).queryParam(ServerAPI.ASYNC_PARAM, "true");
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, DataModelFactory.createModule("module", "1.0.0"));
+        assertNotNull(response);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE_503, response.getStatus());
+        assertEquals(String.valueOf(IngestionQueue.RETRY_AFTER), response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    public void getIngestionTicket(){
+        final DbIngestionTicket dbTicket = new DbIngestionTicket();
+        dbTicket.setId("ticketId");
+        dbTicket.setStatus(DbIngestionTicket.Status.FAILED);
+        dbTicket.setMessage("error");
+        when(repositoryHandler.getIngestionTicket("ticketId")).thenReturn(dbTicket);
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.INGESTION + "/ticketId");
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final IngestionTicket ticket = response.getEntity(IngestionTicket.class);
+        assertEquals("ticketId", ticket.getId());
+        assertEquals(DbIngestionTicket.Status.FAILED.name(), ticket.getStatus());
+        assertEquals("error", ticket.getMessage());
+
+        response = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.INGESTION + "/unknown").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_FOUND_404, response.getStatus());
+    }
+
     @Test
     public void postModuleWithWrongCredentials() throws UnknownHostException, AuthenticationException {
         final Module module = DataModelFactory.createModule("module", "1.0.0-SNAPSHOT");
@@ -102,6 +184,85 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(HttpStatus.UNAUTHORIZED_401, response.getStatus());
     }
 
+    @Test
+    public void postModules() throws UnknownHostException, AuthenticationException {
+        final Module module = DataModelFactory.createModule("module", "1.0.0-SNAPSHOT");
+        final Artifact artifact = DataModelFactory.createArtifact(GrapesTestUtils.CORPORATE_GROUPID_4TEST, "artifactId", "version", "classifier", "type", "extension");
+        module.addArtifact(artifact);
+        final Module malFormedModule = DataModelFactory.createModule("module2", null);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, Lists.newArrayList(module, malFormedModule));
+        assertNotNull(response);
+        assertEquals(HttpStatus.MULTI_STATUS_207, response.getStatus());
+
+        final List<BulkItemStatus> statuses = response.getEntity(new GenericType<List<BulkItemStatus>>(){});
+        assertEquals(2, statuses.size());
+        assertEquals(DbModule.generateID("module", "1.0.0-SNAPSHOT"), statuses.get(0).getId());
+        assertEquals(HttpStatus.CREATED_201, statuses.get(0).getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST_400, statuses.get(1).getStatus());
+        assertEquals("Module version cannot be null or empty!", statuses.get(1).getMessage());
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).storeModules(captor.capture());
+        verify(repositoryHandler, times(1)).storeArtifacts(anyCollection());
+        verify(repositoryHandler, never()).store((DbModule) anyObject());
+
+        assertEquals(1, captor.getValue().size());
+        final DbModule dbModule = (DbModule) captor.getValue().iterator().next();
+        assertEquals(GrapesTestUtils.ORGANIZATION_NAME_4TEST, dbModule.getOrganization());
+    }
+
+    @Test
+    public void postModuleStream() throws IOException, AuthenticationException {
+        final Module module1 = DataModelFactory.createModule("module1", "1.0.0-SNAPSHOT");
+        final Module module2 = DataModelFactory.createModule("module2", "1.0.0-SNAPSHOT");
+        final String body = JsonUtils.serialize(module1) + "\n\n{ not a module\n" + JsonUtils.serialize(module2) + "\n";
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(ServerAPI.NDJSON_MEDIA_TYPE).accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, body);
+        assertNotNull(response);
+        assertEquals(HttpStatus.MULTI_STATUS_207, response.getStatus());
+
+        final List<BulkItemStatus> statuses = response.getEntity(new GenericType<List<BulkItemStatus>>(){});
+        assertEquals(3, statuses.size());
+        assertEquals(HttpStatus.CREATED_201, statuses.get(0).getStatus());
+        assertEquals("line 3", statuses.get(1).getId());
+        assertEquals(HttpStatus.BAD_REQUEST_400, statuses.get(1).getStatus());
+        assertEquals(DbModule.generateID("module2", "1.0.0-SNAPSHOT"), statuses.get(2).getId());
+        assertEquals(HttpStatus.CREATED_201, statuses.get(2).getStatus());
+
+        final ArgumentCaptor<Collection> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(repositoryHandler, times(1)).storeModules(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    public void postMalFormedModules() throws UnknownHostException, AuthenticationException {
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, Lists.newArrayList(DataModelFactory.createModule(null, null)));
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST_400, response.getStatus());
+
+        verify(repositoryHandler, never()).storeModules(anyCollection());
+    }
+
+    @Test
+    public void postModulesWithWrongCredentials() throws UnknownHostException, AuthenticationException {
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.WRONG_USER_4TEST, GrapesTestUtils.WRONG_PASSWORD_4TEST));
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BULK);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, Lists.newArrayList(DataModelFactory.createModule("module", "1.0.0-SNAPSHOT")));
+        assertNotNull(response);
+        assertEquals(HttpStatus.UNAUTHORIZED_401, response.getStatus());
+    }
+
     @Test
     public void getAllModuleNames() throws UnknownHostException{
         when(repositoryHandler.getModuleNames((FiltersHolder) anyObject())).thenReturn(Lists.newArrayList("module1"));
@@ -117,6 +278,22 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals("module1", results.get(0));
     }
 
+    @Test
+    public void streamModuleNames() throws UnknownHostException{
+        when(repositoryHandler.streamModuleNames((FiltersHolder) anyObject())).thenReturn(Lists.newArrayList("module1", "module2"));
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_NAMES);
+        ClientResponse response = resource.queryParam(ServerAPI.STREAM_PARAM, "true").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(Lists.newArrayList("module1", "module2"), response.getEntity(new GenericType<List<String>>(){}));
+
+        response = resource.accept(ServerAPI.NDJSON_MEDIA_TYPE).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals("\"module1\"\n\"module2\"\n", response.getEntity(String.class));
+        verify(repositoryHandler, never()).getModuleNames((FiltersHolder) anyObject());
+    }
+
     @Test
     public void getModuleVersions() throws UnknownHostException{
         final String moduleName = "moduleTest";
@@ -152,6 +329,38 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(dbModule.getVersion(), results.getVersion());
     }
 
+    @Test
+    public void getModuleWithItsTag(){
+        final DbModule dbModule  = new DbModule();
+        dbModule.setName("moduleTest");
+        dbModule.setVersion("1.0.0");
+        dbModule.setChangeStamp(1000L);
+        when(repositoryHandler.getModule(dbModule.getId())).thenReturn(dbModule);
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + "/" + dbModule.getName() + "/" + dbModule.getVersion());
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final EntityTag tag = response.getEntityTag();
+        assertNotNull(tag);
+        assertFalse(tag.isWeak());
+        assertNotNull(response.getLastModified());
+
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_MODIFIED_304, response.getStatus());
+
+        // the html representation has its own tag
+        response = resource.accept(MediaType.TEXT_HTML).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNotEquals(tag, response.getEntityTag());
+
+        dbModule.setChangeStamp(2000L);
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNotEquals(tag, response.getEntityTag());
+        assertEquals(dbModule.getName(), response.getEntity(Module.class).getName());
+    }
+
     @Test
     public void getAllModules(){
         final DbModule dbModule  = new DbModule();
@@ -170,6 +379,64 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(1, results.size());
     }
 
+    @Test
+    public void getModulesPage(){
+        final DbModule dbModule  = new DbModule();
+        dbModule.setName("moduleTest");
+        dbModule.setVersion("1.0.0");
+        when(repositoryHandler.getModules((FiltersHolder) anyObject())).thenReturn(Collections.singletonList(dbModule));
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_ALL);
+        final ClientResponse response = resource.queryParam(ServerAPI.PAGE_LIMIT_PARAM, "1").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(dbModule.getId(), response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+
+        final List<Module> results = response.getEntity(new GenericType<List<Module>>() {
+        });
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void streamAllModules(){
+        final DbModule dbModule  = new DbModule();
+        dbModule.setName("moduleTest");
+        dbModule.setVersion("1.0.0");
+        when(repositoryHandler.streamModules((FiltersHolder) anyObject())).thenReturn(Collections.singletonList(dbModule));
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_ALL);
+        final ClientResponse response = resource.queryParam(ServerAPI.STREAM_PARAM, "true").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final List<Module> results = response.getEntity(new GenericType<List<Module>>() {
+        });
+        assertEquals(1, results.size());
+        assertEquals(dbModule.getName(), results.get(0).getName());
+        assertEquals(dbModule.getVersion(), results.get(0).getVersion());
+        verify(repositoryHandler, never()).getModules((FiltersHolder) anyObject());
+    }
+
+    @Test
+    public void streamModulesPage(){
+        final DbModule dbModule  = new DbModule();
+        dbModule.setName("moduleTest");
+        dbModule.setVersion("1.0.0");
+        when(repositoryHandler.streamModules((FiltersHolder) anyObject())).thenReturn(Collections.singletonList(dbModule));
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_ALL)
+                .queryParam(ServerAPI.PAGE_LIMIT_PARAM, "1");
+        ClientResponse response = resource.queryParam(ServerAPI.STREAM_PARAM, "true").accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(dbModule.getId(), response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+        assertEquals(1, response.getEntity(new GenericType<List<Module>>(){}).size());
+
+        response = resource.accept(ServerAPI.NDJSON_MEDIA_TYPE).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(dbModule.getId(), response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER));
+        verify(repositoryHandler, never()).getModules((FiltersHolder) anyObject());
+    }
+
     @Test
     public void deleteModule() throws AuthenticationException, UnknownHostException {
         final DbModule dbModule  = new DbModule();
@@ -252,6 +519,36 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(ancestor.getVersion(), results.get(0).getSourceVersion());
     }
 
+    @Test
+    public void getModuleTransitiveAncestors(){
+        final DbModule dbModule  = new DbModule();
+        dbModule.setName("moduleTest");
+        dbModule.setVersion("1.0.0");
+        final DbArtifact dbArtifact = new DbArtifact();
+        dbArtifact.setGroupId(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        dbArtifact.setArtifactId("artifact1");
+        dbArtifact.setVersion("1.0.0");
+        dbModule.addArtifact(dbArtifact);
+        dbModule.updateHasAndUse();
+
+        final DbModule ancestor = new DbModule();
+        ancestor.setName("ancestor");
+        ancestor.setVersion("2.0.0");
+
+        when(repositoryHandler.getModule(dbModule.getId())).thenReturn(dbModule);
+        when(repositoryHandler.getModulesUsing(Collections.singleton(dbArtifact.getGavc()))).thenReturn(Lists.newArrayList(dbModule, ancestor));
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + "/" + dbModule.getName() + "/" + dbModule.getVersion()+ ServerAPI.GET_ANCESTORS + ServerAPI.GET_TRANSITIVE);
+        final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final List<Map<String, Object>> results = response.getEntity(new GenericType<List<Map<String, Object>>>(){});
+        assertEquals(1, results.size());
+        assertEquals(ancestor.getId(), results.get(0).get("id"));
+        assertEquals(1, results.get(0).get("depth"));
+    }
+
     @Test
     public void getModuleDependencies(){
         final DbModule dbModule  = new DbModule();
@@ -282,6 +579,49 @@ public class ModuleResourceTest extends ResourceTest {
         assertEquals(dbModule.getVersion(), results.get(0).getSourceVersion());
     }
 
+    @Test
+    public void getModuleDependenciesWithTheirTag(){
+        final DbModule dbModule  = new DbModule();
+        dbModule.setName("moduleTest");
+        dbModule.setVersion("1.0.0");
+        dbModule.setChangeStamp(1000L);
+        final DbArtifact dbArtifact = new DbArtifact();
+        dbArtifact.setGroupId(GrapesTestUtils.CORPORATE_GROUPID_4TEST);
+        dbArtifact.setArtifactId("artifact1");
+        dbArtifact.setVersion("1.2.3");
+        dbArtifact.setChangeStamp(1000L);
+        dbModule.addDependency(dbArtifact.getGavc(), Scope.COMPILE);
+        when(repositoryHandler.getModule(dbModule.getId())).thenReturn(dbModule);
+        when(repositoryHandler.getArtifacts(anyCollection())).thenReturn(Collections.singletonMap(dbArtifact.getGavc(), dbArtifact));
+
+        final WebResource resource = client().resource("/" + ServerAPI.MODULE_RESOURCE + "/" + dbModule.getName() + "/" + dbModule.getVersion()+ ServerAPI.GET_DEPENDENCIES)
+                .queryParam(ServerAPI.SCOPE_COMPILE_PARAM, "true")
+                .queryParam(ServerAPI.SHOW_THIRPARTY_PARAM, "true");
+        ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertEquals(1, response.getEntity(new GenericType<List<Dependency>>(){}).size());
+
+        final EntityTag tag = response.getEntityTag();
+        assertNotNull(tag);
+        assertTrue(tag.isWeak());
+        assertNull(response.getLastModified());
+
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.NOT_MODIFIED_304, response.getStatus());
+
+        // other filters give another view
+        response = resource.queryParam(ServerAPI.SCOPE_TEST_PARAM, "true")
+                .accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        // a dependency that is stored again changes the view
+        dbArtifact.setChangeStamp(2000L);
+        serverContext.getReportCache().invalidate(dbArtifact);
+        response = resource.accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, tag.toString()).get(ClientResponse.class);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        assertNotEquals(tag, response.getEntityTag());
+    }
+
     @Test
     public void getModuleDependencyReport(){
         final DbModule dbModule  = new DbModule();
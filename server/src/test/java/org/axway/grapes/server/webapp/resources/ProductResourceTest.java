@@ -511,4 +511,46 @@ public class ProductResourceTest extends ResourceTest {
         assertEquals(HttpStatus.UNAUTHORIZED_401, response.getStatus());
     }
 
+    @Test
+    public void promoteDelivery(){
+        final DbModule module = new DbModule();
+        module.setName("module1");
+        module.setVersion("1.0.0");
+        when(repositoryHandler.getModule(module.getId())).thenReturn(module);
+
+        final DbProduct product = new DbProduct();
+        product.setName("product1");
+        product.getDeliveries().put("delivery1", Collections.singletonList(module.getId()));
+        when(repositoryHandler.getProduct(product.getName())).thenReturn(product);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        WebResource resource = client().resource("/" + ServerAPI.PRODUCT_RESOURCE + "/" + product.getName() + ServerAPI.GET_DELIVERIES + "/delivery1" + ServerAPI.PROMOTION);
+        ClientResponse response = resource.post(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        verify(repositoryHandler, times(1)).promoteModules(Collections.singletonList(module.getId()));
+    }
+
+    @Test
+    public void promoteDeliveryThatDoesNotExist(){
+        final DbProduct product = new DbProduct();
+        product.setName("product1");
+        when(repositoryHandler.getProduct(product.getName())).thenReturn(product);
+
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.USER_4TEST, GrapesTestUtils.PASSWORD_4TEST));
+        WebResource resource = client().resource("/" + ServerAPI.PRODUCT_RESOURCE + "/" + product.getName() + ServerAPI.GET_DELIVERIES + "/delivery1" + ServerAPI.PROMOTION);
+        ClientResponse response = resource.post(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_FOUND_404, response.getStatus());
+    }
+
+    @Test
+    public void promoteDeliveryWithoutPromotionRights(){
+        client().addFilter(new HTTPBasicAuthFilter(GrapesTestUtils.WRONG_USER_4TEST, GrapesTestUtils.WRONG_PASSWORD_4TEST));
+        WebResource resource = client().resource("/" + ServerAPI.PRODUCT_RESOURCE + "/product1" + ServerAPI.GET_DELIVERIES + "/delivery1" + ServerAPI.PROMOTION);
+        ClientResponse response = resource.post(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.UNAUTHORIZED_401, response.getStatus());
+    }
 }
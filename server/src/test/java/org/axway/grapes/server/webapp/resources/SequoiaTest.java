@@ -20,6 +20,7 @@ import java.net.UnknownHostException;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -49,6 +50,40 @@ public class SequoiaTest extends ResourceTest {
         assertNotNull(graph);
     }
 
+    @Test
+    public void getModuleGraphAsDot() throws UnknownHostException {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1");
+        when(repositoryHandler.getModule(anyString())).thenReturn(module);
+
+        WebResource resource = client().resource("/" + ServerAPI.SEQUOIA_RESOURCE + "/graph/module/1");
+        ClientResponse response = resource.accept(ServerAPI.DOT_MEDIA_TYPE).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final String dot = response.getEntity(String.class);
+        assertTrue(dot.startsWith("digraph {"));
+        assertTrue(dot.contains("\"module\" [label=\"module\\n1\", style=bold];"));
+    }
+
+    @Test
+    public void getModuleGraphAsGraphML() throws UnknownHostException {
+        final DbModule module = new DbModule();
+        module.setName("module");
+        module.setVersion("1");
+        when(repositoryHandler.getModule(anyString())).thenReturn(module);
+
+        WebResource resource = client().resource("/" + ServerAPI.SEQUOIA_RESOURCE + "/graph/module/1");
+        ClientResponse response = resource.accept(ServerAPI.GRAPHML_MEDIA_TYPE).get(ClientResponse.class);
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+
+        final String graphml = response.getEntity(String.class);
+        assertTrue(graphml.contains("<graph edgedefault=\"directed\">"));
+        assertTrue(graphml.contains("<node id=\"module\"><data key=\"version\">1</data>"));
+    }
+
     @Test
     public void getTreeGraph() throws UnknownHostException {
         when(repositoryHandler.getModule(anyString())).thenReturn(new DbModule());
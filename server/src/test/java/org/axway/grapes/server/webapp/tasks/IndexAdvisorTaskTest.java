@@ -0,0 +1,37 @@
+package org.axway.grapes.server.webapp.tasks;
+
+import com.mongodb.BasicDBObject;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class IndexAdvisorTaskTest {
+
+    @Test
+    public void legacyExplanations(){
+        assertEquals("has_1", IndexAdvisorTask.getUsedIndex(new BasicDBObject("cursor", "BtreeCursor has_1")));
+        assertNull(IndexAdvisorTask.getUsedIndex(new BasicDBObject("cursor", "BasicCursor")));
+    }
+
+    @Test
+    public void queryPlannerExplanations(){
+        final BasicDBObject indexScan = new BasicDBObject("stage", "IXSCAN").append("indexName", "uses_1");
+        final BasicDBObject fetch = new BasicDBObject("stage", "FETCH").append("inputStage", indexScan);
+        assertEquals("uses_1", IndexAdvisorTask.getUsedIndex(new BasicDBObject("queryPlanner", new BasicDBObject("winningPlan", fetch))));
+
+        final BasicDBObject or = new BasicDBObject("stage", "OR").append("inputStages", Arrays.asList(new BasicDBObject("stage", "COLLSCAN"), indexScan));
+        assertEquals("uses_1", IndexAdvisorTask.getUsedIndex(new BasicDBObject("queryPlanner", new BasicDBObject("winningPlan", or))));
+
+        final BasicDBObject scan = new BasicDBObject("stage", "COLLSCAN");
+        assertNull(IndexAdvisorTask.getUsedIndex(new BasicDBObject("queryPlanner", new BasicDBObject("winningPlan", scan))));
+    }
+
+    @Test
+    public void probesCoverTheRepositoryQueries(){
+        assertFalse(IndexAdvisorTask.getProbes().isEmpty());
+    }
+}
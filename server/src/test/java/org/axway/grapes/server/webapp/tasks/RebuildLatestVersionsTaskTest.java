@@ -0,0 +1,42 @@
+package org.axway.grapes.server.webapp.tasks;
+
+import com.google.common.collect.ImmutableMultimap;
+import org.axway.grapes.server.db.datamodel.DbArtifact;
+import org.axway.grapes.server.db.datamodel.DbLatestVersion;
+import org.axway.grapes.server.materials.TestingRepositoryHandler;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+public class RebuildLatestVersionsTaskTest {
+
+    private static DbArtifact createArtifact(final String version) {
+        final DbArtifact artifact = new DbArtifact();
+        artifact.setGroupId("org.axway.grapes.test");
+        artifact.setArtifactId("artifact");
+        artifact.setVersion(version);
+        return artifact;
+    }
+
+    @Test
+    public void rebuildTheLatestVersions() throws Exception {
+        final TestingRepositoryHandler repoHandler = new TestingRepositoryHandler();
+        repoHandler.store(createArtifact("1.0.0-1"));
+        repoHandler.store(createArtifact("1.1.0-2"));
+        repoHandler.store(createArtifact("2.0.0-SNAPSHOT"));
+
+        new RebuildLatestVersionsTask(repoHandler).execute(ImmutableMultimap.<String, String>of(), mock(PrintWriter.class));
+
+        final String id = DbLatestVersion.generateID(createArtifact("1.0.0-1"));
+        final Map<String, DbLatestVersion> latestVersions = repoHandler.getLatestVersions(Collections.singleton(id));
+        assertEquals(1, latestVersions.size());
+        assertEquals(3, latestVersions.get(id).getVersions().size());
+        assertEquals("1.1.0-2", latestVersions.get(id).getLastRelease());
+        assertEquals("2.0.0-SNAPSHOT", latestVersions.get(id).getLastVersion());
+    }
+}
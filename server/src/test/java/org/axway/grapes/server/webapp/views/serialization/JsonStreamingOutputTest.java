@@ -0,0 +1,72 @@
+package org.axway.grapes.server.webapp.views.serialization;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonStreamingOutputTest {
+
+    @Test
+    public void writeAJsonArray() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonStreamingOutput<String>(new ObjectMapper(), Arrays.asList("a", "b"), false).write(output);
+
+        assertEquals("[\"a\",\"b\"]", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void writeNewlineDelimitedJson() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonStreamingOutput<String>(new ObjectMapper(), Arrays.asList("a", "b"), true).write(output);
+
+        assertEquals("\"a\"\n\"b\"\n", output.toString("UTF-8"));
+    }
+
+    @Test
+    public void theItemsAreClosedWhenTheClientGoesAway() {
+        final ClosableItems items = new ClosableItems(Arrays.asList("a", "b"));
+        final OutputStream brokenOutput = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        try {
+            new JsonStreamingOutput<String>(new ObjectMapper(), items, false).write(brokenOutput);
+            fail("The write should fail");
+        } catch (IOException e) {
+            assertTrue(items.closed);
+        }
+    }
+
+    private static class ClosableItems implements Iterable<String>, Closeable {
+        private final List<String> items;
+        private boolean closed = false;
+
+        ClosableItems(final List<String> items) {
+            this.items = items;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return items.iterator();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.axway.grapes.utils.client;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.filter.ClientFilter;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conditional Get Filter
+ *
+ * <p>Keeps the last tagged response of each GET request so that the next time the same request is sent, the server
+ * is asked if the response has changed (If-None-Match). When it answers 304, the kept response is given back to the
+ * caller as if it has been sent again.</p>
+ *
+ * <p>The responses are kept in a bounded cache, the least recently used response is dropped when it is full.
+ * An instance is shared by all the Jersey clients of a Grapes client.</p>
+ *
+ * @author jdcoffre
+ */
+public class ConditionalGetFilter extends ClientFilter {
+
+    private final Map<String, CachedResponse> responses;
+
+    public ConditionalGetFilter(final int maxResponses) {
+        this.responses = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxResponses;
+            }
+        };
+    }
+
+    @Override
+    public ClientResponse handle(final ClientRequest request) throws ClientHandlerException {
+        if(!HttpMethod.GET.equals(request.getMethod())){
+            return getNext().handle(request);
+        }
+
+        final String key = getKey(request);
+        final CachedResponse cached = get(key);
+        if(cached != null){
+            request.getHeaders().putSingle(HttpHeaders.IF_NONE_MATCH, cached.etag);
+        }
+
+        final ClientResponse response = getNext().handle(request);
+
+        if(cached != null && response.getStatus() == ClientResponse.Status.NOT_MODIFIED.getStatusCode()){
+            response.setStatus(ClientResponse.Status.OK);
+            if(cached.contentType != null){
+                response.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, cached.contentType);
+            }
+            response.setEntityInputStream(new ByteArrayInputStream(cached.body));
+            return response;
+        }
+
+        final String etag = response.getHeaders().getFirst(HttpHeaders.ETAG);
+        if(response.getStatus() != ClientResponse.Status.OK.getStatusCode() || etag == null){
+            return response;
+        }
+
+        final byte[] body = read(response.getEntityInputStream());
+        put(key, new CachedResponse(etag, response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE), body));
+        response.setEntityInputStream(new ByteArrayInputStream(body));
+
+        return response;
+    }
+
+    /**
+     * Returns the number of responses that are kept
+     *
+     * @return int
+     */
+    public int size() {
+        synchronized (responses) {
+            return responses.size();
+        }
+    }
+
+    /**
+     * Drops all the responses that are kept
+     */
+    public void clear() {
+        synchronized (responses) {
+            responses.clear();
+        }
+    }
+
+    private CachedResponse get(final String key) {
+        synchronized (responses) {
+            return responses.get(key);
+        }
+    }
+
+    private void put(final String key, final CachedResponse response) {
+        synchronized (responses) {
+            responses.put(key, response);
+        }
+    }
+
+    /**
+     * The server gives different responses to a same uri depending on the accepted media types
+     */
+    private static String getKey(final ClientRequest request) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(request.getURI());
+        sb.append(" ");
+        sb.append(request.getHeaders().get(HttpHeaders.ACCEPT));
+
+        return sb.toString();
+    }
+
+    private static byte[] read(final InputStream in) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+
+        try {
+            int read = in.read(buffer);
+            while(read != -1){
+                out.write(buffer, 0, read);
+                read = in.read(buffer);
+            }
+        } catch (IOException e) {
+            throw new ClientHandlerException(e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // the body has been read or the read has already failed
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Tagged response of a GET request
+     */
+    private static class CachedResponse {
+        private final String etag;
+        private final String contentType;
+        private final byte[] body;
+
+        private CachedResponse(final String etag, final String contentType, final byte[] body) {
+            this.etag = etag;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -15,24 +15,55 @@ import org.slf4j.LoggerFactory;
 
 import javax.naming.AuthenticationException;
 import javax.ws.rs.core.MediaType;
+import java.io.Closeable;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Abstract Client
  *
  * <p>Implemented Grapes client.</p>
  *
+ * <p>The requests are sent by a single Jersey client, created at the first request and shared by all the calls,
+ * through a pool of keep-alive connections (see PooledClientHandler). A Grapes client can be used by several threads
+ * at the same time. The async methods are run by a pool of threads that has as many threads as the connection
+ * pool has connections. Call close() to release the connections and the threads.</p>
+ *
  * @author jdcoffre
  */
-public class GrapesClient {
+public class GrapesClient implements Closeable {
 
     private static final Logger LOG = LoggerFactory.getLogger(GrapesClient.class);
 
+    // http status of a bulk post that has stored some of the posted elements only
+    private static final int MULTI_STATUS = 207;
+
+    // number of tagged responses kept to send conditional requests
+    private static final int MAX_CACHED_RESPONSES = 256;
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+
     private final String serverURL;
 
     private Integer timeout = 60000;
+    private Integer readTimeout = 60000;
+    private Integer maxConnections = DEFAULT_MAX_CONNECTIONS;
+
+    private final ConditionalGetFilter conditionalGetFilter = new ConditionalGetFilter(MAX_CACHED_RESPONSES);
+
+    // created at the first request, guarded by this
+    private PooledClientHandler clientHandler;
+    private Client client;
+    private ThreadPoolExecutor executor;
 
     public GrapesClient(final String host, final String port){
         // Generate Grapes Url
@@ -48,8 +79,56 @@ public class GrapesClient {
         this.serverURL = sb.toString();
     }
 
-    public void setTimeout(final Integer timeout) {
+    /**
+     * Sets the connect timeout, it also bounds the wait for a free connection when they are all used.
+     * The settings are taken into account by the requests sent after the call, the requests being sent are not
+     * interrupted.
+     *
+     * @param timeout Integer in milliseconds
+     */
+    public synchronized void setTimeout(final Integer timeout) {
         this.timeout = timeout;
+        if(clientHandler != null){
+            clientHandler.setConnectTimeout(timeout);
+        }
+    }
+
+    /**
+     * Sets the maximum time without receiving any data from the server
+     *
+     * @param readTimeout Integer in milliseconds
+     */
+    public synchronized void setReadTimeout(final Integer readTimeout) {
+        this.readTimeout = readTimeout;
+        if(clientHandler != null){
+            clientHandler.setReadTimeout(readTimeout);
+        }
+    }
+
+    /**
+     * Sets the maximum number of connections opened to the server, the requests wait for a free connection
+     *
+     * @param maxConnections Integer
+     */
+    public synchronized void setMaxConnections(final Integer maxConnections) {
+        if(maxConnections < 1){
+            throw new IllegalArgumentException("The maximum number of connections must be a positive integer.");
+        }
+        this.maxConnections = maxConnections;
+        if(clientHandler != null){
+            clientHandler.setMaxConnections(maxConnections);
+        }
+        if(executor != null){
+            // the maximum is never below the core size
+            if(maxConnections > executor.getMaximumPoolSize()){
+                executor.setMaximumPoolSize(maxConnections);
+                executor.setCorePoolSize(maxConnections);
+            }
+            else{
+                executor.setCorePoolSize(maxConnections);
+                executor.setMaximumPoolSize(maxConnections);
+            }
+        }
     }
 
 
@@ -57,40 +136,105 @@ public class GrapesClient {
         return serverURL;
     }
 
+    /**
+     * Releases the connections and the threads of the client. A request sent afterwards opens new connections.
+     */
+    @Override
+    public synchronized void close() {
+        reset();
+        if(executor != null){
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * Drops the shared client so that the next request creates a new one with the current settings
+     */
+    private synchronized void reset() {
+        if(client != null){
+            client.destroy();
+            clientHandler.close();
+            client = null;
+            clientHandler = null;
+        }
+    }
+
     /**
      * Provide Jersey client for the targeted Grapes server
      *
-     * @return webResource
+     * @return Client
      */
-    private Client getClient(){
-        final ClientConfig cfg = new DefaultClientConfig();
-        cfg.getClasses().add(com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider.class);
-        cfg.getProperties().put(ClientConfig.PROPERTY_CONNECT_TIMEOUT, timeout);
+    private synchronized Client getClient(){
+        if(client == null){
+            final ClientConfig cfg = new DefaultClientConfig();
+            cfg.getClasses().add(com.fasterxml.jackson.jaxrs.json.JacksonJsonProvider.class);
+
+            clientHandler = new PooledClientHandler(maxConnections, timeout, readTimeout);
+            client = new Client(clientHandler, cfg);
+            client.addFilter(conditionalGetFilter);
+        }
 
-        final Client jerseyClient = Client.create(cfg);
+        return client;
+    }
 
-        return jerseyClient;
+    /**
+     * Returns the number of connections that are currently open to the server
+     *
+     * @return int
+     */
+    public synchronized int getOpenConnections() {
+        return clientHandler == null ? 0 : clientHandler.getOpenConnections();
     }
 
     /**
+     * Provide the root resource of the targeted Grapes server
      *
-     * Provide Jersey client for the targeted Grapes server with authentication
+     * @return WebResource
+     */
+    private WebResource getResource(){
+        return getClient().resource(serverURL);
+    }
+
+    /**
+     *
+     * Provide the root resource of the targeted Grapes server with authentication
      *
      * @param user
      * @param password
-     * @return
+     * @return WebResource
      * @throws javax.naming.AuthenticationException
      */
-    private Client getClient(final String user, final String password) throws AuthenticationException {
+    private WebResource getResource(final String user, final String password) throws AuthenticationException {
         if(user == null || password == null){
             LOG.error("You are currently using a method that requires credentials. Please use '-user' '-password'.");
             throw new AuthenticationException();
         }
 
-        final Client client = getClient();
-        client.addFilter(new HTTPBasicAuthFilter(user, password));
+        final WebResource resource = getResource();
+        resource.addFilter(new HTTPBasicAuthFilter(user, password));
 
-        return client;
+        return resource;
+    }
+
+    /**
+     * Runs a call in the threads of the client
+     */
+    private synchronized <T> Future<T> submit(final Callable<T> call) {
+        if(executor == null){
+            final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+            executor = new ThreadPoolExecutor(maxConnections, maxConnections, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = defaultFactory.newThread(runnable);
+                    thread.setName("grapes-client-" + thread.getName());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        return executor.submit(call);
     }
 
     /**
@@ -99,17 +243,19 @@ public class GrapesClient {
      * @return true if the server is reachable, false otherwise
      */
     public boolean isServerAvailable(){
-        final Client client = getClient();
-        final ClientResponse response = client.resource(serverURL).get(ClientResponse.class);
+        final ClientResponse response = getResource().get(ClientResponse.class);
 
-        if(ClientResponse.Status.OK.getStatusCode() == response.getStatus()){
-            return true;
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() == response.getStatus()){
+                return true;
+            }
 
-        LOG.error("Failed to reach the targeted Grapes server. Http status: " + response.getStatus());
-        client.destroy();
+            LOG.error("Failed to reach the targeted Grapes server. Http status: " + response.getStatus());
 
-        return false;
+            return false;
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -124,15 +270,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void postBuildInfo(final String moduleName, final String moduleVersion, final Map<String, String> buildInfo, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getBuildInfoPath(moduleName, moduleVersion));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getBuildInfoPath(moduleName, moduleVersion));
         final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, buildInfo);
 
-        client.destroy();
-        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
-            final String message = "Failed to POST buildInfo";
-            LOG.error("%s . Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+                final String message = "Failed to POST buildInfo";
+                LOG.error("%s . Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -146,18 +294,34 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void postModule(final Module module, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.moduleResourcePath());
+        final WebResource resource = getResource(user, password).path(RequestUtils.moduleResourcePath());
         final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, module);
 
-        client.destroy();
-        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
-            final String message = "Failed to POST module";
-            LOG.error("%s . Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+                final String message = "Failed to POST module";
+                LOG.error("%s . Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
+    /**
+     * Post a batch of modules to the server in a single request
+     *
+     * @param modules
+     * @param user
+     * @param password
+     * @return List<BulkItemStatus> the status of each module, in the order of the list
+     * @throws GrapesCommunicationException if none of the modules has been stored
+     * @throws javax.naming.AuthenticationException
+     */
+    public List<BulkItemStatus> postModules(final List<Module> modules, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
+        return postBulk(RequestUtils.getModulesBulkPath(), modules, "Failed to POST modules", user, password);
+    }
+
     /**
      * Delete a module from Grapes server
      *
@@ -167,15 +331,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void deleteModule(final String name, final String version, final String user, final String password) throws GrapesCommunicationException, AuthenticationException{
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getModulePath(name, version));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getModulePath(name, version));
         final ClientResponse response = resource.delete(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to DELETE module " + name + " in version " + version;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to DELETE module " + name + " in version " + version;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -188,18 +354,20 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public Module getModule(final String name, final String version) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getModulePath(name, version));
+        final WebResource resource = getResource().path(RequestUtils.getModulePath(name, version));
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get module " + name + " in version " + version;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get module " + name + " in version " + version;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(Module.class);
+            return response.getEntity(Module.class);
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -210,22 +378,24 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public List<Module> getModules(final Map<String, String> filters) throws GrapesCommunicationException {
-        final Client client = getClient();
-        WebResource resource = client.resource(serverURL).path(RequestUtils.getAllModulesPath());
+        WebResource resource = getResource().path(RequestUtils.getAllModulesPath());
         for(Map.Entry<String,String> queryParam: filters.entrySet()){
             resource = resource.queryParam(queryParam.getKey(), queryParam.getValue());
         }
 
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get filtered modules.";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get filtered modules.";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(new GenericType<List<Module>>(){});
+            return response.getEntity(new GenericType<List<Module>>(){});
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -236,18 +406,20 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public List<String> getModuleVersions(final String name) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getModuleVersionsPath(name));
+        final WebResource resource = getResource().path(RequestUtils.getModuleVersionsPath(name));
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get module versions of " + name;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get module versions of " + name;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(new GenericType<List<String>>(){});
+            return response.getEntity(new GenericType<List<String>>(){});
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -259,18 +431,20 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public Boolean getModulePromotionStatus(final String name, final String version) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getModulePromotionPath(name, version));
+        final WebResource resource = getResource().path(RequestUtils.getModulePromotionPath(name, version));
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get module promotion status of " + name + " in version " + version;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get module promotion status of " + name + " in version " + version;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(Boolean.class);
+            return response.getEntity(Boolean.class);
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -282,15 +456,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void promoteModule(final String name, final String version, final String user, final String password) throws GrapesCommunicationException, AuthenticationException{
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.promoteModulePath(name, version));
+        final WebResource resource = getResource(user, password).path(RequestUtils.promoteModulePath(name, version));
         final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to promote module " + name + " in version " + version;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to promote module " + name + " in version " + version;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -303,18 +479,20 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public Boolean moduleCanBePromoted(final String name, final String version) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.canBePromotedModulePath(name, version));
+        final WebResource resource = getResource().path(RequestUtils.canBePromotedModulePath(name, version));
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get the promotion status of module " + name + " in version " + version;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get the promotion status of module " + name + " in version " + version;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(Boolean.class);
+            return response.getEntity(Boolean.class);
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -327,15 +505,51 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void postArtifact(final Artifact artifact, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.artifactResourcePath());
+        final WebResource resource = getResource(user, password).path(RequestUtils.artifactResourcePath());
         final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, artifact);
 
-        client.destroy();
-        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
-            final String message = "Failed to POST artifact";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+                final String message = "Failed to POST artifact";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Post a batch of artifacts to the server in a single request
+     *
+     * @param artifacts
+     * @param user
+     * @param password
+     * @return List<BulkItemStatus> the status of each artifact, in the order of the list
+     * @throws GrapesCommunicationException if none of the artifacts has been stored
+     * @throws javax.naming.AuthenticationException
+     */
+    public List<BulkItemStatus> postArtifacts(final List<Artifact> artifacts, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
+        return postBulk(RequestUtils.getArtifactsBulkPath(), artifacts, "Failed to POST artifacts", user, password);
+    }
+
+    private List<BulkItemStatus> postBulk(final String path, final List<?> elements, final String message, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
+        final WebResource resource = getResource(user, password).path(path);
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .post(ClientResponse.class, elements);
+
+        try {
+            // some elements may have been refused while the others have been stored
+            if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus() &&
+                    MULTI_STATUS != response.getStatus()){
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+
+            return response.getEntity(new GenericType<List<BulkItemStatus>>(){});
+        } finally {
+            response.close();
         }
     }
 
@@ -347,15 +561,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void deleteArtifact(final String gavc, final String user, final String password) throws GrapesCommunicationException, AuthenticationException{
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactPath(gavc));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getArtifactPath(gavc));
         final ClientResponse response = resource.delete(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to DELETE artifact " + gavc;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to DELETE artifact " + gavc;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -367,18 +583,20 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public Artifact getArtifact(final String gavc) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactPath(gavc));
+        final WebResource resource = getResource().path(RequestUtils.getArtifactPath(gavc));
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get artifact " + gavc;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get artifact " + gavc;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(Artifact.class);
+            return response.getEntity(Artifact.class);
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -389,19 +607,21 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public List<Artifact> getArtifacts(final Boolean hasLicense) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactsPath());
+        final WebResource resource = getResource().path(RequestUtils.getArtifactsPath());
         final ClientResponse response = resource.queryParam(ServerAPI.HAS_LICENSE_PARAM, hasLicense.toString())
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get artifacts";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get artifacts";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(ArtifactList.class);
+            return response.getEntity(ArtifactList.class);
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -414,16 +634,18 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public void postDoNotUseArtifact(final String gavc, final Boolean doNotUse, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getDoNotUseArtifact(gavc));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getDoNotUseArtifact(gavc));
         final ClientResponse response = resource.queryParam(ServerAPI.DO_NOT_USE, doNotUse.toString())
                 .accept(MediaType.APPLICATION_JSON).post(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to post do not use artifact";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to post do not use artifact";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -435,20 +657,22 @@ public class GrapesClient {
      * @return List<String>
      */
     public List<String> getArtifactVersions(final String gavc) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactVersions(gavc));
+        final WebResource resource = getResource().path(RequestUtils.getArtifactVersions(gavc));
         final ClientResponse response = resource
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get Corporate filters";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get Corporate filters";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(new GenericType<List<String>>(){});
+            return response.getEntity(new GenericType<List<String>>(){});
 
+        } finally {
+            response.close();
+        }
     }
 
 
@@ -459,20 +683,22 @@ public class GrapesClient {
      * @return String
      */
     public String getArtifactLastVersion(final String gavc) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactLastVersion(gavc));
+        final WebResource resource = getResource().path(RequestUtils.getArtifactLastVersion(gavc));
         final ClientResponse response = resource
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get Corporate filters";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get Corporate filters";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(String.class);
+            return response.getEntity(String.class);
 
+        } finally {
+            response.close();
+        }
     }
 
 
@@ -483,24 +709,26 @@ public class GrapesClient {
      * @return Module
      */
     public Module getArtifactModule(final String gavc) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactModule(gavc));
+        final WebResource resource = getResource().path(RequestUtils.getArtifactModule(gavc));
         final ClientResponse response = resource
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.NO_CONTENT.getStatusCode() == response.getStatus()){
-            return null;
-        }
+        try {
+            if(ClientResponse.Status.NO_CONTENT.getStatusCode() == response.getStatus()){
+                return null;
+            }
 
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get Corporate filters";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get Corporate filters";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(Module.class);
+            return response.getEntity(Module.class);
 
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -512,15 +740,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void addLicense(final String gavc, final String licenseId, final String user, final String password) throws GrapesCommunicationException, AuthenticationException{
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactLicensesPath(gavc));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getArtifactLicensesPath(gavc));
         final ClientResponse response = resource.queryParam(ServerAPI.LICENSE_ID_PARAM, licenseId).post(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to add license " + licenseId + " to artifact " + gavc;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to add license " + licenseId + " to artifact " + gavc;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -534,15 +764,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void postLicense(final License license, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.licenseResourcePath());
+        final WebResource resource = getResource(user, password).path(RequestUtils.licenseResourcePath());
         final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, license);
 
-        client.destroy();
-        if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
-            final String message = "Failed to POST license";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+                final String message = "Failed to POST license";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -554,15 +786,17 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void deleteLicense(final String licenseId, final String user, final String password) throws GrapesCommunicationException, AuthenticationException{
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getLicensePath(licenseId));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getLicensePath(licenseId));
         final ClientResponse response = resource.delete(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to DELETE license " + licenseId;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to DELETE license " + licenseId;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -574,18 +808,20 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public License getLicense(final String licenseId) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getLicensePath(licenseId));
+        final WebResource resource = getResource().path(RequestUtils.getLicensePath(licenseId));
         final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get license " + licenseId;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get license " + licenseId;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(License.class);
+            return response.getEntity(License.class);
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -597,15 +833,41 @@ public class GrapesClient {
      * @throws javax.naming.AuthenticationException
      */
     public void approveLicense(final String licenseId, final Boolean approve, final String user, final String password) throws GrapesCommunicationException, AuthenticationException{
-        final Client client = getClient(user, password);
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getLicensePath(licenseId));
+        final WebResource resource = getResource(user, password).path(RequestUtils.getLicensePath(licenseId));
         final ClientResponse response = resource.queryParam(ServerAPI.APPROVED_PARAM, approve.toString()).post(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to approve license " + licenseId;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to approve license " + licenseId;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Post an organization to the server
+     *
+     * @param organization
+     * @param user
+     * @param password
+     * @throws GrapesCommunicationException
+     * @throws javax.naming.AuthenticationException
+     */
+    public void postOrganization(final Organization organization, final String user, final String password) throws GrapesCommunicationException, AuthenticationException {
+        final WebResource resource = getResource(user, password).path(RequestUtils.organizationResourcePath());
+        final ClientResponse response = resource.type(MediaType.APPLICATION_JSON).post(ClientResponse.class, organization);
+
+        try {
+            if(ClientResponse.Status.CREATED.getStatusCode() != response.getStatus()){
+                final String message = "Failed to POST organization";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+        } finally {
+            response.close();
         }
     }
 
@@ -618,22 +880,24 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public List<Dependency> getModuleAncestors(final String moduleName, final String moduleVersion) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactAncestors(moduleName, moduleVersion));
+        final WebResource resource = getResource().path(RequestUtils.getArtifactAncestors(moduleName, moduleVersion));
         final ClientResponse response = resource.queryParam(ServerAPI.SCOPE_COMPILE_PARAM, "true")
                 .queryParam(ServerAPI.SCOPE_PROVIDED_PARAM, "true")
                 .queryParam(ServerAPI.SCOPE_RUNTIME_PARAM, "true")
                 .queryParam(ServerAPI.SCOPE_TEST_PARAM, "true")
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get module ancestors " + moduleName + " in version " + moduleVersion;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get module ancestors " + moduleName + " in version " + moduleVersion;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(new GenericType<List<Dependency>>(){});
+            return response.getEntity(new GenericType<List<Dependency>>(){});
+        } finally {
+            response.close();
+        }
     }
 
     /**
@@ -648,8 +912,7 @@ public class GrapesClient {
      * @throws GrapesCommunicationException
      */
     public List<Dependency> getModuleDependencies(final String moduleName, final String moduleVersion, final Boolean fullRecursive, final Boolean corporate, final Boolean thirdParty) throws GrapesCommunicationException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getArtifactDependencies(moduleName, moduleVersion));
+        final WebResource resource = getResource().path(RequestUtils.getArtifactDependencies(moduleName, moduleVersion));
         final ClientResponse response = resource.queryParam(ServerAPI.SCOPE_COMPILE_PARAM, "true")
                 .queryParam(ServerAPI.SCOPE_PROVIDED_PARAM, "true")
                 .queryParam(ServerAPI.SCOPE_RUNTIME_PARAM, "true")
@@ -659,14 +922,17 @@ public class GrapesClient {
                 .queryParam(ServerAPI.SHOW_THIRPARTY_PARAM, thirdParty.toString())
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get module ancestors " + moduleName + " in version " + moduleVersion;
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get module ancestors " + moduleName + " in version " + moduleVersion;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(new GenericType<List<Dependency>>(){});
+            return response.getEntity(new GenericType<List<Dependency>>(){});
+        } finally {
+            response.close();
+        }
     }
 
 
@@ -676,20 +942,22 @@ public class GrapesClient {
      * @return Organization
      */
     public Organization getModuleOrganization(final String moduleName, final String moduleVersion) throws GrapesCommunicationException, IOException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getModuleOrganizationPath(moduleName, moduleVersion));
+        final WebResource resource = getResource().path(RequestUtils.getModuleOrganizationPath(moduleName, moduleVersion));
         final ClientResponse response = resource
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get module's organization";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
-        }
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get module's organization";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
 
-        return response.getEntity(Organization.class);
+            return response.getEntity(Organization.class);
 
+        } finally {
+            response.close();
+        }
     }
 
 
@@ -699,19 +967,255 @@ public class GrapesClient {
      * @return List<String>
      */
     public List<String> getProductModuleNames(final String projectId) throws GrapesCommunicationException, IOException {
-        final Client client = getClient();
-        final WebResource resource = client.resource(serverURL).path(RequestUtils.getProjectModuleNames(projectId));
+        final WebResource resource = getResource().path(RequestUtils.getProjectModuleNames(projectId));
         final ClientResponse response = resource
                 .accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
 
-        client.destroy();
-        if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
-            final String message = "Failed to get project module names";
-            LOG.error("%s. Http status: %s", message, response.getStatus());
-            throw new GrapesCommunicationException(message, response.getStatus());
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get project module names";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+
+            return response.getEntity(new GenericType<List<String>>(){});
+
+        } finally {
+            response.close();
         }
+    }
+
+    /**
+     * Iterate over the modules regarding filters, the modules are requested page by page
+     *
+     * @param filters Map<String,String>
+     * @param pageSize int the number of modules per request
+     * @return Iterator<Module>
+     * @throws GrapesCommunicationException if the first page cannot be retrieved
+     */
+    public Iterator<Module> iterateModules(final Map<String, String> filters, final int pageSize) throws GrapesCommunicationException {
+        return iterate(RequestUtils.getAllModulesPath(), filters, new GenericType<List<Module>>(){}, pageSize);
+    }
+
+    /**
+     * Iterate over the module names regarding filters, the names are requested page by page
+     *
+     * @param filters Map<String,String>
+     * @param pageSize int the number of names per request
+     * @return Iterator<String>
+     * @throws GrapesCommunicationException if the first page cannot be retrieved
+     */
+    public Iterator<String> iterateModuleNames(final Map<String, String> filters, final int pageSize) throws GrapesCommunicationException {
+        return iterate(RequestUtils.getModuleNamesPath(), filters, new GenericType<List<String>>(){}, pageSize);
+    }
+
+    /**
+     * Iterate over the artifacts regarding filters, the artifacts are requested page by page
+     *
+     * @param filters Map<String,String>
+     * @param pageSize int the number of artifacts per request
+     * @return Iterator<Artifact>
+     * @throws GrapesCommunicationException if the first page cannot be retrieved
+     */
+    public Iterator<Artifact> iterateArtifacts(final Map<String, String> filters, final int pageSize) throws GrapesCommunicationException {
+        return iterate(RequestUtils.getArtifactsPath(), filters, new GenericType<List<Artifact>>(){}, pageSize);
+    }
 
-        return response.getEntity(new GenericType<List<String>>(){});
+    /**
+     * Iterate over the artifact gavcs regarding filters, the gavcs are requested page by page
+     *
+     * @param filters Map<String,String>
+     * @param pageSize int the number of gavcs per request
+     * @return Iterator<String>
+     * @throws GrapesCommunicationException if the first page cannot be retrieved
+     */
+    public Iterator<String> iterateArtifactGavcs(final Map<String, String> filters, final int pageSize) throws GrapesCommunicationException {
+        return iterate(RequestUtils.getArtifactGavcsPath(), filters, new GenericType<List<String>>(){}, pageSize);
+    }
+
+    /**
+     * Get the changes that follow a sequence number, in their order
+     *
+     * @param since long the sequence number of the last known change, 0 to get the changes from the start
+     * @param limit int the maximum number of changes
+     * @return List<ChangeEvent>
+     * @throws GrapesCommunicationException with the http status 410 if the changes that follow since are no longer kept
+     */
+    public List<ChangeEvent> getChanges(final long since, final int limit) throws GrapesCommunicationException {
+        final WebResource resource = getResource().path(RequestUtils.getChangesPath())
+                .queryParam(ServerAPI.SINCE_PARAM, String.valueOf(since))
+                .queryParam(ServerAPI.PAGE_LIMIT_PARAM, String.valueOf(limit));
+        final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get the changes since " + since;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+
+            return response.getEntity(new GenericType<List<ChangeEvent>>(){});
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Get the sequence number of the last change
+     *
+     * @return long
+     * @throws GrapesCommunicationException
+     */
+    public long getLastChangeSequence() throws GrapesCommunicationException {
+        final WebResource resource = getResource().path(RequestUtils.getLastChangePath());
+        final ClientResponse response = resource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get the last change";
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+
+            return response.getEntity(Long.class);
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Creates a local copy of the modules and artifacts of the server that is kept up to date from the changes
+     *
+     * @param pageSize int the number of elements per request
+     * @return GrapesMirror call sync() to load it
+     */
+    public GrapesMirror createMirror(final int pageSize) {
+        return new GrapesMirror(this, pageSize);
+    }
+
+    /**
+     * Post a module to the server without waiting for the answer
+     *
+     * @param module
+     * @param user
+     * @param password
+     * @return Future<Void> its get() throws an ExecutionException that wraps the failure of postModule
+     */
+    public Future<Void> postModuleAsync(final Module module, final String user, final String password) {
+        return submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                postModule(module, user, password);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Post an artifact to the server without waiting for the answer
+     *
+     * @param artifact
+     * @param user
+     * @param password
+     * @return Future<Void> its get() throws an ExecutionException that wraps the failure of postArtifact
+     */
+    public Future<Void> postArtifactAsync(final Artifact artifact, final String user, final String password) {
+        return submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                postArtifact(artifact, user, password);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Send a get module request without waiting for the answer
+     *
+     * @param name
+     * @param version
+     * @return Future<Module> its get() throws an ExecutionException that wraps the failure of getModule
+     */
+    public Future<Module> getModuleAsync(final String name, final String version) {
+        return submit(new Callable<Module>() {
+            @Override
+            public Module call() throws Exception {
+                return getModule(name, version);
+            }
+        });
+    }
+
+    /**
+     * Get a list of modules regarding filters without waiting for the answer
+     *
+     * @param filters Map<String,String>
+     * @return Future<List<Module>> its get() throws an ExecutionException that wraps the failure of getModules
+     */
+    public Future<List<Module>> getModulesAsync(final Map<String, String> filters) {
+        return submit(new Callable<List<Module>>() {
+            @Override
+            public List<Module> call() throws Exception {
+                return getModules(filters);
+            }
+        });
+    }
+
+    /**
+     * Send a get artifact request without waiting for the answer
+     *
+     * @param gavc
+     * @return Future<Artifact> its get() throws an ExecutionException that wraps the failure of getArtifact
+     */
+    public Future<Artifact> getArtifactAsync(final String gavc) {
+        return submit(new Callable<Artifact>() {
+            @Override
+            public Artifact call() throws Exception {
+                return getArtifact(gavc);
+            }
+        });
+    }
+
+    /**
+     * Return the list of module ancestors without waiting for the answer
+     *
+     * @param moduleName
+     * @param moduleVersion
+     * @return Future<List<Dependency>> its get() throws an ExecutionException that wraps the failure of getModuleAncestors
+     */
+    public Future<List<Dependency>> getModuleAncestorsAsync(final String moduleName, final String moduleVersion) {
+        return submit(new Callable<List<Dependency>>() {
+            @Override
+            public List<Dependency> call() throws Exception {
+                return getModuleAncestors(moduleName, moduleVersion);
+            }
+        });
+    }
+
+    /**
+     * Return the list of module dependencies without waiting for the answer
+     *
+     * @param moduleName
+     * @param moduleVersion
+     * @param fullRecursive
+     * @param corporate
+     * @param thirdParty
+     * @return Future<List<Dependency>> its get() throws an ExecutionException that wraps the failure of getModuleDependencies
+     */
+    public Future<List<Dependency>> getModuleDependenciesAsync(final String moduleName, final String moduleVersion, final Boolean fullRecursive, final Boolean corporate, final Boolean thirdParty) {
+        return submit(new Callable<List<Dependency>>() {
+            @Override
+            public List<Dependency> call() throws Exception {
+                return getModuleDependencies(moduleName, moduleVersion, fullRecursive, corporate, thirdParty);
+            }
+        });
+    }
+
+    private <T> Iterator<T> iterate(final String path, final Map<String, String> filters, final GenericType<List<T>> pageType, final int pageSize) throws GrapesCommunicationException {
+        WebResource resource = getResource().path(path);
+        for(Map.Entry<String,String> queryParam: filters.entrySet()){
+            resource = resource.queryParam(queryParam.getKey(), queryParam.getValue());
+        }
 
+        return new PagedIterator<T>(resource, pageType, pageSize);
     }
 }
@@ -0,0 +1,207 @@
+package org.axway.grapes.utils.client;
+
+import org.axway.grapes.commons.datamodel.Artifact;
+import org.axway.grapes.commons.datamodel.ChangeEvent;
+import org.axway.grapes.commons.datamodel.Module;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grapes Mirror
+ *
+ * <p>Local copy of the modules and artifacts of a Grapes server. The first sync reads all of them, the next ones only
+ * read the elements that have changed since the previous sync, following the change log of the server. When the server
+ * no longer has the changes the mirror needs, the mirror reads everything again.</p>
+ *
+ * <p>The changes of the other elements (licenses, organizations and products) are skipped. The mirror is thread safe.</p>
+ *
+ * @author jdcoffre
+ */
+public class GrapesMirror {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GrapesMirror.class);
+
+    private final GrapesClient client;
+    private final int pageSize;
+
+    // modules by id (name:version) and artifacts by gavc
+    private final Map<String, Module> modules = new HashMap<String, Module>();
+    private final Map<String, Artifact> artifacts = new HashMap<String, Artifact>();
+
+    // sequence number of the last applied change, -1 until the first sync
+    private long sequence = -1;
+
+    public GrapesMirror(final GrapesClient client, final int pageSize) {
+        if(pageSize < 1){
+            throw new IllegalArgumentException("The page size must be a positive integer.");
+        }
+        this.client = client;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Brings the mirror up to date
+     *
+     * @return int the number of modules and artifacts that have been read
+     * @throws GrapesCommunicationException
+     */
+    public synchronized int sync() throws GrapesCommunicationException {
+        if(sequence < 0){
+            return reload();
+        }
+
+        int read = 0;
+        while(true){
+            final List<ChangeEvent> changes;
+            try {
+                changes = client.getChanges(sequence, pageSize);
+            } catch (GrapesCommunicationException e) {
+                if(e.getHttpStatus() != Response.Status.GONE.getStatusCode()){
+                    throw e;
+                }
+                LOG.info("The changes since " + sequence + " are no longer available, reloading the mirror.");
+                return reload();
+            }
+
+            if(changes.isEmpty()){
+                return read;
+            }
+
+            read += apply(changes);
+            sequence = changes.get(changes.size() - 1).getSequence();
+        }
+    }
+
+    /**
+     * Reads all the modules and artifacts. The changes that occur while they are read are applied by the next sync.
+     */
+    private int reload() throws GrapesCommunicationException {
+        final long lastSequence = client.getLastChangeSequence();
+        final Map<String, String> noFilter = Collections.emptyMap();
+
+        final Map<String, Module> newModules = new HashMap<String, Module>();
+        final Iterator<Module> moduleIterator = client.iterateModules(noFilter, pageSize);
+        while(moduleIterator.hasNext()){
+            final Module module = moduleIterator.next();
+            newModules.put(getModuleId(module.getName(), module.getVersion()), module);
+        }
+
+        final Map<String, Artifact> newArtifacts = new HashMap<String, Artifact>();
+        final Iterator<Artifact> artifactIterator = client.iterateArtifacts(noFilter, pageSize);
+        while(artifactIterator.hasNext()){
+            final Artifact artifact = artifactIterator.next();
+            newArtifacts.put(artifact.getGavc(), artifact);
+        }
+
+        modules.clear();
+        modules.putAll(newModules);
+        artifacts.clear();
+        artifacts.putAll(newArtifacts);
+        sequence = lastSequence;
+
+        return newModules.size() + newArtifacts.size();
+    }
+
+    /**
+     * Applies a page of changes, an element that changed several times is read once
+     */
+    private int apply(final List<ChangeEvent> changes) throws GrapesCommunicationException {
+        final Map<String, ChangeEvent> lastChanges = new LinkedHashMap<String, ChangeEvent>();
+        for(ChangeEvent change: changes){
+            final String key = change.getEntityType() + " " + change.getEntityId();
+            lastChanges.remove(key);
+            lastChanges.put(key, change);
+        }
+
+        int read = 0;
+        for(ChangeEvent change: lastChanges.values()){
+            if(ChangeEvent.MODULE.equals(change.getEntityType())){
+                read += applyModuleChange(change);
+            }
+            else if(ChangeEvent.ARTIFACT.equals(change.getEntityType())){
+                read += applyArtifactChange(change);
+            }
+        }
+
+        return read;
+    }
+
+    private int applyModuleChange(final ChangeEvent change) throws GrapesCommunicationException {
+        final String moduleId = change.getEntityId();
+        final int separator = moduleId.lastIndexOf(':');
+
+        if(ChangeEvent.DELETE.equals(change.getOperation()) || separator < 0){
+            modules.remove(moduleId);
+            return 0;
+        }
+
+        try {
+            modules.put(moduleId, client.getModule(moduleId.substring(0, separator), moduleId.substring(separator + 1)));
+        } catch (GrapesCommunicationException e) {
+            if(e.getHttpStatus() != Response.Status.NOT_FOUND.getStatusCode()){
+                throw e;
+            }
+            // deleted by a change that follows
+            modules.remove(moduleId);
+        }
+        return 1;
+    }
+
+    private int applyArtifactChange(final ChangeEvent change) throws GrapesCommunicationException {
+        final String gavc = change.getEntityId();
+
+        if(ChangeEvent.DELETE.equals(change.getOperation())){
+            artifacts.remove(gavc);
+            return 0;
+        }
+
+        try {
+            artifacts.put(gavc, client.getArtifact(gavc));
+        } catch (GrapesCommunicationException e) {
+            if(e.getHttpStatus() != Response.Status.NOT_FOUND.getStatusCode()){
+                throw e;
+            }
+            // deleted by a change that follows
+            artifacts.remove(gavc);
+        }
+        return 1;
+    }
+
+    private static String getModuleId(final String name, final String version) {
+        return name + ":" + version;
+    }
+
+    /**
+     * Returns the sequence number of the last change applied to the mirror, -1 if it has never been synced
+     *
+     * @return long
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public synchronized Module getModule(final String name, final String version) {
+        return modules.get(getModuleId(name, version));
+    }
+
+    public synchronized List<Module> getModules() {
+        return new ArrayList<Module>(modules.values());
+    }
+
+    public synchronized Artifact getArtifact(final String gavc) {
+        return artifacts.get(gavc);
+    }
+
+    public synchronized List<Artifact> getArtifacts() {
+        return new ArrayList<Artifact>(artifacts.values());
+    }
+}
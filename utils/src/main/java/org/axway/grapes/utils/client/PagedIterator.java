@@ -0,0 +1,105 @@
+package org.axway.grapes.utils.client;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.GenericType;
+import com.sun.jersey.api.client.WebResource;
+import org.axway.grapes.commons.api.ServerAPI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Paged Iterator
+ *
+ * <p>Iterates over a list of a Grapes server, requesting the next page only when the current one has been read.
+ * Each page starts after the last element of the previous one, the server provides it in the next page header.</p>
+ *
+ * <p>As Iterator methods cannot throw checked exceptions, the communication failures that occur after the first
+ * page are thrown as IllegalStateException that wrap the GrapesCommunicationException.</p>
+ *
+ * @author jdcoffre
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PagedIterator.class);
+
+    private final WebResource resource;
+    private final GenericType<List<T>> pageType;
+    private final int pageSize;
+
+    private Iterator<T> page;
+    private String nextPage;
+
+    /**
+     * Creates the iterator and loads the first page
+     *
+     * @param resource WebResource the list resource, with its filters
+     * @param pageType GenericType<List<T>>
+     * @param pageSize int
+     * @throws GrapesCommunicationException
+     */
+    public PagedIterator(final WebResource resource, final GenericType<List<T>> pageType, final int pageSize) throws GrapesCommunicationException {
+        if(pageSize < 1){
+            throw new IllegalArgumentException("The page size must be a positive integer.");
+        }
+
+        this.resource = resource;
+        this.pageType = pageType;
+        this.pageSize = pageSize;
+
+        loadPage(null);
+    }
+
+    private void loadPage(final String after) throws GrapesCommunicationException {
+        WebResource pageResource = resource.queryParam(ServerAPI.PAGE_LIMIT_PARAM, String.valueOf(pageSize));
+        if(after != null){
+            pageResource = pageResource.queryParam(ServerAPI.PAGE_AFTER_PARAM, after);
+        }
+
+        final ClientResponse response = pageResource.accept(MediaType.APPLICATION_JSON).get(ClientResponse.class);
+
+        try {
+            if(ClientResponse.Status.OK.getStatusCode() != response.getStatus()){
+                final String message = "Failed to get the page of " + resource.getURI().getPath() + " after " + after;
+                LOG.error("%s. Http status: %s", message, response.getStatus());
+                throw new GrapesCommunicationException(message, response.getStatus());
+            }
+
+            page = response.getEntity(pageType).iterator();
+            nextPage = response.getHeaders().getFirst(ServerAPI.NEXT_PAGE_HEADER);
+        } finally {
+            response.close();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while(!page.hasNext() && nextPage != null){
+            try {
+                loadPage(nextPage);
+            } catch (GrapesCommunicationException e) {
+                nextPage = null;
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+
+        return page.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("The elements of a Grapes server list cannot be removed while iterating.");
+    }
+}
@@ -0,0 +1,234 @@
+package org.axway.grapes.utils.client;
+
+import com.sun.jersey.api.client.ClientHandlerException;
+import com.sun.jersey.api.client.ClientRequest;
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.client.TerminatingClientHandler;
+import com.sun.jersey.core.header.InBoundHeaders;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+
+import javax.ws.rs.core.HttpHeaders;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pooled Client Handler
+ *
+ * <p>Sends the requests of a Jersey client through a pool of keep-alive connections, so that the connections to the
+ * Grapes server are opened once and reused by the next requests instead of being opened for each of them.
+ * The handler is thread safe, the pool bounds the number of requests sent at the same time.</p>
+ *
+ * <p>The body of a response is streamed from the connection, the connection goes back to the pool once the body has
+ * been read or the response closed: the caller must read or close every response it gets.</p>
+ *
+ * <p>The settings can be changed while requests are sent, they are taken into account by the next requests and the
+ * open connections are kept. The parameters of the http client are replaced rather than modified, the requests being
+ * sent keep the ones they have started with.</p>
+ *
+ * @author jdcoffre
+ */
+public class PooledClientHandler extends TerminatingClientHandler {
+
+    private final PoolingClientConnectionManager connectionManager;
+    private final DefaultHttpClient httpClient;
+
+    // the timeouts the parameters of the http client are built from, guarded by this
+    private int connectTimeout;
+    private int readTimeout;
+
+    /**
+     * @param maxConnections int the maximum number of open connections
+     * @param connectTimeout int in milliseconds, also bounds the wait for a free connection of the pool
+     * @param readTimeout int in milliseconds, the maximum time without receiving any data from the server
+     */
+    public PooledClientHandler(final int maxConnections, final int connectTimeout, final int readTimeout) {
+        if(maxConnections < 1){
+            throw new IllegalArgumentException("The maximum number of connections must be a positive integer.");
+        }
+
+        // all the requests target the same server
+        connectionManager = new PoolingClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        httpClient = new DefaultHttpClient(connectionManager, getParams(connectTimeout, readTimeout));
+    }
+
+    private static HttpParams getParams(final int connectTimeout, final int readTimeout) {
+        final HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, connectTimeout);
+        HttpConnectionParams.setSoTimeout(params, readTimeout);
+        params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, connectTimeout);
+
+        return params;
+    }
+
+    @Override
+    public ClientResponse handle(final ClientRequest request) throws ClientHandlerException {
+        final HttpRequestBase httpRequest = getHttpRequest(request);
+
+        try {
+            final HttpResponse httpResponse = httpClient.execute(httpRequest);
+
+            final InBoundHeaders headers = new InBoundHeaders();
+            for(Header header: httpResponse.getAllHeaders()){
+                headers.add(header.getName(), header.getValue());
+            }
+
+            // the connection is released when the content has been read or closed
+            final HttpEntity entity = httpResponse.getEntity();
+            final InputStream body = entity == null ? new ByteArrayInputStream(new byte[0]) : entity.getContent();
+
+            return new ClientResponse(httpResponse.getStatusLine().getStatusCode(), headers, body, getMessageBodyWorkers());
+
+        } catch (IOException e) {
+            // the connection cannot be reused
+            httpRequest.abort();
+            throw new ClientHandlerException(e);
+        }
+    }
+
+    /**
+     * Sets the maximum number of open connections, the connections above the new maximum are closed once released
+     *
+     * @param maxConnections int
+     */
+    public void setMaxConnections(final int maxConnections) {
+        if(maxConnections < 1){
+            throw new IllegalArgumentException("The maximum number of connections must be a positive integer.");
+        }
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+    }
+
+    /**
+     * Sets the connect timeout, it also bounds the wait for a free connection of the pool
+     *
+     * @param connectTimeout int in milliseconds
+     */
+    public synchronized void setConnectTimeout(final int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        httpClient.setParams(getParams(connectTimeout, readTimeout));
+    }
+
+    /**
+     * Sets the maximum time without receiving any data from the server
+     *
+     * @param readTimeout int in milliseconds
+     */
+    public synchronized void setReadTimeout(final int readTimeout) {
+        this.readTimeout = readTimeout;
+        httpClient.setParams(getParams(connectTimeout, readTimeout));
+    }
+
+    /**
+     * Closes the connections of the pool, the handler cannot be used anymore
+     */
+    public void close() {
+        connectionManager.shutdown();
+    }
+
+    /**
+     * Returns the number of connections that are currently open, used or kept alive
+     *
+     * @return int
+     */
+    public int getOpenConnections() {
+        return connectionManager.getTotalStats().getAvailable() + connectionManager.getTotalStats().getLeased();
+    }
+
+    private HttpRequestBase getHttpRequest(final ClientRequest request) {
+        final HttpRequestBase httpRequest;
+
+        if(request.getEntity() == null){
+            httpRequest = new GrapesRequest(request.getMethod(), request.getURI());
+        }
+        else{
+            final GrapesEntityRequest entityRequest = new GrapesEntityRequest(request.getMethod(), request.getURI());
+            entityRequest.setEntity(getEntity(request));
+            httpRequest = entityRequest;
+        }
+
+        for(Map.Entry<String, List<Object>> header: request.getHeaders().entrySet()){
+            // computed from the entity by the http client
+            if(HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())){
+                continue;
+            }
+            for(Object value: header.getValue()){
+                httpRequest.addHeader(header.getKey(), ClientRequest.getHeaderValue(value));
+            }
+        }
+
+        return httpRequest;
+    }
+
+    private HttpEntity getEntity(final ClientRequest request) {
+        final RequestEntityWriter writer = getRequestEntityWriter(request);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            writer.writeRequestEntity(out);
+        } catch (IOException e) {
+            throw new ClientHandlerException(e);
+        }
+
+        final ByteArrayEntity entity = new ByteArrayEntity(out.toByteArray());
+        if(!request.getHeaders().containsKey(HttpHeaders.CONTENT_TYPE) && writer.getMediaType() != null){
+            entity.setContentType(writer.getMediaType().toString());
+        }
+
+        return entity;
+    }
+
+    /**
+     * Request without body
+     */
+    private static class GrapesRequest extends HttpRequestBase {
+        private final String method;
+
+        private GrapesRequest(final String method, final URI uri) {
+            this.method = method;
+            setURI(uri);
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+    }
+
+    /**
+     * Request with a body
+     */
+    private static class GrapesEntityRequest extends HttpEntityEnclosingRequestBase {
+        private final String method;
+
+        private GrapesEntityRequest(final String method, final URI uri) {
+            this.method = method;
+            setURI(uri);
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+    }
+}
@@ -33,6 +33,12 @@ public final class RequestUtils {
         return path.toString();
     }
 
+    public static String organizationResourcePath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(ServerAPI.ORGANIZATION_RESOURCE);
+        return path.toString();
+    }
+
     public static String getModulePath(final String name, final String version) {
         final StringBuilder path = new StringBuilder();
         path.append(moduleResourcePath());
@@ -52,6 +58,30 @@ public final class RequestUtils {
         return path.toString();
     }
 
+    public static String getModuleNamesPath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(moduleResourcePath());
+        path.append(ServerAPI.GET_NAMES);
+
+        return path.toString();
+    }
+
+    public static String getModulesBulkPath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(moduleResourcePath());
+        path.append(ServerAPI.BULK);
+
+        return path.toString();
+    }
+
+    public static String getArtifactsBulkPath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(artifactResourcePath());
+        path.append(ServerAPI.BULK);
+
+        return path.toString();
+    }
+
     public static String getModuleVersionsPath(final String name) {
         final StringBuilder path = new StringBuilder();
         path.append(moduleResourcePath());
@@ -153,6 +183,14 @@ public final class RequestUtils {
         return path.toString();
     }
 
+    public static String getArtifactGavcsPath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(artifactResourcePath());
+        path.append(ServerAPI.GET_GAVCS);
+
+        return path.toString();
+    }
+
     public static String getDoNotUseArtifact(final String gavc) {
         final StringBuilder path = new StringBuilder();
         path.append(artifactResourcePath());
@@ -203,4 +241,19 @@ public final class RequestUtils {
         return path.toString();
     }
 
+    public static String getChangesPath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(ServerAPI.CHANGES_RESOURCE);
+
+        return path.toString();
+    }
+
+    public static String getLastChangePath() {
+        final StringBuilder path = new StringBuilder();
+        path.append(ServerAPI.CHANGES_RESOURCE);
+        path.append(ServerAPI.GET_LAST_SEQUENCE);
+
+        return path.toString();
+    }
+
 }
@@ -2,6 +2,7 @@ package org.axway.grapes.utils.client;
 
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.google.common.collect.Lists;
+import com.sun.jersey.api.client.ClientHandlerException;
 import com.sun.jersey.api.client.ClientResponse.Status;
 import org.axway.grapes.commons.api.ServerAPI;
 import org.axway.grapes.commons.datamodel.*;
@@ -14,7 +15,10 @@ import javax.naming.AuthenticationException;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.junit.Assert.*;
@@ -139,6 +143,48 @@ public class GrapesClientTest {
         assertEquals(Status.NOT_ACCEPTABLE.getStatusCode(), exception.getHttpStatus());
     }
 
+    @Test
+    public void postModules() throws IOException, AuthenticationException, GrapesCommunicationException{
+        final Module module1 = DataModelFactory.createModule("module1", "1.0.0-SNAPSHOT");
+        final Module module2 = DataModelFactory.createModule("module2", null);
+        final List<BulkItemStatus> statuses = Lists.newArrayList(
+                DataModelFactory.createBulkItemStatus("module1:1.0.0-SNAPSHOT", Status.CREATED.getStatusCode(), null),
+                DataModelFactory.createBulkItemStatus("module2:null", Status.BAD_REQUEST.getStatusCode(), "Module version cannot be null or empty!"));
+
+        stubFor(post(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BULK))
+                .withRequestBody(equalTo(JsonUtils.serialize(Lists.newArrayList(module1, module2))))
+                .willReturn(aResponse()
+                        .withStatus(207)
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(statuses))));
+
+        final List<BulkItemStatus> results = client.postModules(Lists.newArrayList(module1, module2), "user", "password");
+
+        assertEquals(2, results.size());
+        assertEquals("module1:1.0.0-SNAPSHOT", results.get(0).getId());
+        assertEquals(Status.CREATED.getStatusCode(), results.get(0).getStatus());
+        assertEquals(Status.BAD_REQUEST.getStatusCode(), results.get(1).getStatus());
+        assertEquals("Module version cannot be null or empty!", results.get(1).getMessage());
+    }
+
+    @Test
+    public void postModulesFailed() throws AuthenticationException{
+        stubFor(post(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.BULK))
+                .willReturn(aResponse()
+                        .withStatus(Status.BAD_REQUEST.getStatusCode())));
+
+        GrapesCommunicationException exception = null;
+
+        try{
+            client.postModules(Lists.newArrayList(DataModelFactory.createModule(null, null)), "user", "password");
+        }catch (GrapesCommunicationException e) {
+            exception = e;
+        }
+
+        assertNotNull(exception);
+        assertEquals(Status.BAD_REQUEST.getStatusCode(), exception.getHttpStatus());
+    }
+
     @Test
     public void deleteModule(){
         String moduleName = "module";
@@ -214,6 +260,32 @@ public class GrapesClientTest {
         assertEquals(module1, module2);
     }
 
+    @Test
+    public void getModuleTwiceSendsAConditionalRequest() throws IOException, GrapesCommunicationException{
+        final GrapesClient conditionalClient = new GrapesClient("127.0.0.1", serverPort);
+        final String modulePath = "/" + ServerAPI.MODULE_RESOURCE + "/taggedModule/1.0.0";
+        final Module module = DataModelFactory.createModule("taggedModule", "1.0.0");
+
+        stubFor(get(urlEqualTo(modulePath))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withHeader(HttpHeaders.ETAG, "\"tag1\"")
+                        .withBody(JsonUtils.serialize(module))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo(modulePath))
+                .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"tag1\""))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.ETAG, "\"tag1\"")
+                        .withStatus(Status.NOT_MODIFIED.getStatusCode())));
+
+        assertEquals(module, conditionalClient.getModule("taggedModule", "1.0.0"));
+        verify(getRequestedFor(urlEqualTo(modulePath)).withoutHeader(HttpHeaders.IF_NONE_MATCH));
+
+        // the server answers 304, the kept response is given back
+        assertEquals(module, conditionalClient.getModule("taggedModule", "1.0.0"));
+        verify(getRequestedFor(urlEqualTo(modulePath)).withHeader(HttpHeaders.IF_NONE_MATCH, equalTo("\"tag1\"")));
+    }
+
     @Test
     public void getModuleNotFound(){
         String moduleName = "module";
@@ -261,6 +333,55 @@ public class GrapesClientTest {
         assertEquals(module1, modules.get(0));
     }
 
+    @Test
+    public void iterateModuleNames() throws IOException, GrapesCommunicationException {
+        final String namesPath = "/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_NAMES + "?" + ServerAPI.PROMOTED_PARAM + "=true&" + ServerAPI.PAGE_LIMIT_PARAM + "=2";
+
+        stubFor(get(urlEqualTo(namesPath))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withHeader(ServerAPI.NEXT_PAGE_HEADER, "module2")
+                        .withBody(JsonUtils.serialize(Lists.newArrayList("module1", "module2")))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo(namesPath + "&" + ServerAPI.PAGE_AFTER_PARAM + "=module2"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(Lists.newArrayList("module3")))
+                        .withStatus(Status.OK.getStatusCode())));
+
+        final Iterator<String> names = client.iterateModuleNames(Collections.singletonMap(ServerAPI.PROMOTED_PARAM, "true"), 2);
+        assertEquals(Lists.newArrayList("module1", "module2", "module3"), Lists.newArrayList(names));
+        assertFalse(names.hasNext());
+    }
+
+    @Test
+    public void iterateModulesFailsOnTheNextPage() throws IOException, GrapesCommunicationException {
+        final String modulesPath = "/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_ALL + "?" + ServerAPI.PAGE_LIMIT_PARAM + "=1";
+        final Module module = DataModelFactory.createModule("module", "1.0.0");
+
+        stubFor(get(urlEqualTo(modulesPath))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withHeader(ServerAPI.NEXT_PAGE_HEADER, "module:1.0.0")
+                        .withBody(JsonUtils.serialize(Collections.singletonList(module)))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo(modulesPath + "&" + ServerAPI.PAGE_AFTER_PARAM + "=module:1.0.0"))
+                .willReturn(aResponse()
+                        .withStatus(Status.INTERNAL_SERVER_ERROR.getStatusCode())));
+
+        final Iterator<Module> modules = client.iterateModules(Collections.<String, String>emptyMap(), 1);
+        assertEquals(module, modules.next());
+
+        IllegalStateException exception = null;
+        try{
+            modules.hasNext();
+        }catch (IllegalStateException e) {
+            exception = e;
+        }
+        assertNotNull(exception);
+        assertEquals(Status.INTERNAL_SERVER_ERROR.getStatusCode(), ((GrapesCommunicationException)exception.getCause()).getHttpStatus());
+    }
+
     @Test
     public void getModulesNotFound() throws IOException{
         stubFor(get(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_ALL + "?test=test.test"))
@@ -472,6 +593,26 @@ public class GrapesClientTest {
         assertNull(exception);
     }
 
+    @Test
+    public void postArtifacts() throws IOException, AuthenticationException, GrapesCommunicationException{
+        final Artifact artifact = DataModelFactory.createArtifact("com.axway.test", "artifact1", "1.0.0-SNAPSHOT", "win32", "jar", "jar");
+        final List<BulkItemStatus> statuses = Lists.newArrayList(
+                DataModelFactory.createBulkItemStatus("com.axway.test:artifact1:1.0.0-SNAPSHOT:win32:jar", Status.CREATED.getStatusCode(), null));
+
+        stubFor(post(urlEqualTo("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.BULK))
+                .withRequestBody(equalTo(JsonUtils.serialize(Lists.newArrayList(artifact))))
+                .willReturn(aResponse()
+                        .withStatus(Status.CREATED.getStatusCode())
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(statuses))));
+
+        final List<BulkItemStatus> results = client.postArtifacts(Lists.newArrayList(artifact), "user", "password");
+
+        assertEquals(1, results.size());
+        assertEquals("com.axway.test:artifact1:1.0.0-SNAPSHOT:win32:jar", results.get(0).getId());
+        assertEquals(Status.CREATED.getStatusCode(), results.get(0).getStatus());
+    }
+
     @Test
     public void postWrongArtifact() throws IOException{
         Artifact artifact1 = DataModelFactory.createArtifact("com.axway.test", "artifact1", "1.0.0-SNAPSHOT", "win32",  "jar", "");
@@ -877,6 +1018,27 @@ public class GrapesClientTest {
         assertNotNull(exception);
     }
 
+    @Test
+    public void postOrganization() throws IOException{
+        final Organization organization = DataModelFactory.createOrganization("organization");
+        organization.getCorporateGroupIdPrefixes().add("org.test");
+
+        stubFor(post(urlEqualTo("/" + ServerAPI.ORGANIZATION_RESOURCE))
+                .withRequestBody(equalTo(JsonUtils.serialize(organization)))
+                .willReturn(aResponse()
+                        .withStatus(Status.CREATED.getStatusCode())));
+
+        Exception exception = null;
+
+        try{
+            client.postOrganization(organization, "user", "password");
+
+        }catch (Exception e) {
+            exception = e;
+        }
+        assertNull(exception);
+    }
+
     @Test
     public void deleteLicense(){
         License license = DataModelFactory.createLicense("test", "longName", "comments", "regexp", "url");
@@ -1219,4 +1381,247 @@ public class GrapesClientTest {
 
         assertNotNull(exception);
     }
+
+    @Test
+    public void getChanges() throws IOException, GrapesCommunicationException {
+        final ChangeEvent change = DataModelFactory.createChangeEvent(3L, ChangeEvent.ARTIFACT, "com.axway.test:artifact:1.0.0::jar", ChangeEvent.UPDATE);
+        stubFor(get(urlEqualTo("/" + ServerAPI.CHANGES_RESOURCE + "?" + ServerAPI.SINCE_PARAM + "=2&" + ServerAPI.PAGE_LIMIT_PARAM + "=5"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(Collections.singletonList(change)))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo("/" + ServerAPI.CHANGES_RESOURCE + "?" + ServerAPI.SINCE_PARAM + "=0&" + ServerAPI.PAGE_LIMIT_PARAM + "=5"))
+                .willReturn(aResponse()
+                        .withStatus(Status.GONE.getStatusCode())));
+
+        final List<ChangeEvent> changes = client.getChanges(2L, 5);
+        assertEquals(1, changes.size());
+        assertEquals(3L, changes.get(0).getSequence());
+        assertEquals(ChangeEvent.ARTIFACT, changes.get(0).getEntityType());
+        assertEquals(change.getEntityId(), changes.get(0).getEntityId());
+        assertEquals(ChangeEvent.UPDATE, changes.get(0).getOperation());
+
+        GrapesCommunicationException exception = null;
+        try {
+            client.getChanges(0L, 5);
+        } catch (GrapesCommunicationException e) {
+            exception = e;
+        }
+        assertNotNull(exception);
+        assertEquals(Status.GONE.getStatusCode(), exception.getHttpStatus());
+    }
+
+    @Test
+    public void mirrorFollowsTheChanges() throws IOException, GrapesCommunicationException {
+        final String changesPath = "/" + ServerAPI.CHANGES_RESOURCE + "?" + ServerAPI.SINCE_PARAM + "=";
+        final String pageLimit = "&" + ServerAPI.PAGE_LIMIT_PARAM + "=10";
+        final Module module = DataModelFactory.createModule("mirrored", "1.0.0");
+        final Artifact artifact1 = DataModelFactory.createArtifact("com.axway.test", "mirrored1", "1.0.0", "", "jar", "jar");
+        final Artifact artifact2 = DataModelFactory.createArtifact("com.axway.test", "mirrored2", "1.0.0", "", "jar", "jar");
+
+        // first sync: everything is read
+        stubFor(get(urlEqualTo("/" + ServerAPI.CHANGES_RESOURCE + ServerAPI.GET_LAST_SEQUENCE))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody("5")
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + ServerAPI.GET_ALL + "?" + ServerAPI.PAGE_LIMIT_PARAM + "=10"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(Collections.singletonList(module)))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo("/" + ServerAPI.ARTIFACT_RESOURCE + ServerAPI.GET_ALL + "?" + ServerAPI.PAGE_LIMIT_PARAM + "=10"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(Collections.singletonList(artifact1)))
+                        .withStatus(Status.OK.getStatusCode())));
+
+        final GrapesMirror mirror = client.createMirror(10);
+        assertEquals(2, mirror.sync());
+        assertEquals(5L, mirror.getSequence());
+        assertEquals(module, mirror.getModule("mirrored", "1.0.0"));
+        assertEquals(artifact1, mirror.getArtifact(artifact1.getGavc()));
+
+        // next sync: only the changed elements are read
+        final Module promotedModule = DataModelFactory.createModule("mirrored", "1.0.0");
+        promotedModule.setPromoted(true);
+        stubFor(get(urlEqualTo(changesPath + "5" + pageLimit))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(Lists.newArrayList(
+                                DataModelFactory.createChangeEvent(6L, ChangeEvent.MODULE, "mirrored:1.0.0", ChangeEvent.UPDATE),
+                                DataModelFactory.createChangeEvent(7L, ChangeEvent.ARTIFACT, artifact1.getGavc(), ChangeEvent.DELETE),
+                                DataModelFactory.createChangeEvent(8L, ChangeEvent.ARTIFACT, artifact2.getGavc(), ChangeEvent.STORE),
+                                DataModelFactory.createChangeEvent(9L, ChangeEvent.LICENSE, "license", ChangeEvent.STORE))))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo(changesPath + "9" + pageLimit))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody("[]")
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo("/" + RequestUtils.getModulePath("mirrored", "1.0.0")))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(promotedModule))
+                        .withStatus(Status.OK.getStatusCode())));
+        stubFor(get(urlEqualTo("/" + RequestUtils.getArtifactPath(artifact2.getGavc())))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(artifact2))
+                        .withStatus(Status.OK.getStatusCode())));
+
+        assertEquals(2, mirror.sync());
+        assertEquals(9L, mirror.getSequence());
+        assertTrue(mirror.getModule("mirrored", "1.0.0").isPromoted());
+        assertNull(mirror.getArtifact(artifact1.getGavc()));
+        assertEquals(artifact2, mirror.getArtifact(artifact2.getGavc()));
+
+        // the server no longer has the changes: everything is read again
+        stubFor(get(urlEqualTo(changesPath + "9" + pageLimit))
+                .willReturn(aResponse()
+                        .withStatus(Status.GONE.getStatusCode())));
+        stubFor(get(urlEqualTo("/" + ServerAPI.CHANGES_RESOURCE + ServerAPI.GET_LAST_SEQUENCE))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody("20")
+                        .withStatus(Status.OK.getStatusCode())));
+
+        assertEquals(2, mirror.sync());
+        assertEquals(20L, mirror.getSequence());
+        assertEquals(artifact1, mirror.getArtifact(artifact1.getGavc()));
+        assertNull(mirror.getArtifact(artifact2.getGavc()));
+    }
+
+    @Test
+    public void connectionsAreReused() throws IOException, InterruptedException, GrapesCommunicationException {
+        final Module module = DataModelFactory.createModule("pooled", "1.0.0");
+        stubFor(get(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + "/pooled/1.0.0"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(module))
+                        .withStatus(Status.OK.getStatusCode())));
+
+        final GrapesClient pooledClient = new GrapesClient("127.0.0.1", serverPort);
+        pooledClient.setMaxConnections(2);
+        assertEquals(0, pooledClient.getOpenConnections());
+
+        try {
+            for(int i = 0; i < 10; i++){
+                assertEquals(module, pooledClient.getModule("pooled", "1.0.0"));
+            }
+            assertEquals(1, pooledClient.getOpenConnections());
+
+            final List<Future<Module>> futures = new ArrayList<Future<Module>>();
+            for(int i = 0; i < 10; i++){
+                futures.add(pooledClient.getModuleAsync("pooled", "1.0.0"));
+            }
+            for(Future<Module> future: futures){
+                assertEquals(module, future.get());
+            }
+            assertTrue(pooledClient.getOpenConnections() <= 2);
+        } catch (ExecutionException e) {
+            fail(e.getMessage());
+        } finally {
+            pooledClient.close();
+        }
+
+        assertEquals(0, pooledClient.getOpenConnections());
+    }
+
+    @Test
+    public void failedResponsesReleaseTheirConnection() throws IOException {
+        stubFor(get(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + "/failing/1.0.0"))
+                .willReturn(aResponse()
+                        .withBody("Module not found")
+                        .withStatus(Status.NOT_FOUND.getStatusCode())));
+
+        final GrapesClient pooledClient = new GrapesClient("127.0.0.1", serverPort);
+        pooledClient.setMaxConnections(1);
+        pooledClient.setTimeout(1000);
+
+        try {
+            for(int i = 0; i < 3; i++){
+                try {
+                    pooledClient.getModule("failing", "1.0.0");
+                    fail("The module should not be found");
+                } catch (GrapesCommunicationException e) {
+                    assertEquals(Status.NOT_FOUND.getStatusCode(), e.getHttpStatus());
+                }
+            }
+            assertEquals(1, pooledClient.getOpenConnections());
+        } finally {
+            pooledClient.close();
+        }
+    }
+
+    @Test
+    public void settingsChangesKeepTheOpenConnections() throws IOException, GrapesCommunicationException {
+        final Module module = DataModelFactory.createModule("settings", "1.0.0");
+        stubFor(get(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + "/settings/1.0.0"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(module))
+                        .withStatus(Status.OK.getStatusCode())));
+
+        final GrapesClient pooledClient = new GrapesClient("127.0.0.1", serverPort);
+
+        try {
+            assertEquals(module, pooledClient.getModule("settings", "1.0.0"));
+            assertEquals(1, pooledClient.getOpenConnections());
+
+            pooledClient.setTimeout(2000);
+            pooledClient.setReadTimeout(2000);
+            pooledClient.setMaxConnections(5);
+            assertEquals(1, pooledClient.getOpenConnections());
+
+            assertEquals(module, pooledClient.getModule("settings", "1.0.0"));
+            assertEquals(1, pooledClient.getOpenConnections());
+        } finally {
+            pooledClient.close();
+        }
+    }
+
+    @Test
+    public void asyncCallFailure() throws InterruptedException {
+        stubFor(get(urlEqualTo("/" + ServerAPI.ARTIFACT_RESOURCE + "/missing:artifact:1.0.0::jar"))
+                .willReturn(aResponse()
+                        .withStatus(Status.NOT_FOUND.getStatusCode())));
+
+        Exception exception = null;
+        try {
+            client.getArtifactAsync("missing:artifact:1.0.0::jar").get();
+        } catch (ExecutionException e) {
+            exception = e;
+        }
+
+        assertNotNull(exception);
+        assertTrue(exception.getCause() instanceof GrapesCommunicationException);
+        assertEquals(Status.NOT_FOUND.getStatusCode(), ((GrapesCommunicationException) exception.getCause()).getHttpStatus());
+    }
+
+    @Test
+    public void readTimeout() throws IOException, GrapesCommunicationException {
+        final Module module = DataModelFactory.createModule("slow", "1.0.0");
+        stubFor(get(urlEqualTo("/" + ServerAPI.MODULE_RESOURCE + "/slow/1.0.0"))
+                .willReturn(aResponse()
+                        .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+                        .withBody(JsonUtils.serialize(module))
+                        .withFixedDelay(1000)
+                        .withStatus(Status.OK.getStatusCode())));
+
+        final GrapesClient slowClient = new GrapesClient("127.0.0.1", serverPort);
+        slowClient.setReadTimeout(100);
+
+        Exception exception = null;
+        try {
+            slowClient.getModule("slow", "1.0.0");
+        } catch (ClientHandlerException e) {
+            exception = e;
+        } finally {
+            slowClient.close();
+        }
+
+        assertNotNull(exception);
+        assertTrue(exception.getCause() instanceof SocketTimeoutException);
+    }
 }